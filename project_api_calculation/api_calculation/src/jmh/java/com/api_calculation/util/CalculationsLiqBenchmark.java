@@ -0,0 +1,112 @@
+package com.api_calculation.util;
+
+import com.compartido.util.TablaAforoIndice;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks JMH del calculo API MPMS 11.1 de {@link CalculationsLiq}, del motor de una sola pasada,
+ * del motor de punto fijo comparado con la misma cadena en BigDecimal, y del calculo inverso NSV
+ * a gauge. El mapper completo se mide en {@link CalculationsLiqMapperBenchmark}.
+ *
+ * <p>Ejecutar con {@code mvn -Pjmh test-compile exec:exec}; el resultado queda en
+ * {@code target/jmh-result.json} junto con la tasa de asignacion del perfilador GC.</p>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CalculationsLiqBenchmark {
+
+    /**
+     * Grupo de producto y banda de densidad: B1 (d60 &lt; 770.352), B2 (&lt; 787.5195),
+     * B3 (&lt; 838.3127) y B4 (&lt; 1163.5).
+     */
+    @Param({"A", "B1", "B2", "B3", "B4", "D"})
+    public String grupo;
+
+    private CalculationsLiq calculationsLiq;
+    private CalculationsLiqResult resultado;
+    private TablaAforoIndice tablaAforo;
+
+    private String abd;
+    private double api60;
+
+    @Setup
+    public void setup() {
+        abd = grupo.substring(0, 1);
+        switch (grupo) {
+            case "B1": api60 = 60; break;
+            case "B2": api60 = 50; break;
+            case "B3": api60 = 42; break;
+            case "B4": api60 = 25; break;
+            default: api60 = 30;
+        }
+
+        calculationsLiq = new CalculationsLiq(abd, 1500, 250000, 10, 800, 21, 12.21, 60, 88.4, 75, api60, 0.25);
+        resultado = new CalculationsLiqResult();
+
+        // Millimetre strapping table of 16 m
+        double[] niveles = new double[16001];
+        double[] volumenes = new double[16001];
+        for (int i = 1; i < niveles.length; i++) {
+            niveles[i] = i;
+            volumenes[i] = volumenes[i - 1] + 28.05 + (i / 2000) * 0.02;
+        }
+        tablaAforo = new TablaAforoIndice(niveles, volumenes, null, null, 0, 0);
+    }
+
+    @Benchmark
+    public double ctl() {
+        return calculationsLiq.ctl();
+    }
+
+    @Benchmark
+    public double apiObs() {
+        return calculationsLiq.apiObs();
+    }
+
+    @Benchmark
+    public double ctsh() {
+        return calculationsLiq.ctsh();
+    }
+
+    @Benchmark
+    public double gov() {
+        return calculationsLiq.gov();
+    }
+
+    @Benchmark
+    public double gsv() {
+        return calculationsLiq.gsv();
+    }
+
+    @Benchmark
+    public double nsv() {
+        return calculationsLiq.nsv();
+    }
+
+    @Benchmark
+    public CalculationsLiqResult motorUnaPasada() {
+        return CalculationsLiqEngine.liquidar(abd, 250000, 800, 21, 12.21, 60, 88.4, 75, api60, 0.25, resultado);
+    }
+
+    @Benchmark
+    public CalculationsLiqResult motorPuntoFijo() {
+        return CalculationsLiqFijo.liquidar(abd, 250000, 800, 21, 12.21, 60, 88.4, 75, api60, 0.25, resultado);
+    }
+
+    @Benchmark
+    public CalculationsLiqResult motorBigDecimal() {
+        return CalculationsLiqDecimal.liquidar(abd, 250000, 800, 21, 12.21, 60, 88.4, 75, api60, 0.25, resultado);
+    }
+
+    @Benchmark
+    public double inversoGauge() {
+        return CalculationsLiqInverso.gauge(tablaAforo, 245355.35, CalculationsLiqEngine.codigo(abd), 800, 21, 12.21,
+                60, 88.4, 75, api60, 0.25, resultado);
+    }
+}
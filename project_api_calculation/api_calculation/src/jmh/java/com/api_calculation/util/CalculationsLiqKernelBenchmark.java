@@ -0,0 +1,65 @@
+package com.api_calculation.util;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara el kernel escalar de CTL y API observado con {@link CalculationsLiqKernel#disponible()} sobre
+ * las mismas columnas.
+ *
+ * <p>Para medir el kernel SIMD: {@code mvn -Pjmh,vector test-compile exec:exec
+ * -Djmh.args="CalculationsLiqKernelBenchmark -jvmArgsAppend --add-modules=jdk.incubator.vector -prof gc"}.
+ * Sin esos parametros ambos benchmarks usan el kernel escalar.</p>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CalculationsLiqKernelBenchmark {
+
+    @Param({"1024", "65536"})
+    public int lecturas;
+
+    private byte[] grupo;
+    private double[] api60;
+    private double[] tempL;
+    private double[] ctl;
+    private double[] apiObs;
+
+    private CalculationsLiqKernel escalar;
+    private CalculationsLiqKernel disponible;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        byte[] grupos = {'A', 'B', 'D'};
+        grupo = new byte[lecturas];
+        api60 = new double[lecturas];
+        tempL = new double[lecturas];
+        ctl = new double[lecturas];
+        apiObs = new double[lecturas];
+        for (int i = 0; i < lecturas; i++) {
+            grupo[i] = grupos[random.nextInt(grupos.length)];
+            api60[i] = 7 + random.nextDouble() * 83;
+            tempL[i] = random.nextDouble() * 140;
+        }
+        escalar = new CalculationsLiqKernelEscalar();
+        disponible = CalculationsLiqKernel.disponible();
+    }
+
+    @Benchmark
+    public double[] escalar() {
+        escalar.ctlApiObs(grupo, api60, tempL, ctl, apiObs, 0, lecturas);
+        return ctl;
+    }
+
+    @Benchmark
+    public double[] disponible() {
+        disponible.ctlApiObs(grupo, api60, tempL, ctl, apiObs, 0, lecturas);
+        return ctl;
+    }
+}
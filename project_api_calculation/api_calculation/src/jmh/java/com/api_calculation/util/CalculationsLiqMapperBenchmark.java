@@ -0,0 +1,128 @@
+package com.api_calculation.util;
+
+import com.api_calculation.client.TankClientCache;
+import com.api_calculation.client.TankClientFallback;
+import com.api_calculation.client.TankClientLotes;
+import com.api_calculation.client.TankClientRest;
+import com.api_calculation.mapper.LiquidacionInDTOToLiquidacion;
+import com.api_calculation.persistence.entity.Liquidacion;
+import com.api_calculation.persistence.entity.Tank;
+import com.api_calculation.service.dto.ConsultaAforoInDTO;
+import com.api_calculation.service.dto.ConsultaAforoOutDTO;
+import com.api_calculation.service.dto.LiquidacionInDTO;
+import com.api_calculation.service.dto.TablaAforoDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark JMH del mapper completo de una liquidacion, con un {@link TankClientRest} simulado detras de su cache,
+ * con y sin {@link CalculationsLiqCache}.
+ *
+ * <p>Ejecutar con {@code mvn -Pjmh test-compile exec:exec -Djmh.args="CalculationsLiqMapperBenchmark -prof gc"}.</p>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CalculationsLiqMapperBenchmark {
+
+    /**
+     * Grupo de producto y banda de densidad, como en {@link CalculationsLiqBenchmark}.
+     */
+    @Param({"A", "B1", "B2", "B3", "B4", "D"})
+    public String grupo;
+
+    /**
+     * Whether the mapper takes CTL and API observed from {@link CalculationsLiqCache}.
+     */
+    @Param({"false", "true"})
+    public boolean cache;
+
+    private TankClientLotes tankClientLotes;
+    private TankClientCache tankClientCache;
+    private LiquidacionInDTOToLiquidacion mapper;
+    private LiquidacionInDTO in;
+
+    @Setup
+    public void setup() {
+        double api60;
+        switch (grupo) {
+            case "B1": api60 = 60; break;
+            case "B2": api60 = 50; break;
+            case "B3": api60 = 42; break;
+            case "B4": api60 = 25; break;
+            default: api60 = 30;
+        }
+
+        Tank tank = new Tank();
+        tank.setId(1L);
+        tank.setNombreTk("501");
+        tank.setTempLamina(60);
+        tank.setFra1(21);
+        tank.setFra2(12.21);
+        TankClientRest tankClientRest = new TankClientRest() {
+            @Override
+            public List<Tank> findAll() {
+                return Collections.singletonList(tank);
+            }
+
+            @Override
+            public Optional<Tank> findById(Long id) {
+                return Optional.of(tank);
+            }
+
+            @Override
+            public List<Tank> findAllById(Collection<Long> ids) {
+                return Collections.singletonList(tank);
+            }
+
+            @Override
+            public ConsultaAforoOutDTO volumenes(ConsultaAforoInDTO consulta) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public Optional<TablaAforoDTO> findTablaAforo(Long id, String tipo) {
+                throw new UnsupportedOperationException();
+            }
+        };
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        TankClientFallback tankClientFallback = new TankClientFallback(registry);
+        tankClientLotes = new TankClientLotes(tankClientRest, tankClientFallback, 5, 100, 1, 100, 3000, registry);
+        tankClientCache = new TankClientCache(tankClientLotes, 600, 604800, 1000, 2, 100, registry);
+        CalculationsLiqCache calculationsLiqCache = new CalculationsLiqCache(cache, 10000, registry);
+        mapper = new LiquidacionInDTOToLiquidacion(tankClientCache, calculationsLiqCache, false);
+
+        in = new LiquidacionInDTO();
+        in.setABD(grupo.substring(0, 1));
+        in.setGauge(1500);
+        in.setTov(250000);
+        in.setWaterGauge(10);
+        in.setWaterTov(800);
+        in.setTempL(88.4);
+        in.setTAmb(75);
+        in.setWater(0.15);
+        in.setSediment(0.1);
+        in.setApi(api60);
+        in.setIdTank(1L);
+    }
+
+    @TearDown
+    public void tearDown() {
+        tankClientCache.cerrar();
+        tankClientLotes.cerrar();
+    }
+
+    @Benchmark
+    public Liquidacion mapperCompleto() {
+        return mapper.map(in);
+    }
+}
@@ -1,12 +1,15 @@
 package com.api_calculation;
 
+import com.api_calculation.context.TankClientRibbonConfig;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cloud.netflix.eureka.EnableEurekaClient;
+import org.springframework.cloud.netflix.ribbon.RibbonClient;
 import org.springframework.cloud.openfeign.EnableFeignClients;
 
 
 @EnableFeignClients
+@RibbonClient(name = "ms-infotank", configuration = TankClientRibbonConfig.class)
 @EnableEurekaClient
 @SpringBootApplication
 public class ApiCalculationApplication {
@@ -0,0 +1,83 @@
+package com.api_calculation.client;
+
+import com.netflix.client.config.IClientConfig;
+import com.netflix.loadbalancer.AbstractLoadBalancerRule;
+import com.netflix.loadbalancer.BaseLoadBalancer;
+import com.netflix.loadbalancer.ILoadBalancer;
+import com.netflix.loadbalancer.Server;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+/**
+ * @author Abelardo Orozco
+ * Regla de Ribbon que elige la instancia de ms-infotank para cada llamada, en lugar del round robin.
+ *
+ * <p>De las instancias registradas en Eureka que no estan expulsadas se toman dos al azar y se elige la de menor
+ * {@link TankClientInstancias#carga(String)}, es decir la que tiene menor latencia reciente por llamadas en curso.
+ * Comparar solo dos evita que todas las llamadas de un momento se vayan a la misma instancia mientras sus
+ * estadisticas se actualizan. Si todas estan expulsadas se elige entre todas. Cada vez que cambian las instancias
+ * registradas se descartan las estadisticas de las que salieron.</p>
+ */
+public class TankClientBalanceo extends AbstractLoadBalancerRule {
+
+    private final TankClientInstancias tankClientInstancias;
+
+    /**
+     * Constructor to initialize the rule with the statistics of the instances.
+     *
+     * @param tankClientInstancias Latency, calls in course and ejections of each instance.
+     */
+    public TankClientBalanceo(TankClientInstancias tankClientInstancias) {
+        this.tankClientInstancias = tankClientInstancias;
+    }
+
+    @Override
+    public void initWithNiwsConfig(IClientConfig clientConfig) {
+        // Everything is configured in TankClientInstancias
+    }
+
+    @Override
+    public void setLoadBalancer(ILoadBalancer balanceador) {
+        super.setLoadBalancer(balanceador);
+        if (balanceador instanceof BaseLoadBalancer) {
+            ((BaseLoadBalancer) balanceador).addServerListChangeListener((anteriores, vigentes) ->
+                    tankClientInstancias.conservar(vigentes.stream().map(Server::getHostPort).collect(Collectors.toSet())));
+        }
+    }
+
+    @Override
+    public Server choose(Object key) {
+        ILoadBalancer balanceador = getLoadBalancer();
+        return balanceador == null ? null : elegir(balanceador.getReachableServers());
+    }
+
+    /**
+     * Method to choose the less loaded of two random instances among the ones not ejected.
+     */
+    Server elegir(List<Server> servidores) {
+        List<Server> candidatos = new ArrayList<>(servidores.size());
+        for (Server servidor : servidores) {
+            if (tankClientInstancias.disponible(servidor.getHostPort())) {
+                candidatos.add(servidor);
+            }
+        }
+        if (candidatos.isEmpty()) {
+            candidatos = servidores;
+        }
+        if (candidatos.size() <= 1) {
+            return candidatos.isEmpty() ? null : candidatos.get(0);
+        }
+        ThreadLocalRandom azar = ThreadLocalRandom.current();
+        int primero = azar.nextInt(candidatos.size());
+        int segundo = azar.nextInt(candidatos.size() - 1);
+        if (segundo >= primero) {
+            segundo++;
+        }
+        Server uno = candidatos.get(primero);
+        Server otro = candidatos.get(segundo);
+        return tankClientInstancias.carga(uno.getHostPort()) <= tankClientInstancias.carga(otro.getHostPort()) ? uno : otro;
+    }
+}
@@ -0,0 +1,161 @@
+package com.api_calculation.client;
+
+import com.api_calculation.persistence.entity.Tank;
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.netflix.hystrix.exception.HystrixRuntimeException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author Abelardo Orozco
+ * Cache local de los tanques de ms-infotank, para no consultar el servicio en cada liquidacion.
+ *
+ * <p>Un tanque se vuelve a consultar en segundo plano cuando su entrada tiene mas de
+ * {@code liquidacion.tank-cache.refresh} segundos, mientras tanto se sigue usando la anterior. Si ms-infotank no
+ * responde la entrada anterior se conserva, hasta que cumple {@code liquidacion.tank-cache.expire} segundos; si
+ * responde que el tanque ya no existe, se descarta. Las consultas a ms-infotank pasan por {@link TankClientLotes},
+ * asi que las de varios tanques que faltan a la vez se hacen en una sola llamada. ms-infotank avisa cuando
+ * actualiza o elimina un tanque llamando a {@link com.api_calculation.controller.TankCacheController}, asi que el
+ * refresco solo cubre los avisos perdidos. Los aciertos, fallos y errores de consulta se publican en Actuator como metricas
+ * {@code cache.*} con la etiqueta {@code cache=liquidacion.tank}.</p>
+ *
+ * <p>Los refrescos pueden esperar a ms-infotank hasta {@code liquidacion.tank-lotes.espera} milisegundos, asi que
+ * corren en sus propios {@code liquidacion.tank-cache.hilos} hilos y no en el pool comun que usan los lotes y
+ * los barridos. Los refrescos que esperan un hilo son maximo {@code liquidacion.tank-cache.cola}; uno que no cabe
+ * conserva la entrada anterior y se intenta de nuevo en la siguiente consulta del tanque.</p>
+ */
+@Component
+public class TankClientCache {
+
+    private final TankClientLotes tankClientLotes;
+    private final LoadingCache<Long, Tank> cache;
+    private final Executor refrescos;
+
+    /**
+     * Constructor to initialize the cache and register its metrics.
+     *
+     * @param tankClientLotes Client that merges the lookups of tanks in batches.
+     * @param refresco seconds after which a tank is fetched again, serving the cached one meanwhile
+     * @param expiracion seconds after which a tank that could not be fetched again is no longer served
+     * @param tamanoMaximo maximum number of tanks kept in the cache
+     * @param hilos number of threads that refresh the tanks
+     * @param cola maximum number of refreshes waiting for a thread
+     * @param meterRegistry registry where the hit, miss and load failure counters are published
+     */
+    @Autowired
+    public TankClientCache(TankClientLotes tankClientLotes,
+                           @Value("${liquidacion.tank-cache.refresh:600}") long refresco,
+                           @Value("${liquidacion.tank-cache.expire:604800}") long expiracion,
+                           @Value("${liquidacion.tank-cache.max-size:1000}") long tamanoMaximo,
+                           @Value("${liquidacion.tank-cache.hilos:2}") int hilos,
+                           @Value("${liquidacion.tank-cache.cola:100}") int cola,
+                           MeterRegistry meterRegistry) {
+        this(tankClientLotes, refresco, expiracion, tamanoMaximo, meterRegistry, Ticker.systemTicker(),
+                refrescos(hilos, cola));
+    }
+
+    /**
+     * Constructor with the clock and the executor of the refreshes, to be replaced in the tests.
+     */
+    TankClientCache(TankClientLotes tankClientLotes, long refresco, long expiracion, long tamanoMaximo,
+                    MeterRegistry meterRegistry, Ticker ticker, Executor executor) {
+        this.tankClientLotes = tankClientLotes;
+        this.refrescos = executor;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(tamanoMaximo)
+                .refreshAfterWrite(refresco, TimeUnit.SECONDS)
+                .expireAfterWrite(expiracion, TimeUnit.SECONDS)
+                .ticker(ticker)
+                .executor(executor)
+                .recordStats()
+                .build(new CacheLoader<Long, Tank>() {
+                    @Override
+                    public Tank load(Long id) {
+                        return tankClientLotes.findById(id).orElse(null);
+                    }
+
+                    @Override
+                    public Map<Long, Tank> loadAll(Iterable<? extends Long> ids) {
+                        List<Long> faltantes = new ArrayList<>();
+                        ids.forEach(faltantes::add);
+                        return tankClientLotes.findAllById(faltantes);
+                    }
+                });
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "liquidacion.tank");
+    }
+
+    /**
+     * Retrieves a tank by its unique identifier, from the cache when it is there.
+     *
+     * @param id the unique identifier of the tank.
+     * @return an {@link Optional} containing the {@link Tank}, which must not be modified, or an empty
+     *         {@link Optional} if ms-infotank does not have it.
+     * @throws HystrixRuntimeException if the tank is not in the cache and ms-infotank does not respond.
+     * @throws TankNoDisponibleException if ms-infotank does not answer in {@code liquidacion.tank-lotes.espera}.
+     */
+    public Optional<Tank> findById(Long id) {
+        return Optional.ofNullable(cache.get(id));
+    }
+
+    /**
+     * Retrieves many tanks, fetching the ones that are not in the cache in a single call.
+     *
+     * @param ids the unique identifiers of the tanks.
+     * @return the tanks found by their ID, which must not be modified; the ones ms-infotank does not have are left out.
+     * @throws HystrixRuntimeException if some tank is not in the cache and ms-infotank does not respond.
+     * @throws TankNoDisponibleException if ms-infotank does not answer in {@code liquidacion.tank-lotes.espera}.
+     */
+    public Map<Long, Tank> findAllById(Collection<Long> ids) {
+        return cache.getAll(ids);
+    }
+
+    /**
+     * Discards a tank, so the next calculation fetches it again.
+     *
+     * @param id the unique identifier of the tank.
+     */
+    public void invalidar(Long id) {
+        cache.invalidate(id);
+    }
+
+    /**
+     * Discards every tank.
+     */
+    public void invalidarTodos() {
+        cache.invalidateAll();
+    }
+
+    @PreDestroy
+    public void cerrar() {
+        if (refrescos instanceof ExecutorService) {
+            ((ExecutorService) refrescos).shutdown();
+        }
+    }
+
+    /**
+     * Method to create the threads of the refreshes. A refresh that does not fit in the queue is rejected, and
+     * Caffeine keeps the previous entry.
+     */
+    static ThreadPoolExecutor refrescos(int hilos, int cola) {
+        return new ThreadPoolExecutor(hilos, hilos, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(cola),
+                TankClientLotes.hilos("tank-cache-refresco"));
+    }
+}
@@ -0,0 +1,135 @@
+package com.api_calculation.client;
+
+import com.api_calculation.persistence.entity.Tank;
+import com.api_calculation.service.dto.ConsultaAforoInDTO;
+import com.api_calculation.service.dto.ConsultaAforoOutDTO;
+import com.api_calculation.service.dto.TablaAforoDTO;
+import feign.hystrix.FallbackFactory;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * @author Abelardo Orozco
+ * Respuesta de {@link TankClientRest} cuando ms-infotank falla, no responde a tiempo, se llena su pool de hilos o
+ * tiene el circuito abierto.
+ *
+ * <p>Guarda el ultimo valor conocido de cada tanque consultado con exito, sin expiracion, y lo entrega mientras
+ * ms-infotank no este disponible; un tanque que ms-infotank avisa que cambio se olvida. Si se piden tanques que
+ * nunca se han consultado, o tablas de aforo y volumenes, se lanza el error original, porque una respuesta vacia
+ * significaria que no existen. Las respuestas entregadas se cuentan en la metrica {@code liquidacion.tank.respaldo}.</p>
+ */
+@Component
+public class TankClientFallback implements FallbackFactory<TankClientRest> {
+
+    private static final Logger log = LoggerFactory.getLogger(TankClientFallback.class);
+
+    private final Map<Long, Tank> conocidos = new ConcurrentHashMap<>();
+    private final Counter respaldos;
+
+    /**
+     * Constructor to register the metric of the answers given with the last known tanks.
+     *
+     * @param meterRegistry registry where the answers are counted
+     */
+    public TankClientFallback(MeterRegistry meterRegistry) {
+        this.respaldos = Counter.builder("liquidacion.tank.respaldo")
+                .description("Respuestas con el ultimo valor conocido de los tanques mientras ms-infotank no responde")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Keeps the tanks answered by ms-infotank as the last known ones.
+     */
+    public void recordar(Collection<Tank> tanques) {
+        tanques.forEach(tank -> conocidos.put(tank.getId(), tank));
+    }
+
+    /**
+     * Retrieves the last known value of a tank, for a call that failed.
+     *
+     * @return an {@link Optional} containing the {@link Tank}, or an empty {@link Optional} if it was never answered.
+     */
+    public Optional<Tank> conocido(Long id) {
+        Optional<Tank> tank = Optional.ofNullable(conocidos.get(id));
+        tank.ifPresent(conocido -> respaldos.increment());
+        return tank;
+    }
+
+    /**
+     * Forgets a tank, after it was updated or deleted.
+     */
+    public void olvidar(Long id) {
+        conocidos.remove(id);
+    }
+
+    /**
+     * Forgets every tank.
+     */
+    public void olvidarTodos() {
+        conocidos.clear();
+    }
+
+    @Override
+    public TankClientRest create(Throwable causa) {
+        return new TankClientRest() {
+            @Override
+            public List<Tank> findAll() {
+                throw fallo(causa);
+            }
+
+            @Override
+            public Optional<Tank> findById(Long id) {
+                Tank tank = conocidos.get(id);
+                if (tank == null) {
+                    throw fallo(causa);
+                }
+                respaldo(causa);
+                return Optional.of(tank);
+            }
+
+            @Override
+            public List<Tank> findAllById(Collection<Long> ids) {
+                List<Tank> tanques = new ArrayList<>(ids.size());
+                for (Long id : ids) {
+                    Tank tank = conocidos.get(id);
+                    if (tank == null) {
+                        throw fallo(causa);
+                    }
+                    tanques.add(tank);
+                }
+                respaldo(causa);
+                return tanques;
+            }
+
+            @Override
+            public ConsultaAforoOutDTO volumenes(ConsultaAforoInDTO consulta) {
+                throw fallo(causa);
+            }
+
+            @Override
+            public Optional<TablaAforoDTO> findTablaAforo(Long id, String tipo) {
+                throw fallo(causa);
+            }
+        };
+    }
+
+    private void respaldo(Throwable causa) {
+        respaldos.increment();
+        log.warn("ms-infotank no disponible, se usan los ultimos tanques conocidos: {}", causa.toString());
+    }
+
+    private static RuntimeException fallo(Throwable causa) {
+        return causa instanceof RuntimeException ? (RuntimeException) causa
+                : new IllegalStateException("ms-infotank no disponible", causa);
+    }
+}
@@ -0,0 +1,212 @@
+package com.api_calculation.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * @author Abelardo Orozco
+ * Estadisticas de cada instancia de ms-infotank, usadas por {@link TankClientBalanceo} para elegir a cual llamar.
+ *
+ * <p>Por cada instancia, identificada como {@code host:puerto}, se llevan las llamadas en curso y un promedio
+ * movil exponencial de la latencia de las respuestas exitosas, donde cada respuesta pesa
+ * {@code liquidacion.tank-balanceo.alfa}. Una instancia que falla {@code liquidacion.tank-balanceo.fallos} veces
+ * seguidas, por error de conexion o respuesta 5xx, queda expulsada durante {@code liquidacion.tank-balanceo.expulsion}
+ * segundos. En Actuator se publican la latencia de las llamadas como {@code liquidacion.tank.instancia}, el promedio
+ * como {@code liquidacion.tank.instancia.ewma}, las llamadas en curso como {@code liquidacion.tank.instancia.activas}
+ * y las expulsiones como {@code liquidacion.tank.instancia.expulsiones}, todas con la etiqueta {@code instancia}.
+ * Cuando una instancia sale de Eureka se descartan sus estadisticas y sus metricas.</p>
+ */
+@Component
+public class TankClientInstancias {
+
+    private static final Logger log = LoggerFactory.getLogger(TankClientInstancias.class);
+
+    private final double alfa;
+    private final int fallosMaximos;
+    private final long expulsion;
+    private final double latenciaInicial;
+    private final MeterRegistry meterRegistry;
+    private final LongSupplier reloj;
+    private final Map<String, Instancia> instancias = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor to initialize the statistics of the instances.
+     *
+     * @param alfa weight of each answer in the moving average of the latency, between 0 and 1
+     * @param fallosMaximos consecutive failures after which an instance is ejected
+     * @param expulsion seconds that an ejected instance is left out
+     * @param latenciaInicial milliseconds assumed for each call in course to an instance that has not answered yet
+     * @param meterRegistry registry where the metrics of each instance are published
+     */
+    @Autowired
+    public TankClientInstancias(@Value("${liquidacion.tank-balanceo.alfa:0.3}") double alfa,
+                                @Value("${liquidacion.tank-balanceo.fallos:5}") int fallosMaximos,
+                                @Value("${liquidacion.tank-balanceo.expulsion:30}") long expulsion,
+                                @Value("${liquidacion.tank-balanceo.latencia-inicial:100}") long latenciaInicial,
+                                MeterRegistry meterRegistry) {
+        this(alfa, fallosMaximos, expulsion, latenciaInicial, meterRegistry, System::nanoTime);
+    }
+
+    /**
+     * Constructor with the clock in nanoseconds, to be replaced in the tests.
+     */
+    TankClientInstancias(double alfa, int fallosMaximos, long expulsion, long latenciaInicial,
+                         MeterRegistry meterRegistry, LongSupplier reloj) {
+        this.alfa = alfa;
+        this.fallosMaximos = fallosMaximos;
+        this.expulsion = TimeUnit.SECONDS.toNanos(expulsion);
+        this.latenciaInicial = TimeUnit.MILLISECONDS.toNanos(latenciaInicial);
+        this.meterRegistry = meterRegistry;
+        this.reloj = reloj;
+    }
+
+    /**
+     * Registers the start of a call to an instance.
+     *
+     * @param instancia the instance, as {@code host:port}.
+     */
+    public void iniciar(String instancia) {
+        instancia(instancia).activas.incrementAndGet();
+    }
+
+    /**
+     * Registers the end of a call to an instance, ejecting it if it failed too many times in a row.
+     *
+     * @param instancia the instance, as {@code host:port}.
+     * @param nanos duration of the call.
+     * @param fallo whether the call failed to connect or got a 5xx answer.
+     */
+    public void terminar(String instancia, long nanos, boolean fallo) {
+        Instancia estadisticas = instancias.get(instancia);
+        if (estadisticas == null) {
+            // The instance left Eureka while the call was in course
+            return;
+        }
+        estadisticas.activas.decrementAndGet();
+        estadisticas.latencia.record(nanos, TimeUnit.NANOSECONDS);
+        synchronized (estadisticas) {
+            if (!fallo) {
+                // A failure may answer fast, so it does not count in the latency
+                estadisticas.ewma = estadisticas.ewma < 0 ? nanos : alfa * nanos + (1 - alfa) * estadisticas.ewma;
+                estadisticas.fallosSeguidos = 0;
+                return;
+            }
+            if (++estadisticas.fallosSeguidos < fallosMaximos) {
+                return;
+            }
+            estadisticas.fallosSeguidos = 0;
+            estadisticas.expulsadaHasta = reloj.getAsLong() + expulsion;
+        }
+        estadisticas.expulsiones.increment();
+        log.warn("Se expulsa la instancia {} de ms-infotank por {} fallos seguidos", instancia, fallosMaximos);
+    }
+
+    /**
+     * Tells whether an instance can be called, that is, it is not ejected.
+     *
+     * @param instancia the instance, as {@code host:port}.
+     */
+    public boolean disponible(String instancia) {
+        Instancia estadisticas = instancias.get(instancia);
+        if (estadisticas == null) {
+            return true;
+        }
+        synchronized (estadisticas) {
+            return reloj.getAsLong() - estadisticas.expulsadaHasta >= 0;
+        }
+    }
+
+    /**
+     * Estimates the wait of a new call to an instance, as its average latency times the calls in course plus one.
+     * An instance that has not answered yet has no wait while it has no calls in course, so it gets a first call.
+     *
+     * @param instancia the instance, as {@code host:port}.
+     * @return the estimated wait in nanoseconds; the lower, the better.
+     */
+    public double carga(String instancia) {
+        Instancia estadisticas = instancias.get(instancia);
+        if (estadisticas == null) {
+            return 0;
+        }
+        int activas = estadisticas.activas.get();
+        synchronized (estadisticas) {
+            return estadisticas.ewma < 0 ? latenciaInicial * activas : estadisticas.ewma * (activas + 1);
+        }
+    }
+
+    /**
+     * Discards the statistics and metrics of the instances that are no longer registered.
+     *
+     * @param vigentes the registered instances, as {@code host:port}.
+     */
+    public void conservar(Collection<String> vigentes) {
+        instancias.entrySet().removeIf(entrada -> {
+            if (vigentes.contains(entrada.getKey())) {
+                return false;
+            }
+            for (Meter metrica : entrada.getValue().metricas) {
+                meterRegistry.remove(metrica);
+            }
+            return true;
+        });
+    }
+
+    private Instancia instancia(String instancia) {
+        return instancias.computeIfAbsent(instancia, Instancia::new);
+    }
+
+    /**
+     * Statistics of an instance, with its metrics.
+     */
+    private final class Instancia {
+
+        private final AtomicInteger activas = new AtomicInteger();
+        private final Timer latencia;
+        private final Counter expulsiones;
+        private final Meter[] metricas;
+        // Guarded by the instance itself, negative until the first answer
+        private double ewma = -1;
+        private int fallosSeguidos;
+        private long expulsadaHasta = reloj.getAsLong();
+
+        private Instancia(String instancia) {
+            this.latencia = Timer.builder("liquidacion.tank.instancia")
+                    .description("Latencia de las llamadas a cada instancia de ms-infotank")
+                    .tag("instancia", instancia)
+                    .register(meterRegistry);
+            this.expulsiones = Counter.builder("liquidacion.tank.instancia.expulsiones")
+                    .description("Veces que una instancia de ms-infotank fue expulsada por fallos seguidos")
+                    .tag("instancia", instancia)
+                    .register(meterRegistry);
+            Gauge ewma = Gauge.builder("liquidacion.tank.instancia.ewma", this, Instancia::ewmaMilisegundos)
+                    .description("Promedio movil exponencial de la latencia de cada instancia de ms-infotank")
+                    .tag("instancia", instancia)
+                    .baseUnit("milliseconds")
+                    .register(meterRegistry);
+            Gauge enCurso = Gauge.builder("liquidacion.tank.instancia.activas", activas, AtomicInteger::get)
+                    .description("Llamadas en curso a cada instancia de ms-infotank")
+                    .tag("instancia", instancia)
+                    .register(meterRegistry);
+            this.metricas = new Meter[]{latencia, expulsiones, ewma, enCurso};
+        }
+
+        private synchronized double ewmaMilisegundos() {
+            return ewma < 0 ? Double.NaN : ewma / 1_000_000;
+        }
+    }
+}
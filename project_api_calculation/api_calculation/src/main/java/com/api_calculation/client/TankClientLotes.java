@@ -0,0 +1,294 @@
+package com.api_calculation.client;
+
+import com.api_calculation.persistence.entity.Tank;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * @author Abelardo Orozco
+ * Agrupa en lotes las consultas de tanques a ms-infotank y comparte las que estan en curso.
+ *
+ * <p>Las consultas de un solo tanque que llegan a la vez desde varios hilos se juntan durante
+ * {@code liquidacion.tank-lotes.ventana} milisegundos, o hasta completar {@code liquidacion.tank-lotes.max-size}
+ * tanques, y se envian en una sola llamada a {@link TankClientRest#findAllById(Collection)}. Mientras la consulta
+ * de un tanque esta en curso, ya sea esperando su lote o enviada, quien pida el mismo tanque recibe esa consulta en
+ * lugar de originar otra. Cada hilo espera la respuesta maximo {@code liquidacion.tank-lotes.espera} milisegundos,
+ * sin cancelar la consulta compartida. Si la llamada falla, las consultas del lote reciben el ultimo valor conocido
+ * del tanque, si lo hay, o el error.</p>
+ *
+ * <p>Las ventanas se cierran en un hilo que solo lleva los tiempos y nunca espera a ms-infotank: al cerrarse, el
+ * lote pasa a uno de los {@code liquidacion.tank-lotes.hilos} hilos de envio, y una llamada lenta no demora la
+ * ventana siguiente. Los lotes que esperan un hilo de envio son maximo {@code liquidacion.tank-lotes.cola}; los
+ * que no caben se responden como una llamada fallida.</p>
+ *
+ * <p>En Actuator se publican el tamano de los lotes enviados, como {@code liquidacion.tank.lote}, y las consultas
+ * de tanques como {@code liquidacion.tank.consultas} con la etiqueta {@code origen=originada} o
+ * {@code origen=compartida}.</p>
+ */
+@Component
+public class TankClientLotes {
+
+    private final TankClientRest tankClientRest;
+    private final TankClientFallback tankClientFallback;
+    private final long ventana;
+    private final int tamanoMaximo;
+    private final long espera;
+    private final DistributionSummary tamanoLotes;
+    private final Counter originadas;
+    private final Counter compartidas;
+    private final ScheduledExecutorService ventanas;
+    private final ExecutorService envios;
+
+    // Lookups waiting for their batch or for the answer of ms-infotank, removed when they complete
+    private final Map<Long, CompletableFuture<Optional<Tank>>> enCurso = new ConcurrentHashMap<>();
+    // Lookups waiting for the next call, replaced by a new map when they are sent
+    private Map<Long, CompletableFuture<Optional<Tank>>> pendientes = new HashMap<>();
+
+    /**
+     * Constructor to initialize the batches and register their metrics.
+     *
+     * @param tankClientRest Client for interacting with tank-related services.
+     * @param tankClientFallback Last known tanks, updated with every answer.
+     * @param ventana milliseconds that a lookup waits for others to join its batch
+     * @param tamanoMaximo maximum number of tanks in a call, a batch is sent as soon as it is full
+     * @param hilos number of threads that send the batches
+     * @param cola maximum number of batches waiting for a thread to send them
+     * @param espera maximum milliseconds that a thread waits for a tank
+     * @param meterRegistry registry where the size of the batches and the lookups are published
+     */
+    public TankClientLotes(TankClientRest tankClientRest, TankClientFallback tankClientFallback,
+                           @Value("${liquidacion.tank-lotes.ventana:5}") long ventana,
+                           @Value("${liquidacion.tank-lotes.max-size:100}") int tamanoMaximo,
+                           @Value("${liquidacion.tank-lotes.hilos:2}") int hilos,
+                           @Value("${liquidacion.tank-lotes.cola:100}") int cola,
+                           @Value("${liquidacion.tank-lotes.espera:3000}") long espera,
+                           MeterRegistry meterRegistry) {
+        this.tankClientRest = tankClientRest;
+        this.tankClientFallback = tankClientFallback;
+        this.ventana = ventana;
+        this.tamanoMaximo = tamanoMaximo;
+        this.espera = espera;
+        this.tamanoLotes = DistributionSummary.builder("liquidacion.tank.lote")
+                .description("Tanques consultados en cada llamada a ms-infotank")
+                .register(meterRegistry);
+        this.originadas = Counter.builder("liquidacion.tank.consultas")
+                .description("Consultas de tanques a ms-infotank")
+                .tag("origen", "originada")
+                .register(meterRegistry);
+        this.compartidas = Counter.builder("liquidacion.tank.consultas")
+                .description("Consultas de tanques a ms-infotank")
+                .tag("origen", "compartida")
+                .register(meterRegistry);
+        this.ventanas = Executors.newSingleThreadScheduledExecutor(hilos("tank-lotes-ventana"));
+        this.envios = new ThreadPoolExecutor(hilos, hilos, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(cola),
+                hilos("tank-lotes"));
+    }
+
+    /**
+     * Retrieves a tank by its unique identifier, in the same call as the other lookups of the moment.
+     *
+     * @param id the unique identifier of the tank.
+     * @return an {@link Optional} containing the {@link Tank}, or an empty {@link Optional} if ms-infotank does
+     *         not have it.
+     * @throws com.netflix.hystrix.exception.HystrixRuntimeException if ms-infotank does not respond and the tank is
+     *         not among the last known ones, see {@link TankClientFallback}.
+     * @throws TankNoDisponibleException if the answer takes more than {@code liquidacion.tank-lotes.espera}.
+     */
+    public Optional<Tank> findById(Long id) {
+        return esperar(findByIdAsync(id), id);
+    }
+
+    /**
+     * Same as {@link #findById(Long)} without waiting for the batch to be sent.
+     */
+    public CompletableFuture<Optional<Tank>> findByIdAsync(Long id) {
+        CompletableFuture<Optional<Tank>> consulta;
+        Map<Long, CompletableFuture<Optional<Tank>>> lleno = null;
+        synchronized (this) {
+            consulta = enCurso.get(id);
+            if (consulta != null) {
+                compartidas.increment();
+                return consulta;
+            }
+            consulta = originar(id);
+            pendientes.put(id, consulta);
+            if (pendientes.size() >= tamanoMaximo) {
+                lleno = pendientes;
+                pendientes = new HashMap<>();
+            } else if (pendientes.size() == 1) {
+                Map<Long, CompletableFuture<Optional<Tank>>> lote = pendientes;
+                ventanas.schedule(() -> enviarSiPendiente(lote), ventana, TimeUnit.MILLISECONDS);
+            }
+        }
+        if (lleno != null) {
+            programar(lleno);
+        }
+        return consulta;
+    }
+
+    /**
+     * Retrieves many tanks in calls of at most {@code liquidacion.tank-lotes.max-size} tanks, sent right away
+     * from the calling thread. The tanks whose lookup is already in course are taken from it.
+     *
+     * @param ids the unique identifiers of the tanks.
+     * @return the tanks found by their ID; the missing ones are left out.
+     * @throws com.netflix.hystrix.exception.HystrixRuntimeException if ms-infotank does not respond and the tank is
+     *         not among the last known ones, see {@link TankClientFallback}.
+     * @throws TankNoDisponibleException if the answer takes more than {@code liquidacion.tank-lotes.espera}.
+     */
+    public Map<Long, Tank> findAllById(Collection<Long> ids) {
+        Map<Long, CompletableFuture<Optional<Tank>>> consultas = new HashMap<>();
+        Map<Long, CompletableFuture<Optional<Tank>>> propias = new LinkedHashMap<>();
+        synchronized (this) {
+            for (Long id : new LinkedHashSet<>(ids)) {
+                CompletableFuture<Optional<Tank>> consulta = enCurso.get(id);
+                if (consulta != null) {
+                    compartidas.increment();
+                } else {
+                    consulta = originar(id);
+                    propias.put(id, consulta);
+                }
+                consultas.put(id, consulta);
+            }
+        }
+
+        List<Long> distintos = new ArrayList<>(propias.keySet());
+        for (int desde = 0; desde < distintos.size(); desde += tamanoMaximo) {
+            Map<Long, CompletableFuture<Optional<Tank>>> lote = new HashMap<>();
+            for (Long id : distintos.subList(desde, Math.min(desde + tamanoMaximo, distintos.size()))) {
+                lote.put(id, propias.get(id));
+            }
+            enviar(lote);
+        }
+
+        Map<Long, Tank> tanques = new HashMap<>();
+        consultas.forEach((id, consulta) -> esperar(consulta, id).ifPresent(tank -> tanques.put(id, tank)));
+        return tanques;
+    }
+
+    @PreDestroy
+    public void cerrar() {
+        ventanas.shutdown();
+        envios.shutdown();
+    }
+
+    /**
+     * Method to register a new lookup of a tank, which is shared until it completes. Must hold the lock.
+     */
+    private CompletableFuture<Optional<Tank>> originar(Long id) {
+        CompletableFuture<Optional<Tank>> consulta = new CompletableFuture<>();
+        enCurso.put(id, consulta);
+        consulta.whenComplete((tank, error) -> enCurso.remove(id, consulta));
+        originadas.increment();
+        return consulta;
+    }
+
+    /**
+     * Method to wait for a lookup, throwing its error as it was thrown by the client.
+     */
+    private Optional<Tank> esperar(CompletableFuture<Optional<Tank>> consulta, Long id) {
+        try {
+            return consulta.get(espera, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new TankNoDisponibleException("No se pudo consultar el tanque " + id, e.getCause());
+        } catch (TimeoutException e) {
+            throw new TankNoDisponibleException("ms-infotank no respondio en " + espera + " ms la consulta del tanque " + id);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TankNoDisponibleException("Se interrumpio la consulta del tanque " + id, e);
+        }
+    }
+
+    /**
+     * Method to send a batch when its window ends, unless it was already sent because it got full.
+     */
+    private void enviarSiPendiente(Map<Long, CompletableFuture<Optional<Tank>>> lote) {
+        synchronized (this) {
+            if (pendientes != lote) {
+                return;
+            }
+            pendientes = new HashMap<>();
+        }
+        programar(lote);
+    }
+
+    /**
+     * Method to hand a batch to the threads that send them, answering it as a failed call when too many are waiting.
+     */
+    private void programar(Map<Long, CompletableFuture<Optional<Tank>>> lote) {
+        try {
+            envios.execute(() -> enviar(lote));
+        } catch (RejectedExecutionException e) {
+            fallar(lote, e);
+        }
+    }
+
+    private void enviar(Map<Long, CompletableFuture<Optional<Tank>>> lote) {
+        try {
+            tamanoLotes.record(lote.size());
+            List<Tank> encontrados = tankClientRest.findAllById(lote.keySet());
+            tankClientFallback.recordar(encontrados);
+            Map<Long, Tank> tanques = new HashMap<>();
+            for (Tank tank : encontrados) {
+                tanques.put(tank.getId(), tank);
+            }
+            lote.forEach((id, consulta) -> consulta.complete(Optional.ofNullable(tanques.get(id))));
+        } catch (RuntimeException e) {
+            fallar(lote, e);
+        }
+    }
+
+    /**
+     * Method to answer a batch whose call failed. The fallback only answers a call when it knows all of its tanks,
+     * so the known ones are given here.
+     */
+    private void fallar(Map<Long, CompletableFuture<Optional<Tank>>> lote, RuntimeException e) {
+        lote.forEach((id, consulta) -> {
+            Optional<Tank> conocido = tankClientFallback.conocido(id);
+            if (conocido.isPresent()) {
+                consulta.complete(conocido);
+            } else {
+                consulta.completeExceptionally(e);
+            }
+        });
+    }
+
+    /**
+     * Method to create daemon threads with the given name, also used for the refreshes of {@link TankClientCache}.
+     */
+    static ThreadFactory hilos(String nombre) {
+        return tarea -> {
+            Thread hilo = new Thread(tarea, nombre);
+            hilo.setDaemon(true);
+            return hilo;
+        };
+    }
+}
@@ -0,0 +1,47 @@
+package com.api_calculation.client;
+
+import feign.Client;
+import feign.Request;
+import feign.Response;
+
+import java.io.IOException;
+import java.net.URI;
+
+/**
+ * @author Abelardo Orozco
+ * Cliente HTTP de Feign que registra en {@link TankClientInstancias} cada llamada a una instancia de ms-infotank,
+ * ya resuelta por el balanceador, con su duracion y si fallo.
+ */
+public class TankClientMedicion implements Client {
+
+    private final Client delegado;
+    private final TankClientInstancias tankClientInstancias;
+
+    /**
+     * Constructor to measure the calls made by another client.
+     *
+     * @param delegado Client that makes the calls.
+     * @param tankClientInstancias Statistics of the instances, updated with every call.
+     */
+    public TankClientMedicion(Client delegado, TankClientInstancias tankClientInstancias) {
+        this.delegado = delegado;
+        this.tankClientInstancias = tankClientInstancias;
+    }
+
+    @Override
+    public Response execute(Request request, Request.Options options) throws IOException {
+        URI uri = URI.create(request.url());
+        int puerto = uri.getPort() != -1 ? uri.getPort() : "https".equals(uri.getScheme()) ? 443 : 80;
+        String instancia = uri.getHost() + ":" + puerto;
+        tankClientInstancias.iniciar(instancia);
+        long inicio = System.nanoTime();
+        boolean fallo = true;
+        try {
+            Response response = delegado.execute(request, options);
+            fallo = response.status() >= 500;
+            return response;
+        } finally {
+            tankClientInstancias.terminar(instancia, System.nanoTime() - inicio, fallo);
+        }
+    }
+}
@@ -1,21 +1,38 @@
 package com.api_calculation.client;
 
+import com.api_calculation.context.TankClientConfig;
 import com.api_calculation.persistence.entity.Tank;
+import com.api_calculation.service.dto.ConsultaAforoInDTO;
+import com.api_calculation.service.dto.ConsultaAforoOutDTO;
+import com.api_calculation.service.dto.TablaAforoDTO;
 import org.springframework.stereotype.Service;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.cloud.openfeign.FeignClient;
 
 
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 /**
  * Feign client interface for interacting with the "ms-infotank" microservice.
  * It provides methods to access tank information.
+ *
+ * <p>The instances are the ones registered in Eureka as {@code ms-infotank}, and {@link TankClientBalanceo}
+ * chooses the one of each call by its recent latency and calls in course, see
+ * {@link com.api_calculation.context.TankClientRibbonConfig}. When {@code liquidacion.tank-client.url} is set, that
+ * address is called instead. Each call runs as a Hystrix command in the
+ * {@code ms-infotank} thread pool, which bounds the threads that can wait for the service, with the timeouts and
+ * circuit breaker configured in {@code feign.client.config.ms-infotank} and {@code hystrix.*}. When a call fails,
+ * times out, is rejected or the circuit is open, {@link TankClientFallback} answers with the last known tanks.
+ * A 404 Not Found is not a failure, it is decoded as an empty {@link Optional}.</p>
  */
-@FeignClient(name = "ms-infotank", url = "localhost:8001")
+@FeignClient(name = "ms-infotank", url = "${liquidacion.tank-client.url:}", decode404 = true,
+        configuration = TankClientConfig.class, fallbackFactory = TankClientFallback.class)
 public interface TankClientRest {
 
     /**
@@ -34,4 +51,32 @@ public interface TankClientRest {
      */
     @GetMapping("/tank/byId/{id}")
     public Optional<Tank> findById(@PathVariable("id") Long id);
+
+    /**
+     * Retrieves many tanks in one call, see {@link TankClientLotes} to merge concurrent single lookups.
+     *
+     * @param ids the unique identifiers of the tanks, at most 1000.
+     * @return the {@link Tank} objects found, in no particular order; the missing ones are left out.
+     */
+    @PostMapping("/tank/byIds")
+    public List<Tank> findAllById(@RequestBody Collection<Long> ids);
+
+    /**
+     * Retrieves the Total Observed Volume of many gauges, of one or several tanks, from their strapping tables.
+     *
+     * @param consulta the tank and gauge in millimetres of each reading.
+     * @return the volume of each reading and whether it is in the critical zone of its tank.
+     */
+    @PostMapping("/tank/aforo/volumenes")
+    public ConsultaAforoOutDTO volumenes(@RequestBody ConsultaAforoInDTO consulta);
+
+    /**
+     * Retrieves a strapping table of a tank.
+     *
+     * @param id the unique identifier of the tank.
+     * @param tipo PRINCIPAL for the volume at each level, FRACCIONAL for the barrels per millimetre between levels.
+     * @return the rows of the table, by columns, or an empty {@link Optional} if the tank has no table of that type.
+     */
+    @GetMapping("/tank/{id}/aforo/{tipo}")
+    public Optional<TablaAforoDTO> findTablaAforo(@PathVariable("id") Long id, @PathVariable("tipo") String tipo);
 }
\ No newline at end of file
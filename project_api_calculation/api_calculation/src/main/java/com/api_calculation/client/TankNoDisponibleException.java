@@ -0,0 +1,18 @@
+package com.api_calculation.client;
+
+/**
+ * @author Abelardo Orozco
+ * Consulta de un tanque a ms-infotank que no termino: no respondio a tiempo, fallo sin una excepcion del cliente
+ * o se interrumpio el hilo que la esperaba. Se responde como servicio no disponible, igual que cuando falla la
+ * llamada de Hystrix.
+ */
+public class TankNoDisponibleException extends RuntimeException {
+
+    public TankNoDisponibleException(String mensaje) {
+        super(mensaje);
+    }
+
+    public TankNoDisponibleException(String mensaje, Throwable causa) {
+        super(mensaje, causa);
+    }
+}
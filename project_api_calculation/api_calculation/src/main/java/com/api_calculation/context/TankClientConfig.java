@@ -0,0 +1,30 @@
+package com.api_calculation.context;
+
+import com.api_calculation.client.TankClientInstancias;
+import com.api_calculation.client.TankClientMedicion;
+import feign.Client;
+import org.springframework.cloud.netflix.ribbon.SpringClientFactory;
+import org.springframework.cloud.openfeign.ribbon.CachingSpringLoadBalancerFactory;
+import org.springframework.cloud.openfeign.ribbon.LoadBalancerFeignClient;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * Feign configuration of the ms-infotank client, loaded only in its own context, so it is not annotated with
+ * {@code @Configuration}. The calls go through Ribbon, see {@link TankClientRibbonConfig}, and every call to an
+ * instance is measured with {@link TankClientMedicion}.
+ */
+public class TankClientConfig {
+
+    /**
+     * Creates the load balanced client that measures the calls to each instance. When
+     * {@code liquidacion.tank-client.url} is set, Feign calls that address with the measuring client directly.
+     *
+     * @return a {@link LoadBalancerFeignClient} over a {@link TankClientMedicion}.
+     */
+    @Bean
+    public Client feignClient(CachingSpringLoadBalancerFactory cachingFactory, SpringClientFactory clientFactory,
+                              TankClientInstancias tankClientInstancias) {
+        return new LoadBalancerFeignClient(new TankClientMedicion(new Client.Default(null, null), tankClientInstancias),
+                cachingFactory, clientFactory);
+    }
+}
@@ -0,0 +1,45 @@
+package com.api_calculation.context;
+
+import com.api_calculation.client.TankClientBalanceo;
+import com.api_calculation.client.TankClientInstancias;
+import com.netflix.client.config.IClientConfig;
+import com.netflix.loadbalancer.DynamicServerListLoadBalancer;
+import com.netflix.loadbalancer.ILoadBalancer;
+import com.netflix.loadbalancer.IPing;
+import com.netflix.loadbalancer.IRule;
+import com.netflix.loadbalancer.Server;
+import com.netflix.loadbalancer.ServerList;
+import com.netflix.loadbalancer.ServerListFilter;
+import com.netflix.loadbalancer.ServerListUpdater;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * Ribbon configuration of ms-infotank, loaded only in its own context, so it is not annotated with
+ * {@code @Configuration}. The instances come from Eureka and {@link TankClientBalanceo} chooses the one of each call.
+ */
+public class TankClientRibbonConfig {
+
+    /**
+     * Creates the rule that chooses the instance of each call.
+     *
+     * @param tankClientInstancias Statistics of the instances.
+     * @return a {@link TankClientBalanceo}.
+     */
+    @Bean
+    public IRule ribbonRule(TankClientInstancias tankClientInstancias) {
+        return new TankClientBalanceo(tankClientInstancias);
+    }
+
+    /**
+     * Creates the load balancer without zones, because the zone aware one of Ribbon copies the rule of each zone
+     * with its default constructor, and the instances of ms-infotank are in a single zone.
+     *
+     * @return a {@link DynamicServerListLoadBalancer} with the rule and the instances of Eureka.
+     */
+    @Bean
+    public ILoadBalancer ribbonLoadBalancer(IClientConfig config, ServerList<Server> serverList,
+                                            ServerListFilter<Server> serverListFilter, IRule rule, IPing ping,
+                                            ServerListUpdater serverListUpdater) {
+        return new DynamicServerListLoadBalancer<>(config, rule, ping, serverList, serverListFilter, serverListUpdater);
+    }
+}
@@ -2,6 +2,8 @@ package com.api_calculation.controller;
 
 import com.api_calculation.persistence.entity.Cargue;
 import com.api_calculation.service.CargueService;
+import com.api_calculation.service.dto.CargueResumenDTO;
+import com.api_calculation.service.dto.PaginaDTO;
 import com.api_calculation.service.dto.DatosEditarCargueDTO;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -65,6 +67,7 @@ public class CargueController {
 
     /**
      * Endpoint to retrieve all Cargue entities with pagination.
+     * The Movimiento entities of the page, and their Liquidacion entities, are loaded in a single query each.
      *
      * @param paginacion the pagination information
      * @return a ResponseEntity containing a page of Cargue entities
@@ -74,6 +77,31 @@ public class CargueController {
         return ResponseEntity.ok(this.cargueService.findAll(paginacion));
     }
 
+    /**
+     * Endpoint to retrieve the summaries of all Cargue entities with pagination, without their Movimiento entities.
+     *
+     * @param paginacion the pagination information
+     * @return a ResponseEntity containing a page of Cargue summaries
+     */
+    @GetMapping("/resumenes")
+    public ResponseEntity<Page<CargueResumenDTO>> findResumenes(@PageableDefault(size = 5) Pageable paginacion) {
+        return ResponseEntity.ok(this.cargueService.findResumenes(paginacion));
+    }
+
+    /**
+     * Retrieves the Cargue entities page by page, from the most recent date, the ones without date last, without counting them. Each page starts
+     * after the last Cargue of the previous one, so it is read in the same time wherever it is.
+     *
+     * @param tamano The number of Cargue entities in the page, at most {@link CargueService#MAXIMO_PAGINA}.
+     * @param token The token returned with the previous page, absent for the first one.
+     * @return A ResponseEntity containing the page and the token of the next one.
+     */
+    @GetMapping("/siguientes")
+    public ResponseEntity<PaginaDTO<Cargue>> findSiguientes(@RequestParam(name = "size", defaultValue = "20") int tamano,
+                                                            @RequestParam(required = false) String token) {
+        return ResponseEntity.ok(this.cargueService.findSiguientes(token, tamano));
+    }
+
     /**
      * Endpoint to delete a Cargue entity by its ID.
      *
@@ -1,19 +1,148 @@
 package com.api_calculation.controller;
 
+import com.api_calculation.persistence.entity.Liquidacion;
+import com.api_calculation.service.LiquidacionService;
+import com.api_calculation.service.dto.BarridoInDTO;
+import com.api_calculation.service.dto.IncertidumbreInDTO;
+import com.api_calculation.service.dto.LiquidacionInDTO;
+import com.api_calculation.service.dto.LoteLiquidacionInDTO;
+import com.api_calculation.service.dto.LoteLiquidacionOutDTO;
+import com.api_calculation.service.dto.PlanCargueInDTO;
+import com.api_calculation.service.dto.PlanCargueOutDTO;
+import com.api_calculation.service.dto.PlanTanqueInDTO;
+import com.api_calculation.util.CalculationsLiqBarrido;
+import com.api_calculation.util.CalculationsLiqDistribucion;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.ModelAttribute;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import javax.validation.Valid;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Controller for managing Liquidacion entities.
  *
- * <p>Note: No endpoints are exposed for this entity because no Liquidacion should be created
- * without having first created a Movimiento. Liquidaciones are created as part of creating a Movimiento.</p>
+ * <p>Note: No endpoints are exposed to create Liquidacion entities because no Liquidacion should be created
+ * without having first created a Movimiento. Liquidaciones are created as part of creating a Movimiento.
+ * The endpoints of this controller only calculate, they never save to the database.</p>
  */
 @RestController
 @RequestMapping("/liquidacion")
 public class LiquidacionController {
 
-    // No endpoints are provided for this entity because a Liquidacion cannot be created without
-    // first creating a Movimiento. Liquidaciones are created when a Movimiento is created.
+    private final LiquidacionService liquidacionService;
+    private final ObjectMapper objectMapper;
+    private final long maxAgePrevisualizar;
+
+    /**
+     * Constructor to initialize LiquidacionService.
+     *
+     * @param liquidacionService the service used to calculate Liquidacion values
+     * @param objectMapper the JSON mapper of the responses, used to calculate the ETag of a preview
+     * @param maxAgePrevisualizar seconds that clients and proxies may reuse a preview
+     */
+    public LiquidacionController(LiquidacionService liquidacionService, ObjectMapper objectMapper,
+                                 @Value("${liquidacion.previsualizar.max-age:300}") long maxAgePrevisualizar) {
+        this.liquidacionService = liquidacionService;
+        this.objectMapper = objectMapper;
+        this.maxAgePrevisualizar = maxAgePrevisualizar;
+    }
+
+    /**
+     * Endpoint to preview the calculation of a reading without saving it. The reading is given as query
+     * parameters so the response can be cached by clients and proxies; the ETag, a digest of the JSON body,
+     * lets them revalidate it once it expires and get a 304 Not Modified when the result did not change.
+     *
+     * @param liquidacionInDTO the reading to calculate
+     * @return a ResponseEntity containing the calculated Liquidacion, which has no ID and no Movimiento
+     * @throws JsonProcessingException if the Liquidacion cannot be serialized to calculate its ETag
+     */
+    @GetMapping("/previsualizar")
+    public ResponseEntity<Liquidacion> previsualizar(@Valid @ModelAttribute LiquidacionInDTO liquidacionInDTO)
+            throws JsonProcessingException {
+        Liquidacion liquidacion = this.liquidacionService.liquidar(liquidacionInDTO);
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(maxAgePrevisualizar, TimeUnit.SECONDS))
+                .eTag(DigestUtils.md5DigestAsHex(objectMapper.writeValueAsBytes(liquidacion)))
+                .body(liquidacion);
+    }
+
+    /**
+     * Endpoint to calculate a batch of readings given by columns, without saving them.
+     *
+     * @param lote the readings of the batch, one array per input variable
+     * @return a ResponseEntity containing the calculated values, one array per output variable
+     */
+    @PostMapping("/liquidarLote")
+    public ResponseEntity<LoteLiquidacionOutDTO> liquidarLote(@Valid @RequestBody LoteLiquidacionInDTO lote) {
+        return ResponseEntity.ok(this.liquidacionService.liquidarLote(lote));
+    }
+
+    /**
+     * Endpoint to calculate a reading over a grid of liquid temperature, ambient temperature and API values,
+     * without saving it. The results are streamed as newline delimited JSON while they are calculated,
+     * so large grids are never held in memory.
+     *
+     * @param barridoInDTO the base reading and the ranges of 1 to 3 variables
+     * @return a ResponseEntity whose body writes one JSON object per point of the grid
+     */
+    @PostMapping("/barrido")
+    public ResponseEntity<StreamingResponseBody> barrido(@Valid @RequestBody BarridoInDTO barridoInDTO) {
+        CalculationsLiqBarrido barrido = this.liquidacionService.barrido(barridoInDTO);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .header("X-Total-Puntos", String.valueOf(barrido.getTotal()))
+                .body(salida -> this.liquidacionService.escribirBarrido(barrido, salida));
+    }
+
+    /**
+     * Endpoint to simulate by Monte Carlo the NSV uncertainty of a saved Liquidacion from the tolerances
+     * of its measurements.
+     *
+     * @param id the ID of the Liquidacion
+     * @param incertidumbreInDTO the number of samples, seed, histogram classes and standard uncertainties
+     * @return a ResponseEntity containing the NSV distribution if the Liquidacion exists, otherwise a 404 Not Found status
+     */
+    @GetMapping("/incertidumbre/{id}")
+    public ResponseEntity<CalculationsLiqDistribucion> incertidumbre(@PathVariable("id") Long id,
+                                                                     @Valid @ModelAttribute IncertidumbreInDTO incertidumbreInDTO) {
+        return ResponseEntity.of(this.liquidacionService.incertidumbre(id, incertidumbreInDTO));
+    }
+
+    /**
+     * Endpoint to calculate the gauge to which a tank must be pumped to deliver a Net Standard Volume, with the
+     * strapping table of the tank, without saving it.
+     *
+     * @param planTanqueInDTO the current reading of the tank and the NSV to deliver, negative to receive
+     * @return a ResponseEntity containing the Liquidacion at the calculated gauge, which has no ID and no Movimiento,
+     *         or 400 if that gauge is in the critical zone of the tank
+     */
+    @GetMapping("/planTanque")
+    public ResponseEntity<Liquidacion> planTanque(@Valid @ModelAttribute PlanTanqueInDTO planTanqueInDTO) {
+        return ResponseEntity.ok(this.liquidacionService.planTanque(planTanqueInDTO));
+    }
 
+    /**
+     * Endpoint to calculate the final gauge of every tank of a cargo in one call, without saving it.
+     *
+     * @param plan the current reading and NSV to deliver of each tank, one array per input variable
+     * @return a ResponseEntity containing the final gauge, TOV and NSV of each tank, whether it is in the critical
+     *         zone of the tank, and the total delivered
+     */
+    @PostMapping("/planCargue")
+    public ResponseEntity<PlanCargueOutDTO> planCargue(@Valid @RequestBody PlanCargueInDTO plan) {
+        return ResponseEntity.ok(this.liquidacionService.planCargue(plan));
+    }
 }
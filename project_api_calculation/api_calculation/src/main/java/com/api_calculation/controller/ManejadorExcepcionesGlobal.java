@@ -1,7 +1,12 @@
 package com.api_calculation.controller;
 
+import com.api_calculation.client.TankNoDisponibleException;
+import com.netflix.hystrix.exception.HystrixRuntimeException;
+import org.springframework.dao.ConcurrencyFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.validation.BindException;
+import org.springframework.validation.BindingResult;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -24,9 +29,24 @@ public class ManejadorExcepcionesGlobal {
      */
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<Map<String, String>> manejarExcepcionesDeValidacion(MethodArgumentNotValidException ex) {
+        return erroresDeValidacion(ex.getBindingResult());
+    }
+
+    /**
+     * Handles validation exceptions of requests given as query parameters, such as the Liquidacion preview.
+     *
+     * @param ex The exception that was thrown.
+     * @return A {@link ResponseEntity} containing the error message map and HTTP status.
+     */
+    @ExceptionHandler(BindException.class)
+    public ResponseEntity<Map<String, String>> manejarExcepcionesDeParametros(BindException ex) {
+        return erroresDeValidacion(ex.getBindingResult());
+    }
+
+    private ResponseEntity<Map<String, String>> erroresDeValidacion(BindingResult bindingResult) {
         Map<String, String> errores = new HashMap<>();
 
-        ex.getBindingResult().getAllErrors().forEach((error) -> {
+        bindingResult.getAllErrors().forEach((error) -> {
             String nombreCampo = ((FieldError) error).getField();
             String mensajeError = error.getDefaultMessage();
             errores.put(nombreCampo, mensajeError);
@@ -34,4 +54,57 @@ public class ManejadorExcepcionesGlobal {
 
         return new ResponseEntity<>(errores, HttpStatus.BAD_REQUEST);
     }
-}
\ No newline at end of file
+
+    /**
+     * Handles invalid arguments detected by the services, such as batches with columns of different length.
+     *
+     * @param ex The exception that was thrown.
+     * @return A {@link ResponseEntity} containing the error message and HTTP status.
+     */
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, String>> manejarArgumentosInvalidos(IllegalArgumentException ex) {
+        Map<String, String> errores = new HashMap<>();
+        errores.put("error", ex.getMessage());
+        return new ResponseEntity<>(errores, HttpStatus.BAD_REQUEST);
+    }
+
+    /**
+     * Handles the calls to ms-infotank that failed when there was no last known answer to give instead.
+     *
+     * @param ex The exception that was thrown.
+     * @return A {@link ResponseEntity} containing the error message and HTTP status.
+     */
+    @ExceptionHandler(HystrixRuntimeException.class)
+    public ResponseEntity<Map<String, String>> manejarServicioNoDisponible(HystrixRuntimeException ex) {
+        Map<String, String> errores = new HashMap<>();
+        errores.put("error", "ms-infotank no esta disponible: " + ex.getFailureType());
+        return new ResponseEntity<>(errores, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    /**
+     * Handles the lookups of tanks that ms-infotank did not answer in time, see
+     * {@link com.api_calculation.client.TankClientLotes}.
+     *
+     * @param ex The exception that was thrown.
+     * @return A {@link ResponseEntity} containing the error message and HTTP status.
+     */
+    @ExceptionHandler(TankNoDisponibleException.class)
+    public ResponseEntity<Map<String, String>> manejarTanqueNoDisponible(TankNoDisponibleException ex) {
+        Map<String, String> errores = new HashMap<>();
+        errores.put("error", ex.getMessage());
+        return new ResponseEntity<>(errores, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    /**
+     * Handles the edits that kept conflicting with other edits of the same data after all their retries.
+     *
+     * @param ex The exception that was thrown.
+     * @return A {@link ResponseEntity} containing the error message and HTTP status.
+     */
+    @ExceptionHandler(ConcurrencyFailureException.class)
+    public ResponseEntity<Map<String, String>> manejarConflictos(ConcurrencyFailureException ex) {
+        Map<String, String> errores = new HashMap<>();
+        errores.put("error", "Los datos fueron modificados por otra operacion, intente de nuevo");
+        return new ResponseEntity<>(errores, HttpStatus.CONFLICT);
+    }
+}
@@ -4,7 +4,11 @@ import com.api_calculation.persistence.entity.Movimiento;
 import com.api_calculation.persistence.repository.MovimientoRepository;
 import com.api_calculation.service.MovimientoService;
 import com.api_calculation.service.dto.DatosParaEditatLiq;
+import com.api_calculation.service.dto.IncertidumbreInDTO;
 import com.api_calculation.service.dto.LiquidacionInDTO;
+import com.api_calculation.service.dto.MovimientoResumenDTO;
+import com.api_calculation.service.dto.PaginaDTO;
+import com.api_calculation.util.CalculationsLiqDistribucion;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.env.Environment;
 import org.springframework.data.domain.Page;
@@ -60,6 +64,7 @@ public class MovimientoController {
 
     /**
      * Retrieves all Movimiento entities with pagination.
+     * The Liquidacion entities of the page are loaded in a single query.
      *
      * @param paginacion The Pageable object for pagination.
      * @return A ResponseEntity containing a Page of Movimiento entities.
@@ -69,6 +74,31 @@ public class MovimientoController {
         return ResponseEntity.ok(this.movimientoService.findAll(paginacion));
     }
 
+    /**
+     * Retrieves the summaries of all Movimiento entities with pagination, without their Liquidacion entities.
+     *
+     * @param paginacion The Pageable object for pagination.
+     * @return A ResponseEntity containing a Page of Movimiento summaries.
+     */
+    @GetMapping("/resumenes")
+    public ResponseEntity<Page<MovimientoResumenDTO>> findResumenes(@PageableDefault(size = 2) Pageable paginacion) {
+        return ResponseEntity.ok(this.movimientoService.findResumenes(paginacion));
+    }
+
+    /**
+     * Retrieves the Movimiento entities page by page, ordered by ID, without counting them. Each page starts
+     * after the last Movimiento of the previous one, so it is read in the same time wherever it is.
+     *
+     * @param tamano The number of Movimiento entities in the page, at most {@link MovimientoService#MAXIMO_PAGINA}.
+     * @param token The token returned with the previous page, absent for the first one.
+     * @return A ResponseEntity containing the page and the token of the next one.
+     */
+    @GetMapping("/siguientes")
+    public ResponseEntity<PaginaDTO<Movimiento>> findSiguientes(@RequestParam(name = "size", defaultValue = "20") int tamano,
+                                                                @RequestParam(required = false) String token) {
+        return ResponseEntity.ok(this.movimientoService.findSiguientes(token, tamano));
+    }
+
     /**
      * Retrieves a Movimiento entity by its ID.
      *
@@ -112,6 +142,19 @@ public class MovimientoController {
         return ResponseEntity.ok(Optional.ofNullable(movimientoService.editarLiquidacion(datosParaEditatLiq, id)));
     }
 
+    /**
+     * Simulates by Monte Carlo the uncertainty of the NSV difference of a Movimiento.
+     *
+     * @param id The ID of the Movimiento.
+     * @param incertidumbreInDTO The number of samples, seed, histogram classes and standard uncertainties.
+     * @return A ResponseEntity containing the distribution of the NSV difference if found, otherwise a 404 Not Found status.
+     */
+    @GetMapping("/incertidumbre/{id}")
+    public ResponseEntity<CalculationsLiqDistribucion> incertidumbre(@PathVariable("id") Long id,
+                                                                     @Valid @ModelAttribute IncertidumbreInDTO incertidumbreInDTO) {
+        return ResponseEntity.of(this.movimientoService.incertidumbre(id, incertidumbreInDTO));
+    }
+
     /**
      * Deletes a Movimiento by its ID.
      *
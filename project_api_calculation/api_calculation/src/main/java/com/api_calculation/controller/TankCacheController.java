@@ -0,0 +1,56 @@
+package com.api_calculation.controller;
+
+import com.api_calculation.client.TankClientCache;
+import com.api_calculation.client.TankClientFallback;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Controller that receives the notices of ms-infotank when a tank is updated or deleted.
+ */
+@RestController
+@RequestMapping("/tank-cache")
+public class TankCacheController {
+
+    private final TankClientCache tankClientCache;
+    private final TankClientFallback tankClientFallback;
+
+    /**
+     * Constructor to initialize the controller with the tank cache.
+     *
+     * @param tankClientCache Local cache of the tanks of ms-infotank.
+     * @param tankClientFallback Last known tanks, used while ms-infotank is not available.
+     */
+    public TankCacheController(TankClientCache tankClientCache, TankClientFallback tankClientFallback) {
+        this.tankClientCache = tankClientCache;
+        this.tankClientFallback = tankClientFallback;
+    }
+
+    /**
+     * Discards a tank from the cache.
+     *
+     * @param id the unique identifier of the tank.
+     * @return an empty response.
+     */
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> invalidar(@PathVariable("id") Long id) {
+        tankClientCache.invalidar(id);
+        tankClientFallback.olvidar(id);
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Discards every tank from the cache.
+     *
+     * @return an empty response.
+     */
+    @DeleteMapping
+    public ResponseEntity<Void> invalidarTodos() {
+        tankClientCache.invalidarTodos();
+        tankClientFallback.olvidarTodos();
+        return ResponseEntity.noContent().build();
+    }
+}
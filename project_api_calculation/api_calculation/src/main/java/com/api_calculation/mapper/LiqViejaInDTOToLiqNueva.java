@@ -40,13 +40,8 @@ public class LiqViejaInDTOToLiqNueva implements IMapper<DatosParaEditatLiq, Liqu
         nuevaLiquidacion.setBsw(in.getBsw());
         nuevaLiquidacion.setNombreTk(in.getNombreTk());
 
-        // Set additional properties of the Liquidacion entity from the DTO
-        nuevaLiquidacion.setFra(in.getFra());
-        nuevaLiquidacion.setCtsh(in.getCtsh());
-        nuevaLiquidacion.setGov(in.getGov());
-        nuevaLiquidacion.setCtl(in.getCtl());
-        nuevaLiquidacion.setGsv(in.getGsv());
-        nuevaLiquidacion.setNsv(in.getNsv());
+        // The results (FRA, CTSH, GOV, CTL, GSV and NSV) are not taken from the DTO,
+        // they are recalculated from the inputs by LiquidacionService.recalcular
 
         return nuevaLiquidacion;
     }
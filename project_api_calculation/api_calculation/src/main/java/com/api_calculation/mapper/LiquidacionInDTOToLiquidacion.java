@@ -1,30 +1,38 @@
 package com.api_calculation.mapper;
 
-import com.api_calculation.client.TankClientRest;
+import com.api_calculation.client.TankClientCache;
 import com.api_calculation.persistence.entity.Liquidacion;
+import com.api_calculation.persistence.entity.ModoCalculo;
 import com.api_calculation.persistence.entity.Tank;
 import com.api_calculation.service.dto.LiquidacionInDTO;
-import com.api_calculation.util.CalculationsLiq;
-import org.springframework.beans.factory.annotation.Autowired;
+import com.api_calculation.util.CalculationsLiqCache;
+import com.api_calculation.util.CalculationsLiqFijo;
+import com.api_calculation.util.CalculationsLiqResult;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import java.util.Optional;
-
 @Component
 /**
  * Implementation of the IMapper interface for mapping {@link LiquidacionInDTO} to {@link Liquidacion}.
  */
 public class LiquidacionInDTOToLiquidacion implements IMapper<LiquidacionInDTO, Liquidacion> {
 
-    private final TankClientRest tankClientRest;
+    private final TankClientCache tankClientCache;
+    private final CalculationsLiqCache calculationsLiqCache;
+    private final boolean puntoFijo;
 
     /**
-     * Constructor to initialize the mapper with a TankClientRest instance.
+     * Constructor to initialize the mapper with the tank cache.
      *
-     * @param tankClientRest Client for interacting with tank-related services.
+     * @param tankClientCache Local cache of the tanks of ms-infotank.
+     * @param calculationsLiqCache Cache of CTL and API observed results.
+     * @param puntoFijo Whether the volumes are calculated in fixed point with {@link CalculationsLiqFijo}.
      */
-    public LiquidacionInDTOToLiquidacion(TankClientRest tankClientRest) {
-        this.tankClientRest = tankClientRest;
+    public LiquidacionInDTOToLiquidacion(TankClientCache tankClientCache, CalculationsLiqCache calculationsLiqCache,
+                                         @Value("${liquidacion.punto-fijo.enabled:false}") boolean puntoFijo) {
+        this.tankClientCache = tankClientCache;
+        this.calculationsLiqCache = calculationsLiqCache;
+        this.puntoFijo = puntoFijo;
     }
 
     /**
@@ -36,27 +44,40 @@ public class LiquidacionInDTOToLiquidacion implements IMapper<LiquidacionInDTO,
     @Override
     public Liquidacion map(LiquidacionInDTO in) {
 
-        // Retrieve the Tank object associated with the given ID from the DTO
-        Optional<Tank> tank = tankClientRest.findById(in.getIdTank());
+        // Retrieve the Tank object associated with the given ID from the DTO, usually from the local cache
+        Tank tank = tankClientCache.findById(in.getIdTank())
+                .orElseThrow(() -> new IllegalArgumentException("No existe el tanque " + in.getIdTank()));
 
         // Instantiate a new Liquidacion entity
         Liquidacion liquidacion = new Liquidacion();
 
-        // Instantiate CalculationsLiq with values from the DTO and Tank object
-        CalculationsLiq calculationsLiq = new CalculationsLiq(
-                in.getABD(),
-                in.getGauge(),
-                in.getTov(),
-                in.getWaterGauge(),
-                in.getWaterTov(),
-                tank.get().getFra1(),
-                tank.get().getFra2(),
-                tank.get().getTempLamina(),
-                in.getTempL(),
-                in.getTAmb(),
-                in.getApi(),
-                in.getWater() + in.getSediment()
-        );
+        // Calculate the Liquidacion in a single pass with values from the DTO and Tank object,
+        // in fixed point when the results must not depend on the JVM
+        CalculationsLiqResult resultado = puntoFijo
+                ? CalculationsLiqFijo.liquidar(
+                        in.getABD(),
+                        in.getTov(),
+                        in.getWaterTov(),
+                        tank.getFra1(),
+                        tank.getFra2(),
+                        tank.getTempLamina(),
+                        in.getTempL(),
+                        in.getTAmb(),
+                        in.getApi(),
+                        in.getWater() + in.getSediment(),
+                        new CalculationsLiqResult())
+                : calculationsLiqCache.liquidar(
+                        in.getABD(),
+                        in.getTov(),
+                        in.getWaterTov(),
+                        tank.getFra1(),
+                        tank.getFra2(),
+                        tank.getTempLamina(),
+                        in.getTempL(),
+                        in.getTAmb(),
+                        in.getApi(),
+                        in.getWater() + in.getSediment(),
+                        new CalculationsLiqResult());
 
         // Set properties of the Liquidacion entity from the DTO and Tank object
         liquidacion.setABD(in.getABD());
@@ -64,22 +85,23 @@ public class LiquidacionInDTOToLiquidacion implements IMapper<LiquidacionInDTO,
         liquidacion.setTov(in.getTov());
         liquidacion.setWaterGauge(in.getWaterGauge());
         liquidacion.setWaterTov(in.getWaterTov());
-        liquidacion.setKFra1(tank.get().getFra1());
-        liquidacion.setKFra2(tank.get().getFra2());
-        liquidacion.setTLam(tank.get().getTempLamina());
+        liquidacion.setKFra1(tank.getFra1());
+        liquidacion.setKFra2(tank.getFra2());
+        liquidacion.setTLam(tank.getTempLamina());
         liquidacion.setTempL(in.getTempL());
         liquidacion.setTAmb(in.getTAmb());
         liquidacion.setApi60(in.getApi());
         liquidacion.setBsw(in.getWater() + in.getSediment());
-        liquidacion.setNombreTk(tank.get().getNombreTk());
+        liquidacion.setNombreTk(tank.getNombreTk());
 
-        // Set calculated values for Liquidacion based on the CalculationsLiq instance
-        liquidacion.setFra(calculationsLiq.fra());
-        liquidacion.setCtsh(calculationsLiq.ctsh());
-        liquidacion.setGov(calculationsLiq.gov());
-        liquidacion.setCtl(calculationsLiq.ctl());
-        liquidacion.setGsv(calculationsLiq.gsv());
-        liquidacion.setNsv(calculationsLiq.nsv());
+        // Set calculated values for Liquidacion based on the single pass result
+        liquidacion.setFra(resultado.getFra());
+        liquidacion.setCtsh(resultado.getCtsh());
+        liquidacion.setGov(resultado.getGov());
+        liquidacion.setCtl(resultado.getCtl());
+        liquidacion.setGsv(resultado.getGsv());
+        liquidacion.setNsv(resultado.getNsv());
+        liquidacion.setModoCalculo(puntoFijo ? ModoCalculo.PUNTO_FIJO : ModoCalculo.DOBLE);
 
         return liquidacion;
     }
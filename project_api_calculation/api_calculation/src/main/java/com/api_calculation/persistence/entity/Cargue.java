@@ -2,6 +2,9 @@ package com.api_calculation.persistence.entity;
 
 
 import lombok.Data;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import javax.persistence.*;
 import java.time.LocalDate;
@@ -10,11 +13,15 @@ import java.util.List;
 
 @Data
 @Entity
-@Table(name= "cargues")
+// The header is read far more than it is edited; the list of movements grows with each one, so it is not cached
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "cargues")
+@Table(name= "cargues", indexes = @Index(name = "idx_cargues_fecha", columnList = "fecha, id_cargue"))
 public class Cargue {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "cargues_seq")
+    @SequenceGenerator(name = "cargues_seq", sequenceName = "cargues_seq", allocationSize = 50)
     @Column(name="id_cargue")
     private Long id;
 
@@ -39,6 +46,8 @@ public class Cargue {
     @Column(name = "istrucciones", length = 300)
     private String instrucciones;
 
+    // Loaded for up to 100 Cargue entities of the persistence context in a single query
+    @BatchSize(size = 100)
     @OneToMany(mappedBy = "cargue", cascade = CascadeType.ALL)
     private List<Movimiento> listaMovimientos = new ArrayList<>();
 
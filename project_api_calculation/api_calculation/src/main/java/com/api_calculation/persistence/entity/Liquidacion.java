@@ -19,9 +19,12 @@ public class Liquidacion {
 
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "liquidaciones_seq")
+    @SequenceGenerator(name = "liquidaciones_seq", sequenceName = "liquidaciones_seq", allocationSize = 50)
     @Column(name = "id_liquidacion")
     private Long id;
+    @Version
+    private long version;
     String ABD;
     double gauge;
     double tov;
@@ -42,6 +45,10 @@ public class Liquidacion {
     double nsv;
     String nombreTk;
 
+    // How the server calculated the stored results, null when they were not calculated by the server
+    @Enumerated(EnumType.STRING)
+    ModoCalculo modoCalculo;
+
     double water;
     double sediment;
     double salt;
@@ -0,0 +1,17 @@
+package com.api_calculation.persistence.entity;
+
+/**
+ * Modo en que el servidor calculo los resultados guardados de una liquidacion.
+ */
+public enum ModoCalculo {
+
+    /**
+     * Calculated in double precision with CalculationsLiqEngine.
+     */
+    DOBLE,
+
+    /**
+     * Calculated in fixed point with CalculationsLiqFijo.
+     */
+    PUNTO_FIJO
+}
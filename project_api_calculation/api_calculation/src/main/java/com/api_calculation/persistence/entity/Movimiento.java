@@ -3,6 +3,7 @@ package com.api_calculation.persistence.entity;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.Data;
+import org.hibernate.annotations.BatchSize;
 
 import javax.persistence.*;
 import java.util.ArrayList;
@@ -16,15 +17,22 @@ public class Movimiento {
 
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "movimientos_seq")
+    @SequenceGenerator(name = "movimientos_seq", sequenceName = "movimientos_seq", allocationSize = 50)
     @Column(name="id_movimiento")
     private Long id;
 
+    // Increased with every edit of one of its Liquidacion entities, see MovimientoRepository.findByIdParaEditar
+    @Version
+    private long version;
+
     private double difTOV;
     private double difFw;
     private double difGsv;
     private double difNsv;
 
+    // Loaded for up to 100 Movimiento entities of the persistence context in a single query
+    @BatchSize(size = 100)
     @OneToMany(mappedBy = "movimiento", cascade = CascadeType.ALL)
     private List<Liquidacion> listaLIquidaciones = new ArrayList<>();
 
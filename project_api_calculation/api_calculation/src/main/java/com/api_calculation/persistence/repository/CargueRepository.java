@@ -1,7 +1,38 @@
 package com.api_calculation.persistence.repository;
 
 import com.api_calculation.persistence.entity.Cargue;
+import com.api_calculation.service.dto.CargueResumenDTO;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
 
 public interface CargueRepository extends JpaRepository <Cargue, Long> {
+
+    @Query(value = "select new com.api_calculation.service.dto.CargueResumenDTO(c.id, c.referencia, c.referenciaCliente, c.comprador, c.vendedor, c.destino, c.terminal, c.nombreBuque, c.fecha, size(c.listaMovimientos)) from Cargue c",
+            countQuery = "select count(c) from Cargue c")
+    Page<CargueResumenDTO> findResumenes(Pageable paginacion);
+
+    /**
+     * Finds the first Cargue entities from the most recent, the ones without date last, without counting them.
+     */
+    @Query("select c from Cargue c order by c.fecha desc nulls last, c.id desc")
+    Slice<Cargue> findRecientes(Pageable paginacion);
+
+    /**
+     * Finds the Cargue entities after a date and ID, in the order of {@link #findRecientes(Pageable)}.
+     */
+    @Query("select c from Cargue c where c.fecha < :fecha or (c.fecha = :fecha and c.id < :id) or c.fecha is null"
+            + " order by c.fecha desc nulls last, c.id desc")
+    Slice<Cargue> findRecientesDespuesDe(@Param("fecha") LocalDate fecha, @Param("id") Long id, Pageable paginacion);
+
+    /**
+     * Finds the Cargue entities without date after an ID, in the order of {@link #findRecientes(Pageable)}.
+     */
+    @Query("select c from Cargue c where c.fecha is null and c.id < :id order by c.id desc")
+    Slice<Cargue> findSinFechaDespuesDe(@Param("id") Long id, Pageable paginacion);
 }
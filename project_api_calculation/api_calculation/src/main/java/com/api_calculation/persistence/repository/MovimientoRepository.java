@@ -1,7 +1,42 @@
 package com.api_calculation.persistence.repository;
 
 import com.api_calculation.persistence.entity.Movimiento;
+import com.api_calculation.service.dto.MovimientoResumenDTO;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import javax.persistence.LockModeType;
+import java.util.Optional;
 
 public interface MovimientoRepository extends JpaRepository<Movimiento, Long> {
+
+    /**
+     * Finds a Movimiento with its Liquidacion entities in the same query.
+     */
+    @Override
+    @EntityGraph(attributePaths = "listaLIquidaciones")
+    Optional<Movimiento> findById(Long id);
+
+    /**
+     * Finds a Movimiento to edit one of its Liquidacion entities. Its version is increased when the transaction
+     * ends, even if it did not change, so two edits of the same Movimiento at the same time conflict.
+     */
+    @Lock(LockModeType.OPTIMISTIC_FORCE_INCREMENT)
+    @Query("select m from Movimiento m where m.id = :id")
+    Optional<Movimiento> findByIdParaEditar(@Param("id") Long id);
+
+    @Query(value = "select new com.api_calculation.service.dto.MovimientoResumenDTO(m.id, m.cargue.id, m.difTOV, m.difFw, m.difGsv, m.difNsv) from Movimiento m",
+            countQuery = "select count(m) from Movimiento m")
+    Page<MovimientoResumenDTO> findResumenes(Pageable paginacion);
+
+    /**
+     * Finds the Movimiento entities after an ID, without counting them.
+     */
+    Slice<Movimiento> findByIdGreaterThan(Long id, Pageable paginacion);
 }
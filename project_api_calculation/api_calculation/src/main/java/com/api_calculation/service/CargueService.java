@@ -2,11 +2,18 @@ package com.api_calculation.service;
 
 import com.api_calculation.persistence.entity.Cargue;
 import com.api_calculation.persistence.repository.CargueRepository;
+import com.api_calculation.service.dto.CargueResumenDTO;
 import com.api_calculation.service.dto.DatosEditarCargueDTO;
+import com.api_calculation.service.dto.PaginaDTO;
+import com.compartido.util.TokenContinuacion;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
 import java.util.List;
 import java.util.Optional;
 
@@ -17,6 +24,11 @@ import java.util.Optional;
 @Service
 public class CargueService {
 
+    /**
+     * Maximum number of Cargue entities in a page of {@link #findSiguientes(String, int)}.
+     */
+    public static final int MAXIMO_PAGINA = 100;
+
     private CargueRepository cargueRepository;
 
     /**
@@ -71,6 +83,58 @@ public class CargueService {
         return cargueRepository.findAll(paginacion);
     }
 
+    /**
+     * Finds the summaries of the Cargue entities with pagination, without their Movimiento entities.
+     *
+     * @param paginacion Pagination information.
+     * @return A page of Cargue summaries.
+     */
+    public Page<CargueResumenDTO> findResumenes(Pageable paginacion){
+        return cargueRepository.findResumenes(paginacion);
+    }
+
+    /**
+     * Finds the Cargue entities after the ones of the previous page, from the most recent date, with the ones
+     * without date last, without counting them.
+     *
+     * @param token Token returned with the previous page, or {@code null} for the first one.
+     * @param tamano Number of Cargue entities in the page, at most {@link #MAXIMO_PAGINA}.
+     * @return The page, with the token of the next one if there are more.
+     */
+    public PaginaDTO<Cargue> findSiguientes(String token, int tamano){
+        TokenContinuacion.validarTamano(tamano, MAXIMO_PAGINA);
+        Pageable paginacion = PageRequest.of(0, tamano);
+
+        Slice<Cargue> pagina;
+        if (token == null) {
+            pagina = cargueRepository.findRecientes(paginacion);
+        } else {
+            String[] ultimo = TokenContinuacion.leer(token, 2);
+            Long id = Long.valueOf(ultimo[1]);
+            if (ultimo[0].isEmpty()) {
+                pagina = cargueRepository.findSinFechaDespuesDe(id, paginacion);
+            } else {
+                pagina = cargueRepository.findRecientesDespuesDe(fecha(ultimo[0], token), id, paginacion);
+            }
+        }
+
+        List<Cargue> contenido = pagina.getContent();
+        String siguiente = null;
+        if (pagina.hasNext()) {
+            Cargue ultimo = contenido.get(contenido.size() - 1);
+            siguiente = TokenContinuacion.crear(ultimo.getFecha(), ultimo.getId());
+        }
+        return new PaginaDTO<>(contenido, siguiente);
+    }
+
+    private static LocalDate fecha(String valor, String token) {
+        try {
+            return LocalDate.parse(valor);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Token de continuacion invalido: " + token, e);
+        }
+    }
+
     /**
      * Deletes a Cargue entity by its ID.
      *
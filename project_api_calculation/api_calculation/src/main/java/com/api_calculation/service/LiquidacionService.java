@@ -1,15 +1,55 @@
 package com.api_calculation.service;
 
+import com.api_calculation.client.TankClientCache;
+import com.api_calculation.client.TankClientRest;
 import com.api_calculation.mapper.LiquidacionInDTOToLiquidacion;
 import com.api_calculation.persistence.entity.Liquidacion;
+import com.api_calculation.persistence.entity.ModoCalculo;
 import com.api_calculation.persistence.entity.Movimiento;
+import com.api_calculation.persistence.entity.Tank;
 import com.api_calculation.persistence.repository.LiquidacionRepository;
+import com.api_calculation.service.dto.BarridoInDTO;
+import com.api_calculation.service.dto.ConsultaAforoInDTO;
+import com.api_calculation.service.dto.IncertidumbreInDTO;
 import com.api_calculation.service.dto.LiquidacionInDTO;
+import com.api_calculation.service.dto.LoteLiquidacionInDTO;
+import com.api_calculation.service.dto.LoteLiquidacionOutDTO;
+import com.api_calculation.service.dto.PlanCargueInDTO;
+import com.api_calculation.service.dto.PlanCargueOutDTO;
+import com.api_calculation.service.dto.PlanTanqueInDTO;
+import com.api_calculation.service.dto.RangoBarridoDTO;
+import com.api_calculation.service.dto.TablaAforoDTO;
+import com.api_calculation.util.CalculationsLiqBarrido;
+import com.api_calculation.util.CalculationsLiqBatch;
+import com.api_calculation.util.CalculationsLiqDistribucion;
+import com.api_calculation.util.CalculationsLiqEngine;
+import com.api_calculation.util.CalculationsLiqFijo;
+import com.api_calculation.util.CalculationsLiqIncremental;
+import com.api_calculation.util.CalculationsLiqIncremental.Variable;
+import com.api_calculation.util.CalculationsLiqIncertidumbre;
+import com.api_calculation.util.CalculationsLiqInverso;
+import com.api_calculation.util.CalculationsLiqKernel;
+import com.api_calculation.util.CalculationsLiqResult;
+import com.api_calculation.util.CalculationsLiqTabla;
+import com.api_calculation.util.VariableBarrido;
+import com.compartido.util.TablaAforoIndice;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
 
 @Service
 /**
@@ -30,6 +70,26 @@ public class LiquidacionService {
     @Autowired
     private LiquidacionRepository liquidacionRepository;
 
+    // Autowired client for retrieving the strapping tables of the tanks
+    @Autowired
+    private TankClientRest tankClientRest;
+
+    // Autowired local cache for retrieving the tank constants of a batch
+    @Autowired
+    private TankClientCache tankClientCache;
+
+    // Autowired precalculated CTL tables, used for the batches that ask for approximate results when they are enabled
+    @Autowired
+    private CalculationsLiqTabla calculationsLiqTabla;
+
+    // Autowired JSON mapper, used to stream the results of a sweep
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // Whether the results are calculated in fixed point, see CalculationsLiqFijo
+    @Value("${liquidacion.punto-fijo.enabled:false}")
+    private boolean puntoFijo;
+
     /**
      * Creates a new Liquidacion entity based on the provided DTO and ID.
      *
@@ -46,7 +106,8 @@ public class LiquidacionService {
     }
 
     /**
-     * Creates an initial Liquidacion entity based on the provided Movimiento.
+     * Creates an initial Liquidacion entity based on the provided Movimiento, without saving it: it is saved with
+     * the Movimiento, which cascades to its Liquidacion entities.
      *
      * @param movimiento Movimiento entity used to initialize the Liquidacion.
      * @return The newly created initial Liquidacion entity.
@@ -75,8 +136,7 @@ public class LiquidacionService {
         liquidacionInicial.setNsv(0);
         liquidacionInicial.setMovimiento(movimiento);
 
-        // Save initial Liquidacion entity to repository
-        return liquidacionRepository.save(liquidacionInicial);
+        return liquidacionInicial;
     }
 
     /**
@@ -91,6 +151,443 @@ public class LiquidacionService {
         return liquidacion;
     }
 
+    /**
+     * Recalculates the results of an edited Liquidacion, only those affected by the inputs that changed,
+     * taking the others from the stored Liquidacion. The stored results are only reused when the server calculated
+     * them in the current mode: a Liquidacion that has never been calculated, as the ones created by
+     * {@link #crearLiqInicial(Movimiento)}, one whose results were saved from the values sent by a client, one
+     * calculated in the other mode, and every Liquidacion in fixed point mode are calculated from all of their inputs.
+     *
+     * @param anterior The stored Liquidacion, with the results calculated from its inputs.
+     * @param editada Liquidacion with the edited inputs, its results are replaced.
+     * @return The results that were recalculated.
+     */
+    public EnumSet<Variable> recalcular(Liquidacion anterior, Liquidacion editada){
+        CalculationsLiqResult resultado = new CalculationsLiqResult();
+        EnumSet<Variable> recalculadas;
+
+        if (puntoFijo) {
+            CalculationsLiqFijo.liquidar(editada.getABD(), editada.getTov(), editada.getWaterTov(), editada.getKFra1(),
+                    editada.getKFra2(), editada.getTLam(), editada.getTempL(), editada.getTAmb(), editada.getApi60(),
+                    editada.getBsw(), resultado);
+            recalculadas = EnumSet.range(Variable.CTL_API_OBS, Variable.NSV);
+            editada.setModoCalculo(ModoCalculo.PUNTO_FIJO);
+        } else {
+            // Inputs that changed, all of them when the stored results were not calculated in double precision
+            EnumSet<Variable> cambiadas = EnumSet.noneOf(Variable.class);
+            if (anterior.getModoCalculo() != ModoCalculo.DOBLE) {
+                cambiadas = EnumSet.range(Variable.ABD, Variable.BSW);
+            } else {
+                agregarSiCambia(cambiadas, Variable.ABD, !Objects.equals(anterior.getABD(), editada.getABD()));
+                agregarSiCambia(cambiadas, Variable.API60, Double.compare(anterior.getApi60(), editada.getApi60()) != 0);
+                agregarSiCambia(cambiadas, Variable.TEMP_L, Double.compare(anterior.getTempL(), editada.getTempL()) != 0);
+                agregarSiCambia(cambiadas, Variable.T_AMB, Double.compare(anterior.getTAmb(), editada.getTAmb()) != 0);
+                agregarSiCambia(cambiadas, Variable.T_LAM, Double.compare(anterior.getTLam(), editada.getTLam()) != 0);
+                agregarSiCambia(cambiadas, Variable.TOV, Double.compare(anterior.getTov(), editada.getTov()) != 0);
+                agregarSiCambia(cambiadas, Variable.WATER_TOV, Double.compare(anterior.getWaterTov(), editada.getWaterTov()) != 0);
+                agregarSiCambia(cambiadas, Variable.K_FRA1, Double.compare(anterior.getKFra1(), editada.getKFra1()) != 0);
+                agregarSiCambia(cambiadas, Variable.K_FRA2, Double.compare(anterior.getKFra2(), editada.getKFra2()) != 0);
+                agregarSiCambia(cambiadas, Variable.BSW, Double.compare(anterior.getBsw(), editada.getBsw()) != 0);
+            }
+
+            // Start from the stored results, API observed is not stored and is calculated again when needed
+            resultado.setFra(anterior.getFra());
+            resultado.setCtsh(anterior.getCtsh());
+            resultado.setGov(anterior.getGov());
+            resultado.setCtl(anterior.getCtl());
+            resultado.setGsv(anterior.getGsv());
+            resultado.setNsv(anterior.getNsv());
+            recalculadas = CalculationsLiqIncremental.recalcular(cambiadas, editada.getABD(), editada.getTov(),
+                    editada.getWaterTov(), editada.getKFra1(), editada.getKFra2(), editada.getTLam(), editada.getTempL(),
+                    editada.getTAmb(), editada.getApi60(), editada.getBsw(), resultado);
+            editada.setModoCalculo(ModoCalculo.DOBLE);
+        }
+
+        editada.setFra(resultado.getFra());
+        editada.setCtsh(resultado.getCtsh());
+        editada.setGov(resultado.getGov());
+        editada.setCtl(resultado.getCtl());
+        editada.setGsv(resultado.getGsv());
+        editada.setNsv(resultado.getNsv());
+        return recalculadas;
+    }
+
+    private static void agregarSiCambia(EnumSet<Variable> cambiadas,
+                                        Variable variable, boolean cambia){
+        if (cambia) {
+            cambiadas.add(variable);
+        }
+    }
+
+    /**
+     * Calculates a batch of readings given by columns without saving them.
+     * The tanks of the batch are retrieved together, in a single call for the ones that are not in the cache.
+     * When the batch has gauges instead of TOV and free water, the volumes of all of them are retrieved from
+     * the strapping tables of ms-infotank in a single call. CTL and API observed are exact unless the batch asks for
+     * approximate results and the precalculated tables are enabled, see {@link CalculationsLiqTabla}. In fixed point
+     * mode every reading is calculated with {@link CalculationsLiqFijo} and the tables are not used.
+     *
+     * @param lote Data transfer object with one array per input variable, all of the same length.
+     * @return The calculated values, in the same order as the readings of the batch.
+     */
+    public LoteLiquidacionOutDTO liquidarLote(LoteLiquidacionInDTO lote){
+        int n = lote.getABD().length;
+        if (lote.getIdTank().length != n || lote.getWater().length != n || lote.getSediment().length != n) {
+            throw new IllegalArgumentException("Todas las columnas del lote deben tener " + n + " lecturas");
+        }
+
+        // Convert the columns that are not sent directly by the client
+        byte[] grupo = new byte[n];
+        double[] kFra1 = new double[n];
+        double[] kFra2 = new double[n];
+        double[] tLam = new double[n];
+        double[] bsw = new double[n];
+        Map<Long, Tank> tanques = tankClientCache.findAllById(ids(lote.getIdTank()));
+        for (int i = 0; i < n; i++) {
+            Tank tank = tanque(tanques, lote.getIdTank()[i]);
+            grupo[i] = CalculationsLiqEngine.codigo(lote.getABD()[i]);
+            kFra1[i] = tank.getFra1();
+            kFra2[i] = tank.getFra2();
+            tLam[i] = tank.getTempLamina();
+            bsw[i] = lote.getWater()[i] + lote.getSediment()[i];
+        }
+
+        double[] tov = lote.getTov();
+        double[] waterTov = lote.getWaterTov();
+        if (tov == null || waterTov == null) {
+            double[][] volumenes = volumenes(lote.getIdTank(), lote.getGauge(), lote.getWaterGauge());
+            tov = volumenes[0];
+            waterTov = volumenes[1];
+        }
+
+        LoteLiquidacionOutDTO resultado = new LoteLiquidacionOutDTO();
+        if (puntoFijo) {
+            // The fixed point calculation has no batch version, the readings are calculated one at a time
+            resultado.setApiObs(new double[n]);
+            resultado.setFra(new double[n]);
+            resultado.setCtsh(new double[n]);
+            resultado.setGov(new double[n]);
+            resultado.setCtl(new double[n]);
+            resultado.setGsv(new double[n]);
+            resultado.setNsv(new double[n]);
+            CalculationsLiqResult out = new CalculationsLiqResult();
+            for (int i = 0; i < n; i++) {
+                CalculationsLiqFijo.liquidar(lote.getABD()[i], tov[i], waterTov[i], kFra1[i], kFra2[i], tLam[i],
+                        lote.getTempL()[i], lote.getTAmb()[i], lote.getApi()[i], bsw[i], out);
+                resultado.getApiObs()[i] = out.getApiObs();
+                resultado.getFra()[i] = out.getFra();
+                resultado.getCtsh()[i] = out.getCtsh();
+                resultado.getGov()[i] = out.getGov();
+                resultado.getCtl()[i] = out.getCtl();
+                resultado.getGsv()[i] = out.getGsv();
+                resultado.getNsv()[i] = out.getNsv();
+            }
+            resultado.setModoCalculo(ModoCalculo.PUNTO_FIJO);
+            return resultado;
+        }
+
+        // Calculate the batch, interpolating CTL and API observed only when the client accepts approximate results
+        boolean aproximado = lote.isAproximado() && calculationsLiqTabla.isHabilitada();
+        CalculationsLiqKernel kernel = aproximado ? calculationsLiqTabla : CalculationsLiqKernel.disponible();
+        CalculationsLiqBatch batch = new CalculationsLiqBatch(kernel, grupo, tov, waterTov, kFra1, kFra2,
+                tLam, lote.getTempL(), lote.getTAmb(), lote.getApi(), bsw).liquidar();
+
+        resultado.setApiObs(batch.getApiObs());
+        resultado.setFra(batch.getFra());
+        resultado.setCtsh(batch.getCtsh());
+        resultado.setGov(batch.getGov());
+        resultado.setCtl(batch.getCtl());
+        resultado.setGsv(batch.getGsv());
+        resultado.setNsv(batch.getNsv());
+        resultado.setAproximado(aproximado);
+        resultado.setModoCalculo(ModoCalculo.DOBLE);
+        return resultado;
+    }
+
+    /**
+     * Prepares a sensitivity sweep of a reading, validating the ranges and retrieving the tank, so that
+     * errors are detected before any result is sent.
+     *
+     * @param barridoInDTO Data transfer object with the base reading and the ranges of 1 to 3 variables.
+     * @return The sweep, ready to be calculated with {@link #escribirBarrido(CalculationsLiqBarrido, OutputStream)}.
+     * @throws IllegalArgumentException in fixed point mode, since the sweep is only calculated in double precision.
+     */
+    public CalculationsLiqBarrido barrido(BarridoInDTO barridoInDTO){
+        if (puntoFijo) {
+            throw new IllegalArgumentException("El barrido de sensibilidad no esta disponible en modo punto fijo");
+        }
+        LiquidacionInDTO base = barridoInDTO.getBase();
+        Tank tank = tankClientCache.findById(base.getIdTank())
+                .orElseThrow(() -> new IllegalArgumentException("No existe el tanque " + base.getIdTank()));
+
+        int n = barridoInDTO.getRangos().size();
+        VariableBarrido[] variables = new VariableBarrido[n];
+        double[] desde = new double[n];
+        double[] hasta = new double[n];
+        double[] paso = new double[n];
+        for (int v = 0; v < n; v++) {
+            RangoBarridoDTO rango = barridoInDTO.getRangos().get(v);
+            variables[v] = rango.getVariable();
+            desde[v] = rango.getDesde();
+            hasta[v] = rango.getHasta();
+            paso[v] = rango.getPaso();
+        }
+
+        return new CalculationsLiqBarrido(CalculationsLiqKernel.disponible(), CalculationsLiqEngine.codigo(base.getABD()), base.getTov(),
+                base.getWaterTov(), tank.getFra1(), tank.getFra2(), tank.getTempLamina(), base.getTempL(),
+                base.getTAmb(), base.getApi(), base.getWater() + base.getSediment(), variables, desde, hasta, paso);
+    }
+
+    /**
+     * Calculates a sweep and writes one JSON object per line as the results are produced, with the values
+     * of the swept variables followed by ctl, ctsh, gov, gsv and nsv.
+     *
+     * @param barrido The sweep prepared by {@link #barrido(BarridoInDTO)}.
+     * @param salida Stream where the results are written, it is flushed after each block of points.
+     * @throws IOException if the results cannot be written, for example because the client disconnected.
+     */
+    public void escribirBarrido(CalculationsLiqBarrido barrido, OutputStream salida) throws IOException {
+        VariableBarrido[] variables = barrido.getVariables();
+        try (JsonGenerator json = objectMapper.getFactory().createGenerator(salida)) {
+            json.setPrettyPrinter(new MinimalPrettyPrinter("\n"));
+            barrido.barrer((inicio, bloque) -> {
+                for (int i = 0; i < bloque.size(); i++) {
+                    json.writeStartObject();
+                    for (int v = 0; v < variables.length; v++) {
+                        json.writeNumberField(variables[v].getNombre(), barrido.valor(v, inicio + i));
+                    }
+                    json.writeNumberField("ctl", bloque.getCtl()[i]);
+                    json.writeNumberField("ctsh", bloque.getCtsh()[i]);
+                    json.writeNumberField("gov", bloque.getGov()[i]);
+                    json.writeNumberField("gsv", bloque.getGsv()[i]);
+                    json.writeNumberField("nsv", bloque.getNsv()[i]);
+                    json.writeEndObject();
+                }
+                json.flush();
+            });
+            json.writeRaw('\n');
+        }
+    }
+
+    /**
+     * Simulates the NSV uncertainty of a Liquidacion entity from the tolerances of its measurements.
+     *
+     * @param id ID of the Liquidacion entity.
+     * @param in Parameters of the simulation.
+     * @return An {@link Optional} containing the distribution of the NSV, or empty if the Liquidacion does not exist.
+     */
+    public Optional<CalculationsLiqDistribucion> incertidumbre(Long id, IncertidumbreInDTO in){
+        return liquidacionRepository.findById(id).map(liquidacion -> simular(in, liquidacion));
+    }
+
+    /**
+     * Simulates the uncertainty of the NSV of the first Liquidacion minus the NSV of the others, recalculating
+     * each sample from the stored measurements and tank constants.
+     *
+     * @param in Parameters of the simulation.
+     * @param liquidaciones Liquidacion entities, the first one with positive sign.
+     * @return The distribution of the simulated value.
+     * @throws IllegalArgumentException in fixed point mode, since the samples are only calculated in double precision.
+     */
+    public CalculationsLiqDistribucion simular(IncertidumbreInDTO in, Liquidacion... liquidaciones){
+        if (puntoFijo) {
+            throw new IllegalArgumentException("La simulacion de incertidumbre no esta disponible en modo punto fijo");
+        }
+        CalculationsLiqIncertidumbre simulacion = new CalculationsLiqIncertidumbre(in.getTolGauge(), in.getTolTempL(),
+                in.getTolApi(), in.getTolBsw());
+        for (int i = 0; i < liquidaciones.length; i++) {
+            Liquidacion l = liquidaciones[i];
+            simulacion.lectura(i == 0 ? 1 : -1, l.getABD(), l.getGauge(), l.getTov(), l.getWaterTov(), l.getKFra1(),
+                    l.getKFra2(), l.getTLam(), l.getTempL(), l.getTAmb(), l.getApi60(), l.getBsw());
+        }
+        return simulacion.simular(in.getMuestras(), in.getSemilla(), in.getClases());
+    }
+
+    /**
+     * Calculates the gauge to which a tank must be pumped to deliver a Net Standard Volume, without saving it.
+     *
+     * @param in Current reading of the tank and NSV to deliver.
+     * @return The Liquidacion at the calculated gauge, with the TOV from the strapping table of the tank.
+     * @throws IllegalArgumentException if the calculated gauge is in the critical zone of the tank.
+     */
+    public Liquidacion planTanque(PlanTanqueInDTO in){
+        Tank tank = tankClientCache.findById(in.getIdTank())
+                .orElseThrow(() -> new IllegalArgumentException("No existe el tanque " + in.getIdTank()));
+        TablaAforoIndice tabla = tablaAforo(tank);
+        CalculationsLiqResult resultado = new CalculationsLiqResult();
+        double gauge = planificar(tank, tabla, in.getABD(), in.getGauge(), in.getWaterGauge(), in.getTempL(),
+                in.getTAmb(), in.getApi(), in.getWater() + in.getSediment(), in.getEntrega(),
+                new CalculationsLiqResult(), resultado);
+        if (tabla.enZonaCritica(gauge)) {
+            throw new IllegalArgumentException("El gauge planeado " + gauge + " cae en la zona critica del tanque "
+                    + tank.getId() + ", entre " + tank.getInicioZonaCritica() + " y " + tank.getFinalZonaCritica());
+        }
+
+        Liquidacion liquidacion = new Liquidacion();
+        liquidacion.setABD(in.getABD());
+        liquidacion.setGauge(gauge);
+        liquidacion.setTov(tabla.volumen(gauge));
+        liquidacion.setWaterGauge(in.getWaterGauge());
+        liquidacion.setWaterTov(tabla.volumen(in.getWaterGauge()));
+        liquidacion.setKFra1(tank.getFra1());
+        liquidacion.setKFra2(tank.getFra2());
+        liquidacion.setTLam(tank.getTempLamina());
+        liquidacion.setTempL(in.getTempL());
+        liquidacion.setTAmb(in.getTAmb());
+        liquidacion.setApi60(in.getApi());
+        liquidacion.setBsw(in.getWater() + in.getSediment());
+        liquidacion.setNombreTk(tank.getNombreTk());
+        liquidacion.setFra(resultado.getFra());
+        liquidacion.setCtsh(resultado.getCtsh());
+        liquidacion.setGov(resultado.getGov());
+        liquidacion.setCtl(resultado.getCtl());
+        liquidacion.setGsv(resultado.getGsv());
+        liquidacion.setNsv(resultado.getNsv());
+        liquidacion.setModoCalculo(puntoFijo ? ModoCalculo.PUNTO_FIJO : ModoCalculo.DOBLE);
+        return liquidacion;
+    }
+
+    /**
+     * Calculates the final gauge of every tank of a cargo, each with its own reading and NSV to deliver.
+     * The tank data and strapping table of each tank are retrieved once.
+     *
+     * @param plan Data transfer object with one array per input variable, one position per tank.
+     * @return The final gauge, TOV and NSV of each tank, in the same order, whether each final gauge is in the
+     *         critical zone of its tank, and the total delivered.
+     */
+    public PlanCargueOutDTO planCargue(PlanCargueInDTO plan){
+        int n = plan.getIdTank().length;
+        if (plan.getABD().length != n || plan.getGauge().length != n || plan.getWaterGauge().length != n
+                || plan.getTempL().length != n || plan.getTAmb().length != n || plan.getApi().length != n
+                || plan.getWater().length != n || plan.getSediment().length != n || plan.getEntrega().length != n) {
+            throw new IllegalArgumentException("Todas las columnas del plan deben tener " + n + " tanques");
+        }
+
+        Map<Long, Tank> tanques = tankClientCache.findAllById(ids(plan.getIdTank()));
+        Map<Long, TablaAforoIndice> tablas = new HashMap<>();
+        PlanCargueOutDTO resultado = new PlanCargueOutDTO();
+        resultado.setGauge(new double[n]);
+        resultado.setTov(new double[n]);
+        resultado.setNsvInicial(new double[n]);
+        resultado.setNsv(new double[n]);
+        resultado.setEntregado(new double[n]);
+        resultado.setNsvPorMm(new double[n]);
+        resultado.setZonaCritica(new boolean[n]);
+        CalculationsLiqResult inicial = new CalculationsLiqResult();
+        CalculationsLiqResult out = new CalculationsLiqResult();
+        double total = 0;
+        for (int i = 0; i < n; i++) {
+            long idTank = plan.getIdTank()[i];
+            Tank tank = tanque(tanques, idTank);
+            TablaAforoIndice tabla = tablas.computeIfAbsent(idTank, id -> tablaAforo(tank));
+            double bsw = plan.getWater()[i] + plan.getSediment()[i];
+
+            double gauge = planificar(tank, tabla, plan.getABD()[i], plan.getGauge()[i], plan.getWaterGauge()[i],
+                    plan.getTempL()[i], plan.getTAmb()[i], plan.getApi()[i], bsw, plan.getEntrega()[i], inicial, out);
+            resultado.getGauge()[i] = gauge;
+            resultado.getTov()[i] = tabla.volumen(gauge);
+            resultado.getZonaCritica()[i] = tabla.enZonaCritica(gauge);
+            resultado.getNsvInicial()[i] = inicial.getNsv();
+            resultado.getNsv()[i] = out.getNsv();
+            resultado.getEntregado()[i] = (double) Math.round((inicial.getNsv() - out.getNsv()) * 100d) / 100;
+            resultado.getNsvPorMm()[i] = CalculationsLiqInverso.nsvPorMm(tabla, gauge, bsw, out);
+            total += resultado.getEntregado()[i];
+        }
+        resultado.setTotalEntregado((double) Math.round(total * 100d) / 100);
+        resultado.setModoCalculo(puntoFijo ? ModoCalculo.PUNTO_FIJO : ModoCalculo.DOBLE);
+        return resultado;
+    }
+
+    /**
+     * Liquidates the current reading of a tank and calculates the gauge at which it holds that NSV minus
+     * the NSV to deliver, with the same temperatures, API, BS&W and water gauge. In fixed point mode both
+     * liquidations are calculated with {@link CalculationsLiqFijo}; the gauge is still searched in double precision,
+     * so the final NSV can differ from the one wanted by the rounding of the fixed point inputs.
+     *
+     * @return The final gauge; the current and final liquidations are set in {@code inicial} and {@code out}.
+     */
+    private double planificar(Tank tank, TablaAforoIndice tabla, String ABD, double gauge, double waterGauge,
+                              double tempL, double tAmb, double api, double bsw, double entrega,
+                              CalculationsLiqResult inicial, CalculationsLiqResult out){
+        byte grupo = CalculationsLiqEngine.codigo(ABD);
+        double waterTov = tabla.volumen(waterGauge);
+        if (puntoFijo) {
+            CalculationsLiqFijo.liquidar(ABD, tabla.volumen(gauge), waterTov, tank.getFra1(), tank.getFra2(),
+                    tank.getTempLamina(), tempL, tAmb, api, bsw, inicial);
+        } else {
+            CalculationsLiqEngine.liquidar(grupo, tabla.volumen(gauge), waterTov, tank.getFra1(), tank.getFra2(),
+                    tank.getTempLamina(), tempL, tAmb, api, bsw, inicial);
+        }
+        double planeado = CalculationsLiqInverso.gauge(tabla, inicial.getNsv() - entrega, grupo, waterTov,
+                tank.getFra1(), tank.getFra2(), tank.getTempLamina(), tempL, tAmb, api, bsw, out);
+        if (puntoFijo) {
+            CalculationsLiqFijo.liquidar(ABD, tabla.volumen(planeado), waterTov, tank.getFra1(), tank.getFra2(),
+                    tank.getTempLamina(), tempL, tAmb, api, bsw, out);
+        }
+        return planeado;
+    }
+
+    /**
+     * Retrieves the strapping table of a tank, with its fractional table if it has one.
+     *
+     * @throws IllegalArgumentException if the tank has no strapping table.
+     */
+    private TablaAforoIndice tablaAforo(Tank tank){
+        TablaAforoDTO principal = tankClientRest.findTablaAforo(tank.getId(), "PRINCIPAL")
+                .orElseThrow(() -> new IllegalArgumentException("El tanque " + tank.getId() + " no tiene tabla de aforo"));
+        TablaAforoDTO fraccional = tankClientRest.findTablaAforo(tank.getId(), "FRACCIONAL").orElse(null);
+        return new TablaAforoIndice(principal.getNivel(), principal.getVolumen(),
+                fraccional == null ? null : fraccional.getNivel(), fraccional == null ? null : fraccional.getVolumen(),
+                tank.getInicioZonaCritica(), tank.getFinalZonaCritica());
+    }
+
+    /**
+     * Retrieves the TOV and free water of the gauges of a batch in a single call to ms-infotank. The product and
+     * water gauges of each reading are sent one after the other, so that ms-infotank uses each table for both.
+     *
+     * @return The TOV and the free water of each reading.
+     * @throws IllegalArgumentException if the batch has no volumes and no gauges for every reading.
+     */
+    private double[][] volumenes(long[] idTank, double[] gauge, double[] waterGauge){
+        int n = idTank.length;
+        if (gauge == null || waterGauge == null || gauge.length != n || waterGauge.length != n) {
+            throw new IllegalArgumentException("El lote debe tener tov y waterTov, o gauge y waterGauge, de " + n + " lecturas");
+        }
+        long[] tanques = new long[2 * n];
+        double[] niveles = new double[2 * n];
+        for (int i = 0; i < n; i++) {
+            tanques[2 * i] = idTank[i];
+            tanques[2 * i + 1] = idTank[i];
+            niveles[2 * i] = gauge[i];
+            niveles[2 * i + 1] = waterGauge[i];
+        }
+
+        double[] volumenes = tankClientRest.volumenes(new ConsultaAforoInDTO(tanques, niveles)).getTov();
+        double[][] resultado = new double[2][n];
+        for (int i = 0; i < n; i++) {
+            resultado[0][i] = volumenes[2 * i];
+            resultado[1][i] = volumenes[2 * i + 1];
+        }
+        return resultado;
+    }
+
+    /**
+     * Retrieves a tank of a batch, already fetched with {@link TankClientCache#findAllById(java.util.Collection)}.
+     *
+     * @throws IllegalArgumentException if the tank does not exist.
+     */
+    private static Tank tanque(Map<Long, Tank> tanques, long idTank){
+        Tank tank = tanques.get(idTank);
+        if (tank == null) {
+            throw new IllegalArgumentException("No existe el tanque " + idTank);
+        }
+        return tank;
+    }
+
+    private static List<Long> ids(long[] idTank){
+        return LongStream.of(idTank).boxed().collect(Collectors.toList());
+    }
+
     /**
      * Finds all Liquidacion entities in the repository.
      *
@@ -7,15 +7,36 @@ import com.api_calculation.persistence.entity.Liquidacion;
 import com.api_calculation.persistence.entity.Movimiento;
 import com.api_calculation.persistence.repository.MovimientoRepository;
 import com.api_calculation.service.dto.DatosParaEditatLiq;
+import com.api_calculation.service.dto.IncertidumbreInDTO;
 import com.api_calculation.service.dto.LiquidacionInDTO;
+import com.api_calculation.service.dto.MovimientoResumenDTO;
+import com.api_calculation.service.dto.PaginaDTO;
+import com.api_calculation.util.CalculationsLiqDistribucion;
+import com.api_calculation.util.CalculationsLiqIncremental.Variable;
+import com.compartido.util.TokenContinuacion;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.Data;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
 
 @Data
 @Service
@@ -26,6 +47,13 @@ import java.util.Optional;
  */
 public class MovimientoService {
 
+    /**
+     * Maximum number of Movimiento entities in a page of {@link #findSiguientes(String, int)}.
+     */
+    public static final int MAXIMO_PAGINA = 100;
+
+    private static final Logger log = LoggerFactory.getLogger(MovimientoService.class);
+
     private MovimientoRepository movimientoRepository;
     private final LiquidacionService liquidacionService;
     private LiquidacionInDTOToLiquidacion mapper;
@@ -33,6 +61,10 @@ public class MovimientoService {
 
     private TankClientRest tankClientRest;
     private CargueService cargueService;
+    private final TransactionTemplate transacciones;
+    private final int intentos;
+    private final long espera;
+    private final Counter reintentos;
 
     /**
      * Constructor to initialize all the dependencies for the MovimientoService.
@@ -43,13 +75,21 @@ public class MovimientoService {
      * @param mapper2 Mapper to convert LiqViejaInDTO to LiqNueva.
      * @param tankClientRest Client for interacting with tank-related services.
      * @param cargueService Service for managing Cargue entities.
+     * @param transactionManager Manager of the transactions of each attempt to edit a Liquidacion.
+     * @param intentos Maximum number of attempts to edit a Liquidacion that conflicts with other edits.
+     * @param espera Maximum milliseconds to wait before the second attempt, doubled for each of the next ones.
+     * @param meterRegistry Registry where the retries are counted.
      */
     public MovimientoService(MovimientoRepository movimientoRepository,
                              LiquidacionService liquidacionService,
                              LiquidacionInDTOToLiquidacion mapper,
                              LiqViejaInDTOToLiqNueva mapper2,
                              TankClientRest tankClientRest,
-                             CargueService cargueService) {
+                             CargueService cargueService,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${liquidacion.edicion.intentos:5}") int intentos,
+                             @Value("${liquidacion.edicion.espera:100}") long espera,
+                             MeterRegistry meterRegistry) {
 
         this.movimientoRepository = movimientoRepository;
         this.liquidacionService = liquidacionService;
@@ -57,33 +97,33 @@ public class MovimientoService {
         this.mapper2 = mapper2;
         this.tankClientRest = tankClientRest;
         this.cargueService = cargueService;
+        this.transacciones = new TransactionTemplate(transactionManager);
+        this.intentos = intentos;
+        this.espera = espera;
+        this.reintentos = Counter.builder("liquidacion.edicion.reintentos")
+                .description("Ediciones de liquidaciones repetidas por conflictos con otras ediciones del mismo movimiento")
+                .register(meterRegistry);
     }
 
     /**
      * Creates a new Movimiento and associated Liquidacion entities.
+     * The ids come from pooled sequences, so the Movimiento and its Liquidacion entities are inserted when the
+     * transaction ends, in one JDBC batch per table.
      *
      * @param cargueId ID of the Cargue to associate with the Movimiento.
      * @return The newly created Movimiento entity with associated Liquidacion entities.
      */
+    @Transactional
     public Movimiento createMovimiento(Long cargueId){
 
-        // Create an empty list for Liquidacion
-        List<Liquidacion> listaLiquidaciones = new ArrayList<>();
-
-        // Create an empty Movimiento
+        // Create an empty Movimiento assigned to a Cargue
         Movimiento movimiento = new Movimiento();
-        // Assign the Movimiento to a Cargue
         movimiento.setCargue(cargueService.findById(cargueId).get());
-        // Save the Movimiento to the database
-        movimientoRepository.save(movimiento);
 
-        // Create and save initial and final Liquidacion entities to the database
-        Liquidacion liquidacionInicial = liquidacionService.crearLiqInicial(movimiento);
-        Liquidacion liquidacionFinal = liquidacionService.crearLiqInicial(movimiento);
-
-        // Add Liquidacion entities to the list
-        listaLiquidaciones.add(liquidacionInicial);
-        listaLiquidaciones.add(liquidacionFinal);
+        // Create initial and final Liquidacion entities and add them to the list
+        List<Liquidacion> listaLiquidaciones = new ArrayList<>();
+        listaLiquidaciones.add(liquidacionService.crearLiqInicial(movimiento));
+        listaLiquidaciones.add(liquidacionService.crearLiqInicial(movimiento));
 
         // Set the Liquidacion list and differences in the Movimiento
         movimiento.setListaLIquidaciones(listaLiquidaciones);
@@ -91,12 +131,9 @@ public class MovimientoService {
         movimiento.setDifFw(0);
         movimiento.setDifGsv(0);
         movimiento.setDifNsv(0);
-        movimiento.setCargue(cargueService.findById(cargueId).get());
 
-        // Save the Movimiento to the database again
-        movimientoRepository.save(movimiento);
-
-        return movimiento;
+        // Save the Movimiento, which cascades to its Liquidacion entities
+        return movimientoRepository.save(movimiento);
     }
 
     /**
@@ -119,7 +156,36 @@ public class MovimientoService {
     }
 
     /**
-     * Finds a Movimiento entity by its ID.
+     * Finds the summaries of the Movimiento entities with pagination, without their Liquidacion entities.
+     *
+     * @param paginacion Pagination information.
+     * @return A page of Movimiento summaries.
+     */
+    public Page<MovimientoResumenDTO> findResumenes(Pageable paginacion){
+        return movimientoRepository.findResumenes(paginacion);
+    }
+
+    /**
+     * Finds the Movimiento entities after the ones of the previous page, ordered by ID, without counting them.
+     *
+     * @param token Token returned with the previous page, or {@code null} for the first one.
+     * @param tamano Number of Movimiento entities in the page, at most {@link #MAXIMO_PAGINA}.
+     * @return The page, with the token of the next one if there are more.
+     */
+    public PaginaDTO<Movimiento> findSiguientes(String token, int tamano){
+        TokenContinuacion.validarTamano(tamano, MAXIMO_PAGINA);
+        long desde = token == null ? 0 : Long.parseLong(TokenContinuacion.leer(token, 1)[0]);
+
+        Slice<Movimiento> pagina = movimientoRepository.findByIdGreaterThan(desde,
+                PageRequest.of(0, tamano, Sort.by("id")));
+
+        List<Movimiento> contenido = pagina.getContent();
+        String siguiente = pagina.hasNext() ? TokenContinuacion.crear(contenido.get(contenido.size() - 1).getId()) : null;
+        return new PaginaDTO<>(contenido, siguiente);
+    }
+
+    /**
+     * Finds a Movimiento entity by its ID, with its Liquidacion entities.
      *
      * @param id ID of the Movimiento entity to find.
      * @return An {@link Optional} containing the Movimiento entity if found, or empty if not.
@@ -140,64 +206,116 @@ public class MovimientoService {
 
     /**
      * Calculates a Liquidacion based on the provided input data and updates the associated Movimiento.
+     * The Liquidacion and the differences of the Movimiento are saved in the same transaction, which is repeated
+     * with the stored data read again when another edit of the same Movimiento ends first.
      *
      * @param in Data transfer object containing the information for the Liquidacion.
      * @param id ID of the existing Liquidacion to update.
      * @return The updated Movimiento entity after calculation.
+     * @throws org.springframework.dao.ConcurrencyFailureException if it still conflicts after
+     *         {@code liquidacion.edicion.intentos} attempts.
      */
     public Movimiento calcularLiquidacion(LiquidacionInDTO in, Long id){
 
-        Optional<Liquidacion> liquidacionAcambiar = liquidacionService.findById(id);
-        Movimiento movimiento = liquidacionAcambiar.get().getMovimiento();
-        Liquidacion liquidacionNueva = liquidacionAcambiar.get();
-
-        // Map input data to a Liquidacion entity
+        // Map input data to a Liquidacion entity, once: it does not depend on the stored data
         Liquidacion liquidacioATomar = mapper.map(in);
 
-        // Update the initial Liquidacion values
-        Liquidacion liquidacionActualizada = actualizarValoresLiq(liquidacioATomar, liquidacionNueva, movimiento);
+        return conReintentos(() -> {
+            Liquidacion liquidacionNueva = liquidacionService.findById(id).get();
+            Movimiento movimiento = movimientoRepository.findByIdParaEditar(liquidacionNueva.getMovimiento().getId()).get();
 
-        // Save the updated Liquidacion to the database
-        liquidacionService.updateLiquidacion(liquidacionActualizada);
+            // Update the initial Liquidacion values
+            Liquidacion liquidacionActualizada = actualizarValoresLiq(liquidacioATomar, liquidacionNueva, movimiento);
 
-        // Calculate the differences between Movimientos
-        Movimiento movimientoCalculado = calcularDiferencias(movimiento);
+            // Save the updated Liquidacion to the database
+            liquidacionService.updateLiquidacion(liquidacionActualizada);
 
-        // Save the updated Movimiento to the database
-        movimientoRepository.save(movimientoCalculado);
+            // Calculate the differences between Movimientos
+            Movimiento movimientoCalculado = calcularDiferencias(movimiento);
 
-        return movimiento;
+            // Save the updated Movimiento to the database
+            movimientoRepository.save(movimientoCalculado);
+
+            return movimiento;
+        });
     }
 
     /**
      * Edits a Liquidacion based on the provided input data and updates the associated Movimiento.
+     * The results sent in the input data are not used: the ones affected by the edited inputs are recalculated.
+     * As in {@link #calcularLiquidacion(LiquidacionInDTO, Long)}, the edit is repeated when it conflicts with another
+     * edit of the same Movimiento.
      *
      * @param datosParaEditatLiq Data transfer object containing the information to edit the Liquidacion.
      * @param id ID of the existing Liquidacion to update.
      * @return The updated Movimiento entity after editing.
+     * @throws org.springframework.dao.ConcurrencyFailureException if it still conflicts after
+     *         {@code liquidacion.edicion.intentos} attempts.
      */
     public Movimiento editarLiquidacion(DatosParaEditatLiq datosParaEditatLiq, Long id){
 
-        Optional<Liquidacion> liquidacionAcambiar = liquidacionService.findById(id);
-        Movimiento movimiento = liquidacionAcambiar.get().getMovimiento();
-        Liquidacion liquidacionNueva = liquidacionAcambiar.get();
+        return conReintentos(() -> {
+            Liquidacion liquidacionNueva = liquidacionService.findById(id).get();
+            Movimiento movimiento = movimientoRepository.findByIdParaEditar(liquidacionNueva.getMovimiento().getId()).get();
 
-        // Map input data to a Liquidacion entity without Movimiento attribute
-        Liquidacion liquidacioATomar = mapper2.map(datosParaEditatLiq);
+            // Map input data to a Liquidacion entity without Movimiento attribute
+            Liquidacion liquidacioATomar = mapper2.map(datosParaEditatLiq);
 
-        // Update the initial Liquidacion values
-        Liquidacion liquidacionActualizada = actualizarValoresLiq(liquidacioATomar, liquidacionNueva, movimiento);
+            // Recalculate only the results affected by the edited inputs, before the stored values are replaced
+            EnumSet<Variable> recalculadas = liquidacionService.recalcular(liquidacionNueva, liquidacioATomar);
 
-        // Save the updated Liquidacion to the database
-        liquidacionService.updateLiquidacion(liquidacionActualizada);
+            // Update the initial Liquidacion values
+            Liquidacion liquidacionActualizada = actualizarValoresLiq(liquidacioATomar, liquidacionNueva, movimiento);
 
-        // Calculate the differences between Movimientos
-        Movimiento movimientoCalculado = calcularDiferencias(movimiento);
+            // Save the updated Liquidacion to the database
+            liquidacionService.updateLiquidacion(liquidacionActualizada);
 
-        // Save the updated Movimiento to the database
-        movimientoRepository.save(movimientoCalculado);
+            // The differences depend on TOV, free water, GSV and NSV, and any change of TOV or free water changes GSV and NSV
+            if (recalculadas.contains(Variable.GSV) || recalculadas.contains(Variable.NSV)) {
+                // Calculate the differences between Movimientos
+                Movimiento movimientoCalculado = calcularDiferencias(movimiento);
 
-        return movimiento;
+                // Save the updated Movimiento to the database
+                movimientoRepository.save(movimientoCalculado);
+            }
+
+            return movimiento;
+        });
+    }
+
+    /**
+     * Runs an edit of a Movimiento in a transaction, again in a new one when it conflicts with another edit.
+     * There are no locks held while the edit runs: the version of the Movimiento tells at the end whether another
+     * edit ended first, and then the edit is repeated with the data it left, after a random wait so that the edits
+     * that conflicted do not run again at the same time.
+     */
+    private Movimiento conReintentos(Supplier<Movimiento> edicion){
+        for (int intento = 1; ; intento++) {
+            try {
+                return transacciones.execute(estado -> edicion.get());
+            } catch (ConcurrencyFailureException e) {
+                if (intento >= intentos) {
+                    throw e;
+                }
+                reintentos.increment();
+                log.debug("La edicion choco con otra del mismo movimiento, se repite (intento {} de {}): {}",
+                        intento + 1, intentos, e.getMessage());
+                esperar(intento);
+            }
+        }
+    }
+
+    /**
+     * Waits a random time of up to {@code liquidacion.edicion.espera} milliseconds, doubled after each attempt.
+     */
+    private void esperar(int intento){
+        long maximo = espera << Math.min(intento - 1, 10);
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(maximo + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Se interrumpio la edicion del movimiento", e);
+        }
     }
 
     /**
@@ -227,6 +345,25 @@ public class MovimientoService {
         return movimiento;
     }
 
+    /**
+     * Simulates the uncertainty of the NSV difference of a Movimiento, the NSV of the initial Liquidacion
+     * minus the NSV of the final one, from the tolerances of their measurements.
+     *
+     * @param id ID of the Movimiento entity.
+     * @param in Parameters of the simulation.
+     * @return An {@link Optional} containing the distribution of the NSV difference, or empty if the Movimiento does not exist.
+     * @throws IllegalArgumentException if the Movimiento does not have its initial and final Liquidacion.
+     */
+    public Optional<CalculationsLiqDistribucion> incertidumbre(Long id, IncertidumbreInDTO in){
+        return movimientoRepository.findById(id).map(movimiento -> {
+            List<Liquidacion> liquidaciones = movimiento.getListaLIquidaciones();
+            if (liquidaciones.size() < 2) {
+                throw new IllegalArgumentException("El movimiento " + id + " no tiene liquidacion inicial y final");
+            }
+            return liquidacionService.simular(in, liquidaciones.get(0), liquidaciones.get(1));
+        });
+    }
+
     /**
      * Updates Liquidacion values with the provided data.
      *
@@ -258,6 +395,7 @@ public class MovimientoService {
         liquidacionNueva.setCtl(liquidacioATomar.getCtl());
         liquidacionNueva.setGsv(liquidacioATomar.getGsv());
         liquidacionNueva.setNsv(liquidacioATomar.getNsv());
+        liquidacionNueva.setModoCalculo(liquidacioATomar.getModoCalculo());
 
         return liquidacionNueva;
     }
@@ -0,0 +1,26 @@
+package com.api_calculation.service.dto;
+
+
+import lombok.Data;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+import java.util.List;
+
+/**
+ * Barrido de sensibilidad: la lectura base y los rangos de 1 a 3 variables que se recorren.
+ */
+@Data
+public class BarridoInDTO {
+
+    @NotNull
+    @Valid
+    LiquidacionInDTO base;
+
+    @NotNull
+    @Size(min = 1, max = 3, message = "El barrido debe tener entre 1 y 3 variables")
+    @Valid
+    List<RangoBarridoDTO> rangos;
+
+}
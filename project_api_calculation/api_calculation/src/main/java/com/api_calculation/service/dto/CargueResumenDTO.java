@@ -0,0 +1,27 @@
+package com.api_calculation.service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+/**
+ * Datos de un cargue para los listados, con el numero de movimientos en lugar de los movimientos, leidos en la
+ * misma consulta de la pagina.
+ */
+@Data
+@AllArgsConstructor
+public class CargueResumenDTO {
+
+    private Long id;
+    private String referencia;
+    private String referenciaCliente;
+    private String comprador;
+    private String vendedor;
+    private String destino;
+    private String terminal;
+    private String nombreBuque;
+    private LocalDate fecha;
+    private int movimientos;
+
+}
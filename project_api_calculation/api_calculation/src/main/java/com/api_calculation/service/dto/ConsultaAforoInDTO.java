@@ -0,0 +1,18 @@
+package com.api_calculation.service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Lote de lecturas de nivel por columnas para la tabla de aforo de ms-infotank: la posicion i de cada arreglo
+ * corresponde a la misma lectura.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConsultaAforoInDTO {
+
+    private long[] idTank;
+    private double[] gauge;
+}
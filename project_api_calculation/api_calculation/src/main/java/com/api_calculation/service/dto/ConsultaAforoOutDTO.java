@@ -0,0 +1,13 @@
+package com.api_calculation.service.dto;
+
+import lombok.Data;
+
+/**
+ * Volumenes de un lote de lecturas de nivel, en el mismo orden de {@link ConsultaAforoInDTO}.
+ */
+@Data
+public class ConsultaAforoOutDTO {
+
+    private double[] tov;
+    private boolean[] zonaCritica;
+}
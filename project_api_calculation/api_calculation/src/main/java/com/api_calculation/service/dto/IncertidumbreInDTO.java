@@ -0,0 +1,39 @@
+package com.api_calculation.service.dto;
+
+
+import lombok.Data;
+
+import javax.validation.constraints.DecimalMin;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+
+/**
+ * Parametros de la simulacion Monte Carlo del NSV: numero de muestras, semilla, histograma y tolerancia de
+ * cada medicion, tomada como incertidumbre estandar (una desviacion).
+ */
+@Data
+public class IncertidumbreInDTO {
+
+    @Min(value = 1, message = "El valor debe ser mayor que 0")
+    @Max(value = 5000000, message = "El valor debe ser menor que 5000000")
+    int muestras = 100000;
+
+    long semilla;
+
+    @Min(value = 1, message = "El valor debe ser mayor que 0")
+    @Max(value = 1000, message = "El valor debe ser menor que 1000")
+    int clases = 50;
+
+    @DecimalMin(value = "0", message = "El valor no puede ser negativo")
+    double tolGauge = 3;
+
+    @DecimalMin(value = "0", message = "El valor no puede ser negativo")
+    double tolTempL = 0.5;
+
+    @DecimalMin(value = "0", message = "El valor no puede ser negativo")
+    double tolApi = 0.1;
+
+    @DecimalMin(value = "0", message = "El valor no puede ser negativo")
+    double tolBsw = 0.05;
+
+}
@@ -0,0 +1,36 @@
+package com.api_calculation.service.dto;
+
+
+import lombok.Data;
+
+import javax.validation.constraints.NotNull;
+
+/**
+ * Lote de lecturas por columnas: la posicion i de cada arreglo corresponde a la misma lectura.
+ */
+@Data
+public class LoteLiquidacionInDTO {
+
+    @NotNull
+    String[] ABD;
+    @NotNull
+    long[] idTank;
+    // TOV and free water, or the gauges to look them up in the strapping tables of ms-infotank
+    double[] tov;
+    double[] waterTov;
+    double[] gauge;
+    double[] waterGauge;
+    @NotNull
+    double[] tempL;
+    @NotNull
+    double[] tAmb;
+    @NotNull
+    double[] api;
+    @NotNull
+    double[] water;
+    @NotNull
+    double[] sediment;
+    // Whether CTL and API observed may be interpolated from the precalculated tables, when they are enabled
+    boolean aproximado;
+
+}
@@ -0,0 +1,24 @@
+package com.api_calculation.service.dto;
+
+import com.api_calculation.persistence.entity.ModoCalculo;
+import lombok.Data;
+
+/**
+ * Resultados de un lote de lecturas, en el mismo orden de {@link LoteLiquidacionInDTO}.
+ */
+@Data
+public class LoteLiquidacionOutDTO {
+
+    private double[] apiObs;
+    private double[] fra;
+    private double[] ctsh;
+    private double[] gov;
+    private double[] ctl;
+    private double[] gsv;
+    private double[] nsv;
+    // Whether CTL and API observed were interpolated from the precalculated tables, see CalculationsLiqTabla
+    private boolean aproximado;
+    // Whether the results were calculated in double precision or in fixed point
+    private ModoCalculo modoCalculo;
+
+}
@@ -0,0 +1,20 @@
+package com.api_calculation.service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Datos de un movimiento para los listados, sin sus liquidaciones, leidos en la misma consulta de la pagina.
+ */
+@Data
+@AllArgsConstructor
+public class MovimientoResumenDTO {
+
+    private Long id;
+    private Long idCargue;
+    private double difTOV;
+    private double difFw;
+    private double difGsv;
+    private double difNsv;
+
+}
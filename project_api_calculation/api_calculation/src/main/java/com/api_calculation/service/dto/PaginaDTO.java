@@ -0,0 +1,18 @@
+package com.api_calculation.service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Pagina de un listado por cursor: el contenido y el token para pedir la siguiente, o {@code null} si es la ultima.
+ */
+@Data
+@AllArgsConstructor
+public class PaginaDTO<T> {
+
+    private List<T> contenido;
+    private String siguiente;
+
+}
@@ -0,0 +1,36 @@
+package com.api_calculation.service.dto;
+
+
+import lombok.Data;
+
+import javax.validation.constraints.NotNull;
+
+/**
+ * Plan de un cargue por columnas, un tanque por posicion: la lectura actual de cada tanque y el NSV que debe
+ * entregar, como en {@link PlanTanqueInDTO}.
+ */
+@Data
+public class PlanCargueInDTO {
+
+    @NotNull
+    String[] ABD;
+    @NotNull
+    long[] idTank;
+    @NotNull
+    double[] gauge;
+    @NotNull
+    double[] waterGauge;
+    @NotNull
+    double[] tempL;
+    @NotNull
+    double[] tAmb;
+    @NotNull
+    double[] api;
+    @NotNull
+    double[] water;
+    @NotNull
+    double[] sediment;
+    @NotNull
+    double[] entrega;
+
+}
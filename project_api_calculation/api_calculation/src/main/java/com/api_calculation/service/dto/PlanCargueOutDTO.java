@@ -0,0 +1,25 @@
+package com.api_calculation.service.dto;
+
+import com.api_calculation.persistence.entity.ModoCalculo;
+import lombok.Data;
+
+/**
+ * Resultado del plan de un cargue, en el mismo orden de {@link PlanCargueInDTO}: gauge y TOV finales de cada
+ * tanque, su NSV antes y despues, lo que entrega con el redondeo del NSV, los barriles de NSV por milimetro
+ * alrededor del gauge final y si ese gauge cae en la zona critica del tanque.
+ */
+@Data
+public class PlanCargueOutDTO {
+
+    private double[] gauge;
+    private double[] tov;
+    private double[] nsvInicial;
+    private double[] nsv;
+    private double[] entregado;
+    private double[] nsvPorMm;
+    private boolean[] zonaCritica;
+    private double totalEntregado;
+    // Whether the results were calculated in double precision or in fixed point
+    private ModoCalculo modoCalculo;
+
+}
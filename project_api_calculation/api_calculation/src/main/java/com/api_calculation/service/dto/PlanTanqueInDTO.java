@@ -0,0 +1,60 @@
+package com.api_calculation.service.dto;
+
+
+import lombok.Data;
+
+import javax.validation.constraints.DecimalMax;
+import javax.validation.constraints.DecimalMin;
+import javax.validation.constraints.NotNull;
+
+/**
+ * Lectura actual de un tanque y NSV a entregar: positivo para despachar (el nivel baja), negativo para recibir.
+ * Las temperaturas, el API, el BS&W y el nivel de agua se toman iguales al final de la operacion.
+ */
+@Data
+public class PlanTanqueInDTO {
+
+    @NotNull
+    @DecimalMin(value = "-1", inclusive = false, message = "El valor debe ser mayor que 0.0")
+    @DecimalMax(value = "20000", inclusive = false, message = "El valor debe ser menor que 20000")
+    double gauge;
+    @NotNull
+    @DecimalMin(value = "-1", inclusive = false, message = "El valor debe ser mayor que 0.0")
+    @DecimalMax(value = "20000", inclusive = false, message = "El valor debe ser menor que 20000.0")
+    double waterGauge;
+    @NotNull
+    @DecimalMin(value = "-1", inclusive = false, message = "El valor debe ser mayor que 0.0")
+    @DecimalMax(value = "100", inclusive = false, message = "El valor debe ser menor que 100.0")
+    double tempL;
+    @NotNull
+    @DecimalMin(value = "-1", inclusive = false, message = "El valor debe ser mayor que 0.0")
+    @DecimalMax(value = "100", inclusive = false, message = "El valor debe ser menor que 100.0")
+    double tAmb;
+
+    @NotNull
+    @DecimalMin(value = "-1", inclusive = false, message = "El valor debe ser mayor que 0.0")
+    @DecimalMax(value = "2", inclusive = false, message = "El valor debe ser menor que 2")
+    double water;
+
+    @NotNull
+    @DecimalMin(value = "-1", inclusive = false, message = "El valor debe ser mayor que 0.0")
+    @DecimalMax(value = "2", inclusive = false, message = "El valor debe ser menor que 2")
+    double sediment;
+
+    @NotNull
+    @DecimalMin(value = "7", inclusive = false, message = "El valor debe ser mayor que 7.0")
+    @DecimalMax(value = "90", inclusive = false, message = "El valor debe ser menor que 90.0")
+    double api;
+
+    @NotNull
+    @DecimalMin(value = "-1000000", inclusive = false, message = "El valor debe ser mayor que -1000000.0")
+    @DecimalMax(value = "1000000", inclusive = false, message = "El valor debe ser menor que 1000000.0")
+    double entrega;
+
+    @NotNull
+    String ABD;
+
+    @NotNull
+    Long  idTank;
+
+}
@@ -0,0 +1,26 @@
+package com.api_calculation.service.dto;
+
+
+import com.api_calculation.util.VariableBarrido;
+import lombok.Data;
+
+import javax.validation.constraints.DecimalMin;
+import javax.validation.constraints.NotNull;
+
+/**
+ * Rango de una variable del barrido: desde y hasta inclusivos, recorridos en pasos de {@code paso}.
+ */
+@Data
+public class RangoBarridoDTO {
+
+    @NotNull
+    VariableBarrido variable;
+
+    double desde;
+
+    double hasta;
+
+    @DecimalMin(value = "0", inclusive = false, message = "El valor debe ser mayor que 0.0")
+    double paso;
+
+}
@@ -0,0 +1,14 @@
+package com.api_calculation.service.dto;
+
+import lombok.Data;
+
+/**
+ * Tabla de aforo de un tanque en ms-infotank, por columnas: nivel en milimetros y volumen en barriles (o barriles
+ * por milimetro en la tabla fraccional).
+ */
+@Data
+public class TablaAforoDTO {
+
+    private double[] nivel;
+    private double[] volumen;
+}
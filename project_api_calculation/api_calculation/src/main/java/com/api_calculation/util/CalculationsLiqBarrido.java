@@ -0,0 +1,199 @@
+package com.api_calculation.util;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * @author Abelardo Orozco
+ * Barrido de sensibilidad: calcula una liquidacion base en cada punto de una malla de 1 a 3 variables
+ * ({@link VariableBarrido}).
+ *
+ * <p>La malla nunca se construye completa: los puntos se generan por bloques de {@link #BLOQUE} a partir de su
+ * posicion, cada bloque se calcula en paralelo con {@link CalculationsLiqBatch} y se entrega en orden a un
+ * {@link Consumidor} mientras el siguiente bloque ya se esta calculando. La ultima variable es la que cambia
+ * mas rapido.</p>
+ */
+public final class CalculationsLiqBarrido {
+
+    /**
+     * Number of points calculated and delivered together.
+     */
+    static final int BLOQUE = 16384;
+
+    /**
+     * Largest number of points of a sweep.
+     */
+    public static final long MAX_PUNTOS = 2_000_000;
+
+    private final CalculationsLiqKernel kernel;
+
+    // Base reading
+    private final byte grupo;
+    private final double tov;
+    private final double waterTov;
+    private final double kFra1;
+    private final double kFra2;
+    private final double tLam;
+    private final double tempL;
+    private final double tAmb;
+    private final double api60;
+    private final double bsw;
+
+    // Swept variables, in the order of the grid
+    private final VariableBarrido[] variables;
+    private final double[] desde;
+    private final double[] paso;
+    private final int[] puntos;
+    private final long total;
+
+    /**
+     * Receives the results of the sweep, one block at a time and in order.
+     */
+    public interface Consumidor {
+
+        /**
+         * @param inicio Position in the grid of the first point of the block
+         * @param bloque Results of the block, point {@code inicio + i} is at position i of every column
+         */
+        void aceptar(long inicio, CalculationsLiqBatch bloque) throws IOException;
+    }
+
+    /**
+     * Constructor to initialize the base reading and the grid. Each swept variable goes from {@code desde}
+     * to {@code hasta}, both inclusive, in steps of {@code paso}.
+     *
+     * @param kernel Kernel for the CTL and API observed columns
+     * @param grupo Type of crude, see {@link CalculationsLiqEngine#codigo(String)}
+     * @param tov Total Observed Volume
+     * @param waterTov Total observed volume of water
+     * @param kFra1 Constant used in the Fixed Roof Adjustment calculation
+     * @param kFra2 Another Constant used in the Fixed Roof Adjustment calculation
+     * @param tLam Lamination temperature
+     * @param tempL Liquid temperature
+     * @param tAmb Ambient temperature
+     * @param api60 API gravity at 60 degrees Fahrenheit
+     * @param bsw Base Sediment and Water
+     * @param variables Swept variables, from 1 to 3 and without repeating
+     * @param desde First value of each swept variable
+     * @param hasta Last value of each swept variable
+     * @param paso Step of each swept variable, greater than 0
+     * @throws IllegalArgumentException if the grid is not valid or has more than {@link #MAX_PUNTOS} points
+     */
+    public CalculationsLiqBarrido(CalculationsLiqKernel kernel, byte grupo, double tov, double waterTov, double kFra1,
+                                  double kFra2, double tLam, double tempL, double tAmb, double api60, double bsw,
+                                  VariableBarrido[] variables, double[] desde, double[] hasta, double[] paso) {
+        int n = variables.length;
+        if (n < 1 || n > 3 || desde.length != n || hasta.length != n || paso.length != n) {
+            throw new IllegalArgumentException("El barrido debe tener entre 1 y 3 variables con desde, hasta y paso");
+        }
+        EnumSet<VariableBarrido> vistas = EnumSet.noneOf(VariableBarrido.class);
+        this.puntos = new int[n];
+        long total = 1;
+        for (int v = 0; v < n; v++) {
+            if (!vistas.add(variables[v])) {
+                throw new IllegalArgumentException("Variable repetida en el barrido: " + variables[v].getNombre());
+            }
+            if (!(paso[v] > 0) || !(hasta[v] >= desde[v]) || Double.isInfinite(hasta[v] - desde[v])) {
+                throw new IllegalArgumentException("Rango no valido para " + variables[v].getNombre());
+            }
+            double cantidad = Math.floor((hasta[v] - desde[v]) / paso[v] + 1e-9) + 1;
+            if (cantidad > MAX_PUNTOS) {
+                throw new IllegalArgumentException("El barrido no puede tener mas de " + MAX_PUNTOS + " puntos");
+            }
+            puntos[v] = (int) cantidad;
+            total *= puntos[v];
+            if (total > MAX_PUNTOS) {
+                throw new IllegalArgumentException("El barrido no puede tener mas de " + MAX_PUNTOS + " puntos");
+            }
+        }
+
+        this.kernel = kernel;
+        this.grupo = grupo;
+        this.tov = tov;
+        this.waterTov = waterTov;
+        this.kFra1 = kFra1;
+        this.kFra2 = kFra2;
+        this.tLam = tLam;
+        this.tempL = tempL;
+        this.tAmb = tAmb;
+        this.api60 = api60;
+        this.bsw = bsw;
+        this.variables = variables.clone();
+        this.desde = desde.clone();
+        this.paso = paso.clone();
+        this.total = total;
+    }
+
+    /**
+     * Method to calculate every point of the grid, delivering the blocks in order to {@code consumidor}.
+     * Only the block being delivered and the next one are kept in memory.
+     *
+     * @param consumidor Receiver of the blocks
+     * @throws IOException if the receiver fails, the remaining points are not delivered
+     */
+    public void barrer(Consumidor consumidor) throws IOException {
+        CompletableFuture<CalculationsLiqBatch> siguiente = CompletableFuture.supplyAsync(() -> calcular(0));
+        for (long inicio = 0; inicio < total; inicio += BLOQUE) {
+            CalculationsLiqBatch bloque = siguiente.join();
+            long proximo = inicio + BLOQUE;
+            if (proximo < total) {
+                siguiente = CompletableFuture.supplyAsync(() -> calcular(proximo));
+            }
+            consumidor.aceptar(inicio, bloque);
+        }
+    }
+
+    /**
+     * Method to calculate the block of points that starts at {@code inicio}.
+     */
+    private CalculationsLiqBatch calcular(long inicio) {
+        int m = (int) Math.min(BLOQUE, total - inicio);
+        byte[] grupos = new byte[m];
+        double[] tovs = new double[m], waterTovs = new double[m], kFra1s = new double[m], kFra2s = new double[m],
+                tLams = new double[m], tempLs = new double[m], tAmbs = new double[m], api60s = new double[m], bsws = new double[m];
+        Arrays.fill(grupos, grupo);
+        Arrays.fill(tovs, tov);
+        Arrays.fill(waterTovs, waterTov);
+        Arrays.fill(kFra1s, kFra1);
+        Arrays.fill(kFra2s, kFra2);
+        Arrays.fill(tLams, tLam);
+        Arrays.fill(tempLs, tempL);
+        Arrays.fill(tAmbs, tAmb);
+        Arrays.fill(api60s, api60);
+        Arrays.fill(bsws, bsw);
+
+        for (int v = 0; v < variables.length; v++) {
+            double[] columna = variables[v] == VariableBarrido.TEMP_L ? tempLs
+                    : variables[v] == VariableBarrido.T_AMB ? tAmbs : api60s;
+            for (int i = 0; i < m; i++) {
+                columna[i] = valor(v, inicio + i);
+            }
+        }
+
+        return new CalculationsLiqBatch(kernel, grupos, tovs, waterTovs, kFra1s, kFra2s, tLams, tempLs, tAmbs, api60s, bsws).liquidar();
+    }
+
+    /**
+     * Method to get the value of a swept variable at a point of the grid.
+     *
+     * @param variable Position of the variable in the grid
+     * @param punto Position of the point in the grid
+     * @return the value of the variable at that point
+     */
+    public double valor(int variable, long punto) {
+        for (int v = variables.length - 1; v > variable; v--) {
+            punto /= puntos[v];
+        }
+        return desde[variable] + (punto % puntos[variable]) * paso[variable];
+    }
+
+    public VariableBarrido[] getVariables() {
+        return variables.clone();
+    }
+
+    public long getTotal() {
+        return total;
+    }
+}
@@ -0,0 +1,188 @@
+package com.api_calculation.util;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * @author Abelardo Orozco
+ * Calculo por lotes de liquidaciones con entradas y salidas por columnas (un arreglo por variable).
+ *
+ * <p>Cada lectura pasa por las mismas operaciones de {@link CalculationsLiqEngine}, por lo que los resultados
+ * son identicos a los del calculo individual. Los lotes grandes se dividen entre los nucleos con fork/join.</p>
+ */
+public final class CalculationsLiqBatch {
+
+    /**
+     * Number of readings below which a batch is calculated in the calling thread.
+     */
+    static final int UMBRAL = 2048;
+
+    private final CalculationsLiqKernel kernel;
+
+    // Inputs
+    private final byte[] grupo;
+    private final double[] tov;
+    private final double[] waterTov;
+    private final double[] kFra1;
+    private final double[] kFra2;
+    private final double[] tLam;
+    private final double[] tempL;
+    private final double[] tAmb;
+    private final double[] api60;
+    private final double[] bsw;
+
+    // Outputs
+    private final double[] apiObs;
+    private final double[] fra;
+    private final double[] ctsh;
+    private final double[] gov;
+    private final double[] ctl;
+    private final double[] gsv;
+    private final double[] nsv;
+
+    /**
+     * Constructor to initialize the input columns, all of them must have the same length.
+     * The output columns are created with that length.
+     *
+     * @param grupo Type of crude of each reading, see {@link CalculationsLiqEngine#codigo(String)}
+     * @param tov Total Observed Volume
+     * @param waterTov Total observed volume of water
+     * @param kFra1 Constant used in the Fixed Roof Adjustment calculation
+     * @param kFra2 Another Constant used in the Fixed Roof Adjustment calculation
+     * @param tLam Lamination temperature
+     * @param tempL Liquid temperature
+     * @param tAmb Ambient temperature
+     * @param api60 API gravity at 60 degrees Fahrenheit
+     * @param bsw Base Sediment and Water
+     */
+    public CalculationsLiqBatch(byte[] grupo, double[] tov, double[] waterTov, double[] kFra1, double[] kFra2,
+                                double[] tLam, double[] tempL, double[] tAmb, double[] api60, double[] bsw) {
+        this(CalculationsLiqKernel.disponible(), grupo, tov, waterTov, kFra1, kFra2, tLam, tempL, tAmb, api60, bsw);
+    }
+
+    /**
+     * Same as the other constructor, calculating CTL and API observed with the given kernel.
+     *
+     * @param kernel Kernel for the CTL and API observed columns
+     */
+    public CalculationsLiqBatch(CalculationsLiqKernel kernel, byte[] grupo, double[] tov, double[] waterTov,
+                                double[] kFra1, double[] kFra2, double[] tLam, double[] tempL, double[] tAmb,
+                                double[] api60, double[] bsw) {
+        int n = grupo.length;
+        if (tov.length != n || waterTov.length != n || kFra1.length != n || kFra2.length != n || tLam.length != n
+                || tempL.length != n || tAmb.length != n || api60.length != n || bsw.length != n) {
+            throw new IllegalArgumentException("Todas las columnas del lote deben tener " + n + " lecturas");
+        }
+        this.kernel = kernel;
+        this.grupo = grupo;
+        this.tov = tov;
+        this.waterTov = waterTov;
+        this.kFra1 = kFra1;
+        this.kFra2 = kFra2;
+        this.tLam = tLam;
+        this.tempL = tempL;
+        this.tAmb = tAmb;
+        this.api60 = api60;
+        this.bsw = bsw;
+
+        this.apiObs = new double[n];
+        this.fra = new double[n];
+        this.ctsh = new double[n];
+        this.gov = new double[n];
+        this.ctl = new double[n];
+        this.gsv = new double[n];
+        this.nsv = new double[n];
+    }
+
+    /**
+     * Method to calculate every reading of the batch, splitting it across the common fork/join pool
+     * when it has more than {@link #UMBRAL} readings.
+     *
+     * @return this batch, with the output columns filled
+     */
+    public CalculationsLiqBatch liquidar() {
+        int n = grupo.length;
+        if (n <= UMBRAL) {
+            liquidar(0, n);
+        } else {
+            ForkJoinPool.commonPool().invoke(new Tramo(0, n));
+        }
+        return this;
+    }
+
+    /**
+     * Method to calculate the readings in [desde, hasta): first the CTL and API observed columns with
+     * the kernel, then the volumes reusing a single result object.
+     */
+    private void liquidar(int desde, int hasta) {
+        kernel.ctlApiObs(grupo, api60, tempL, ctl, apiObs, desde, hasta);
+
+        CalculationsLiqResult out = new CalculationsLiqResult();
+        for (int i = desde; i < hasta; i++) {
+            out.setCtl(ctl[i]);
+            out.setApiObs(apiObs[i]);
+            CalculationsLiqEngine.volumenes(tov[i], waterTov[i], kFra1[i], kFra2[i], tLam[i], tempL[i], tAmb[i], bsw[i], out);
+            fra[i] = out.getFra();
+            ctsh[i] = out.getCtsh();
+            gov[i] = out.getGov();
+            gsv[i] = out.getGsv();
+            nsv[i] = out.getNsv();
+        }
+    }
+
+    public int size() {
+        return grupo.length;
+    }
+
+    public double[] getApiObs() {
+        return apiObs;
+    }
+
+    public double[] getFra() {
+        return fra;
+    }
+
+    public double[] getCtsh() {
+        return ctsh;
+    }
+
+    public double[] getGov() {
+        return gov;
+    }
+
+    public double[] getCtl() {
+        return ctl;
+    }
+
+    public double[] getGsv() {
+        return gsv;
+    }
+
+    public double[] getNsv() {
+        return nsv;
+    }
+
+    /**
+     * Fork/join task that halves its range until it is small enough to calculate directly.
+     */
+    private final class Tramo extends RecursiveAction {
+
+        private final int desde;
+        private final int hasta;
+
+        Tramo(int desde, int hasta) {
+            this.desde = desde;
+            this.hasta = hasta;
+        }
+
+        @Override
+        protected void compute() {
+            if (hasta - desde <= UMBRAL) {
+                liquidar(desde, hasta);
+            } else {
+                int medio = (desde + hasta) >>> 1;
+                invokeAll(new Tramo(desde, medio), new Tramo(medio, hasta));
+            }
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.api_calculation.util;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * @author Abelardo Orozco
+ * Cache acotado de CTL y API observado por (grupo de producto, API a 60 F, temperatura del liquido).
+ *
+ * <p>Se activa con {@code liquidacion.cache.enabled} y su tamano maximo se define con
+ * {@code liquidacion.cache.max-size}. Los aciertos, fallos y desalojos se publican en Actuator
+ * como metricas {@code cache.*} con la etiqueta {@code cache=liquidacion.ctl}.</p>
+ */
+@Component
+public class CalculationsLiqCache {
+
+    private final boolean habilitado;
+    private final Cache<Clave, Valor> cache;
+
+    /**
+     * Constructor to initialize the cache and register its metrics.
+     *
+     * @param habilitado whether the results are cached or always calculated
+     * @param tamanoMaximo maximum number of entries kept in the cache
+     * @param meterRegistry registry where the hit, miss and eviction counters are published
+     */
+    public CalculationsLiqCache(@Value("${liquidacion.cache.enabled:true}") boolean habilitado,
+                                @Value("${liquidacion.cache.max-size:10000}") long tamanoMaximo,
+                                MeterRegistry meterRegistry) {
+        this.habilitado = habilitado;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(tamanoMaximo)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "liquidacion.ctl");
+    }
+
+    /**
+     * Same as {@link CalculationsLiqEngine#liquidar(String, double, double, double, double, double, double, double, double, double, CalculationsLiqResult)}
+     * taking CTL and API observed from the cache when the same reading was already calculated.
+     */
+    public CalculationsLiqResult liquidar(String ABD, double tov, double waterTov, double kFra1, double kFra2,
+                                          double tLam, double tempL, double tAmb, double api60, double bsw,
+                                          CalculationsLiqResult out) {
+        ctlApiObs(CalculationsLiqEngine.codigo(ABD), api60, tempL, out);
+        return CalculationsLiqEngine.volumenes(tov, waterTov, kFra1, kFra2, tLam, tempL, tAmb, bsw, out);
+    }
+
+    /**
+     * Method to set the ctl and apiObs fields of {@code out}, calculating them only on a cache miss.
+     *
+     * @param grupo Type of crude, see {@link CalculationsLiqEngine#codigo(String)}
+     * @param api60 API gravity at 60 degrees Fahrenheit
+     * @param tempL Liquid temperature
+     * @param out Result where CTL and API observed are set
+     */
+    public void ctlApiObs(byte grupo, double api60, double tempL, CalculationsLiqResult out) {
+        if (!habilitado) {
+            calcular(grupo, api60, tempL, out);
+            return;
+        }
+
+        Valor valor = cache.get(new Clave(grupo, api60, tempL), clave -> {
+            CalculationsLiqResult calculado = new CalculationsLiqResult();
+            calcular(clave.grupo, clave.api60, clave.tempL, calculado);
+            return new Valor(calculado.getCtl(), calculado.getApiObs());
+        });
+        out.setCtl(valor.ctl);
+        out.setApiObs(valor.apiObs);
+    }
+
+    private static void calcular(byte grupo, double api60, double tempL, CalculationsLiqResult out) {
+        CalculationsLiqEngine.ctlApiObs(grupo, CalculationsLiqEngine.d60(api60), CalculationsLiqEngine.dtr(tempL), out);
+    }
+
+    /**
+     * Key with the inputs canonicalized: -0.0 is the same reading as 0.0.
+     */
+    private static final class Clave {
+
+        private final byte grupo;
+        private final double api60;
+        private final double tempL;
+
+        Clave(byte grupo, double api60, double tempL) {
+            this.grupo = grupo;
+            this.api60 = api60 + 0.0;
+            this.tempL = tempL + 0.0;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Clave)) {
+                return false;
+            }
+            Clave otra = (Clave) o;
+            return grupo == otra.grupo
+                    && Double.doubleToLongBits(api60) == Double.doubleToLongBits(otra.api60)
+                    && Double.doubleToLongBits(tempL) == Double.doubleToLongBits(otra.tempL);
+        }
+
+        @Override
+        public int hashCode() {
+            long h = Double.doubleToLongBits(api60) * 31 + Double.doubleToLongBits(tempL);
+            return (int) (h ^ (h >>> 32)) * 31 + grupo;
+        }
+    }
+
+    private static final class Valor {
+
+        private final double ctl;
+        private final double apiObs;
+
+        Valor(double ctl, double apiObs) {
+            this.ctl = ctl;
+            this.apiObs = apiObs;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.api_calculation.util;
+
+import lombok.Data;
+
+import java.util.Map;
+
+/**
+ * @author Abelardo Orozco
+ * Distribucion del NSV obtenida por {@link CalculationsLiqIncertidumbre}.
+ */
+@Data
+public class CalculationsLiqDistribucion {
+
+    private int muestras; // Number of samples
+    private long semilla; // Seed of the random generator, the same seed gives the same distribution
+    private double nominal; // NSV calculated with the measured values
+    private double media; // Mean of the samples
+    private double desviacion; // Standard deviation of the samples, the combined standard uncertainty
+    private Map<String, Double> percentiles; // Percentiles of the samples, by name (p50, p95, ...)
+    private double histogramaDesde; // Lower limit of the first class of the histogram
+    private double histogramaAncho; // Width of each class of the histogram
+    private long[] histograma; // Number of samples in each class
+}
@@ -0,0 +1,265 @@
+package com.api_calculation.util;
+
+/**
+ * @author Abelardo Orozco
+ * Motor de calculo de una liquidacion en una sola pasada.
+ *
+ * <p>Produce los mismos valores redondeados que {@link CalculationsLiq}, pero calcula la densidad,
+ * la correccion de temperatura ITS-90 y los coeficientes del grupo de producto una sola vez
+ * por lectura, en lugar de repetirlos en cada getter.</p>
+ */
+public final strictfp class CalculationsLiqEngine {
+
+    private CalculationsLiqEngine() {
+    }
+
+    /**
+     * Method to calculate API observed, FRA, CTSH, GOV, CTL, GSV and NSV in a single pass.
+     * The gauges are not needed: the volumes are already read from the strapping table.
+     *
+     * @param ABD Type of crude (A, B, or D), see {@link GrupoProducto}
+     * @param tov Total Observed Volume
+     * @param waterTov Total observed volume of water
+     * @param kFra1 Constant used in the Fixed Roof Adjustment calculation
+     * @param kFra2 Another Constant used in the Fixed Roof Adjustment calculation
+     * @param tLam Lamination temperature
+     * @param tempL Liquid temperature
+     * @param tAmb Ambient temperature
+     * @param api60 API gravity at 60 degrees Fahrenheit
+     * @param bsw Base Sediment and Water
+     * @param out Result to fill, it can be reused between calls
+     * @return the same {@code out} instance
+     */
+    public static CalculationsLiqResult liquidar(String ABD, double tov, double waterTov, double kFra1, double kFra2,
+                                                 double tLam, double tempL, double tAmb, double api60, double bsw,
+                                                 CalculationsLiqResult out) {
+        return liquidar(codigo(ABD), tov, waterTov, kFra1, kFra2, tLam, tempL, tAmb, api60, bsw, out);
+    }
+
+    /**
+     * Method to convert the type of crude to the byte code used by the batch calculations.
+     *
+     * @param ABD Type of crude (A, B, or D)
+     * @return the code of the group, see {@link GrupoProducto#getCodigo()}
+     * @throws IllegalArgumentException if the type of crude is not registered in {@link GrupoProducto}
+     */
+    public static byte codigo(String ABD) {
+        return GrupoProducto.of(ABD).getCodigo();
+    }
+
+    /**
+     * Same as {@link #liquidar(String, double, double, double, double, double, double, double, double, double, CalculationsLiqResult)}
+     * with the type of crude already converted by {@link #codigo(String)}.
+     */
+    public static CalculationsLiqResult liquidar(byte grupo, double tov, double waterTov, double kFra1, double kFra2,
+                                                 double tLam, double tempL, double tAmb, double api60, double bsw,
+                                                 CalculationsLiqResult out) {
+        ctlApiObs(grupo, d60(api60), dtr(tempL), out);
+        return volumenes(tov, waterTov, kFra1, kFra2, tLam, tempL, tAmb, bsw, out);
+    }
+
+    /**
+     * Method to calculate the density at 60 F from the API gravity at 60 F.
+     */
+    static double d60(double api60) {
+        return 141.5 / (api60 + 131.5) * 999.016;
+    }
+
+    /**
+     * Method to calculate the difference between the liquid temperature converted to ITS-68 and the base temperature.
+     */
+    static double dtr(double tempL) {
+        double tC90, T, DTT;
+        tC90 = (tempL - 32) / 1.8;
+        T = tC90 / 630;
+        DTT = (-0.148759 + (-0.267408 + (1.08076 + (1.269056 + (-4.089591 + (-1.871251 + (7.438081 + -3.536296 * T) * T) * T) * T) * T) * T) * T) * T;
+        return 1.8 * (tC90 - DTT) + 32 - 60.0068749;
+    }
+
+    /**
+     * Method to calculate CTL and API observed from the values of {@link #d60(double)} and {@link #dtr(double)}.
+     * Only the ctl and apiObs fields of {@code out} are set.
+     */
+    static void ctlApiObs(byte grupo, double d60, double DTr, CalculationsLiqResult out) {
+        ctlApiObsSinRedondeo(grupo, d60, DTr, false, out);
+        redondearCtlApiObs(out);
+    }
+
+    /**
+     * Same as {@link #ctlApiObs(byte, double, double, CalculationsLiqResult)} using {@link StrictMath#exp(double)},
+     * so the result is the same in every JVM and platform.
+     */
+    static void ctlApiObsEstricto(byte grupo, double d60, double DTr, CalculationsLiqResult out) {
+        ctlApiObsSinRedondeo(grupo, d60, DTr, true, out);
+        redondearCtlApiObs(out);
+    }
+
+    /**
+     * Same as {@link #ctlApiObs(byte, double, double, CalculationsLiqResult)} without the final rounding
+     * of CTL to 5 decimals and API observed to 1 decimal.
+     */
+    static void ctlApiObsSinRedondeo(byte grupo, double d60, double DTr, CalculationsLiqResult out) {
+        ctlApiObsSinRedondeo(grupo, d60, DTr, false, out);
+    }
+
+    private static void redondearCtlApiObs(CalculationsLiqResult out) {
+        out.setCtl((double) Math.round(out.getCtl() * 100000d) / 100000);
+        out.setApiObs((double) Math.round(out.getApiObs() * 10d) / 10);
+    }
+
+    private static void ctlApiObsSinRedondeo(byte grupo, double d60, double DTr, boolean estricto, CalculationsLiqResult out) {
+        ctlApiObsSinRedondeo(densidad(grupo, d60, estricto), DTr, estricto, out);
+    }
+
+    /**
+     * Method to calculate the terms of CTL and API observed that depend only on the density, so they can be
+     * reused by every reading of the same product at a different temperature.
+     *
+     * @param grupo Type of crude, see {@link #codigo(String)}
+     * @param d60 Density at 60 F, see {@link #d60(double)}
+     * @return the thermal expansion coefficients of CTL and API observed
+     */
+    static Densidad densidad(byte grupo, double d60) {
+        return densidad(grupo, d60, false);
+    }
+
+    private static Densidad densidad(byte grupo, double d60, boolean estricto) {
+        double k0, k1, k2, A, B, dr, expA, a60Ctl, a60ApiObs;
+
+        // Select constants k0, k1 and k2 based on the type of crude and its density band
+        GrupoProducto.BandaDensidad banda = GrupoProducto.de(grupo).banda(d60);
+        k0 = banda.getK0();
+        k1 = banda.getK1();
+        k2 = banda.getK2();
+
+        // Coefficient of CTL, the exponential of A is shared with API observed
+        A = 0.01374979547 / 2 * ((k0 / d60 + k1) / d60 + k2);
+        expA = exp(A * (1 + 0.8 * A), estricto);
+        B = (banda.getDosK0() + k1 * d60) / (k0 + (k1 + k2 * d60) * d60);
+        dr = d60 * (1 + (expA - 1) / (1 + A * (1 + 1.6 * A) * B));
+        a60Ctl = (k0 / dr + k1) / dr + k2;
+
+        // Coefficient of API observed, the same of CTL when j0 matches the CTL constant
+        a60ApiObs = a60Ctl;
+        if (!banda.isMismoA60()) {
+            B = (banda.getJ0K0() + k1 * d60) / (k0 + (k1 + k2 * d60) * d60);
+            dr = d60 * (1 + (expA - 1) / (1 + A * (1 + 1.6 * A) * B));
+            a60ApiObs = (k0 / dr + k1) / dr + k2;
+        }
+        return new Densidad(grupo, d60, a60Ctl, a60ApiObs);
+    }
+
+    /**
+     * Same as {@link #ctlApiObs(byte, double, double, CalculationsLiqResult)} with the density terms already
+     * calculated by {@link #densidad(byte, double)}.
+     */
+    static void ctlApiObs(Densidad densidad, double DTr, CalculationsLiqResult out) {
+        ctlApiObsSinRedondeo(densidad, DTr, false, out);
+        redondearCtlApiObs(out);
+    }
+
+    private static void ctlApiObsSinRedondeo(Densidad densidad, double DTr, boolean estricto, CalculationsLiqResult out) {
+        double ctlB = correccion(densidad.a60Ctl, DTr, estricto);
+        out.setCtl(ctlB);
+
+        // Observed API gravity, the unrounded CTL is reused when both coefficients match
+        if (densidad.a60ApiObs != densidad.a60Ctl) {
+            ctlB = correccion(densidad.a60ApiObs, DTr, estricto);
+        }
+        out.setApiObs((141.5 / (densidad.d60 * ctlB / 999.016)) - 131.5);
+    }
+
+    private static double correccion(double a60, double DTr, boolean estricto) {
+        return exp(-a60 * DTr * (1 + 0.8 * a60 * (DTr + 0.01374979547)), estricto);
+    }
+
+    private static double exp(double x, boolean estricto) {
+        return estricto ? StrictMath.exp(x) : Math.exp(x);
+    }
+
+    /**
+     * Method to calculate CTSH, FRA, GOV, GSV and NSV once the ctl and apiObs fields of {@code out} are set.
+     */
+    static CalculationsLiqResult volumenes(double tov, double waterTov, double kFra1, double kFra2, double tLam,
+                                           double tempL, double tAmb, double bsw, CalculationsLiqResult out) {
+        double ctsh, fra, gov, ctl;
+
+        ctsh = ctsh(tempL, tAmb, tLam);
+        fra = fra(kFra1, kFra2, out.getApiObs());
+        gov = gov(tov, waterTov, ctsh, fra);
+        ctl = out.getCtl();
+
+        out.setFra(fra);
+        out.setCtsh(ctsh);
+        out.setGov(gov);
+        out.setGsv(gsv(gov, ctl));
+        out.setNsv(nsv(gov, ctl, bsw));
+        return out;
+    }
+
+    /**
+     * Method to calculate CTSH from the shell temperature, rounded to 1 degree, and the lamination temperature.
+     */
+    static double ctsh(double tempL, double tAmb, double tLam) {
+        double tS, deltaT, ctsh;
+        tS = (tAmb + 7 * tempL) / 8;
+        tS = (double) Math.round(tS * 1d) / 1;
+        deltaT = tS - tLam;
+        ctsh = 1 + 0.0000062 * 2 * (deltaT) + Math.pow(0.0000062, 2) * Math.pow(deltaT, 2);
+        return (double) Math.round(ctsh * 100000d) / 100000;
+    }
+
+    /**
+     * Method to calculate the Fixed Roof Adjustment, rounded to 2 decimals.
+     */
+    static double fra(double kFra1, double kFra2, double apiObs) {
+        double fra = (kFra1 - apiObs) * kFra2;
+        return (double) Math.round(fra * 100d) / 100;
+    }
+
+    /**
+     * Method to calculate GOV, which is not rounded.
+     */
+    static double gov(double tov, double waterTov, double ctsh, double fra) {
+        return (tov - waterTov) * ctsh + fra;
+    }
+
+    /**
+     * Method to calculate GSV, rounded to 2 decimals.
+     */
+    static double gsv(double gov, double ctl) {
+        return (double) Math.round(gov * ctl * 100d) / 100;
+    }
+
+    /**
+     * Method to calculate NSV, rounded to 2 decimals.
+     */
+    static double nsv(double gov, double ctl, double bsw) {
+        return (double) Math.round((gov * ctl * (1 - bsw / 100)) * 100d) / 100;
+    }
+
+    /**
+     * Terms of CTL and API observed that depend only on the type of crude and the density at 60 F.
+     */
+    static final class Densidad {
+
+        private final byte grupo;
+        private final double d60;
+        private final double a60Ctl;
+        private final double a60ApiObs;
+
+        private Densidad(byte grupo, double d60, double a60Ctl, double a60ApiObs) {
+            this.grupo = grupo;
+            this.d60 = d60;
+            this.a60Ctl = a60Ctl;
+            this.a60ApiObs = a60ApiObs;
+        }
+
+        /**
+         * Whether these terms belong to the given type of crude and density.
+         */
+        boolean es(byte grupo, double d60) {
+            return this.grupo == grupo && Double.compare(this.d60, d60) == 0;
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.api_calculation.util;
+
+/**
+ * @author Abelardo Orozco
+ * Motor de calculo de una liquidacion en punto fijo: los volumenes y factores se llevan como {@code long}
+ * escalados por potencias de 10.
+ *
+ * <p>Las entradas se redondean a la resolucion de API MPMS 12.1 (volumenes a 0.01, temperaturas y API a 0.1) y la
+ * cadena CTSH, FRA, GOV, GSV y NSV se calcula con enteros, redondeando en los mismos puntos que
+ * {@link CalculationsLiqEngine} pero sobre el valor exacto, por lo que el resultado no depende de la JVM ni de la
+ * plataforma. CTL y API observado salen de las ecuaciones de API MPMS 11.1 con {@link StrictMath} y se redondean a
+ * 5 y 1 decimales antes de entrar a la cadena. Esta clase y {@link CalculationsLiqEngine} son {@code strictfp}, asi
+ * la parte en double tampoco depende de la precision extendida en una JVM anterior a Java 17 (JEP 306).</p>
+ */
+public final strictfp class CalculationsLiqFijo {
+
+    /**
+     * Scale of the volumes, FRA, GSV and NSV: 0.01.
+     */
+    public static final long ESCALA_VOLUMEN = 100;
+
+    /**
+     * Scale of the temperatures: 0.1 degrees.
+     */
+    public static final long ESCALA_TEMPERATURA = 10;
+
+    /**
+     * Scale of the API gravity: 0.1 degrees API.
+     */
+    public static final long ESCALA_API = 10;
+
+    /**
+     * Scale of the Fixed Roof Adjustment constants: 0.01.
+     */
+    public static final long ESCALA_CONSTANTE = 100;
+
+    /**
+     * Scale of the Base Sediment and Water: 0.001 %.
+     */
+    public static final long ESCALA_BSW = 1000;
+
+    /**
+     * Scale of CTL and CTSH: 0.00001.
+     */
+    public static final long ESCALA_FACTOR = 100000;
+
+    private static final long MIL_MILLONES = 1_000_000_000L;
+
+    private static final long[] POTENCIAS = new long[19];
+
+    static {
+        POTENCIAS[0] = 1;
+        for (int i = 1; i < POTENCIAS.length; i++) {
+            POTENCIAS[i] = POTENCIAS[i - 1] * 10;
+        }
+    }
+
+    private CalculationsLiqFijo() {
+    }
+
+    /**
+     * Same as {@link CalculationsLiqEngine#liquidar(String, double, double, double, double, double, double, double, double, double, CalculationsLiqResult)}
+     * in fixed point, rounding first each input to its scale.
+     *
+     * @return the same {@code out} instance, with the exact fixed point values converted to double
+     * @throws IllegalArgumentException if an input is not finite or the BS&W is not between 0 and 100
+     * @throws ArithmeticException if the volumes are too large for the fixed point calculation
+     */
+    public static CalculationsLiqResult liquidar(String ABD, double tov, double waterTov, double kFra1, double kFra2,
+                                                 double tLam, double tempL, double tAmb, double api60, double bsw,
+                                                 CalculationsLiqResult out) {
+        return liquidar(CalculationsLiqEngine.codigo(ABD),
+                escalar(tov, ESCALA_VOLUMEN),
+                escalar(waterTov, ESCALA_VOLUMEN),
+                escalar(kFra1, ESCALA_CONSTANTE),
+                escalar(kFra2, ESCALA_CONSTANTE),
+                escalar(tLam, ESCALA_TEMPERATURA),
+                escalar(tempL, ESCALA_TEMPERATURA),
+                escalar(tAmb, ESCALA_TEMPERATURA),
+                escalar(api60, ESCALA_API),
+                escalar(bsw, ESCALA_BSW),
+                out);
+    }
+
+    /**
+     * Method to calculate API observed, FRA, CTSH, GOV, CTL, GSV and NSV from inputs already in fixed point.
+     *
+     * @param grupo Type of crude, see {@link CalculationsLiqEngine#codigo(String)}
+     * @param tov Total Observed Volume, in units of 1 / {@link #ESCALA_VOLUMEN}
+     * @param waterTov Total observed volume of water, in units of 1 / {@link #ESCALA_VOLUMEN}
+     * @param kFra1 Constant used in the Fixed Roof Adjustment calculation, in units of 1 / {@link #ESCALA_CONSTANTE}
+     * @param kFra2 Another Constant used in the Fixed Roof Adjustment calculation, in units of 1 / {@link #ESCALA_CONSTANTE}
+     * @param tLam Lamination temperature, in units of 1 / {@link #ESCALA_TEMPERATURA}
+     * @param tempL Liquid temperature, in units of 1 / {@link #ESCALA_TEMPERATURA}
+     * @param tAmb Ambient temperature, in units of 1 / {@link #ESCALA_TEMPERATURA}
+     * @param api60 API gravity at 60 degrees Fahrenheit, in units of 1 / {@link #ESCALA_API}
+     * @param bsw Base Sediment and Water, in units of 1 / {@link #ESCALA_BSW}
+     * @param out Result to fill, it can be reused between calls
+     * @return the same {@code out} instance, with the exact fixed point values converted to double
+     */
+    public static CalculationsLiqResult liquidar(byte grupo, long tov, long waterTov, long kFra1, long kFra2,
+                                                 long tLam, long tempL, long tAmb, long api60, long bsw,
+                                                 CalculationsLiqResult out) {
+        if (bsw < 0 || bsw > 100 * ESCALA_BSW) {
+            throw new IllegalArgumentException("El BS&W debe estar entre 0 y 100");
+        }
+
+        // CTL and API observed, rounded to 5 and 1 decimals
+        CalculationsLiqEngine.ctlApiObsEstricto(grupo, CalculationsLiqEngine.d60((double) api60 / ESCALA_API),
+                CalculationsLiqEngine.dtr((double) tempL / ESCALA_TEMPERATURA), out);
+        long ctl = Math.round(out.getCtl() * ESCALA_FACTOR);
+        long apiObs = Math.round(out.getApiObs() * ESCALA_API);
+
+        // CTSH: shell temperature rounded to 1 degree, then 1 + 2 * 0.0000062 * deltaT + 0.0000062^2 * deltaT^2,
+        // which in units of 0.1 degrees and 1e-16 is 10^16 + 12400000000 * deltaT + 3844 * deltaT^2
+        long tS = redondear(Math.addExact(tAmb, Math.multiplyExact(7, tempL)), 8 * ESCALA_TEMPERATURA);
+        long deltaT = Math.subtractExact(Math.multiplyExact(tS, ESCALA_TEMPERATURA), tLam);
+        long ctsh = redondear(Math.addExact(Math.addExact(POTENCIAS[16], Math.multiplyExact(12_400_000_000L, deltaT)),
+                Math.multiplyExact(3844, Math.multiplyExact(deltaT, deltaT))), POTENCIAS[11]);
+
+        // FRA, in units of 0.0001 before rounding to 0.01
+        long fra = redondear(Math.multiplyExact(kFra1 - apiObs * (ESCALA_CONSTANTE / ESCALA_API), kFra2), ESCALA_CONSTANTE);
+
+        // GOV is not rounded: it is kept exact in units of 1e-7
+        long gov = Math.addExact(Math.multiplyExact(tov - waterTov, ctsh), Math.multiplyExact(fra, ESCALA_FACTOR));
+
+        // GSV and NSV rounded to 0.01 from the exact products, gov * ctl is in units of 1e-12
+        long govCtl = Math.multiplyExact(gov, ctl);
+        long gsv = redondear(govCtl, POTENCIAS[10]);
+        long nsv = multiplicarRedondear(govCtl, 100 * ESCALA_BSW - bsw, 15);
+
+        out.setApiObs((double) apiObs / ESCALA_API);
+        out.setFra((double) fra / ESCALA_VOLUMEN);
+        out.setCtsh((double) ctsh / ESCALA_FACTOR);
+        out.setGov((double) gov / (ESCALA_VOLUMEN * ESCALA_FACTOR));
+        out.setCtl((double) ctl / ESCALA_FACTOR);
+        out.setGsv((double) gsv / ESCALA_VOLUMEN);
+        out.setNsv((double) nsv / ESCALA_VOLUMEN);
+        return out;
+    }
+
+    /**
+     * Method to convert a value to fixed point, rounding it to the nearest unit of 1 / escala.
+     *
+     * @throws IllegalArgumentException if the value is not finite or too large
+     */
+    static long escalar(double valor, long escala) {
+        double escalado = valor * escala;
+        if (!(Math.abs(escalado) < 1e15)) {
+            throw new IllegalArgumentException("Valor fuera del rango del punto fijo: " + valor);
+        }
+        return Math.round(escalado);
+    }
+
+    /**
+     * Method to divide rounding like {@link Math#round(double)}, half up towards positive infinity.
+     * The divisor must be even.
+     */
+    static long redondear(long valor, long divisor) {
+        return Math.floorDiv(Math.addExact(valor, divisor / 2), divisor);
+    }
+
+    /**
+     * Method to calculate a * b / 10^decimales rounded like {@link Math#round(double)}, also when a * b does not
+     * fit in a long. In that case a is split as a1 * 10^9 + a0, so it requires 9 &lt;= decimales &lt;= 18 and
+     * 0 &lt;= b &lt; 10^9.
+     *
+     * @throws ArithmeticException if the result does not fit or the requirements are not met
+     */
+    static long multiplicarRedondear(long a, long b, int decimales) {
+        long divisor = POTENCIAS[decimales];
+        long alto = Math.multiplyHigh(a, b);
+        long bajo = a * b;
+        if (alto == bajo >> 63) {
+            return redondear(bajo, divisor);
+        }
+        if (decimales < 9 || b < 0 || b >= MIL_MILLONES) {
+            throw new ArithmeticException("Desbordamiento en el calculo de punto fijo");
+        }
+
+        // a * b + divisor / 2 = x1 * divisor + (x0 * 10^9 + a0 * b + divisor / 2), with x = a1 * b = x1 * 10^(decimales - 9) + x0
+        long a1 = Math.floorDiv(a, MIL_MILLONES);
+        long a0 = Math.floorMod(a, MIL_MILLONES);
+        long x = Math.multiplyExact(a1, b);
+        long x1 = Math.floorDiv(x, POTENCIAS[decimales - 9]);
+        long x0 = Math.floorMod(x, POTENCIAS[decimales - 9]);
+        return x1 + Math.floorDiv(x0 * MIL_MILLONES + a0 * b + divisor / 2, divisor);
+    }
+}
@@ -0,0 +1,266 @@
+package com.api_calculation.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * @author Abelardo Orozco
+ * Incertidumbre del NSV por Monte Carlo a partir de las tolerancias de medicion de nivel, temperatura,
+ * API y BS&W.
+ *
+ * <p>Cada muestra perturba las lecturas con errores normales de desviacion igual a la incertidumbre estandar de
+ * cada medicion y las calcula con {@link CalculationsLiqEngine}. El valor de la muestra es la suma del NSV de
+ * cada lectura por su signo, asi una liquidacion usa una lectura con signo 1 y un movimiento usa la inicial
+ * con signo 1 y la final con signo -1. Las muestras se reparten entre los nucleos con fork/join y cada tarea
+ * toma su propio {@link SplittableRandom}, por lo que la misma semilla da siempre la misma distribucion.</p>
+ *
+ * <p>No hay tabla de aforo en este servicio: el error de nivel se convierte en error de TOV suponiendo que el
+ * TOV es proporcional al nivel.</p>
+ */
+public final class CalculationsLiqIncertidumbre {
+
+    /**
+     * Number of samples below which a task is calculated in the calling thread.
+     */
+    static final int UMBRAL = 8192;
+
+    /**
+     * Largest number of samples of a simulation.
+     */
+    public static final int MAX_MUESTRAS = 5_000_000;
+
+    /**
+     * Percentiles reported by {@link #simular(int, long, int)}.
+     */
+    static final double[] PERCENTILES = {2.5, 5, 25, 50, 75, 95, 97.5};
+
+    // Standard uncertainties
+    private final double uGauge;
+    private final double uTempL;
+    private final double uApi;
+    private final double uBsw;
+
+    private final List<Lectura> lecturas = new ArrayList<>();
+
+    /**
+     * Constructor to initialize the standard uncertainty of each measurement.
+     *
+     * @param uGauge Standard uncertainty of the gauge, in the units of the gauge
+     * @param uTempL Standard uncertainty of the liquid temperature
+     * @param uApi Standard uncertainty of the API gravity at 60 degrees Fahrenheit
+     * @param uBsw Standard uncertainty of the Base Sediment and Water, in percentage points
+     */
+    public CalculationsLiqIncertidumbre(double uGauge, double uTempL, double uApi, double uBsw) {
+        if (!(uGauge >= 0 && uTempL >= 0 && uApi >= 0 && uBsw >= 0)) {
+            throw new IllegalArgumentException("Las incertidumbres no pueden ser negativas");
+        }
+        this.uGauge = uGauge;
+        this.uTempL = uTempL;
+        this.uApi = uApi;
+        this.uBsw = uBsw;
+    }
+
+    /**
+     * Method to add a reading to the simulation.
+     *
+     * @param signo Sign of the NSV of this reading in the value of each sample
+     * @param ABD Type of crude (A, B, or D)
+     * @param gauge Gauge, used to convert the gauge uncertainty to TOV
+     * @param tov Total Observed Volume
+     * @param waterTov Total observed volume of water
+     * @param kFra1 Constant used in the Fixed Roof Adjustment calculation
+     * @param kFra2 Another Constant used in the Fixed Roof Adjustment calculation
+     * @param tLam Lamination temperature
+     * @param tempL Liquid temperature
+     * @param tAmb Ambient temperature
+     * @param api60 API gravity at 60 degrees Fahrenheit
+     * @param bsw Base Sediment and Water
+     * @return this simulation
+     */
+    public CalculationsLiqIncertidumbre lectura(double signo, String ABD, double gauge, double tov, double waterTov,
+                                                double kFra1, double kFra2, double tLam, double tempL, double tAmb,
+                                                double api60, double bsw) {
+        lecturas.add(new Lectura(signo, CalculationsLiqEngine.codigo(ABD), gauge > 0 ? tov / gauge : 0, tov, waterTov,
+                kFra1, kFra2, tLam, tempL, tAmb, api60, bsw));
+        return this;
+    }
+
+    /**
+     * Method to run the simulation.
+     *
+     * @param muestras Number of samples, from 1 to {@link #MAX_MUESTRAS}
+     * @param semilla Seed of the random generator
+     * @param clases Number of classes of the histogram, at least 1
+     * @return the distribution of the value of the samples
+     */
+    public CalculationsLiqDistribucion simular(int muestras, long semilla, int clases) {
+        if (lecturas.isEmpty()) {
+            throw new IllegalArgumentException("La simulacion no tiene lecturas");
+        }
+        if (muestras < 1 || muestras > MAX_MUESTRAS) {
+            throw new IllegalArgumentException("El numero de muestras debe estar entre 1 y " + MAX_MUESTRAS);
+        }
+        if (clases < 1) {
+            throw new IllegalArgumentException("El histograma debe tener al menos una clase");
+        }
+
+        Lectura[] lecturas = this.lecturas.toArray(new Lectura[0]);
+        double[] valores = new double[muestras];
+        ForkJoinPool.commonPool().invoke(new Tramo(lecturas, valores, 0, muestras, new SplittableRandom(semilla)));
+        Arrays.parallelSort(valores);
+
+        CalculationsLiqResult out = new CalculationsLiqResult();
+        double nominal = 0;
+        for (Lectura lectura : lecturas) {
+            nominal += lectura.signo * lectura.nsv(lectura.tov, lectura.tempL, lectura.api60, lectura.bsw, out);
+        }
+
+        double suma = 0;
+        for (double valor : valores) {
+            suma += valor;
+        }
+        double media = suma / muestras;
+        double sumaCuadrados = 0;
+        for (double valor : valores) {
+            sumaCuadrados += (valor - media) * (valor - media);
+        }
+
+        Map<String, Double> percentiles = new LinkedHashMap<>();
+        for (double p : PERCENTILES) {
+            percentiles.put("p" + (p == Math.rint(p) ? String.valueOf((long) p) : String.valueOf(p)), percentil(valores, p));
+        }
+
+        double desde = valores[0];
+        double ancho = (valores[muestras - 1] - desde) / clases;
+        long[] histograma = new long[clases];
+        for (double valor : valores) {
+            int clase = ancho > 0 ? (int) ((valor - desde) / ancho) : 0;
+            histograma[Math.min(clase, clases - 1)]++;
+        }
+
+        CalculationsLiqDistribucion distribucion = new CalculationsLiqDistribucion();
+        distribucion.setMuestras(muestras);
+        distribucion.setSemilla(semilla);
+        distribucion.setNominal((double) Math.round(nominal * 100d) / 100);
+        distribucion.setMedia(media);
+        distribucion.setDesviacion(muestras > 1 ? Math.sqrt(sumaCuadrados / (muestras - 1)) : 0);
+        distribucion.setPercentiles(percentiles);
+        distribucion.setHistogramaDesde(desde);
+        distribucion.setHistogramaAncho(ancho);
+        distribucion.setHistograma(histograma);
+        return distribucion;
+    }
+
+    /**
+     * Method to get a percentile of sorted values, interpolating linearly between the closest ranks.
+     */
+    static double percentil(double[] ordenados, double p) {
+        double posicion = p / 100 * (ordenados.length - 1);
+        int i = (int) posicion;
+        if (i >= ordenados.length - 1) {
+            return ordenados[ordenados.length - 1];
+        }
+        return ordenados[i] + (posicion - i) * (ordenados[i + 1] - ordenados[i]);
+    }
+
+    /**
+     * Method to get a normal value with mean 0 and standard deviation 1, by the polar method.
+     */
+    private static double normal(SplittableRandom random) {
+        double x, y, s;
+        do {
+            x = 2 * random.nextDouble() - 1;
+            y = 2 * random.nextDouble() - 1;
+            s = x * x + y * y;
+        } while (s >= 1 || s == 0);
+        return x * Math.sqrt(-2 * Math.log(s) / s);
+    }
+
+    /**
+     * Reading of the simulation with its measured values.
+     */
+    private static final class Lectura {
+
+        private final double signo;
+        private final byte grupo;
+        private final double tovPorGauge;
+        private final double tov;
+        private final double waterTov;
+        private final double kFra1;
+        private final double kFra2;
+        private final double tLam;
+        private final double tempL;
+        private final double tAmb;
+        private final double api60;
+        private final double bsw;
+
+        Lectura(double signo, byte grupo, double tovPorGauge, double tov, double waterTov, double kFra1, double kFra2,
+                double tLam, double tempL, double tAmb, double api60, double bsw) {
+            this.signo = signo;
+            this.grupo = grupo;
+            this.tovPorGauge = tovPorGauge;
+            this.tov = tov;
+            this.waterTov = waterTov;
+            this.kFra1 = kFra1;
+            this.kFra2 = kFra2;
+            this.tLam = tLam;
+            this.tempL = tempL;
+            this.tAmb = tAmb;
+            this.api60 = api60;
+            this.bsw = bsw;
+        }
+
+        double nsv(double tov, double tempL, double api60, double bsw, CalculationsLiqResult out) {
+            return CalculationsLiqEngine.liquidar(grupo, tov, waterTov, kFra1, kFra2, tLam, tempL, tAmb, api60, bsw, out).getNsv();
+        }
+    }
+
+    /**
+     * Fork/join task that halves its range of samples, splitting its random generator for each half,
+     * until it is small enough to calculate directly.
+     */
+    private final class Tramo extends RecursiveAction {
+
+        private final Lectura[] lecturas;
+        private final double[] valores;
+        private final int desde;
+        private final int hasta;
+        private final SplittableRandom random;
+
+        Tramo(Lectura[] lecturas, double[] valores, int desde, int hasta, SplittableRandom random) {
+            this.lecturas = lecturas;
+            this.valores = valores;
+            this.desde = desde;
+            this.hasta = hasta;
+            this.random = random;
+        }
+
+        @Override
+        protected void compute() {
+            if (hasta - desde <= UMBRAL) {
+                CalculationsLiqResult out = new CalculationsLiqResult();
+                for (int i = desde; i < hasta; i++) {
+                    double valor = 0;
+                    for (Lectura lectura : lecturas) {
+                        double tov = lectura.tov + uGauge * normal(random) * lectura.tovPorGauge;
+                        double tempL = lectura.tempL + uTempL * normal(random);
+                        double api60 = lectura.api60 + uApi * normal(random);
+                        double bsw = Math.max(0, lectura.bsw + uBsw * normal(random));
+                        valor += lectura.signo * lectura.nsv(tov, tempL, api60, bsw, out);
+                    }
+                    valores[i] = valor;
+                }
+            } else {
+                int medio = (desde + hasta) >>> 1;
+                Tramo izquierda = new Tramo(lecturas, valores, desde, medio, random.split());
+                invokeAll(izquierda, new Tramo(lecturas, valores, medio, hasta, random));
+            }
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.api_calculation.util;
+
+import java.util.EnumSet;
+
+/**
+ * @author Abelardo Orozco
+ * Recalculo incremental de una liquidacion a partir del grafo de dependencias entre sus entradas y resultados.
+ *
+ * <p>Cuando se editan algunas entradas solo se recalculan los resultados que dependen de ellas, tomando los demas
+ * de la liquidacion anterior: la temperatura ambiente solo afecta CTSH, GOV, GSV y NSV, y el BS&W solo afecta el
+ * NSV. Los pasos son los mismos de {@link CalculationsLiqEngine}, asi que el resultado es identico al de calcular
+ * todo de nuevo siempre que los resultados anteriores se hayan calculado con las entradas anteriores.</p>
+ */
+public final class CalculationsLiqIncremental {
+
+    /**
+     * Nodes of the dependency graph, inputs first and then results, each result after the nodes it depends on.
+     */
+    public enum Variable {
+
+        ABD,
+        API60,
+        TEMP_L,
+        T_AMB,
+        T_LAM,
+        TOV,
+        WATER_TOV,
+        K_FRA1,
+        K_FRA2,
+        BSW,
+
+        /**
+         * CTL and API observed, calculated together.
+         */
+        CTL_API_OBS(ABD, API60, TEMP_L),
+        CTSH(TEMP_L, T_AMB, T_LAM),
+        FRA(K_FRA1, K_FRA2, CTL_API_OBS),
+        GOV(TOV, WATER_TOV, CTSH, FRA),
+        GSV(GOV, CTL_API_OBS),
+        NSV(GOV, CTL_API_OBS, BSW);
+
+        private final Variable[] dependencias;
+
+        Variable(Variable... dependencias) {
+            this.dependencias = dependencias;
+        }
+
+        /**
+         * Whether this node is an input of the liquidation.
+         */
+        public boolean isEntrada() {
+            return dependencias.length == 0;
+        }
+    }
+
+    private CalculationsLiqIncremental() {
+    }
+
+    /**
+     * Method to find the nodes affected by a change, that is the changed nodes and every node that depends on
+     * them directly or indirectly.
+     *
+     * @param cambiadas Changed nodes
+     * @return the affected nodes
+     */
+    public static EnumSet<Variable> afectadas(EnumSet<Variable> cambiadas) {
+        EnumSet<Variable> afectadas = EnumSet.copyOf(cambiadas);
+        // The declaration order is a topological order, so a single pass is enough
+        for (Variable variable : Variable.values()) {
+            for (Variable dependencia : variable.dependencias) {
+                if (afectadas.contains(dependencia)) {
+                    afectadas.add(variable);
+                    break;
+                }
+            }
+        }
+        return afectadas;
+    }
+
+    /**
+     * Method to recalculate only the results affected by the changed inputs. {@code out} must have the results
+     * calculated with the previous inputs; API observed is not needed because it is calculated again whenever
+     * FRA is affected.
+     *
+     * @param cambiadas Changed inputs
+     * @param ABD Type of crude (A, B, or D)
+     * @param tov Total Observed Volume
+     * @param waterTov Total observed volume of water
+     * @param kFra1 Constant used in the Fixed Roof Adjustment calculation
+     * @param kFra2 Another Constant used in the Fixed Roof Adjustment calculation
+     * @param tLam Lamination temperature
+     * @param tempL Liquid temperature
+     * @param tAmb Ambient temperature
+     * @param api60 API gravity at 60 degrees Fahrenheit
+     * @param bsw Base Sediment and Water
+     * @param out Previous results, the affected ones are replaced
+     * @return the recalculated results
+     */
+    public static EnumSet<Variable> recalcular(EnumSet<Variable> cambiadas, String ABD, double tov, double waterTov,
+                                               double kFra1, double kFra2, double tLam, double tempL, double tAmb,
+                                               double api60, double bsw, CalculationsLiqResult out) {
+        EnumSet<Variable> afectadas = afectadas(cambiadas);
+
+        if (afectadas.contains(Variable.CTL_API_OBS) || afectadas.contains(Variable.FRA)) {
+            CalculationsLiqEngine.ctlApiObs(CalculationsLiqEngine.codigo(ABD), CalculationsLiqEngine.d60(api60),
+                    CalculationsLiqEngine.dtr(tempL), out);
+        }
+        if (afectadas.contains(Variable.CTSH)) {
+            out.setCtsh(CalculationsLiqEngine.ctsh(tempL, tAmb, tLam));
+        }
+        if (afectadas.contains(Variable.FRA)) {
+            out.setFra(CalculationsLiqEngine.fra(kFra1, kFra2, out.getApiObs()));
+        }
+        if (afectadas.contains(Variable.GOV)) {
+            out.setGov(CalculationsLiqEngine.gov(tov, waterTov, out.getCtsh(), out.getFra()));
+        }
+        if (afectadas.contains(Variable.GSV)) {
+            out.setGsv(CalculationsLiqEngine.gsv(out.getGov(), out.getCtl()));
+        }
+        if (afectadas.contains(Variable.NSV)) {
+            out.setNsv(CalculationsLiqEngine.nsv(out.getGov(), out.getCtl(), bsw));
+        }
+
+        afectadas.removeIf(Variable::isEntrada);
+        return afectadas;
+    }
+}
@@ -0,0 +1,73 @@
+package com.api_calculation.util;
+
+import com.compartido.util.TablaAforoIndice;
+
+/**
+ * @author Abelardo Orozco
+ * Calculo inverso de una liquidacion: el gauge al que un tanque tiene un NSV dado, para planear cargues.
+ *
+ * <p>Con las temperaturas, el API y el BS&W fijos, CTL, CTSH y FRA no dependen del nivel, y el NSV antes de
+ * redondear es afin en el TOV: NSV = ((TOV - waterTov) * CTSH + FRA) * CTL * (1 - BS&W / 100). Por eso un solo
+ * paso de Newton con esa derivada da el TOV exacto, y el gauge sale de la inversa de la tabla de aforo, que
+ * busca el tramo con busqueda binaria. El resultado se comprueba liquidando la lectura a ese gauge con
+ * {@link CalculationsLiqEngine}.</p>
+ */
+public final class CalculationsLiqInverso {
+
+    private CalculationsLiqInverso() {
+    }
+
+    /**
+     * Method to calculate the gauge at which a tank holds a Net Standard Volume.
+     *
+     * @param tabla Strapping table of the tank
+     * @param nsv Net Standard Volume wanted
+     * @param grupo Type of crude, see {@link CalculationsLiqEngine#codigo(String)}
+     * @param waterTov Total observed volume of water, which does not change with the gauge
+     * @param kFra1 Constant used in the Fixed Roof Adjustment calculation
+     * @param kFra2 Another Constant used in the Fixed Roof Adjustment calculation
+     * @param tLam Lamination temperature
+     * @param tempL Liquid temperature
+     * @param tAmb Ambient temperature
+     * @param api60 API gravity at 60 degrees Fahrenheit
+     * @param bsw Base Sediment and Water
+     * @param out Result where the Liquidacion at the calculated gauge is set
+     * @return the gauge in millimetres; the TOV at it is {@code tabla.volumen(gauge)} and the NSV is in {@code out},
+     *         which can differ from the one wanted by the rounding to 0.01
+     * @throws IllegalArgumentException if the BS&W is not between 0 and 100, or the NSV is negative, below the free water
+     *         or outside the table
+     */
+    public static double gauge(TablaAforoIndice tabla, double nsv, byte grupo, double waterTov, double kFra1,
+                               double kFra2, double tLam, double tempL, double tAmb, double api60, double bsw,
+                               CalculationsLiqResult out) {
+        if (!(bsw >= 0 && bsw < 100)) {
+            throw new IllegalArgumentException("El BS&W debe estar entre 0 y 100");
+        }
+        CalculationsLiqEngine.ctlApiObs(grupo, CalculationsLiqEngine.d60(api60), CalculationsLiqEngine.dtr(tempL), out);
+        double ctsh = CalculationsLiqEngine.ctsh(tempL, tAmb, tLam);
+        double fra = CalculationsLiqEngine.fra(kFra1, kFra2, out.getApiObs());
+        double factor = out.getCtl() * (1 - bsw / 100);
+
+        double tov = waterTov + (nsv / factor - fra) / ctsh;
+        if (!(nsv >= 0) || tov < waterTov) {
+            throw new IllegalArgumentException("El NSV " + nsv + " no puede ser negativo ni quedar por debajo del agua libre del tanque");
+        }
+        double gauge = tabla.nivel(tov);
+
+        CalculationsLiqEngine.volumenes(tabla.volumen(gauge), waterTov, kFra1, kFra2, tLam, tempL, tAmb, bsw, out);
+        return gauge;
+    }
+
+    /**
+     * Method to calculate the barrels of NSV per millimetre of gauge, to know how much a deviation of the gauge
+     * changes the volume.
+     *
+     * @param tabla Strapping table of the tank
+     * @param gauge Level in millimetres
+     * @param bsw Base Sediment and Water
+     * @param out Result of {@link #gauge}, with the CTL and CTSH of the reading
+     */
+    public static double nsvPorMm(TablaAforoIndice tabla, double gauge, double bsw, CalculationsLiqResult out) {
+        return tabla.volumenPorMm(gauge) * out.getCtsh() * out.getCtl() * (1 - bsw / 100);
+    }
+}
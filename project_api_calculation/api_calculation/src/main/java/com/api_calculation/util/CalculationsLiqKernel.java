@@ -0,0 +1,34 @@
+package com.api_calculation.util;
+
+/**
+ * @author Abelardo Orozco
+ * Calculo de CTL y API observado sobre columnas de lecturas.
+ *
+ * <p>Las implementaciones deben dar exactamente los mismos valores que {@link CalculationsLiqEngine}.
+ * Use {@link #disponible()} para obtener la mas rapida que soporte la JVM actual.</p>
+ */
+public interface CalculationsLiqKernel {
+
+    /**
+     * Method to calculate CTL and API observed for the readings in [desde, hasta).
+     *
+     * @param grupo Type of crude of each reading, see {@link CalculationsLiqEngine#codigo(String)}
+     * @param api60 API gravity at 60 degrees Fahrenheit
+     * @param tempL Liquid temperature
+     * @param ctl Output column for CTL
+     * @param apiObs Output column for API observed
+     * @param desde First reading, inclusive
+     * @param hasta Last reading, exclusive
+     */
+    void ctlApiObs(byte[] grupo, double[] api60, double[] tempL, double[] ctl, double[] apiObs, int desde, int hasta);
+
+    /**
+     * Returns the SIMD kernel when it was compiled (profile {@code vector}) and the JVM was started with
+     * {@code --add-modules jdk.incubator.vector}; otherwise returns {@link CalculationsLiqKernelEscalar}.
+     *
+     * @return the kernel to use in this JVM
+     */
+    static CalculationsLiqKernel disponible() {
+        return CalculationsLiqKernelEscalar.DISPONIBLE;
+    }
+}
@@ -0,0 +1,50 @@
+package com.api_calculation.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * @author Abelardo Orozco
+ * Implementacion escalar de {@link CalculationsLiqKernel}, una lectura a la vez.
+ *
+ * <p>Los terminos que solo dependen de la densidad se reutilizan mientras las lecturas seguidas tengan el mismo
+ * grupo y API a 60 F, como en un barrido de temperatura o en los tanques de un mismo producto.</p>
+ */
+public class CalculationsLiqKernelEscalar implements CalculationsLiqKernel {
+
+    private static final Logger log = LoggerFactory.getLogger(CalculationsLiqKernelEscalar.class);
+
+    private static final String KERNEL_VECTORIAL = "com.api_calculation.util.CalculationsLiqKernelVectorial";
+
+    static final CalculationsLiqKernel DISPONIBLE = cargar();
+
+    @Override
+    public void ctlApiObs(byte[] grupo, double[] api60, double[] tempL, double[] ctl, double[] apiObs, int desde, int hasta) {
+        CalculationsLiqResult out = new CalculationsLiqResult();
+        CalculationsLiqEngine.Densidad densidad = null;
+        for (int i = desde; i < hasta; i++) {
+            double d60 = CalculationsLiqEngine.d60(api60[i]);
+            if (densidad == null || !densidad.es(grupo[i], d60)) {
+                densidad = CalculationsLiqEngine.densidad(grupo[i], d60);
+            }
+            CalculationsLiqEngine.ctlApiObs(densidad, CalculationsLiqEngine.dtr(tempL[i]), out);
+            ctl[i] = out.getCtl();
+            apiObs[i] = out.getApiObs();
+        }
+    }
+
+    /**
+     * Loads the SIMD kernel by name, since it is only compiled and usable with the incubator Vector API.
+     */
+    private static CalculationsLiqKernel cargar() {
+        try {
+            CalculationsLiqKernel kernel = (CalculationsLiqKernel) Class.forName(KERNEL_VECTORIAL)
+                    .getDeclaredConstructor().newInstance();
+            log.info("Usando kernel vectorial para CTL y API observado");
+            return kernel;
+        } catch (ReflectiveOperationException | LinkageError e) {
+            log.info("Kernel vectorial no disponible, usando kernel escalar: {}", e.toString());
+            return new CalculationsLiqKernelEscalar();
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.api_calculation.util;
+
+import lombok.Data;
+
+/**
+ * @author Abelardo Orozco
+ * Resultado de una liquidacion calculada por {@link CalculationsLiqEngine}.
+ * Se puede reutilizar entre calculos para no crear objetos en cada lectura.
+ */
+@Data
+public class CalculationsLiqResult {
+
+    private double apiObs; // Observed API gravity
+    private double fra; // Floating Roof Adjustment
+    private double ctsh; // Correction for the effect of Temperature on the Shell
+    private double gov; // Gross Observed Volume
+    private double ctl; // Correction for the effect of Temperature on the Liquid
+    private double gsv; // Gross Standard Volume
+    private double nsv; // Net Standard Volume
+}
@@ -0,0 +1,240 @@
+package com.api_calculation.util;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * @author Abelardo Orozco
+ * Tablas precalculadas de CTL y API observado por grupo de producto (estilo tablas API 6A/6B/6D).
+ *
+ * <p>Con {@code liquidacion.tabla.enabled} se construye al arrancar una malla de API a 60 F por temperatura
+ * del liquido para cada {@link GrupoProducto}, guardada en arreglos planos. Las consultas se responden con interpolacion
+ * bilineal y una cota estimada del error de cada celda: si la cota deja alguna duda sobre el redondeo a 5 decimales
+ * del CTL (o a 1 decimal del API observado), o la lectura cae fuera de la malla o en una celda que cruza
+ * una banda de densidad del grupo B, se usa el calculo exacto.</p>
+ *
+ * <p>La cota se estima con diferencias segundas muestreadas, no es una cota rigurosa del resto, asi que en
+ * alguna celda el resultado puede diferir de {@link CalculationsLiqEngine} en el ultimo decimal. Es un modo
+ * aproximado: solo lo usan los lotes que lo piden con {@code aproximado}, nunca el cache, los barridos ni las
+ * liquidaciones que se guardan.</p>
+ */
+@Component
+public class CalculationsLiqTabla implements CalculationsLiqKernel {
+
+    static final double API_MIN = 7;
+    static final double API_MAX = 90;
+    static final double API_PASO = 0.5;
+    static final double TEMP_MIN = -1;
+    static final double TEMP_MAX = 150;
+    static final double TEMP_PASO = 1;
+
+    private static final int N_API = (int) Math.round((API_MAX - API_MIN) / API_PASO) + 1;
+    private static final int N_TEMP = (int) Math.round((TEMP_MAX - TEMP_MIN) / TEMP_PASO) + 1;
+
+    /**
+     * Factor applied to the second differences of a cell to cover how much the second derivatives change inside it.
+     */
+    private static final double FACTOR_COTA = 2;
+
+    private final boolean habilitada;
+
+    // Unrounded values at the nodes, [GrupoProducto ordinal][iApi * N_TEMP + iTemp]
+    private final double[][] ctl;
+    private final double[][] apiObs;
+
+    // Error bound of each cell, [GrupoProducto ordinal][iApi * (N_TEMP - 1) + iTemp]
+    private final double[][] cotaCtl;
+    private final double[][] cotaApiObs;
+
+    /**
+     * Constructor that builds the tables when they are enabled.
+     *
+     * @param habilitada whether the tables are built and used
+     */
+    public CalculationsLiqTabla(@Value("${liquidacion.tabla.enabled:false}") boolean habilitada) {
+        this.habilitada = habilitada;
+        int grupos = habilitada ? GrupoProducto.values().length : 0;
+        this.ctl = new double[grupos][];
+        this.apiObs = new double[grupos][];
+        this.cotaCtl = new double[grupos][];
+        this.cotaApiObs = new double[grupos][];
+        for (int g = 0; g < grupos; g++) {
+            construir(g);
+        }
+    }
+
+    public boolean isHabilitada() {
+        return habilitada;
+    }
+
+    /**
+     * Method to set the ctl and apiObs fields of {@code out} from the tables.
+     *
+     * @param grupo Type of crude, see {@link CalculationsLiqEngine#codigo(String)}
+     * @param api60 API gravity at 60 degrees Fahrenheit
+     * @param tempL Liquid temperature
+     * @param out Result where CTL and API observed are set
+     * @return false, leaving {@code out} untouched, when the exact calculation must be used
+     */
+    public boolean ctlApiObs(byte grupo, double api60, double tempL, CalculationsLiqResult out) {
+        if (!habilitada || !(api60 >= API_MIN && api60 <= API_MAX && tempL >= TEMP_MIN && tempL <= TEMP_MAX)) {
+            return false;
+        }
+
+        double fa = (api60 - API_MIN) / API_PASO;
+        double ft = (tempL - TEMP_MIN) / TEMP_PASO;
+        int ia = Math.min((int) fa, N_API - 2);
+        int it = Math.min((int) ft, N_TEMP - 2);
+        double ua = fa - ia;
+        double ut = ft - it;
+
+        int g = GrupoProducto.de(grupo).ordinal();
+        int celda = ia * (N_TEMP - 1) + it;
+        int nodo = ia * N_TEMP + it;
+
+        double ctlRedondeado = redondear(interpolar(ctl[g], nodo, ua, ut), cotaCtl[g][celda], 100000d);
+        if (Double.isNaN(ctlRedondeado)) {
+            return false;
+        }
+        double apiObsRedondeado = redondear(interpolar(apiObs[g], nodo, ua, ut), cotaApiObs[g][celda], 10d);
+        if (Double.isNaN(apiObsRedondeado)) {
+            return false;
+        }
+
+        out.setCtl(ctlRedondeado);
+        out.setApiObs(apiObsRedondeado);
+        return true;
+    }
+
+    /**
+     * Method to get the interpolated CTL and API observed, unrounded, with the error bounds of their cell.
+     * The reading must be inside the grid.
+     *
+     * @return CTL, bound of CTL, API observed and bound of API observed
+     */
+    double[] interpolarConCota(byte grupo, double api60, double tempL) {
+        double fa = (api60 - API_MIN) / API_PASO;
+        double ft = (tempL - TEMP_MIN) / TEMP_PASO;
+        int ia = Math.min((int) fa, N_API - 2);
+        int it = Math.min((int) ft, N_TEMP - 2);
+        int g = GrupoProducto.de(grupo).ordinal();
+        int celda = ia * (N_TEMP - 1) + it;
+        int nodo = ia * N_TEMP + it;
+        return new double[]{interpolar(ctl[g], nodo, fa - ia, ft - it), cotaCtl[g][celda],
+                interpolar(apiObs[g], nodo, fa - ia, ft - it), cotaApiObs[g][celda]};
+    }
+
+    @Override
+    public void ctlApiObs(byte[] grupo, double[] api60, double[] tempL, double[] ctl, double[] apiObs, int desde, int hasta) {
+        CalculationsLiqResult out = new CalculationsLiqResult();
+        for (int i = desde; i < hasta; i++) {
+            if (!ctlApiObs(grupo[i], api60[i], tempL[i], out)) {
+                CalculationsLiqEngine.ctlApiObs(grupo[i], CalculationsLiqEngine.d60(api60[i]), CalculationsLiqEngine.dtr(tempL[i]), out);
+            }
+            ctl[i] = out.getCtl();
+            apiObs[i] = out.getApiObs();
+        }
+    }
+
+    /**
+     * Method to round an interpolated value the same way the exact calculation does.
+     *
+     * @return the rounded value, or NaN when the exact value could round differently
+     */
+    private static double redondear(double valor, double cota, double escala) {
+        long abajo = Math.round((valor - cota) * escala);
+        long arriba = Math.round((valor + cota) * escala);
+        return abajo == arriba ? (double) abajo / escala : Double.NaN;
+    }
+
+    private static double interpolar(double[] tabla, int nodo, double ua, double ut) {
+        return (1 - ua) * ((1 - ut) * tabla[nodo] + ut * tabla[nodo + 1])
+                + ua * ((1 - ut) * tabla[nodo + N_TEMP] + ut * tabla[nodo + N_TEMP + 1]);
+    }
+
+    /**
+     * Method to calculate the nodes of a group and the error bound of each cell.
+     *
+     * <p>Bilinear interpolation is linear interpolation along the API followed by linear interpolation along the
+     * temperature, so its error inside a cell of sides h and k is at most h^2/8 max|f_aa| + k^2/8 max|f_tt|.
+     * Each second derivative is estimated by the second differences with half steps at both edges and the middle
+     * of the cell, which gives (max|diferencia API| + max|diferencia temperatura|) / 2, multiplied by
+     * {@link #FACTOR_COTA} because the second derivatives are only sampled. The bound is therefore an estimate
+     * of the remainder, not a proof; CalculationsLiqTablaTests checks it against a dense sweep of every cell.
+     * It is infinite when the cell crosses a density band.</p>
+     */
+    private void construir(int g) {
+        GrupoProducto grupoProducto = GrupoProducto.values()[g];
+        byte grupo = grupoProducto.getCodigo();
+        CalculationsLiqResult out = new CalculationsLiqResult();
+
+        double[] nodosCtl = new double[N_API * N_TEMP];
+        double[] nodosApiObs = new double[N_API * N_TEMP];
+        for (int ia = 0; ia < N_API; ia++) {
+            for (int it = 0; it < N_TEMP; it++) {
+                exacto(grupo, API_MIN + ia * API_PASO, TEMP_MIN + it * TEMP_PASO, out);
+                nodosCtl[ia * N_TEMP + it] = out.getCtl();
+                nodosApiObs[ia * N_TEMP + it] = out.getApiObs();
+            }
+        }
+
+        double[] cotasCtl = new double[(N_API - 1) * (N_TEMP - 1)];
+        double[] cotasApiObs = new double[(N_API - 1) * (N_TEMP - 1)];
+        // Values at the 3 x 3 points of a cell, [API offset][temperature offset] in halves of a step
+        double[][] valoresCtl = new double[3][3];
+        double[][] valoresApiObs = new double[3][3];
+        for (int ia = 0; ia < N_API - 1; ia++) {
+            double apiInicio = API_MIN + ia * API_PASO;
+            boolean cruzaBanda = grupoProducto.indiceBanda(CalculationsLiqEngine.d60(apiInicio))
+                    != grupoProducto.indiceBanda(CalculationsLiqEngine.d60(apiInicio + API_PASO));
+            for (int it = 0; it < N_TEMP - 1; it++) {
+                int celda = ia * (N_TEMP - 1) + it;
+                if (cruzaBanda) {
+                    cotasCtl[celda] = Double.POSITIVE_INFINITY;
+                    cotasApiObs[celda] = Double.POSITIVE_INFINITY;
+                    continue;
+                }
+
+                int nodo = ia * N_TEMP + it;
+                for (int a = 0; a < 3; a++) {
+                    for (int t = 0; t < 3; t++) {
+                        if (a % 2 == 0 && t % 2 == 0) {
+                            int n = nodo + a / 2 * N_TEMP + t / 2;
+                            valoresCtl[a][t] = nodosCtl[n];
+                            valoresApiObs[a][t] = nodosApiObs[n];
+                        } else {
+                            exacto(grupo, apiInicio + a * API_PASO / 2, TEMP_MIN + (it + t / 2d) * TEMP_PASO, out);
+                            valoresCtl[a][t] = out.getCtl();
+                            valoresApiObs[a][t] = out.getApiObs();
+                        }
+                    }
+                }
+                cotasCtl[celda] = FACTOR_COTA * restoBilineal(valoresCtl) + 1e-12;
+                cotasApiObs[celda] = FACTOR_COTA * restoBilineal(valoresApiObs) + 1e-9;
+            }
+        }
+
+        ctl[g] = nodosCtl;
+        apiObs[g] = nodosApiObs;
+        cotaCtl[g] = cotasCtl;
+        cotaApiObs[g] = cotasApiObs;
+    }
+
+    /**
+     * Method to estimate h^2/8 max|f_aa| + k^2/8 max|f_tt| from the values at the corners, edge midpoints and
+     * center of a cell. With half steps, h^2/8 f_aa is half the second difference along the API.
+     */
+    private static double restoBilineal(double[][] valores) {
+        double api = 0;
+        double temp = 0;
+        for (int i = 0; i < 3; i++) {
+            api = Math.max(api, Math.abs(valores[0][i] - 2 * valores[1][i] + valores[2][i]));
+            temp = Math.max(temp, Math.abs(valores[i][0] - 2 * valores[i][1] + valores[i][2]));
+        }
+        return (api + temp) / 2;
+    }
+
+    private static void exacto(byte grupo, double api60, double tempL, CalculationsLiqResult out) {
+        CalculationsLiqEngine.ctlApiObsSinRedondeo(grupo, CalculationsLiqEngine.d60(api60), CalculationsLiqEngine.dtr(tempL), out);
+    }
+}
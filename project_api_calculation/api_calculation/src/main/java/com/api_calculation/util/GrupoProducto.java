@@ -0,0 +1,182 @@
+package com.api_calculation.util;
+
+import java.util.Arrays;
+
+/**
+ * @author Abelardo Orozco
+ * Registro de grupos de producto de API MPMS 11.1 con los coeficientes k0, k1, k2 y j0 de cada banda de densidad.
+ *
+ * <p>Para agregar un grupo basta con declarar una constante nueva con su codigo y sus bandas ordenadas por
+ * limite superior de densidad a 60 F; el calculo no cambia.</p>
+ */
+public enum GrupoProducto {
+
+    /**
+     * Crude oil.
+     */
+    A('A', new BandaDensidad(Double.POSITIVE_INFINITY, 341.0957, 0, 0, 2)),
+
+    /**
+     * Refined products. Densities from 1163.5 up keep the group A constants, as {@link CalculationsLiq} always did.
+     */
+    B('B', new BandaDensidad(770.352, 192.4571, 0.2438, 0, 1.5),
+            new BandaDensidad(787.5195, 1489.067, 0, -0.0018684, 8.5),
+            new BandaDensidad(838.3127, 330.301, 0, 0, 2),
+            new BandaDensidad(1163.5, 103.872, 0.2701, 0, 1.3),
+            new BandaDensidad(Double.POSITIVE_INFINITY, 341.0957, 0, 0, 2)),
+
+    /**
+     * Lubricating oils.
+     */
+    D('D', new BandaDensidad(Double.POSITIVE_INFINITY, 0, 0.34878, 0, 1));
+
+    private static final GrupoProducto[] POR_CODIGO = new GrupoProducto[128];
+
+    static {
+        for (GrupoProducto grupo : values()) {
+            POR_CODIGO[grupo.codigo] = grupo;
+        }
+    }
+
+    private final byte codigo;
+    private final BandaDensidad[] bandas;
+    private final double[] limites;
+
+    GrupoProducto(char codigo, BandaDensidad... bandas) {
+        this.codigo = (byte) codigo;
+        this.bandas = bandas;
+        this.limites = Arrays.stream(bandas).mapToDouble(BandaDensidad::getLimiteD60).toArray();
+    }
+
+    /**
+     * Method to find a group by the type of crude received from the client.
+     *
+     * @param ABD Type of crude (A, B, or D)
+     * @return the group
+     * @throws IllegalArgumentException if there is no group with that code
+     */
+    public static GrupoProducto of(String ABD) {
+        if (ABD == null || ABD.length() != 1) {
+            throw new IllegalArgumentException("Grupo de producto desconocido: " + ABD);
+        }
+        return de((byte) ABD.charAt(0));
+    }
+
+    /**
+     * Method to find a group by its byte code.
+     *
+     * @param codigo Code of the group, see {@link #getCodigo()}
+     * @return the group
+     * @throws IllegalArgumentException if there is no group with that code
+     */
+    public static GrupoProducto de(byte codigo) {
+        GrupoProducto grupo = codigo >= 0 ? POR_CODIGO[codigo] : null;
+        if (grupo == null) {
+            throw new IllegalArgumentException("Grupo de producto desconocido: " + (char) codigo);
+        }
+        return grupo;
+    }
+
+    public byte getCodigo() {
+        return codigo;
+    }
+
+    /**
+     * Method to find, by binary search, the position of the density band that contains d60.
+     * A NaN density falls in the last band.
+     *
+     * @param d60 Density at 60 F
+     * @return the index of the band
+     */
+    public int indiceBanda(double d60) {
+        int desde = 0;
+        int hasta = limites.length - 1;
+        while (desde < hasta) {
+            int medio = (desde + hasta) >>> 1;
+            if (d60 < limites[medio]) {
+                hasta = medio;
+            } else {
+                desde = medio + 1;
+            }
+        }
+        return desde;
+    }
+
+    /**
+     * Method to find the density band that contains d60.
+     *
+     * @param d60 Density at 60 F
+     * @return the coefficients of the band
+     */
+    public BandaDensidad banda(double d60) {
+        return bandas[indiceBanda(d60)];
+    }
+
+    /**
+     * Coefficients of a density band, with the products used by CTL and API observed already calculated.
+     */
+    public static final class BandaDensidad {
+
+        private final double limiteD60;
+        private final double k0;
+        private final double k1;
+        private final double k2;
+        private final double j0;
+        private final double dosK0;
+        private final double j0K0;
+
+        BandaDensidad(double limiteD60, double k0, double k1, double k2, double j0) {
+            this.limiteD60 = limiteD60;
+            this.k0 = k0;
+            this.k1 = k1;
+            this.k2 = k2;
+            this.j0 = j0;
+            this.dosK0 = 2 * k0;
+            this.j0K0 = j0 * k0;
+        }
+
+        /**
+         * Upper limit, exclusive, of the density at 60 F of this band.
+         */
+        public double getLimiteD60() {
+            return limiteD60;
+        }
+
+        public double getK0() {
+            return k0;
+        }
+
+        public double getK1() {
+            return k1;
+        }
+
+        public double getK2() {
+            return k2;
+        }
+
+        public double getJ0() {
+            return j0;
+        }
+
+        /**
+         * The term 2 * k0 used by CTL.
+         */
+        public double getDosK0() {
+            return dosK0;
+        }
+
+        /**
+         * The term j0 * k0 used by API observed.
+         */
+        public double getJ0K0() {
+            return j0K0;
+        }
+
+        /**
+         * Whether CTL and API observed use the same thermal expansion coefficient, which happens when j0 is 2.
+         */
+        public boolean isMismoA60() {
+            return j0 == 2;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.api_calculation.util;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * @author Abelardo Orozco
+ * Variables de entrada que se pueden recorrer en un barrido de sensibilidad, ver {@link CalculationsLiqBarrido}.
+ */
+public enum VariableBarrido {
+
+    /**
+     * Liquid temperature.
+     */
+    @JsonProperty("tempL")
+    TEMP_L("tempL"),
+
+    /**
+     * Ambient temperature.
+     */
+    @JsonProperty("tAmb")
+    T_AMB("tAmb"),
+
+    /**
+     * API gravity at 60 degrees Fahrenheit.
+     */
+    @JsonProperty("api")
+    API("api");
+
+    private final String nombre;
+
+    VariableBarrido(String nombre) {
+        this.nombre = nombre;
+    }
+
+    /**
+     * Name of the variable in the requests and in the results of a sweep.
+     */
+    public String getNombre() {
+        return nombre;
+    }
+}
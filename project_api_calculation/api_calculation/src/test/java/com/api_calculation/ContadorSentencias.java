@@ -0,0 +1,97 @@
+package com.api_calculation;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Cuenta las sentencias que llegan a la base de datos, envolviendo el DataSource: cada ejecucion o lote enviado
+ * es un viaje. Se importa en las pruebas con {@code @Import(ContadorSentencias.class)}.
+ */
+@TestConfiguration
+public class ContadorSentencias {
+
+	private static final List<String> viajes = new CopyOnWriteArrayList<>();
+	private static final AtomicInteger filasEnLote = new AtomicInteger();
+
+	@Bean
+	static BeanPostProcessor contarViajes() {
+		return new BeanPostProcessor() {
+			@Override
+			public Object postProcessAfterInitialization(Object bean, String beanName) {
+				return bean instanceof DataSource ? envolver(DataSource.class, bean, null) : bean;
+			}
+		};
+	}
+
+	public static void reiniciar() {
+		viajes.clear();
+		filasEnLote.set(0);
+	}
+
+	public static List<String> viajes() {
+		return new ArrayList<>(viajes);
+	}
+
+	/**
+	 * Each statement sent since the last restart, as its kind and first table, e.g. {@code select cargues}.
+	 */
+	public static List<String> tablas() {
+		return viajes.stream().map(ContadorSentencias::tabla).collect(Collectors.toList());
+	}
+
+	public static int filasEnLote() {
+		return filasEnLote.get();
+	}
+
+	private static String tabla(String sql) {
+		String[] palabras = sql.toLowerCase().replaceAll("\\s+", " ").trim().split(" ");
+		for (int i = 1; i < palabras.length; i++) {
+			if (palabras[i - 1].equals("from") || palabras[i - 1].equals("into")) {
+				return palabras[0] + " " + palabras[i];
+			}
+		}
+		return sql;
+	}
+
+	/**
+	 * Wraps the data source, its connections and their statements, recording every execution with its SQL.
+	 */
+	private static Object envolver(Class<?> tipo, Object objeto, String sql) {
+		return Proxy.newProxyInstance(tipo.getClassLoader(), new Class<?>[]{tipo}, (proxy, metodo, args) -> {
+			String nombre = metodo.getName();
+			if (objeto instanceof Statement) {
+				if (nombre.equals("addBatch")) {
+					filasEnLote.incrementAndGet();
+				} else if (nombre.startsWith("execute")) {
+					viajes.add(args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : sql);
+				}
+			}
+			Object resultado;
+			try {
+				resultado = metodo.invoke(objeto, args);
+			} catch (InvocationTargetException e) {
+				throw e.getCause();
+			}
+			if (resultado instanceof Connection) {
+				return envolver(Connection.class, resultado, null);
+			}
+			if (resultado instanceof Statement && metodo.getReturnType().isInterface()) {
+				String sentencia = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : null;
+				return envolver(metodo.getReturnType(), resultado, sentencia);
+			}
+			return resultado;
+		});
+	}
+}
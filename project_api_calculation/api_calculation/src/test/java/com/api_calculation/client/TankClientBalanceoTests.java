@@ -0,0 +1,155 @@
+package com.api_calculation.client;
+
+import com.netflix.loadbalancer.BaseLoadBalancer;
+import com.netflix.loadbalancer.Server;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TankClientBalanceoTests {
+
+	private final AtomicLong reloj = new AtomicLong();
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+	// Cada respuesta pesa la mitad, expulsion tras 3 fallos por 30 s
+	private final TankClientInstancias instancias = new TankClientInstancias(0.5, 3, 30, 100, registry, reloj::get);
+	private final TankClientBalanceo balanceo = new TankClientBalanceo(instancias);
+	private final Server rapida = new Server("localhost", 8001);
+	private final Server lenta = new Server("localhost", 8002);
+	private final List<Server> servidores = List.of(rapida, lenta);
+
+	@Test
+	void eligeLaDeMenorLatencia() {
+		responder(rapida, 10);
+		responder(lenta, 200);
+
+		for (int i = 0; i < 100; i++) {
+			assertSame(rapida, balanceo.elegir(servidores));
+		}
+	}
+
+	@Test
+	void consideraLasLlamadasEnCurso() {
+		responder(rapida, 10);
+		responder(lenta, 50);
+		for (int i = 0; i < 5; i++) {
+			instancias.iniciar(rapida.getHostPort());
+		}
+
+		// 10 ms por 6 llamadas contra 50 ms por 1
+		assertSame(lenta, balanceo.elegir(servidores));
+	}
+
+	@Test
+	void pruebaLasInstanciasSinRespuestas() {
+		responder(lenta, 50);
+
+		assertSame(rapida, balanceo.elegir(servidores));
+		// Mientras la primera llamada esta en curso se supone la latencia inicial de 100 ms
+		instancias.iniciar(rapida.getHostPort());
+		assertSame(lenta, balanceo.elegir(servidores));
+	}
+
+	@Test
+	void elPromedioSigueLaLatenciaReciente() {
+		responder(rapida, 10);
+		responder(lenta, 50);
+		for (int i = 0; i < 4; i++) {
+			responder(rapida, 300);
+		}
+
+		assertSame(lenta, balanceo.elegir(servidores));
+	}
+
+	@Test
+	void expulsaTrasFallosSeguidos() {
+		responder(rapida, 10);
+		responder(lenta, 200);
+		fallar(rapida);
+		fallar(rapida);
+		assertTrue(instancias.disponible(rapida.getHostPort()));
+		fallar(rapida);
+
+		assertFalse(instancias.disponible(rapida.getHostPort()));
+		for (int i = 0; i < 100; i++) {
+			assertSame(lenta, balanceo.elegir(servidores));
+		}
+		assertEquals(1, registry.get("liquidacion.tank.instancia.expulsiones").tag("instancia", "localhost:8001")
+				.counter().count());
+
+		reloj.addAndGet(TimeUnit.SECONDS.toNanos(30));
+		assertSame(rapida, balanceo.elegir(servidores));
+	}
+
+	@Test
+	void unExitoReiniciaLosFallos() {
+		fallar(rapida);
+		fallar(rapida);
+		responder(rapida, 10);
+		fallar(rapida);
+		fallar(rapida);
+
+		assertTrue(instancias.disponible(rapida.getHostPort()));
+	}
+
+	@Test
+	void sinDisponiblesEligeEntreTodas() {
+		for (int i = 0; i < 3; i++) {
+			fallar(rapida);
+			fallar(lenta);
+		}
+
+		assertTrue(servidores.contains(balanceo.elegir(servidores)));
+	}
+
+	@Test
+	void publicaLaLatenciaDeCadaInstancia() {
+		responder(rapida, 10);
+		responder(rapida, 30);
+		responder(lenta, 200);
+
+		assertEquals(2, registry.get("liquidacion.tank.instancia").tag("instancia", "localhost:8001").timer().count());
+		assertEquals(20, registry.get("liquidacion.tank.instancia.ewma").tag("instancia", "localhost:8001").gauge().value());
+		assertEquals(200, registry.get("liquidacion.tank.instancia.ewma").tag("instancia", "localhost:8002").gauge().value());
+	}
+
+	@Test
+	void olvidaLasInstanciasQueSalenDeEureka() {
+		BaseLoadBalancer balanceador = new BaseLoadBalancer();
+		balanceador.setRule(balanceo);
+		balanceador.setServersList(servidores);
+		responder(rapida, 10);
+		responder(lenta, 200);
+		instancias.iniciar(lenta.getHostPort());
+
+		balanceador.setServersList(List.of(rapida));
+
+		assertNull(registry.find("liquidacion.tank.instancia.ewma").tag("instancia", "localhost:8002").gauge());
+		assertNull(registry.find("liquidacion.tank.instancia").tag("instancia", "localhost:8002").timer());
+		assertNotNull(registry.find("liquidacion.tank.instancia.ewma").tag("instancia", "localhost:8001").gauge());
+		assertEquals(0, instancias.carga(lenta.getHostPort()));
+
+		// La llamada que estaba en curso no vuelve a registrar la instancia
+		instancias.terminar(lenta.getHostPort(), TimeUnit.MILLISECONDS.toNanos(200), false);
+		assertNull(registry.find("liquidacion.tank.instancia.activas").tag("instancia", "localhost:8002").gauge());
+	}
+
+	private void responder(Server servidor, long milisegundos) {
+		instancias.iniciar(servidor.getHostPort());
+		instancias.terminar(servidor.getHostPort(), TimeUnit.MILLISECONDS.toNanos(milisegundos), false);
+	}
+
+	private void fallar(Server servidor) {
+		instancias.iniciar(servidor.getHostPort());
+		instancias.terminar(servidor.getHostPort(), TimeUnit.MILLISECONDS.toNanos(1), true);
+	}
+}
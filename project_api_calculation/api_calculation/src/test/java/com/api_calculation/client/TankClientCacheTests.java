@@ -0,0 +1,191 @@
+package com.api_calculation.client;
+
+import com.api_calculation.persistence.entity.Tank;
+import com.api_calculation.service.dto.ConsultaAforoInDTO;
+import com.api_calculation.service.dto.ConsultaAforoOutDTO;
+import com.api_calculation.service.dto.TablaAforoDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TankClientCacheTests {
+
+	private final AtomicLong reloj = new AtomicLong();
+	private final ClienteSimulado cliente = new ClienteSimulado();
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+	private final TankClientFallback fallback = new TankClientFallback(registry);
+	// Refresco a los 60 s y expiracion a los 3600 s, refrescando en el mismo hilo
+	private final TankClientCache cache = new TankClientCache(new TankClientLotes(cliente, fallback, 0, 100, 1, 100, 5000, registry),
+			60, 3600, 100, registry, reloj::get, Runnable::run);
+
+	@Test
+	void consultaUnaVezPorTanque() {
+		cliente.tank = tank(21);
+
+		for (int i = 0; i < 10; i++) {
+			assertEquals(21, cache.findById(1L).get().getFra1());
+		}
+
+		assertEquals(1, cliente.consultas);
+		assertEquals(9, registry.get("cache.gets").tag("cache", "liquidacion.tank").tag("result", "hit").functionCounter().count());
+	}
+
+	@Test
+	void consultaVariosEnUnaLlamada() {
+		cliente.tank = tank(21);
+		cache.findById(1L);
+
+		Map<Long, Tank> tanques = cache.findAllById(List.of(1L, 2L));
+
+		assertEquals(1, tanques.size());
+		assertEquals(2, cliente.consultas);
+	}
+
+	@Test
+	void invalidarConsultaDeNuevo() {
+		cliente.tank = tank(21);
+		cache.findById(1L);
+
+		cliente.tank = tank(22);
+		cache.invalidar(1L);
+
+		assertEquals(22, cache.findById(1L).get().getFra1());
+		assertEquals(2, cliente.consultas);
+	}
+
+	@Test
+	void sirveElAnteriorSiElServicioNoResponde() {
+		cliente.tank = tank(21);
+		cache.findById(1L);
+		// Sin el ultimo valor conocido del cliente, es la cache la que conserva el tanque
+		fallback.olvidarTodos();
+
+		cliente.caido = true;
+		avanzar(120);
+		assertEquals(21, cache.findById(1L).get().getFra1());
+		assertEquals(21, cache.findById(1L).get().getFra1());
+
+		// Cuando vuelve, el refresco trae el tanque actualizado
+		cliente.caido = false;
+		cliente.tank = tank(22);
+		cache.findById(1L);
+		assertEquals(22, cache.findById(1L).get().getFra1());
+	}
+
+	@Test
+	void noSirveElAnteriorDespuesDeExpirar() {
+		cliente.tank = tank(21);
+		cache.findById(1L);
+		fallback.olvidarTodos();
+
+		cliente.caido = true;
+		avanzar(3600);
+
+		assertThrows(IllegalStateException.class, () -> cache.findById(1L));
+	}
+
+	@Test
+	void sirveElUltimoConocidoDespuesDeExpirar() {
+		cliente.tank = tank(21);
+		cache.findById(1L);
+
+		cliente.caido = true;
+		avanzar(3600);
+
+		assertEquals(21, cache.findById(1L).get().getFra1());
+		assertEquals(1, registry.get("liquidacion.tank.respaldo").counter().count());
+	}
+
+	@Test
+	void descartaElTanqueEliminado() {
+		cliente.tank = tank(21);
+		cache.findById(1L);
+
+		cliente.tank = null;
+		avanzar(120);
+		cache.findById(1L);
+
+		assertFalse(cache.findById(1L).isPresent());
+	}
+
+	@Test
+	void refrescaEnSusPropiosHilos() throws InterruptedException {
+		ThreadPoolExecutor refrescos = TankClientCache.refrescos(1, 10);
+		TankClientCache propia = new TankClientCache(new TankClientLotes(cliente, fallback, 0, 100, 1, 100, 5000, registry),
+				60, 3600, 100, registry, reloj::get, refrescos);
+		cliente.tank = tank(21);
+		propia.findById(1L);
+
+		cliente.tank = tank(22);
+		avanzar(120);
+		assertEquals(21, propia.findById(1L).get().getFra1());
+		for (int i = 0; i < 100 && propia.findById(1L).get().getFra1() != 22; i++) {
+			Thread.sleep(10);
+		}
+
+		assertEquals(22, propia.findById(1L).get().getFra1());
+		assertTrue(refrescos.getCompletedTaskCount() > 0);
+		propia.cerrar();
+		assertTrue(refrescos.isShutdown());
+	}
+
+	private void avanzar(long segundos) {
+		reloj.addAndGet(TimeUnit.SECONDS.toNanos(segundos));
+	}
+
+	private static Tank tank(double fra1) {
+		Tank tank = new Tank();
+		tank.setId(1L);
+		tank.setFra1(fra1);
+		return tank;
+	}
+
+	private static class ClienteSimulado implements TankClientRest {
+
+		private Tank tank;
+		private boolean caido;
+		private int consultas;
+
+		@Override
+		public List<Tank> findAll() {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public Optional<Tank> findById(Long id) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public List<Tank> findAllById(Collection<Long> ids) {
+			if (caido) {
+				throw new IllegalStateException("ms-infotank no responde");
+			}
+			consultas++;
+			return tank == null || !ids.contains(tank.getId()) ? Collections.emptyList() : Collections.singletonList(tank);
+		}
+
+		@Override
+		public ConsultaAforoOutDTO volumenes(ConsultaAforoInDTO consulta) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public Optional<TablaAforoDTO> findTablaAforo(Long id, String tipo) {
+			throw new UnsupportedOperationException();
+		}
+	}
+}
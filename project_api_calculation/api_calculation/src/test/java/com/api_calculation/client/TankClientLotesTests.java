@@ -0,0 +1,230 @@
+package com.api_calculation.client;
+
+import com.api_calculation.persistence.entity.Tank;
+import com.api_calculation.service.dto.ConsultaAforoInDTO;
+import com.api_calculation.service.dto.ConsultaAforoOutDTO;
+import com.api_calculation.service.dto.TablaAforoDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TankClientLotesTests {
+
+	private final ClienteSimulado cliente = new ClienteSimulado();
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+	private final ExecutorService hilos = Executors.newFixedThreadPool(16);
+
+	@AfterEach
+	void cerrar() {
+		hilos.shutdownNow();
+	}
+
+	@Test
+	void juntaLasConsultasConcurrentes() throws Exception {
+		// Ventana amplia para que las 16 consultas caigan en el mismo lote
+		TankClientLotes lotes = new TankClientLotes(cliente, new TankClientFallback(registry), 500, 100, 1, 100, 5000, registry);
+		CountDownLatch salida = new CountDownLatch(1);
+		List<Future<Optional<Tank>>> consultas = new ArrayList<>();
+		for (long id = 1; id <= 16; id++) {
+			long idTank = id % 8 + 1;
+			consultas.add(hilos.submit(() -> {
+				salida.await();
+				return lotes.findById(idTank);
+			}));
+		}
+		salida.countDown();
+
+		for (int i = 0; i < consultas.size(); i++) {
+			assertEquals(Long.valueOf((i + 1) % 8 + 1), consultas.get(i).get().get().getId());
+		}
+		assertEquals(1, cliente.llamadas.size());
+		assertEquals(8, cliente.llamadas.get(0).size());
+		assertEquals(8, registry.get("liquidacion.tank.lote").summary().totalAmount());
+		assertEquals(8, consultas("originada"));
+		assertEquals(8, consultas("compartida"));
+	}
+
+	@Test
+	void comparteLaConsultaEnviada() throws Exception {
+		TankClientLotes lotes = new TankClientLotes(cliente, new TankClientFallback(registry), 0, 100, 1, 100, 5000, registry);
+		cliente.bloqueo = new CountDownLatch(1);
+
+		CompletableFuture<Optional<Tank>> primera = lotes.findByIdAsync(1L);
+		while (cliente.llamadas.isEmpty()) {
+			Thread.sleep(1);
+		}
+		// El lote ya salio, las nuevas consultas del tanque 1 esperan esa misma llamada
+		Future<Map<Long, Tank>> varios = hilos.submit(() -> lotes.findAllById(List.of(1L, 2L)));
+		CompletableFuture<Optional<Tank>> segunda = lotes.findByIdAsync(1L);
+		while (cliente.llamadas.size() < 2) {
+			Thread.sleep(1);
+		}
+		cliente.bloqueo.countDown();
+
+		assertSame(primera, segunda);
+		assertEquals(1L, primera.get().get().getId());
+		assertEquals(2, varios.get().size());
+		assertEquals(List.of(List.of(1L), List.of(2L)), cliente.llamadas);
+		assertEquals(2, consultas("originada"));
+		assertEquals(2, consultas("compartida"));
+	}
+
+	@Test
+	void esperaMaxima() throws Exception {
+		TankClientLotes lotes = new TankClientLotes(cliente, new TankClientFallback(registry), 0, 100, 1, 100, 50, registry);
+		cliente.bloqueo = new CountDownLatch(1);
+
+		assertThrows(TankNoDisponibleException.class, () -> lotes.findById(1L));
+
+		// La consulta sigue en curso para quien llegue despues
+		CompletableFuture<Optional<Tank>> siguiente = lotes.findByIdAsync(1L);
+		cliente.bloqueo.countDown();
+		assertEquals(1L, siguiente.get().get().getId());
+		assertEquals(1, cliente.llamadas.size());
+	}
+
+	@Test
+	void enviaElLoteAlLlenarse() {
+		// Ventana mas larga que la prueba, solo se envian los lotes llenos
+		TankClientLotes lotes = new TankClientLotes(cliente, new TankClientFallback(registry), 60000, 4, 1, 100, 5000, registry);
+
+		List<CompletableFuture<Optional<Tank>>> consultas = new ArrayList<>();
+		for (long id = 1; id <= 8; id++) {
+			consultas.add(lotes.findByIdAsync(id));
+		}
+
+		CompletableFuture.allOf(consultas.toArray(new CompletableFuture[0])).join();
+		assertEquals(2, cliente.llamadas.size());
+	}
+
+	@Test
+	void unLoteLentoNoDemoraLaSiguienteVentana() throws Exception {
+		TankClientLotes lotes = new TankClientLotes(cliente, new TankClientFallback(registry), 5, 100, 2, 100, 5000, registry);
+		cliente.bloqueo = new CountDownLatch(1);
+		cliente.lentos = Set.of(1L);
+
+		// El lote del tanque 1 ocupa un hilo de envio, los siguientes salen por el otro al cerrar su ventana
+		CompletableFuture<Optional<Tank>> lenta = lotes.findByIdAsync(1L);
+		while (cliente.llamadas.isEmpty()) {
+			Thread.sleep(1);
+		}
+		assertEquals(2L, lotes.findById(2L).get().getId());
+		assertEquals(3L, lotes.findById(3L).get().getId());
+		assertFalse(lenta.isDone());
+
+		// Con los dos hilos de envio ocupados las ventanas siguen cerrando a tiempo: el tanque 6 no se junta con el 5
+		cliente.lentos = Set.of(1L, 4L);
+		CompletableFuture<Optional<Tank>> cuarta = lotes.findByIdAsync(4L);
+		while (cliente.llamadas.size() < 4) {
+			Thread.sleep(1);
+		}
+		CompletableFuture<Optional<Tank>> quinta = lotes.findByIdAsync(5L);
+		Thread.sleep(100);
+		CompletableFuture<Optional<Tank>> sexta = lotes.findByIdAsync(6L);
+		Thread.sleep(100);
+		cliente.bloqueo.countDown();
+
+		CompletableFuture.allOf(lenta, cuarta, quinta, sexta).join();
+		assertEquals(6, cliente.llamadas.size());
+		assertTrue(cliente.llamadas.stream().allMatch(llamada -> llamada.size() == 1), cliente.llamadas.toString());
+	}
+
+	@Test
+	void tanqueInexistenteVacio() {
+		TankClientLotes lotes = new TankClientLotes(cliente, new TankClientFallback(registry), 0, 100, 1, 100, 5000, registry);
+
+		assertFalse(lotes.findById(99L).isPresent());
+	}
+
+	@Test
+	void errorParaTodoElLote() {
+		TankClientLotes lotes = new TankClientLotes(cliente, new TankClientFallback(registry), 200, 100, 1, 100, 5000, registry);
+		cliente.caido = true;
+
+		CompletableFuture<Optional<Tank>> primera = lotes.findByIdAsync(1L);
+		assertThrows(IllegalStateException.class, () -> lotes.findById(2L));
+		assertTrue(primera.isCompletedExceptionally());
+		assertEquals(1, cliente.llamadas.size());
+	}
+
+	@Test
+	void consultaDeVariosPorPartes() {
+		TankClientLotes lotes = new TankClientLotes(cliente, new TankClientFallback(registry), 0, 3, 1, 100, 5000, registry);
+
+		assertEquals(7, lotes.findAllById(List.of(1L, 2L, 3L, 4L, 5L, 6L, 7L, 7L, 99L)).size());
+		assertEquals(3, cliente.llamadas.size());
+	}
+
+	private double consultas(String origen) {
+		return registry.get("liquidacion.tank.consultas").tag("origen", origen).counter().count();
+	}
+
+	private static class ClienteSimulado implements TankClientRest {
+
+		private final List<List<Long>> llamadas = new CopyOnWriteArrayList<>();
+		private volatile boolean caido;
+		private volatile CountDownLatch bloqueo;
+		// Tanques cuyas llamadas esperan el bloqueo, todas si es null
+		private volatile Set<Long> lentos;
+
+		@Override
+		public List<Tank> findAll() {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public Optional<Tank> findById(Long id) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public List<Tank> findAllById(Collection<Long> ids) {
+			llamadas.add(new ArrayList<>(ids));
+			if (bloqueo != null && (lentos == null || ids.stream().anyMatch(lentos::contains))) {
+				try {
+					bloqueo.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+			if (caido) {
+				throw new IllegalStateException("ms-infotank no responde");
+			}
+			return ids.stream().filter(id -> id < 50).map(id -> {
+				Tank tank = new Tank();
+				tank.setId(id);
+				return tank;
+			}).collect(Collectors.toList());
+		}
+
+		@Override
+		public ConsultaAforoOutDTO volumenes(ConsultaAforoInDTO consulta) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public Optional<TablaAforoDTO> findTablaAforo(Long id, String tipo) {
+			throw new UnsupportedOperationException();
+		}
+	}
+}
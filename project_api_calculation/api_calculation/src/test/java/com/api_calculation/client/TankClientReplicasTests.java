@@ -0,0 +1,115 @@
+package com.api_calculation.client;
+
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Prueba con dos instancias simuladas de ms-infotank, una rapida y otra lenta, en la lista de Ribbon en lugar de
+ * Eureka: las llamadas van sobre todo a la rapida, y a la lenta cuando la rapida empieza a fallar.
+ */
+@SpringBootTest(properties = {
+		"eureka.client.enabled=false",
+		"ribbon.eureka.enabled=false",
+		"liquidacion.tank-balanceo.fallos=3"})
+class TankClientReplicasTests {
+
+	private static final String TANK = "[{\"id\":1,\"nombreTk\":\"501\",\"tempLamina\":60,\"fra1\":21,\"fra2\":12.21}]";
+
+	private static HttpServer rapida;
+	private static HttpServer lenta;
+	private static final AtomicInteger llamadasRapida = new AtomicInteger();
+	private static final AtomicInteger llamadasLenta = new AtomicInteger();
+	private static volatile boolean rapidaFalla;
+
+	@Autowired
+	private TankClientRest tankClientRest;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@BeforeAll
+	static void iniciar() throws IOException {
+		rapida = instancia(0, llamadasRapida);
+		lenta = instancia(50, llamadasLenta);
+		// Ribbon reads its settings through Archaius, which takes the system properties
+		System.setProperty("ms-infotank.ribbon.listOfServers", "localhost:" + rapida.getAddress().getPort()
+				+ ",localhost:" + lenta.getAddress().getPort());
+	}
+
+	@AfterAll
+	static void detener() {
+		rapida.stop(0);
+		lenta.stop(0);
+		System.clearProperty("ms-infotank.ribbon.listOfServers");
+	}
+
+	@Test
+	void prefiereLaInstanciaRapidaYExpulsaLaQueFalla() {
+		for (int i = 0; i < 40; i++) {
+			assertEquals(1, tankClientRest.findAllById(List.of(1L)).size());
+		}
+		assertTrue(llamadasRapida.get() >= 30, "rapida " + llamadasRapida.get() + ", lenta " + llamadasLenta.get());
+		String instanciaRapida = "localhost:" + rapida.getAddress().getPort();
+		String instanciaLenta = "localhost:" + lenta.getAddress().getPort();
+		assertEquals(llamadasRapida.get(), meterRegistry.get("liquidacion.tank.instancia")
+				.tag("instancia", instanciaRapida).timer().count());
+		assertTrue(meterRegistry.get("liquidacion.tank.instancia.ewma").tag("instancia", instanciaLenta)
+				.gauge().value() >= 50);
+
+		// La rapida responde 500 hasta quedar expulsada y desde entonces todo va a la lenta
+		rapidaFalla = true;
+		while (meterRegistry.get("liquidacion.tank.instancia.expulsiones").tag("instancia", instanciaRapida)
+				.counter().count() == 0) {
+			try {
+				tankClientRest.findAllById(List.of(1L));
+			} catch (RuntimeException e) {
+				// Expected while the fast instance still fails
+			}
+		}
+		llamadasLenta.set(0);
+		for (int i = 0; i < 10; i++) {
+			assertEquals(1, tankClientRest.findAllById(List.of(1L)).size());
+		}
+		assertEquals(10, llamadasLenta.get());
+	}
+
+	private static HttpServer instancia(long demora, AtomicInteger llamadas) throws IOException {
+		HttpServer servidor = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		servidor.setExecutor(Executors.newCachedThreadPool());
+		servidor.createContext("/tank/byIds", intercambio -> {
+			try {
+				llamadas.incrementAndGet();
+				Thread.sleep(demora);
+				intercambio.getRequestBody().readAllBytes();
+				boolean falla = servidor == rapida && rapidaFalla;
+				byte[] cuerpo = (falla ? "{}" : TANK).getBytes(StandardCharsets.UTF_8);
+				intercambio.getResponseHeaders().add("Content-Type", "application/json");
+				intercambio.getResponseHeaders().add("Connection", "close");
+				intercambio.sendResponseHeaders(falla ? 500 : 200, cuerpo.length);
+				try (OutputStream salida = intercambio.getResponseBody()) {
+					salida.write(cuerpo);
+				}
+			} catch (InterruptedException | IOException e) {
+				intercambio.close();
+			}
+		});
+		servidor.start();
+		return servidor;
+	}
+}
@@ -0,0 +1,153 @@
+package com.api_calculation.client;
+
+import com.netflix.hystrix.Hystrix;
+import com.netflix.hystrix.HystrixThreadPoolKey;
+import com.netflix.hystrix.HystrixThreadPoolMetrics;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Prueba con un ms-infotank simulado que tarda mas que el tiempo maximo de las llamadas: las liquidaciones
+ * responden a tiempo con el ultimo tanque conocido, o con 503 si no hay, y los hilos del servidor quedan libres.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+		"eureka.client.enabled=false",
+		"server.tomcat.threads.max=8",
+		"feign.client.config.ms-infotank.readTimeout=300",
+		"hystrix.command.default.execution.isolation.thread.timeoutInMilliseconds=500",
+		"hystrix.threadpool.ms-infotank.coreSize=2",
+		"liquidacion.tank-lotes.espera=1000"})
+class TankClientResilienciaTests {
+
+	// Mucho menos que los 5 s de ms-infotank. Las 24 consultas pasan por 8 hilos del servidor, y cada tanque
+	// desconocido espera su propia llamada de 300 ms en uno de los 2 hilos de Hystrix
+	private static final long LIMITE = 3000;
+	private static final String TANK = "{\"id\":%d,\"nombreTk\":\"501\",\"tempLamina\":60,\"fra1\":21,\"fra2\":12.21}";
+
+	private static HttpServer infotank;
+	private static volatile long demora;
+
+	@Autowired
+	private TestRestTemplate rest;
+
+	@Autowired
+	private TankClientCache tankClientCache;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@BeforeAll
+	static void iniciar() throws IOException {
+		infotank = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		infotank.setExecutor(Executors.newCachedThreadPool());
+		infotank.createContext("/tank/byIds", intercambio -> {
+			try {
+				Thread.sleep(demora);
+				String ids = new String(intercambio.getRequestBody().readAllBytes(), StandardCharsets.UTF_8)
+						.replaceAll("[\\[\\]\\s]", "");
+				List<String> tanques = new ArrayList<>();
+				for (String id : ids.split(",")) {
+					tanques.add(String.format(TANK, Long.parseLong(id)));
+				}
+				byte[] cuerpo = ("[" + String.join(",", tanques) + "]").getBytes(StandardCharsets.UTF_8);
+				intercambio.getResponseHeaders().add("Content-Type", "application/json");
+				intercambio.sendResponseHeaders(200, cuerpo.length);
+				try (OutputStream salida = intercambio.getResponseBody()) {
+					salida.write(cuerpo);
+				}
+			} catch (InterruptedException | IOException e) {
+				intercambio.close();
+			}
+		});
+		infotank.start();
+	}
+
+	@AfterAll
+	static void detener() {
+		infotank.stop(0);
+		Hystrix.reset();
+	}
+
+	@DynamicPropertySource
+	static void propiedades(DynamicPropertyRegistry registry) {
+		registry.add("liquidacion.tank-client.url", () -> "http://localhost:" + infotank.getAddress().getPort());
+	}
+
+	@Test
+	void respondeATiempoConInfotankLento() throws Exception {
+		demora = 0;
+		ResponseEntity<Map> antes = liquidar(1);
+		assertEquals(HttpStatus.OK, antes.getStatusCode());
+
+		// ms-infotank tarda 5 s y el tanque ya no esta en la cache
+		demora = 5000;
+		tankClientCache.invalidarTodos();
+		ExecutorService clientes = Executors.newFixedThreadPool(24);
+		try {
+			List<Future<Long>> conocidos = new ArrayList<>();
+			List<Future<Long>> desconocidos = new ArrayList<>();
+			for (int i = 0; i < 12; i++) {
+				conocidos.add(clientes.submit(() -> medir(1, HttpStatus.OK, antes.getBody().get("nsv"))));
+				long idTank = 100 + i;
+				desconocidos.add(clientes.submit(() -> medir(idTank, HttpStatus.SERVICE_UNAVAILABLE, null)));
+			}
+			// Mientras tanto el servidor sigue atendiendo lo que no depende de ms-infotank
+			long inicio = System.nanoTime();
+			assertEquals(HttpStatus.OK, rest.getForEntity("/actuator/health", String.class).getStatusCode());
+			assertTrue(System.nanoTime() - inicio < 2_000_000_000L);
+
+			for (Future<Long> consulta : conocidos) {
+				assertTrue(consulta.get() < LIMITE, "tardo " + consulta.get() + " ms");
+			}
+			for (Future<Long> consulta : desconocidos) {
+				assertTrue(consulta.get() < LIMITE, "tardo " + consulta.get() + " ms");
+			}
+		} finally {
+			clientes.shutdownNow();
+		}
+		// Nunca hubo mas de 2 hilos esperando a ms-infotank
+		HystrixThreadPoolMetrics pool = HystrixThreadPoolMetrics.getInstance(HystrixThreadPoolKey.Factory.asKey("ms-infotank"));
+		assertTrue(pool.getRollingMaxActiveThreads() <= 2, "hilos activos " + pool.getRollingMaxActiveThreads());
+		assertTrue(meterRegistry.get("liquidacion.tank.respaldo").counter().count() > 0);
+	}
+
+	private long medir(long idTank, HttpStatus esperado, Object nsv) {
+		long inicio = System.nanoTime();
+		ResponseEntity<Map> respuesta = liquidar(idTank);
+		long milisegundos = (System.nanoTime() - inicio) / 1_000_000;
+		assertEquals(esperado, respuesta.getStatusCode());
+		if (nsv != null) {
+			assertEquals(nsv, respuesta.getBody().get("nsv"));
+		}
+		return milisegundos;
+	}
+
+	private ResponseEntity<Map> liquidar(long idTank) {
+		return rest.getForEntity("/liquidacion/previsualizar?ABD=A&gauge=1500&tov=250000&waterGauge=10&waterTov=800"
+				+ "&tempL=88.4&TAmb=75&water=0.15&sediment=0.1&api=30&idTank=" + idTank, Map.class);
+	}
+}
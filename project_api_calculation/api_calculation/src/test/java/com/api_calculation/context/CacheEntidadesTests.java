@@ -0,0 +1,64 @@
+package com.api_calculation.context;
+
+import com.api_calculation.ContadorSentencias;
+import com.api_calculation.persistence.entity.Cargue;
+import com.api_calculation.service.CargueService;
+import com.api_calculation.service.dto.DatosEditarCargueDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = "eureka.client.enabled=false")
+@Import(ContadorSentencias.class)
+class CacheEntidadesTests {
+
+	@Autowired
+	private CargueService cargueService;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Test
+	void leeElCargueDeLaCache() {
+		Long id = cargueService.createCargue().getId();
+
+		ContadorSentencias.reiniciar();
+		for (int i = 0; i < 3; i++) {
+			assertTrue(cargueService.findById(id).isPresent());
+		}
+
+		assertEquals(List.of(), ContadorSentencias.viajes());
+		assertTrue(meterRegistry.get("cache.gets").tag("cache", "hibernate.cargues").tag("result", "hit")
+				.functionCounter().count() >= 3);
+		assertTrue(meterRegistry.get("cache.aciertos").tag("cache", "hibernate.cargues").gauge().value() > 0);
+	}
+
+	@Test
+	void actualizaLaCacheAlEditarElCargue() {
+		Long id = cargueService.createCargue().getId();
+		cargueService.findById(id);
+
+		cargueService.updateCargue(id, datos("Comprador " + id));
+
+		ContadorSentencias.reiniciar();
+		Cargue cargue = cargueService.findById(id).get();
+		assertEquals("Comprador " + id, cargue.getComprador());
+		// El cargue editado reemplaza al anterior en la cache
+		assertEquals(List.of(), ContadorSentencias.viajes());
+	}
+
+	private static DatosEditarCargueDTO datos(String comprador) {
+		DatosEditarCargueDTO datos = new DatosEditarCargueDTO();
+		datos.setComprador(comprador);
+		datos.setReferencia(comprador);
+		datos.setReferenciaCliente(comprador);
+		return datos;
+	}
+}
@@ -0,0 +1,123 @@
+package com.api_calculation.controller;
+
+import com.api_calculation.ContadorSentencias;
+import com.api_calculation.persistence.entity.Cargue;
+import com.api_calculation.service.CargueService;
+import com.api_calculation.service.MovimientoService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Los listados leen un numero fijo de consultas sin importar el tamano de la pagina.
+ */
+@SpringBootTest(properties = {
+		"eureka.client.enabled=false",
+		"spring.datasource.url=jdbc:h2:mem:listados;DB_CLOSE_ON_EXIT=FALSE"})
+@AutoConfigureMockMvc
+@Import(ContadorSentencias.class)
+class ListadosTests {
+
+	private static boolean creados;
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private CargueService cargueService;
+
+	@Autowired
+	private MovimientoService movimientoService;
+
+	@BeforeEach
+	void crear() {
+		if (creados) {
+			return;
+		}
+		// 3 cargues con 40, 30 y 30 movimientos
+		for (int movimientos : new int[]{40, 30, 30}) {
+			Cargue cargue = cargueService.createCargue();
+			for (int i = 0; i < movimientos; i++) {
+				movimientoService.createMovimiento(cargue.getId());
+			}
+		}
+		creados = true;
+	}
+
+	@Test
+	void listaLosMovimientosConLiquidacionesEnConsultasFijas() throws Exception {
+		ContadorSentencias.reiniciar();
+		mockMvc.perform(get("/movimiento/movimientos").param("size", "10"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.content", hasSize(10)));
+		List<String> diez = ContadorSentencias.tablas();
+
+		ContadorSentencias.reiniciar();
+		mockMvc.perform(get("/movimiento/movimientos").param("size", "100"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.content", hasSize(100)))
+				.andExpect(jsonPath("$.content[*].listaLIquidaciones", everyItem(hasSize(2))));
+
+		assertEquals(List.of("select movimientos", "select movimientos", "select liquidaciones"), ContadorSentencias.tablas(),
+				ContadorSentencias.viajes().toString());
+		assertEquals(diez, ContadorSentencias.tablas());
+	}
+
+	@Test
+	void listaLosCarguesConMovimientosEnConsultasFijas() throws Exception {
+		ContadorSentencias.reiniciar();
+		mockMvc.perform(get("/cargue/cargues").param("size", "100"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.content[0].listaMovimientos", hasSize(40)))
+				.andExpect(jsonPath("$.content[1].listaMovimientos[0].listaLIquidaciones", hasSize(2)));
+
+		// Sin conteo, porque la pagina no se llena
+		assertEquals(List.of("select cargues", "select movimientos", "select liquidaciones"), ContadorSentencias.tablas(),
+				ContadorSentencias.viajes().toString());
+	}
+
+	@Test
+	void listaLosResumenesEnUnaConsulta() throws Exception {
+		ContadorSentencias.reiniciar();
+		mockMvc.perform(get("/movimiento/resumenes").param("size", "100").param("sort", "id"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.content", hasSize(100)))
+				.andExpect(jsonPath("$.content[0].idCargue").isNumber())
+				.andExpect(jsonPath("$.content[0].listaLIquidaciones").doesNotExist());
+		assertEquals(List.of("select movimientos", "select movimientos"), ContadorSentencias.tablas());
+
+		ContadorSentencias.reiniciar();
+		mockMvc.perform(get("/cargue/resumenes").param("sort", "id"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.content[0].movimientos").value(40))
+				.andExpect(jsonPath("$.content[1].movimientos").value(30));
+		// El numero de movimientos se cuenta en una subconsulta de la misma sentencia
+		assertEquals(1, ContadorSentencias.viajes().size());
+	}
+
+	@Test
+	void buscaElMovimientoConSusLiquidacionesEnUnaConsulta() throws Exception {
+		Long id = movimientoService.findResumenes(PageRequest.of(0, 1)).getContent().get(0).getId();
+
+		ContadorSentencias.reiniciar();
+		mockMvc.perform(get("/movimiento/movimientoById/{id}", id))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.listaLIquidaciones", hasSize(2)));
+
+		assertEquals(List.of("select movimientos"), ContadorSentencias.tablas());
+	}
+}
@@ -0,0 +1,168 @@
+package com.api_calculation.controller;
+
+import com.api_calculation.ContadorSentencias;
+import com.api_calculation.persistence.entity.Cargue;
+import com.api_calculation.persistence.repository.CargueRepository;
+import com.api_calculation.service.CargueService;
+import com.api_calculation.service.MovimientoService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Los listados por cursor recorren todo sin repetir ni contar.
+ */
+@SpringBootTest(properties = {
+		"eureka.client.enabled=false",
+		"spring.datasource.url=jdbc:h2:mem:cursor;DB_CLOSE_ON_EXIT=FALSE"})
+@AutoConfigureMockMvc
+@Import(ContadorSentencias.class)
+class PaginacionPorCursorTests {
+
+	// Fechas de los cargues, con repetidas y sin fecha
+	private static final LocalDate[] FECHAS = {
+			LocalDate.of(2024, 3, 1), null, LocalDate.of(2024, 5, 1), LocalDate.of(2024, 3, 1), null,
+			LocalDate.of(2024, 1, 1), LocalDate.of(2024, 5, 1)};
+
+	private static boolean creados;
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private CargueService cargueService;
+
+	@Autowired
+	private CargueRepository cargueRepository;
+
+	@Autowired
+	private MovimientoService movimientoService;
+
+	@BeforeEach
+	void crear() {
+		if (creados) {
+			return;
+		}
+		for (LocalDate fecha : FECHAS) {
+			Cargue cargue = cargueService.createCargue();
+			cargue.setFecha(fecha);
+			cargueRepository.save(cargue);
+			for (int i = 0; i < 3; i++) {
+				movimientoService.createMovimiento(cargue.getId());
+			}
+		}
+		creados = true;
+	}
+
+	@Test
+	void recorreLosMovimientosSinContar() throws Exception {
+		List<Long> ids = new ArrayList<>();
+		String token = null;
+		int paginas = 0;
+		do {
+			ContadorSentencias.reiniciar();
+			JsonNode pagina = leer(get("/movimiento/siguientes").param("size", "4"), token);
+			pagina.get("contenido").forEach(movimiento -> ids.add(movimiento.get("id").asLong()));
+			token = pagina.get("siguiente").textValue();
+			paginas++;
+
+			// Los movimientos y sus liquidaciones
+			assertEquals(List.of("select movimientos", "select liquidaciones"), ContadorSentencias.tablas(),
+					ContadorSentencias.viajes().toString());
+			assertSinConteo();
+		} while (token != null);
+
+		assertEquals(FECHAS.length * 3, ids.size());
+		assertEquals(6, paginas);
+		assertEquals(ids.stream().sorted().distinct().collect(Collectors.toList()), ids);
+	}
+
+	@Test
+	void recorreLosCarguesDelMasReciente() throws Exception {
+		List<String> fechas = new ArrayList<>();
+		List<Long> ids = new ArrayList<>();
+		String token = null;
+		do {
+			ContadorSentencias.reiniciar();
+			JsonNode pagina = leer(get("/cargue/siguientes").param("size", "2"), token);
+			pagina.get("contenido").forEach(cargue -> {
+				fechas.add(cargue.get("fecha").asText(null));
+				ids.add(cargue.get("id").asLong());
+			});
+			token = pagina.get("siguiente").textValue();
+
+			assertEquals(List.of("select cargues", "select movimientos", "select liquidaciones"), ContadorSentencias.tablas(),
+					ContadorSentencias.viajes().toString());
+			assertSinConteo();
+		} while (token != null);
+
+		assertEquals(Arrays.asList("2024-05-01", "2024-05-01", "2024-03-01", "2024-03-01", "2024-01-01", null, null), fechas);
+		// Con la misma fecha, del id mayor al menor
+		for (int i = 1; i < ids.size(); i++) {
+			if (Objects.equals(fechas.get(i), fechas.get(i - 1))) {
+				assertTrue(ids.get(i) < ids.get(i - 1));
+			}
+		}
+		assertEquals(FECHAS.length, ids.stream().distinct().count());
+	}
+
+	@Test
+	void laUltimaPaginaNoTieneToken() throws Exception {
+		mockMvc.perform(get("/cargue/siguientes").param("size", "100"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.contenido", hasSize(FECHAS.length)))
+				.andExpect(jsonPath("$.siguiente").doesNotExist());
+	}
+
+	@Test
+	void rechazaTokensYTamanosInvalidos() throws Exception {
+		mockMvc.perform(get("/cargue/siguientes").param("token", "no-es-un-token"))
+				.andExpect(status().isBadRequest());
+		mockMvc.perform(get("/movimiento/siguientes").param("token", "@@"))
+				.andExpect(status().isBadRequest());
+		mockMvc.perform(get("/movimiento/siguientes").param("size", "0"))
+				.andExpect(status().isBadRequest());
+		mockMvc.perform(get("/movimiento/siguientes").param("size", "101"))
+				.andExpect(status().isBadRequest());
+	}
+
+	private static void assertSinConteo() {
+		assertFalse(ContadorSentencias.viajes().stream().anyMatch(sql -> sql.contains("count(")),
+				ContadorSentencias.viajes().toString());
+	}
+
+	private JsonNode leer(MockHttpServletRequestBuilder peticion, String token) throws Exception {
+		if (token != null) {
+			peticion.param("token", token);
+		}
+		String cuerpo = mockMvc.perform(peticion)
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString();
+		return objectMapper.readTree(cuerpo);
+	}
+}
@@ -0,0 +1,102 @@
+package com.api_calculation.controller;
+
+import com.api_calculation.client.TankClientCache;
+import com.api_calculation.persistence.entity.Tank;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.Optional;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * La previsualizacion se puede guardar en cache y revalidar con su ETag.
+ */
+@SpringBootTest(properties = "eureka.client.enabled=false")
+@AutoConfigureMockMvc
+class PrevisualizarTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@MockBean
+	private TankClientCache tankClientCache;
+
+	@BeforeEach
+	void tanque() {
+		Tank tank = new Tank();
+		tank.setId(1L);
+		tank.setTempLamina(60);
+		tank.setFra1(21);
+		tank.setFra2(12.21);
+		when(tankClientCache.findById(1L)).thenReturn(Optional.of(tank));
+	}
+
+	@Test
+	void calculaLaLecturaConCacheYETag() throws Exception {
+		mockMvc.perform(lectura("88.4", "30"))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=300"))
+				.andExpect(header().string(HttpHeaders.ETAG, containsString("\"")))
+				.andExpect(jsonPath("$.gsv").isNumber())
+				.andExpect(jsonPath("$.id").doesNotExist());
+	}
+
+	@Test
+	void respondeNoModificadoConElMismoETag() throws Exception {
+		String etag = mockMvc.perform(lectura("88.4", "30"))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+		mockMvc.perform(lectura("88.4", "30").header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(status().isNotModified())
+				.andExpect(header().string(HttpHeaders.ETAG, etag))
+				.andExpect(content().string(""));
+	}
+
+	@Test
+	void otraLecturaTieneOtroETag() throws Exception {
+		String etag = mockMvc.perform(lectura("88.4", "30"))
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+		String otro = mockMvc.perform(lectura("88.5", "30").header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+		assertNotEquals(etag, otro);
+	}
+
+	@Test
+	void rechazaLecturasInvalidas() throws Exception {
+		mockMvc.perform(lectura("88.4", "95"))
+				.andExpect(status().isBadRequest());
+	}
+
+	private static MockHttpServletRequestBuilder lectura(String tempL, String api) {
+		return get("/liquidacion/previsualizar")
+				.param("idTank", "1")
+				.param("ABD", "A")
+				.param("gauge", "1000")
+				.param("tov", "250000")
+				.param("waterGauge", "10")
+				.param("waterTov", "800")
+				.param("tempL", tempL)
+				.param("tAmb", "75")
+				.param("water", "0.1")
+				.param("sediment", "0.15")
+				.param("api", api);
+	}
+}
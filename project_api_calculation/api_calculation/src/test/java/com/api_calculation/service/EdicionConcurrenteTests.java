@@ -0,0 +1,114 @@
+package com.api_calculation.service;
+
+import com.api_calculation.persistence.entity.Cargue;
+import com.api_calculation.persistence.entity.Liquidacion;
+import com.api_calculation.persistence.entity.Movimiento;
+import com.api_calculation.service.dto.DatosParaEditatLiq;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Varios inspectores editan a la vez las liquidaciones inicial y final del mismo movimiento.
+ */
+@SpringBootTest(properties = {
+		"eureka.client.enabled=false",
+		"spring.datasource.url=jdbc:h2:mem:edicion;DB_CLOSE_ON_EXIT=FALSE"})
+class EdicionConcurrenteTests {
+
+	private static final int HILOS = 4;
+	private static final int RONDAS = 20;
+
+	@Autowired
+	private MovimientoService movimientoService;
+
+	@Autowired
+	private CargueService cargueService;
+
+	@Autowired
+	private LiquidacionService liquidacionService;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Test
+	void noSePierdenEdicionesDelMismoMovimiento() throws Exception {
+		Cargue cargue = cargueService.createCargue();
+		Movimiento movimiento = movimientoService.createMovimiento(cargue.getId());
+		Long inicial = movimiento.getListaLIquidaciones().get(0).getId();
+		Long ultima = movimiento.getListaLIquidaciones().get(1).getId();
+		double reintentosAntes = meterRegistry.get("liquidacion.edicion.reintentos").counter().count();
+
+		// En cada ronda todos los hilos editan a la vez, la mitad la liquidacion inicial y la otra mitad la final;
+		// entre rondas se revisan las diferencias guardadas
+		List<String> perdidas = new CopyOnWriteArrayList<>();
+		CyclicBarrier ronda = new CyclicBarrier(HILOS, () -> revisar(movimiento.getId(), perdidas));
+		ExecutorService ejecutor = Executors.newFixedThreadPool(HILOS);
+		List<Future<?>> ediciones = new ArrayList<>();
+		for (int h = 0; h < HILOS; h++) {
+			Long liquidacion = h % 2 == 0 ? inicial : ultima;
+			Random random = new Random(h);
+			ediciones.add(ejecutor.submit(() -> {
+				for (int r = 0; r < RONDAS; r++) {
+					ronda.await(30, TimeUnit.SECONDS);
+					movimientoService.editarLiquidacion(datos(random), liquidacion);
+				}
+				return null;
+			}));
+		}
+		for (Future<?> edicion : ediciones) {
+			edicion.get(2, TimeUnit.MINUTES);
+		}
+		ejecutor.shutdown();
+		revisar(movimiento.getId(), perdidas);
+
+		// Las diferencias siempre corresponden a las ultimas ediciones de ambas liquidaciones
+		assertEquals(List.of(), perdidas);
+
+		// Cada edicion quedo guardada una vez
+		Liquidacion ini = liquidacionService.findById(inicial).get();
+		Liquidacion fin = liquidacionService.findById(ultima).get();
+		assertEquals(HILOS / 2 * RONDAS, ini.getVersion());
+		assertEquals(HILOS / 2 * RONDAS, fin.getVersion());
+		assertTrue(meterRegistry.get("liquidacion.edicion.reintentos").counter().count() > reintentosAntes);
+	}
+
+	private void revisar(Long id, List<String> perdidas) {
+		Movimiento calculado = movimientoService.findById(id).get();
+		Liquidacion ini = calculado.getListaLIquidaciones().get(0);
+		Liquidacion fin = calculado.getListaLIquidaciones().get(1);
+		if (calculado.getDifTOV() != ini.getTov() - fin.getTov() || calculado.getDifFw() != ini.getWaterTov() - fin.getWaterTov()
+				|| calculado.getDifGsv() != ini.getGsv() - fin.getGsv() || calculado.getDifNsv() != ini.getNsv() - fin.getNsv()) {
+			perdidas.add("TOV " + ini.getTov() + " - " + fin.getTov() + " guardado como " + calculado.getDifTOV());
+		}
+	}
+
+	private static DatosParaEditatLiq datos(Random random) {
+		DatosParaEditatLiq datos = new DatosParaEditatLiq();
+		datos.setABD("A");
+		datos.setTov(100000 + random.nextDouble() * 300000);
+		datos.setWaterTov(random.nextDouble() * 1000);
+		datos.setKFra1(20);
+		datos.setKFra2(12.21);
+		datos.setTLam(60);
+		datos.setTempL(40 + random.nextDouble() * 60);
+		datos.setTAmb(70);
+		datos.setApi60(30);
+		datos.setBsw(0.5);
+		return datos;
+	}
+}
@@ -0,0 +1,77 @@
+package com.api_calculation.service;
+
+import com.api_calculation.client.TankClientCache;
+import com.api_calculation.persistence.entity.Tank;
+import com.api_calculation.service.dto.LoteLiquidacionInDTO;
+import com.api_calculation.service.dto.LoteLiquidacionOutDTO;
+import com.api_calculation.util.CalculationsLiqEngine;
+import com.api_calculation.util.CalculationsLiqResult;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.when;
+
+/**
+ * Con las tablas habilitadas, solo los lotes que piden resultados aproximados se calculan con ellas.
+ */
+@SpringBootTest(properties = {"eureka.client.enabled=false", "liquidacion.tabla.enabled=true"})
+class LoteLiquidacionTablaTests {
+
+	@Autowired
+	private LiquidacionService liquidacionService;
+
+	@MockBean
+	private TankClientCache tankClientCache;
+
+	@Test
+	void loteExactoNoUsaLasTablas() {
+		when(tankClientCache.findAllById(anyCollection())).thenReturn(Map.of(1L, tanque()));
+		LoteLiquidacionInDTO lote = lote();
+
+		LoteLiquidacionOutDTO exacto = liquidacionService.liquidarLote(lote);
+		lote.setAproximado(true);
+		LoteLiquidacionOutDTO aproximado = liquidacionService.liquidarLote(lote);
+
+		assertFalse(exacto.isAproximado());
+		assertTrue(aproximado.isAproximado());
+		CalculationsLiqResult out = new CalculationsLiqResult();
+		for (int i = 0; i < lote.getABD().length; i++) {
+			CalculationsLiqEngine.liquidar(lote.getABD()[i], lote.getTov()[i], lote.getWaterTov()[i], 21, 12.21, 60,
+					lote.getTempL()[i], lote.getTAmb()[i], lote.getApi()[i], lote.getWater()[i] + lote.getSediment()[i], out);
+			assertEquals(out.getCtl(), exacto.getCtl()[i]);
+			assertEquals(out.getApiObs(), exacto.getApiObs()[i]);
+			assertEquals(out.getNsv(), exacto.getNsv()[i]);
+		}
+	}
+
+	private static LoteLiquidacionInDTO lote() {
+		LoteLiquidacionInDTO lote = new LoteLiquidacionInDTO();
+		lote.setABD(new String[]{"A", "B", "D"});
+		lote.setIdTank(new long[]{1, 1, 1});
+		lote.setTov(new double[]{250000, 180000, 90000});
+		lote.setWaterTov(new double[]{300, 0, 120});
+		lote.setTempL(new double[]{88.4, 75, 92.1});
+		lote.setTAmb(new double[]{70, 68, 71});
+		lote.setApi(new double[]{30, 24.5, 41});
+		lote.setWater(new double[]{0.2, 0.1, 0});
+		lote.setSediment(new double[]{0.1, 0.05, 0.02});
+		return lote;
+	}
+
+	private static Tank tanque() {
+		Tank tank = new Tank();
+		tank.setId(1L);
+		tank.setTempLamina(60);
+		tank.setFra1(21);
+		tank.setFra2(12.21);
+		return tank;
+	}
+}
@@ -0,0 +1,101 @@
+package com.api_calculation.service;
+
+import com.api_calculation.client.TankClientCache;
+import com.api_calculation.client.TankClientRest;
+import com.api_calculation.persistence.entity.Tank;
+import com.api_calculation.service.dto.ConsultaAforoInDTO;
+import com.api_calculation.service.dto.ConsultaAforoOutDTO;
+import com.api_calculation.service.dto.LoteLiquidacionInDTO;
+import com.api_calculation.service.dto.LoteLiquidacionOutDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Un lote con niveles en lugar de volumenes se liquida con los volumenes de las tablas de aforo de ms-infotank.
+ */
+@SpringBootTest(properties = "eureka.client.enabled=false")
+class LoteLiquidacionTests {
+
+	@Autowired
+	private LiquidacionService liquidacionService;
+
+	@MockBean
+	private TankClientCache tankClientCache;
+
+	@MockBean
+	private TankClientRest tankClientRest;
+
+	@BeforeEach
+	void tanques() {
+		when(tankClientCache.findAllById(anyCollection())).thenReturn(Map.of(1L, tanque(1L), 2L, tanque(2L)));
+	}
+
+	@Test
+	void consultaLosVolumenesDeTodoElLoteEnUnaLlamada() {
+		ConsultaAforoOutDTO volumenes = new ConsultaAforoOutDTO();
+		volumenes.setTov(new double[]{250000, 300, 180000, 0, 90000, 120});
+		volumenes.setZonaCritica(new boolean[6]);
+		when(tankClientRest.volumenes(any())).thenReturn(volumenes);
+
+		LoteLiquidacionInDTO porNiveles = lote();
+		porNiveles.setGauge(new double[]{8900, 6400, 3200});
+		porNiveles.setWaterGauge(new double[]{12, 0, 5});
+		LoteLiquidacionInDTO porVolumenes = lote();
+		porVolumenes.setTov(new double[]{250000, 180000, 90000});
+		porVolumenes.setWaterTov(new double[]{300, 0, 120});
+
+		LoteLiquidacionOutDTO calculado = liquidacionService.liquidarLote(porNiveles);
+		LoteLiquidacionOutDTO esperado = liquidacionService.liquidarLote(porVolumenes);
+
+		ArgumentCaptor<ConsultaAforoInDTO> consulta = ArgumentCaptor.forClass(ConsultaAforoInDTO.class);
+		verify(tankClientRest, times(1)).volumenes(consulta.capture());
+		assertArrayEquals(new long[]{1, 1, 2, 2, 1, 1}, consulta.getValue().getIdTank());
+		assertArrayEquals(new double[]{8900, 12, 6400, 0, 3200, 5}, consulta.getValue().getGauge());
+		assertArrayEquals(esperado.getGov(), calculado.getGov());
+		assertArrayEquals(esperado.getGsv(), calculado.getGsv());
+		assertArrayEquals(esperado.getNsv(), calculado.getNsv());
+	}
+
+	@Test
+	void loteSinVolumenesNiNivelesEsInvalido() {
+		LoteLiquidacionInDTO lote = lote();
+		lote.setGauge(new double[]{8900, 6400, 3200});
+
+		assertThrows(IllegalArgumentException.class, () -> liquidacionService.liquidarLote(lote));
+	}
+
+	private static LoteLiquidacionInDTO lote() {
+		LoteLiquidacionInDTO lote = new LoteLiquidacionInDTO();
+		lote.setABD(new String[]{"A", "A", "B"});
+		lote.setIdTank(new long[]{1, 2, 1});
+		lote.setTempL(new double[]{88.4, 75, 92.1});
+		lote.setTAmb(new double[]{70, 68, 71});
+		lote.setApi(new double[]{30, 24.5, 41});
+		lote.setWater(new double[]{0.2, 0.1, 0});
+		lote.setSediment(new double[]{0.1, 0.05, 0.02});
+		return lote;
+	}
+
+	private static Tank tanque(Long id) {
+		Tank tank = new Tank();
+		tank.setId(id);
+		tank.setTempLamina(60);
+		tank.setFra1(21);
+		tank.setFra2(12.21);
+		return tank;
+	}
+}
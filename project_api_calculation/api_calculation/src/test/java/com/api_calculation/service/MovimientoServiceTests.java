@@ -0,0 +1,166 @@
+package com.api_calculation.service;
+
+import com.api_calculation.ContadorSentencias;
+import com.api_calculation.persistence.entity.Cargue;
+import com.api_calculation.persistence.entity.Liquidacion;
+import com.api_calculation.persistence.entity.ModoCalculo;
+import com.api_calculation.persistence.entity.Movimiento;
+import com.api_calculation.persistence.repository.LiquidacionRepository;
+import com.api_calculation.persistence.repository.MovimientoRepository;
+import com.api_calculation.service.dto.DatosParaEditatLiq;
+import com.api_calculation.service.dto.IncertidumbreInDTO;
+import com.api_calculation.util.CalculationsLiqEngine;
+import com.api_calculation.util.CalculationsLiqIncremental.Variable;
+import com.api_calculation.util.CalculationsLiqResult;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = "eureka.client.enabled=false")
+@Import(ContadorSentencias.class)
+class MovimientoServiceTests {
+
+	@Autowired
+	private MovimientoService movimientoService;
+
+	@Autowired
+	private CargueService cargueService;
+
+	@Autowired
+	private MovimientoRepository movimientoRepository;
+
+	@Autowired
+	private LiquidacionRepository liquidacionRepository;
+
+	@Autowired
+	private LiquidacionService liquidacionService;
+
+	@Test
+	void creaElMovimientoConUnViajePorTabla() {
+		Cargue cargue = cargueService.createCargue();
+		// El primero reserva los ids de las secuencias; el cargue queda en la cache de segundo nivel
+		movimientoService.createMovimiento(cargue.getId());
+		long liquidaciones = liquidacionRepository.count();
+
+		ContadorSentencias.reiniciar();
+		Movimiento movimiento = movimientoService.createMovimiento(cargue.getId());
+
+		assertEquals(List.of("insert movimientos", "insert liquidaciones"), ContadorSentencias.tablas(),
+				ContadorSentencias.viajes().toString());
+		// El movimiento y sus dos liquidaciones
+		assertEquals(3, ContadorSentencias.filasEnLote());
+
+		assertTrue(movimientoRepository.existsById(movimiento.getId()));
+		assertEquals(liquidaciones + 2, liquidacionRepository.count());
+		assertTrue(movimiento.getListaLIquidaciones().get(0).getId() < movimiento.getListaLIquidaciones().get(1).getId());
+	}
+
+	@Test
+	void incertidumbreSinLiquidacionFinalEsInvalida() {
+		Movimiento incompleto = new Movimiento();
+		incompleto.setCargue(cargueService.createCargue());
+		Long id = movimientoRepository.save(incompleto).getId();
+
+		assertThrows(IllegalArgumentException.class, () -> movimientoService.incertidumbre(id, new IncertidumbreInDTO()));
+	}
+
+	@Test
+	void editarRecalculaTodoCuandoLosResultadosGuardadosNoSonDelServidor() {
+		Movimiento movimiento = movimientoService.createMovimiento(cargueService.createCargue().getId());
+		Long id = movimiento.getListaLIquidaciones().get(0).getId();
+
+		// Resultados que no corresponden a las entradas, guardados como los enviaba un cliente
+		Liquidacion guardada = liquidacionRepository.findById(id).get();
+		inconsistente(guardada, null);
+		liquidacionRepository.save(guardada);
+
+		// Solo cambia el BSW
+		movimientoService.editarLiquidacion(datos(0.8), id);
+
+		Liquidacion editada = liquidacionRepository.findById(id).get();
+		assertIgualQueElMotor(editada, 0.8);
+		assertEquals(ModoCalculo.DOBLE, editada.getModoCalculo());
+	}
+
+	@Test
+	void recalcularNoReusaResultadosDeOtroModo() {
+		Liquidacion anterior = new Liquidacion();
+		inconsistente(anterior, ModoCalculo.PUNTO_FIJO);
+		Liquidacion editada = editada(0.8);
+
+		assertEquals(EnumSet.range(Variable.CTL_API_OBS, Variable.NSV), liquidacionService.recalcular(anterior, editada));
+		assertIgualQueElMotor(editada, 0.8);
+	}
+
+	@Test
+	void recalcularReusaResultadosDelMismoModo() {
+		Liquidacion anterior = editada(0.5);
+		liquidacionService.recalcular(new Liquidacion(), anterior);
+		Liquidacion editada = editada(0.8);
+
+		assertEquals(EnumSet.of(Variable.NSV), liquidacionService.recalcular(anterior, editada));
+		assertIgualQueElMotor(editada, 0.8);
+	}
+
+	private static void inconsistente(Liquidacion liquidacion, ModoCalculo modoCalculo) {
+		DatosParaEditatLiq datos = datos(0.5);
+		liquidacion.setABD(datos.getABD());
+		liquidacion.setTov(datos.getTov());
+		liquidacion.setWaterTov(datos.getWaterTov());
+		liquidacion.setKFra1(datos.getKFra1());
+		liquidacion.setKFra2(datos.getKFra2());
+		liquidacion.setTLam(datos.getTLam());
+		liquidacion.setTempL(datos.getTempL());
+		liquidacion.setTAmb(datos.getTAmb());
+		liquidacion.setApi60(datos.getApi60());
+		liquidacion.setBsw(datos.getBsw());
+		liquidacion.setFra(1);
+		liquidacion.setCtsh(1);
+		liquidacion.setGov(1000);
+		liquidacion.setCtl(0.5);
+		liquidacion.setGsv(500);
+		liquidacion.setNsv(400);
+		liquidacion.setModoCalculo(modoCalculo);
+	}
+
+	private static Liquidacion editada(double bsw) {
+		Liquidacion editada = new Liquidacion();
+		inconsistente(editada, null);
+		editada.setBsw(bsw);
+		return editada;
+	}
+
+	private static DatosParaEditatLiq datos(double bsw) {
+		DatosParaEditatLiq datos = new DatosParaEditatLiq();
+		datos.setABD("A");
+		datos.setTov(250000);
+		datos.setWaterTov(300);
+		datos.setKFra1(20);
+		datos.setKFra2(12.21);
+		datos.setTLam(60);
+		datos.setTempL(85.3);
+		datos.setTAmb(70);
+		datos.setApi60(30);
+		datos.setBsw(bsw);
+		return datos;
+	}
+
+	private static void assertIgualQueElMotor(Liquidacion liquidacion, double bsw) {
+		CalculationsLiqResult motor = CalculationsLiqEngine.liquidar("A", 250000, 300, 20, 12.21, 60, 85.3, 70, 30, bsw,
+				new CalculationsLiqResult());
+		assertEquals(motor.getFra(), liquidacion.getFra());
+		assertEquals(motor.getCtsh(), liquidacion.getCtsh());
+		assertEquals(motor.getGov(), liquidacion.getGov());
+		assertEquals(motor.getCtl(), liquidacion.getCtl());
+		assertEquals(motor.getGsv(), liquidacion.getGsv());
+		assertEquals(motor.getNsv(), liquidacion.getNsv());
+	}
+}
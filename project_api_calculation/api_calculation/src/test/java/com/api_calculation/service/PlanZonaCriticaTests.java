@@ -0,0 +1,100 @@
+package com.api_calculation.service;
+
+import com.api_calculation.client.TankClientCache;
+import com.api_calculation.client.TankClientRest;
+import com.api_calculation.persistence.entity.Tank;
+import com.api_calculation.service.dto.PlanCargueInDTO;
+import com.api_calculation.service.dto.PlanCargueOutDTO;
+import com.api_calculation.service.dto.PlanTanqueInDTO;
+import com.api_calculation.service.dto.TablaAforoDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+/**
+ * Un gauge planeado dentro de la zona critica del tanque se rechaza en el plan de un tanque y se marca en el
+ * plan de un cargue, como lo reporta ms-infotank en la consulta de volumenes.
+ */
+@SpringBootTest(properties = "eureka.client.enabled=false")
+class PlanZonaCriticaTests {
+
+	@Autowired
+	private LiquidacionService liquidacionService;
+
+	@MockBean
+	private TankClientCache tankClientCache;
+
+	@MockBean
+	private TankClientRest tankClientRest;
+
+	@BeforeEach
+	void tanque() {
+		Tank tank = new Tank();
+		tank.setId(1L);
+		tank.setTempLamina(60);
+		tank.setFra1(21);
+		tank.setFra2(12.21);
+		tank.setInicioZonaCritica(0);
+		tank.setFinalZonaCritica(2000);
+		when(tankClientCache.findAllById(anyCollection())).thenReturn(Map.of(1L, tank));
+		when(tankClientCache.findById(anyLong())).thenReturn(Optional.of(tank));
+
+		// 30 barriles por milimetro
+		TablaAforoDTO tabla = new TablaAforoDTO();
+		tabla.setNivel(new double[]{0, 10000});
+		tabla.setVolumen(new double[]{0, 300000});
+		when(tankClientRest.findTablaAforo(anyLong(), eq("PRINCIPAL"))).thenReturn(Optional.of(tabla));
+		when(tankClientRest.findTablaAforo(anyLong(), eq("FRACCIONAL"))).thenReturn(Optional.empty());
+	}
+
+	@Test
+	void planTanqueEnZonaCriticaSeRechaza() {
+		PlanTanqueInDTO in = new PlanTanqueInDTO();
+		in.setIdTank(1L);
+		in.setABD("A");
+		in.setGauge(8000);
+		in.setWaterGauge(10);
+		in.setTempL(88.4);
+		in.setTAmb(70);
+		in.setApi(30);
+		in.setWater(0.2);
+		in.setSediment(0.1);
+		in.setEntrega(200000);
+
+		assertThrows(IllegalArgumentException.class, () -> liquidacionService.planTanque(in));
+		in.setEntrega(10000);
+		assertTrue(liquidacionService.planTanque(in).getGauge() > 2000);
+	}
+
+	@Test
+	void planCargueMarcaLaZonaCritica() {
+		PlanCargueInDTO plan = new PlanCargueInDTO();
+		plan.setABD(new String[]{"A", "A"});
+		plan.setIdTank(new long[]{1, 1});
+		plan.setGauge(new double[]{8000, 8000});
+		plan.setWaterGauge(new double[]{10, 10});
+		plan.setTempL(new double[]{88.4, 88.4});
+		plan.setTAmb(new double[]{70, 70});
+		plan.setApi(new double[]{30, 30});
+		plan.setWater(new double[]{0.2, 0.2});
+		plan.setSediment(new double[]{0.1, 0.1});
+		plan.setEntrega(new double[]{10000, 200000});
+
+		PlanCargueOutDTO resultado = liquidacionService.planCargue(plan);
+
+		assertArrayEquals(new boolean[]{false, true}, resultado.getZonaCritica());
+	}
+}
@@ -0,0 +1,126 @@
+package com.api_calculation.service;
+
+import com.api_calculation.client.TankClientCache;
+import com.api_calculation.client.TankClientRest;
+import com.api_calculation.persistence.entity.Liquidacion;
+import com.api_calculation.persistence.entity.ModoCalculo;
+import com.api_calculation.persistence.entity.Tank;
+import com.api_calculation.service.dto.BarridoInDTO;
+import com.api_calculation.service.dto.IncertidumbreInDTO;
+import com.api_calculation.service.dto.LiquidacionInDTO;
+import com.api_calculation.service.dto.LoteLiquidacionInDTO;
+import com.api_calculation.service.dto.LoteLiquidacionOutDTO;
+import com.api_calculation.service.dto.PlanTanqueInDTO;
+import com.api_calculation.service.dto.TablaAforoDTO;
+import com.api_calculation.util.CalculationsLiqFijo;
+import com.api_calculation.util.CalculationsLiqResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+/**
+ * En modo punto fijo los lotes y los planes se calculan con CalculationsLiqFijo, y el barrido y la simulacion,
+ * que solo existen en doble precision, se rechazan.
+ */
+@SpringBootTest(properties = {"eureka.client.enabled=false", "liquidacion.punto-fijo.enabled=true"})
+class PuntoFijoTests {
+
+	@Autowired
+	private LiquidacionService liquidacionService;
+
+	@MockBean
+	private TankClientCache tankClientCache;
+
+	@MockBean
+	private TankClientRest tankClientRest;
+
+	@BeforeEach
+	void tanque() {
+		Tank tank = new Tank();
+		tank.setId(1L);
+		tank.setTempLamina(60);
+		tank.setFra1(21);
+		tank.setFra2(12.21);
+		tank.setInicioZonaCritica(0);
+		tank.setFinalZonaCritica(0);
+		when(tankClientCache.findAllById(anyCollection())).thenReturn(Map.of(1L, tank));
+		when(tankClientCache.findById(anyLong())).thenReturn(Optional.of(tank));
+
+		TablaAforoDTO tabla = new TablaAforoDTO();
+		tabla.setNivel(new double[]{0, 10000});
+		tabla.setVolumen(new double[]{0, 300000});
+		when(tankClientRest.findTablaAforo(anyLong(), eq("PRINCIPAL"))).thenReturn(Optional.of(tabla));
+		when(tankClientRest.findTablaAforo(anyLong(), eq("FRACCIONAL"))).thenReturn(Optional.empty());
+	}
+
+	@Test
+	void loteEnPuntoFijo() {
+		LoteLiquidacionInDTO lote = new LoteLiquidacionInDTO();
+		lote.setABD(new String[]{"A", "B"});
+		lote.setIdTank(new long[]{1, 1});
+		lote.setTov(new double[]{250000, 180000});
+		lote.setWaterTov(new double[]{300, 0});
+		lote.setTempL(new double[]{88.4, 75});
+		lote.setTAmb(new double[]{70, 68});
+		lote.setApi(new double[]{30, 41});
+		lote.setWater(new double[]{0.2, 0.1});
+		lote.setSediment(new double[]{0.1, 0.05});
+
+		LoteLiquidacionOutDTO resultado = liquidacionService.liquidarLote(lote);
+
+		assertEquals(ModoCalculo.PUNTO_FIJO, resultado.getModoCalculo());
+		CalculationsLiqResult out = new CalculationsLiqResult();
+		for (int i = 0; i < 2; i++) {
+			CalculationsLiqFijo.liquidar(lote.getABD()[i], lote.getTov()[i], lote.getWaterTov()[i], 21, 12.21, 60,
+					lote.getTempL()[i], lote.getTAmb()[i], lote.getApi()[i], lote.getWater()[i] + lote.getSediment()[i], out);
+			assertEquals(out.getCtl(), resultado.getCtl()[i]);
+			assertEquals(out.getGov(), resultado.getGov()[i]);
+			assertEquals(out.getNsv(), resultado.getNsv()[i]);
+		}
+	}
+
+	@Test
+	void planTanqueEnPuntoFijo() {
+		PlanTanqueInDTO in = new PlanTanqueInDTO();
+		in.setIdTank(1L);
+		in.setABD("A");
+		in.setGauge(8000);
+		in.setWaterGauge(10);
+		in.setTempL(88.4);
+		in.setTAmb(70);
+		in.setApi(30);
+		in.setWater(0.2);
+		in.setSediment(0.1);
+		in.setEntrega(50000);
+
+		Liquidacion plan = liquidacionService.planTanque(in);
+
+		assertEquals(ModoCalculo.PUNTO_FIJO, plan.getModoCalculo());
+		CalculationsLiqResult out = CalculationsLiqFijo.liquidar("A", plan.getTov(), plan.getWaterTov(), 21, 12.21, 60,
+				88.4, 70, 30, 0.3, new CalculationsLiqResult());
+		assertEquals(out.getNsv(), plan.getNsv());
+		assertEquals(out.getCtl(), plan.getCtl());
+	}
+
+	@Test
+	void barridoYSimulacionSeRechazan() {
+		BarridoInDTO barrido = new BarridoInDTO();
+		barrido.setBase(new LiquidacionInDTO());
+
+		assertThrows(IllegalArgumentException.class, () -> liquidacionService.barrido(barrido));
+		assertThrows(IllegalArgumentException.class,
+				() -> liquidacionService.simular(new IncertidumbreInDTO(), new Liquidacion()));
+	}
+}
@@ -0,0 +1,62 @@
+package com.api_calculation.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CalculationsLiqBarridoTests {
+
+	private static CalculationsLiqBarrido barrido(VariableBarrido[] variables, double[] desde, double[] hasta, double[] paso) {
+		return new CalculationsLiqBarrido(CalculationsLiqKernel.disponible(), CalculationsLiqEngine.codigo("B"),
+				250000, 800, 21, 12.21, 60, 88.4, 75, 30, 0.25, variables, desde, hasta, paso);
+	}
+
+	@Test
+	void barridoIgualQueCalculoIndividual() throws Exception {
+		// 121 x 81 x 5 = 49005 puntos, varios bloques y el ultimo incompleto
+		CalculationsLiqBarrido barrido = barrido(
+				new VariableBarrido[]{VariableBarrido.API, VariableBarrido.TEMP_L, VariableBarrido.T_AMB},
+				new double[]{20, 40, 50}, new double[]{80, 120, 90}, new double[]{0.5, 1, 10});
+		assertEquals(121 * 81 * 5, barrido.getTotal());
+
+		AtomicLong siguiente = new AtomicLong();
+		CalculationsLiqResult out = new CalculationsLiqResult();
+		barrido.barrer((inicio, bloque) -> {
+			assertEquals(siguiente.get(), inicio);
+			for (int i = 0; i < bloque.size(); i++) {
+				long punto = inicio + i;
+				double api60 = 20 + (punto / (81 * 5)) * 0.5;
+				double tempL = 40 + (punto / 5 % 81);
+				double tAmb = 50 + (punto % 5) * 10;
+				assertEquals(api60, barrido.valor(0, punto));
+				assertEquals(tempL, barrido.valor(1, punto));
+				assertEquals(tAmb, barrido.valor(2, punto));
+
+				CalculationsLiqEngine.liquidar("B", 250000, 800, 21, 12.21, 60, tempL, tAmb, api60, 0.25, out);
+				assertEquals(out.getCtl(), bloque.getCtl()[i]);
+				assertEquals(out.getCtsh(), bloque.getCtsh()[i]);
+				assertEquals(out.getGov(), bloque.getGov()[i]);
+				assertEquals(out.getGsv(), bloque.getGsv()[i]);
+				assertEquals(out.getNsv(), bloque.getNsv()[i]);
+			}
+			siguiente.addAndGet(bloque.size());
+		});
+		assertEquals(barrido.getTotal(), siguiente.get());
+	}
+
+	@Test
+	void barridoNoValidoRechazado() {
+		assertThrows(IllegalArgumentException.class, () -> barrido(
+				new VariableBarrido[]{VariableBarrido.TEMP_L, VariableBarrido.TEMP_L},
+				new double[]{0, 0}, new double[]{10, 10}, new double[]{1, 1}));
+		assertThrows(IllegalArgumentException.class, () -> barrido(
+				new VariableBarrido[]{VariableBarrido.TEMP_L}, new double[]{10}, new double[]{0}, new double[]{1}));
+		assertThrows(IllegalArgumentException.class, () -> barrido(
+				new VariableBarrido[]{VariableBarrido.API, VariableBarrido.TEMP_L},
+				new double[]{7, 0}, new double[]{90, 150}, new double[]{0.001, 0.01}));
+	}
+
+}
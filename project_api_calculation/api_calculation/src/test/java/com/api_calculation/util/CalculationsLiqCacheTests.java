@@ -0,0 +1,40 @@
+package com.api_calculation.util;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CalculationsLiqCacheTests {
+
+	@Test
+	void cacheIgualQueSinCache() {
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		// Tamano pequeno para forzar desalojos durante la prueba
+		CalculationsLiqCache cache = new CalculationsLiqCache(true, 64, registry);
+		CalculationsLiqResult cacheado = new CalculationsLiqResult();
+		CalculationsLiqResult esperado = new CalculationsLiqResult();
+
+		for (int vuelta = 0; vuelta < 3; vuelta++) {
+			for (String abd : new String[]{"A", "B", "D", "X"}) {
+				if (abd.equals("X")) {
+					assertThrows(IllegalArgumentException.class,
+							() -> cache.liquidar(abd, 250000, 800, 21, 12.21, 60, 88.4, 75, 30, 0.25, cacheado));
+					continue;
+				}
+				for (double api60 = 7.3; api60 < 90; api60 += 4.1) {
+					for (double tempL = -0.0; tempL < 120; tempL += 10.1) {
+						cache.liquidar(abd, 250000, 800, 21, 12.21, 60, tempL, 75, api60, 0.25, cacheado);
+						CalculationsLiqEngine.liquidar(abd, 250000, 800, 21, 12.21, 60, tempL, 75, api60, 0.25, esperado);
+						assertEquals(esperado, cacheado, abd + " api60=" + api60 + " tempL=" + tempL);
+					}
+				}
+			}
+		}
+
+		assertTrue(registry.get("cache.gets").tag("cache", "liquidacion.ctl").tag("result", "hit").functionCounter().count() > 0);
+	}
+
+}
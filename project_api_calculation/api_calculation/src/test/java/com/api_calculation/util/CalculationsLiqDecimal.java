@@ -0,0 +1,61 @@
+package com.api_calculation.util;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Cadena CTSH, FRA, GOV, GSV y NSV en {@link BigDecimal}, con las entradas en la resolucion y los redondeos de
+ * {@link CalculationsLiqFijo}. Es la referencia exacta de las pruebas de punto fijo y la base de comparacion de
+ * velocidad en CalculationsLiqBenchmark.
+ */
+final class CalculationsLiqDecimal {
+
+	private static final BigDecimal SIETE = BigDecimal.valueOf(7);
+	private static final BigDecimal OCHO = BigDecimal.valueOf(8);
+	private static final BigDecimal K = new BigDecimal("0.0000062");
+	private static final BigDecimal DOS_K = K.multiply(BigDecimal.valueOf(2));
+	private static final BigDecimal K_CUADRADO = K.pow(2);
+
+	private CalculationsLiqDecimal() {
+	}
+
+	/**
+	 * Same as {@link CalculationsLiqFijo#liquidar(String, double, double, double, double, double, double, double, double, double, CalculationsLiqResult)}
+	 * with the chain in BigDecimal.
+	 */
+	static CalculationsLiqResult liquidar(String ABD, double tov, double waterTov, double kFra1, double kFra2,
+										  double tLam, double tempL, double tAmb, double api60, double bsw,
+										  CalculationsLiqResult out) {
+		BigDecimal api = redondear(BigDecimal.valueOf(api60), 1);
+		BigDecimal temperatura = redondear(BigDecimal.valueOf(tempL), 1);
+		CalculationsLiqEngine.ctlApiObsEstricto(CalculationsLiqEngine.codigo(ABD), CalculationsLiqEngine.d60(api.doubleValue()),
+				CalculationsLiqEngine.dtr(temperatura.doubleValue()), out);
+		BigDecimal ctl = BigDecimal.valueOf(out.getCtl());
+		BigDecimal apiObs = BigDecimal.valueOf(out.getApiObs());
+
+		BigDecimal tS = redondear(redondear(BigDecimal.valueOf(tAmb), 1).add(temperatura.multiply(SIETE)).divide(OCHO), 0);
+		BigDecimal deltaT = tS.subtract(redondear(BigDecimal.valueOf(tLam), 1));
+		BigDecimal ctsh = redondear(BigDecimal.ONE.add(DOS_K.multiply(deltaT)).add(K_CUADRADO.multiply(deltaT.pow(2))), 5);
+		BigDecimal fra = redondear(redondear(BigDecimal.valueOf(kFra1), 2).subtract(apiObs)
+				.multiply(redondear(BigDecimal.valueOf(kFra2), 2)), 2);
+		BigDecimal gov = redondear(BigDecimal.valueOf(tov), 2).subtract(redondear(BigDecimal.valueOf(waterTov), 2))
+				.multiply(ctsh).add(fra);
+		BigDecimal govCtl = gov.multiply(ctl);
+		BigDecimal gsv = redondear(govCtl, 2);
+		BigDecimal nsv = redondear(govCtl.multiply(BigDecimal.ONE.subtract(redondear(BigDecimal.valueOf(bsw), 3).movePointLeft(2))), 2);
+
+		out.setCtsh(ctsh.doubleValue());
+		out.setFra(fra.doubleValue());
+		out.setGov(gov.doubleValue());
+		out.setGsv(gsv.doubleValue());
+		out.setNsv(nsv.doubleValue());
+		return out;
+	}
+
+	/**
+	 * Rounding of Math.round: half up towards positive infinity.
+	 */
+	static BigDecimal redondear(BigDecimal valor, int decimales) {
+		return valor.add(BigDecimal.valueOf(5, decimales + 1)).setScale(decimales, RoundingMode.FLOOR);
+	}
+}
@@ -0,0 +1,138 @@
+package com.api_calculation.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CalculationsLiqEngineTests {
+
+	private static final String[] GRUPOS = {"A", "B", "D", "X"};
+
+	@Test
+	void liquidarIgualQueCalculationsLiq() {
+		CalculationsLiqResult out = new CalculationsLiqResult();
+
+		for (String abd : GRUPOS) {
+			if (abd.equals("X")) {
+				// CalculationsLiq keeps the group A constants for unknown codes, the engine rejects them
+				assertEquals(new CalculationsLiq("A", 0, 250000, 0, 800, 21, 12.21, 60, 88.4, 75, 30, 0.25).ctl(),
+						new CalculationsLiq(abd, 0, 250000, 0, 800, 21, 12.21, 60, 88.4, 75, 30, 0.25).ctl());
+				assertThrows(IllegalArgumentException.class,
+						() -> CalculationsLiqEngine.liquidar(abd, 250000, 800, 21, 12.21, 60, 88.4, 75, 30, 0.25, out));
+				continue;
+			}
+			// API 7 - 90 recorre todas las bandas de densidad del grupo B
+			for (double api60 = 7.3; api60 < 90; api60 += 1.7) {
+				for (double tempL = 0.5; tempL < 150; tempL += 3.1) {
+					double tAmb = tempL * 0.8 + 5;
+					double tov = 1000 + api60 * tempL * 10;
+					double waterTov = api60 * 0.7;
+					double bsw = tempL / 150;
+
+					CalculationsLiq esperado = new CalculationsLiq(abd, 0, tov, 0, waterTov, 21, 12.21, 60, tempL, tAmb, api60, bsw);
+					CalculationsLiqEngine.liquidar(abd, tov, waterTov, 21, 12.21, 60, tempL, tAmb, api60, bsw, out);
+
+					String caso = abd + " api60=" + api60 + " tempL=" + tempL;
+					assertEquals(esperado.apiObs(), out.getApiObs(), caso);
+					assertEquals(esperado.fra(), out.getFra(), caso);
+					assertEquals(esperado.ctsh(), out.getCtsh(), caso);
+					assertEquals(esperado.gov(), out.getGov(), caso);
+					assertEquals(esperado.ctl(), out.getCtl(), caso);
+					assertEquals(esperado.gsv(), out.getGsv(), caso);
+					assertEquals(esperado.nsv(), out.getNsv(), caso);
+				}
+			}
+		}
+	}
+
+	@Test
+	void loteIgualQueCalculoIndividual() {
+		int n = CalculationsLiqBatch.UMBRAL * 5 + 17;
+		Random random = new Random(42);
+		byte[] grupo = new byte[n];
+		double[] tov = new double[n], waterTov = new double[n], kFra1 = new double[n], kFra2 = new double[n],
+				tLam = new double[n], tempL = new double[n], tAmb = new double[n], api60 = new double[n], bsw = new double[n];
+		for (int i = 0; i < n; i++) {
+			grupo[i] = GrupoProducto.values()[random.nextInt(GrupoProducto.values().length)].getCodigo();
+			tov[i] = random.nextDouble() * 500000;
+			waterTov[i] = random.nextDouble() * 1000;
+			kFra1[i] = 15 + random.nextDouble() * 20;
+			kFra2[i] = 12.21;
+			tLam[i] = 60;
+			tempL[i] = random.nextDouble() * 140;
+			tAmb[i] = random.nextDouble() * 100;
+			api60[i] = 7 + random.nextDouble() * 83;
+			bsw[i] = random.nextDouble() * 2;
+		}
+
+		CalculationsLiqBatch batch = new CalculationsLiqBatch(grupo, tov, waterTov, kFra1, kFra2, tLam, tempL, tAmb, api60, bsw).liquidar();
+
+		CalculationsLiqResult out = new CalculationsLiqResult();
+		for (int i = 0; i < n; i++) {
+			CalculationsLiqEngine.liquidar(grupo[i], tov[i], waterTov[i], kFra1[i], kFra2[i], tLam[i], tempL[i], tAmb[i], api60[i], bsw[i], out);
+			assertEquals(out.getApiObs(), batch.getApiObs()[i]);
+			assertEquals(out.getFra(), batch.getFra()[i]);
+			assertEquals(out.getCtsh(), batch.getCtsh()[i]);
+			assertEquals(out.getGov(), batch.getGov()[i]);
+			assertEquals(out.getCtl(), batch.getCtl()[i]);
+			assertEquals(out.getGsv(), batch.getGsv()[i]);
+			assertEquals(out.getNsv(), batch.getNsv()[i]);
+		}
+	}
+
+	@Test
+	void kernelDisponibleIgualQueKernelEscalar() {
+		int n = 5003;
+		Random random = new Random(7);
+		byte[] grupo = new byte[n];
+		double[] api60 = new double[n], tempL = new double[n];
+		for (int i = 0; i < n; i++) {
+			grupo[i] = GrupoProducto.values()[random.nextInt(GrupoProducto.values().length)].getCodigo();
+			api60[i] = 7 + random.nextDouble() * 83;
+			tempL[i] = random.nextDouble() * 140;
+		}
+
+		double[] ctl = new double[n], apiObs = new double[n], ctlEscalar = new double[n], apiObsEscalar = new double[n];
+		CalculationsLiqKernel.disponible().ctlApiObs(grupo, api60, tempL, ctl, apiObs, 3, n);
+		new CalculationsLiqKernelEscalar().ctlApiObs(grupo, api60, tempL, ctlEscalar, apiObsEscalar, 3, n);
+
+		assertArrayEquals(ctlEscalar, ctl);
+		assertArrayEquals(apiObsEscalar, apiObs);
+	}
+
+	@Test
+	void kernelEscalarReutilizaLaDensidadIgualQueCalculationsLiq() {
+		// Barridos de temperatura: la misma densidad en lecturas seguidas
+		int n = 3000;
+		byte[] grupo = new byte[n];
+		double[] api60 = new double[n], tempL = new double[n];
+		for (int i = 0; i < n; i++) {
+			grupo[i] = GrupoProducto.values()[i / 50 % GrupoProducto.values().length].getCodigo();
+			api60[i] = 7.3 + i / 50 * 1.4;
+			tempL[i] = i % 50 * 2.9;
+		}
+
+		double[] ctl = new double[n], apiObs = new double[n];
+		new CalculationsLiqKernelEscalar().ctlApiObs(grupo, api60, tempL, ctl, apiObs, 0, n);
+
+		for (int i = 0; i < n; i++) {
+			CalculationsLiq esperado = new CalculationsLiq(String.valueOf((char) grupo[i]), 0, 250000, 0, 800, 21, 12.21, 60,
+					tempL[i], 75, api60[i], 0.25);
+			String caso = (char) grupo[i] + " api60=" + api60[i] + " tempL=" + tempL[i];
+			assertEquals(esperado.ctl(), ctl[i], caso);
+			assertEquals(esperado.apiObs(), apiObs[i], caso);
+		}
+	}
+
+	@Test
+	void grupoDesconocidoRechazado() {
+		CalculationsLiqResult out = new CalculationsLiqResult();
+		assertThrows(IllegalArgumentException.class,
+				() -> CalculationsLiqEngine.liquidar("AB", 250000, 800, 21, 12.21, 60, 88.4, 75, 30, 0.25, out));
+	}
+
+}
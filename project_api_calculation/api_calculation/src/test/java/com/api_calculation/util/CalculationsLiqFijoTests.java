@@ -0,0 +1,124 @@
+package com.api_calculation.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CalculationsLiqFijoTests {
+
+	private static final String[] GRUPOS = {"A", "B", "D"};
+
+	/**
+	 * Lectura aleatoria con cada entrada ya en la resolucion del punto fijo.
+	 */
+	private static double[] lectura(Random random) {
+		return new double[]{
+				random.nextInt(100_000_000) / 100.0, // tov
+				random.nextInt(100_000) / 100.0, // waterTov
+				random.nextInt(4000) / 100.0, // kFra1
+				random.nextInt(2000) / 100.0, // kFra2
+				50 + random.nextInt(200) / 10.0, // tLam
+				random.nextInt(1500) / 10.0, // tempL
+				random.nextInt(1000) / 10.0, // tAmb
+				7 + random.nextInt(830) / 10.0, // api60
+				random.nextInt(3000) / 1000.0 // bsw
+		};
+	}
+
+	private static CalculationsLiqResult liquidar(boolean fijo, String abd, double[] l) {
+		CalculationsLiqResult out = new CalculationsLiqResult();
+		return fijo ? CalculationsLiqFijo.liquidar(abd, l[0], l[1], l[2], l[3], l[4], l[5], l[6], l[7], l[8], out)
+				: CalculationsLiqEngine.liquidar(abd, l[0], l[1], l[2], l[3], l[4], l[5], l[6], l[7], l[8], out);
+	}
+
+	@Test
+	void igualQueCadenaExactaEnBigDecimal() {
+		Random random = new Random(11);
+		for (int i = 0; i < 100000; i++) {
+			String abd = GRUPOS[random.nextInt(GRUPOS.length)];
+			double[] l = lectura(random);
+			CalculationsLiqResult fijo = liquidar(true, abd, l);
+
+			CalculationsLiqResult decimal = CalculationsLiqDecimal.liquidar(abd, l[0], l[1], l[2], l[3], l[4], l[5], l[6], l[7], l[8],
+					new CalculationsLiqResult());
+
+			String caso = abd + " " + Arrays.toString(l);
+			assertEquals(decimal, fijo, caso);
+		}
+	}
+
+	@Test
+	void diferencialContraDouble() {
+		Random random = new Random(23);
+		int diferentes = 0;
+		int casos = 200000;
+		for (int i = 0; i < casos; i++) {
+			String abd = GRUPOS[random.nextInt(GRUPOS.length)];
+			double[] l = lectura(random);
+			CalculationsLiqResult fijo = liquidar(true, abd, l);
+			CalculationsLiqResult doble = liquidar(false, abd, l);
+
+			// CTL y API observado salen de las mismas ecuaciones; el resto solo difiere cuando el double cae del lado
+			// equivocado de un empate de redondeo: CTSH en un grado de temperatura de lamina, FRA, GSV y NSV en 0.01
+			String caso = abd + " " + Arrays.toString(l);
+			assertEquals(doble.getCtl(), fijo.getCtl(), caso);
+			assertEquals(doble.getApiObs(), fijo.getApiObs(), caso);
+			assertEquals(doble.getCtsh(), fijo.getCtsh(), 0.0000200001, caso);
+			assertEquals(doble.getFra(), fijo.getFra(), 0.0100001, caso);
+			if (doble.getCtsh() == fijo.getCtsh() && doble.getFra() == fijo.getFra()) {
+				assertEquals(doble.getGov(), fijo.getGov(), 1e-6, caso);
+				assertEquals(doble.getGsv(), fijo.getGsv(), 0.0100001, caso);
+				assertEquals(doble.getNsv(), fijo.getNsv(), 0.0100001, caso);
+			}
+			if (doble.getCtsh() != fijo.getCtsh() || doble.getFra() != fijo.getFra()
+					|| doble.getGsv() != fijo.getGsv() || doble.getNsv() != fijo.getNsv()) {
+				diferentes++;
+			}
+		}
+		// Con entradas en la resolucion de API MPMS 12.1 cerca del 1 % de las lecturas cae en un empate
+		assertTrue(diferentes < casos / 50, "Lecturas con diferencias: " + diferentes);
+	}
+
+	@Test
+	void empatesRedondeadosComoValorExacto() {
+		CalculationsLiqResult out = new CalculationsLiqResult();
+
+		// (39.79 - 71.0) * 17.5 = -546.175 exacto, en double da -546.17500000000001 y redondea a -546.18
+		CalculationsLiqFijo.liquidar("B", 773108.78, 919.29, 39.79, 17.5, 60, 16.1, 35.2, 77.9, 0.593, out);
+		assertEquals(-546.17, out.getFra());
+		assertEquals(797479.43, out.getGsv());
+
+		// (90.8 + 7 * 99.6) / 8 = 98.5 exacto, en double da 98.49999999999999 y redondea a 98
+		CalculationsLiqFijo.liquidar("B", 27886.83, 445.98, 18.65, 5.28, 60, 99.6, 90.8, 30, 0.859, out);
+		assertEquals(1.00048, out.getCtsh());
+	}
+
+	@Test
+	void entradasFueraDeRangoRechazadas() {
+		CalculationsLiqResult out = new CalculationsLiqResult();
+		assertThrows(IllegalArgumentException.class,
+				() -> CalculationsLiqFijo.liquidar("A", 250000, 800, 21, 12.21, 60, 88.4, 75, 30, 101, out));
+		assertThrows(IllegalArgumentException.class,
+				() -> CalculationsLiqFijo.liquidar("A", Double.NaN, 800, 21, 12.21, 60, 88.4, 75, 30, 0.25, out));
+		assertThrows(ArithmeticException.class,
+				() -> CalculationsLiqFijo.liquidar("A", 9e12, 800, 21, 12.21, 60, 88.4, 75, 30, 0.25, out));
+	}
+
+	@Test
+	void multiplicarRedondearSinDesbordamiento() {
+		Random random = new Random(5);
+		for (int i = 0; i < 100000; i++) {
+			long a = random.nextLong() % 2_000_000_000_000_000_000L;
+			long b = random.nextInt(100001);
+			BigDecimal esperado = CalculationsLiqDecimal.redondear(BigDecimal.valueOf(a).multiply(BigDecimal.valueOf(b)).movePointLeft(15), 0);
+			assertEquals(esperado.longValueExact(), CalculationsLiqFijo.multiplicarRedondear(a, b, 15), a + " * " + b);
+		}
+	}
+
+}
@@ -0,0 +1,60 @@
+package com.api_calculation.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CalculationsLiqIncertidumbreTests {
+
+	private static CalculationsLiqIncertidumbre simulacion(double uGauge, double uTempL, double uApi, double uBsw) {
+		return new CalculationsLiqIncertidumbre(uGauge, uTempL, uApi, uBsw)
+				.lectura(1, "A", 1500, 250000, 800, 21, 12.21, 60, 88.4, 75, 30, 0.25);
+	}
+
+	@Test
+	void mismaSemillaMismaDistribucion() {
+		CalculationsLiqDistribucion a = simulacion(3, 0.5, 0.1, 0.05).simular(100000, 11, 40);
+		CalculationsLiqDistribucion b = simulacion(3, 0.5, 0.1, 0.05).simular(100000, 11, 40);
+
+		assertEquals(a.getMedia(), b.getMedia());
+		assertEquals(a.getDesviacion(), b.getDesviacion());
+		assertEquals(a.getPercentiles(), b.getPercentiles());
+		assertArrayEquals(a.getHistograma(), b.getHistograma());
+		assertEquals(100000, Arrays.stream(a.getHistograma()).sum());
+	}
+
+	@Test
+	void incertidumbreDeNivelProporcionalAlTov() {
+		// Solo el nivel tiene error: NSV = (TOV - agua) * CTSH * CTL * (1 - BSW) + terminos fijos, lineal en el TOV
+		CalculationsLiqDistribucion distribucion = simulacion(3, 0, 0, 0).simular(200000, 5, 50);
+		CalculationsLiqResult out = CalculationsLiqEngine.liquidar("A", 250000, 800, 21, 12.21, 60, 88.4, 75, 30, 0.25,
+				new CalculationsLiqResult());
+		double esperada = 3 * 250000 / 1500d * out.getCtsh() * out.getCtl() * (1 - 0.25 / 100);
+
+		assertEquals(out.getNsv(), distribucion.getNominal());
+		assertEquals(esperada, distribucion.getDesviacion(), esperada * 0.02);
+		assertEquals(out.getNsv(), distribucion.getMedia(), esperada * 0.02);
+		assertTrue(distribucion.getPercentiles().get("p2.5") < distribucion.getPercentiles().get("p50"));
+		assertTrue(distribucion.getPercentiles().get("p50") < distribucion.getPercentiles().get("p97.5"));
+	}
+
+	@Test
+	void movimientoEsDiferenciaDeLecturas() {
+		CalculationsLiqDistribucion distribucion = simulacion(0, 0, 0, 0)
+				.lectura(-1, "A", 1000, 150000, 500, 21, 12.21, 60, 85, 70, 30, 0.3)
+				.simular(1000, 3, 10);
+		CalculationsLiqResult out = new CalculationsLiqResult();
+		double inicial = CalculationsLiqEngine.liquidar("A", 250000, 800, 21, 12.21, 60, 88.4, 75, 30, 0.25, out).getNsv();
+		double fin = CalculationsLiqEngine.liquidar("A", 150000, 500, 21, 12.21, 60, 85, 70, 30, 0.3, out).getNsv();
+
+		assertEquals(inicial - fin, distribucion.getMedia(), 1e-6);
+		assertEquals(0, distribucion.getDesviacion(), 1e-6);
+		assertThrows(IllegalArgumentException.class, () -> simulacion(1, 1, 1, 1).simular(0, 1, 10));
+	}
+
+}
@@ -0,0 +1,76 @@
+package com.api_calculation.util;
+
+import com.api_calculation.util.CalculationsLiqIncremental.Variable;
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumSet;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CalculationsLiqIncrementalTests {
+
+	private static final String[] GRUPOS = {"A", "B", "D"};
+
+	@Test
+	void afectadasSegunDependencias() {
+		assertEquals(EnumSet.of(Variable.T_AMB, Variable.CTSH, Variable.GOV, Variable.GSV, Variable.NSV),
+				CalculationsLiqIncremental.afectadas(EnumSet.of(Variable.T_AMB)));
+		assertEquals(EnumSet.of(Variable.BSW, Variable.NSV),
+				CalculationsLiqIncremental.afectadas(EnumSet.of(Variable.BSW)));
+		assertEquals(EnumSet.of(Variable.K_FRA2, Variable.FRA, Variable.GOV, Variable.GSV, Variable.NSV),
+				CalculationsLiqIncremental.afectadas(EnumSet.of(Variable.K_FRA2)));
+		assertEquals(EnumSet.of(Variable.API60, Variable.CTL_API_OBS, Variable.FRA, Variable.GOV, Variable.GSV, Variable.NSV),
+				CalculationsLiqIncremental.afectadas(EnumSet.of(Variable.API60)));
+	}
+
+	@Test
+	void recalculoIgualQueCalculoCompleto() {
+		Random random = new Random(17);
+		Variable[] entradas = EnumSet.range(Variable.ABD, Variable.BSW).toArray(new Variable[0]);
+		CalculationsLiqResult esperado = new CalculationsLiqResult();
+		CalculationsLiqResult incremental = new CalculationsLiqResult();
+
+		for (int i = 0; i < 20000; i++) {
+			String abd = GRUPOS[random.nextInt(GRUPOS.length)];
+			double[] l = {random.nextDouble() * 500000, random.nextDouble() * 1000, 15 + random.nextDouble() * 20, 12.21,
+					60, random.nextDouble() * 140, random.nextDouble() * 100, 7 + random.nextDouble() * 83, random.nextDouble() * 2};
+			CalculationsLiqEngine.liquidar(abd, l[0], l[1], l[2], l[3], l[4], l[5], l[6], l[7], l[8], incremental);
+
+			// Editar entre una y tres entradas
+			EnumSet<Variable> cambiadas = EnumSet.noneOf(Variable.class);
+			for (int c = 1 + random.nextInt(3); c > 0; c--) {
+				Variable variable = entradas[random.nextInt(entradas.length)];
+				cambiadas.add(variable);
+				switch (variable) {
+					case ABD: abd = GRUPOS[random.nextInt(GRUPOS.length)]; break;
+					case TOV: l[0] = random.nextDouble() * 500000; break;
+					case WATER_TOV: l[1] = random.nextDouble() * 1000; break;
+					case K_FRA1: l[2] = 15 + random.nextDouble() * 20; break;
+					case K_FRA2: l[3] = random.nextDouble() * 20; break;
+					case T_LAM: l[4] = 50 + random.nextDouble() * 20; break;
+					case TEMP_L: l[5] = random.nextDouble() * 140; break;
+					case T_AMB: l[6] = random.nextDouble() * 100; break;
+					case API60: l[7] = 7 + random.nextDouble() * 83; break;
+					default: l[8] = random.nextDouble() * 2;
+				}
+			}
+
+			EnumSet<Variable> recalculadas = CalculationsLiqIncremental.recalcular(cambiadas, abd, l[0], l[1], l[2], l[3],
+					l[4], l[5], l[6], l[7], l[8], incremental);
+			CalculationsLiqEngine.liquidar(abd, l[0], l[1], l[2], l[3], l[4], l[5], l[6], l[7], l[8], esperado);
+
+			String caso = abd + " " + cambiadas;
+			assertEquals(esperado.getFra(), incremental.getFra(), caso);
+			assertEquals(esperado.getCtsh(), incremental.getCtsh(), caso);
+			assertEquals(esperado.getGov(), incremental.getGov(), caso);
+			assertEquals(esperado.getCtl(), incremental.getCtl(), caso);
+			assertEquals(esperado.getGsv(), incremental.getGsv(), caso);
+			assertEquals(esperado.getNsv(), incremental.getNsv(), caso);
+			EnumSet<Variable> afectadas = CalculationsLiqIncremental.afectadas(cambiadas);
+			afectadas.removeAll(cambiadas);
+			assertEquals(afectadas, recalculadas, caso);
+		}
+	}
+
+}
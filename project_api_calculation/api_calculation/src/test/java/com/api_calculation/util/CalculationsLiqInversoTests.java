@@ -0,0 +1,104 @@
+package com.api_calculation.util;
+
+import com.compartido.util.TablaAforoIndice;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CalculationsLiqInversoTests {
+
+	private static final String[] GRUPOS = {"A", "B", "D"};
+
+	/**
+	 * Table of 16 m every 10 mm, with a fractional table by courses of 2 m.
+	 */
+	private static TablaAforoIndice tabla() {
+		double[] niveles = new double[1601];
+		double[] volumenes = new double[1601];
+		double[] nivelesFraccion = new double[8];
+		double[] volumenesFraccion = new double[8];
+		for (int c = 0; c < 8; c++) {
+			nivelesFraccion[c] = c * 2000;
+			volumenesFraccion[c] = 28.05 + c * 0.02;
+		}
+		for (int i = 1; i < niveles.length; i++) {
+			niveles[i] = i * 10;
+			volumenes[i] = volumenes[i - 1] + 10 * volumenesFraccion[(i - 1) / 200];
+		}
+		return new TablaAforoIndice(niveles, volumenes, nivelesFraccion, volumenesFraccion, 0, 0);
+	}
+
+	@Test
+	void inversaDeLaTablaDeAforo() {
+		TablaAforoIndice tabla = tabla();
+		Random random = new Random(5);
+		for (int i = 0; i < 10000; i++) {
+			double gauge = random.nextDouble() * 16000;
+			assertEquals(gauge, tabla.nivel(tabla.volumen(gauge)), 1e-6);
+		}
+		assertEquals(0, tabla.nivel(0));
+		assertEquals(16000, tabla.nivel(tabla.volumen(16000)));
+
+		// Without fractional table the levels in between are interpolated
+		TablaAforoIndice lineal = new TablaAforoIndice(new double[]{0, 1000, 2000}, new double[]{0, 28050, 56100}, null, null, 0, 0);
+		assertEquals(14025, lineal.volumen(500), 1e-9);
+		assertEquals(1500, lineal.nivel(42075), 1e-9);
+		assertEquals(28.05, lineal.volumenPorMm(2000), 1e-12);
+
+		// A fractional table that does not reach the next level gives that level
+		TablaAforoIndice salto = new TablaAforoIndice(new double[]{0, 1000, 2000}, new double[]{0, 28050, 56100},
+				new double[]{0}, new double[]{28}, 0, 0);
+		assertEquals(1000, salto.nivel(28020));
+		assertEquals(1000, salto.nivel(28050));
+	}
+
+	@Test
+	void gaugeDaElNsvPedido() {
+		TablaAforoIndice tabla = tabla();
+		Random random = new Random(11);
+		CalculationsLiqResult out = new CalculationsLiqResult();
+		CalculationsLiqResult lectura = new CalculationsLiqResult();
+		for (int i = 0; i < 20000; i++) {
+			byte grupo = CalculationsLiqEngine.codigo(GRUPOS[random.nextInt(GRUPOS.length)]);
+			double waterTov = random.nextDouble() * 2000;
+			double kFra1 = 15 + random.nextDouble() * 20;
+			double tempL = random.nextDouble() * 100;
+			double tAmb = random.nextDouble() * 100;
+			double api60 = 8 + random.nextDouble() * 80;
+			double bsw = random.nextDouble() * 2;
+			double nsv = (double) Math.round((5000 + random.nextDouble() * 400000) * 100) / 100;
+
+			double gauge = CalculationsLiqInverso.gauge(tabla, nsv, grupo, waterTov, kFra1, 12.21, 60, tempL, tAmb, api60, bsw, out);
+
+			// The NSV of a reading at that gauge is the one wanted, up to the rounding of the NSV
+			CalculationsLiqEngine.liquidar(grupo, tabla.volumen(gauge), waterTov, kFra1, 12.21, 60, tempL, tAmb, api60, bsw, lectura);
+			assertEquals(lectura.getNsv(), out.getNsv());
+			assertEquals(nsv, out.getNsv(), 0.0100001);
+
+			// And the derivative predicts the NSV one millimetre above
+			double nsvPorMm = CalculationsLiqInverso.nsvPorMm(tabla, gauge, bsw, out);
+			CalculationsLiqEngine.liquidar(grupo, tabla.volumen(gauge + 1), waterTov, kFra1, 12.21, 60, tempL, tAmb, api60, bsw, lectura);
+			assertEquals(lectura.getNsv() - out.getNsv(), nsvPorMm, 0.0200001 + nsvPorMm * 1e-3);
+		}
+	}
+
+	@Test
+	void nsvFueraDeLaTablaRechazado() {
+		TablaAforoIndice tabla = tabla();
+		CalculationsLiqResult out = new CalculationsLiqResult();
+		byte grupo = CalculationsLiqEngine.codigo("A");
+		assertThrows(IllegalArgumentException.class,
+				() -> CalculationsLiqInverso.gauge(tabla, 600000, grupo, 800, 21, 12.21, 60, 88.4, 75, 30, 0.25, out));
+		assertThrows(IllegalArgumentException.class,
+				() -> CalculationsLiqInverso.gauge(tabla, -10, grupo, 800, 21, 12.21, 60, 88.4, 75, 30, 0.25, out));
+		assertThrows(IllegalArgumentException.class,
+				() -> CalculationsLiqInverso.gauge(tabla, 1000, grupo, 800, 21, 12.21, 60, 88.4, 75, 30, 100, out));
+		assertThrows(IllegalArgumentException.class, () -> tabla.volumen(16000.5));
+		assertTrue(tabla.getNivelMaximo() == 16000 && tabla.getNivelMinimo() == 0);
+	}
+
+}
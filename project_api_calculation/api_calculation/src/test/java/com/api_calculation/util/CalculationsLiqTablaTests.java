@@ -0,0 +1,82 @@
+package com.api_calculation.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CalculationsLiqTablaTests {
+
+	@Test
+	void tablaIgualQueCalculoExacto() {
+		CalculationsLiqTabla tabla = new CalculationsLiqTabla(true);
+		CalculationsLiqResult interpolado = new CalculationsLiqResult();
+		CalculationsLiqResult exacto = new CalculationsLiqResult();
+		Random random = new Random(11);
+		byte[] grupos = {'A', 'B', 'D'};
+
+		int n = 200000;
+		int desdeTabla = 0;
+		for (int i = 0; i < n; i++) {
+			byte grupo = grupos[random.nextInt(grupos.length)];
+			// Temperaturas con un decimal, como se reportan en campo
+			double api60 = 7 + Math.round(random.nextDouble() * 830) / 10d;
+			double tempL = -1 + Math.round(random.nextDouble() * 1510) / 10d;
+
+			if (tabla.ctlApiObs(grupo, api60, tempL, interpolado)) {
+				desdeTabla++;
+				CalculationsLiqEngine.ctlApiObs(grupo, CalculationsLiqEngine.d60(api60), CalculationsLiqEngine.dtr(tempL), exacto);
+				String caso = (char) grupo + " api60=" + api60 + " tempL=" + tempL;
+				assertEquals(exacto.getCtl(), interpolado.getCtl(), caso);
+				assertEquals(exacto.getApiObs(), interpolado.getApiObs(), caso);
+			}
+		}
+
+		assertTrue(desdeTabla > n * 0.9, "Solo " + desdeTabla + " lecturas salieron de la tabla");
+		assertFalse(tabla.ctlApiObs((byte) 'A', 95, 60, interpolado));
+	}
+
+	@Test
+	void cotaCubreElErrorDeCadaCelda() {
+		CalculationsLiqTabla tabla = new CalculationsLiqTabla(true);
+		CalculationsLiqResult exacto = new CalculationsLiqResult();
+		int puntos = 7;
+		double peorCtl = 0;
+		double peorApiObs = 0;
+
+		// Barrido denso: puntos * puntos lecturas dentro de cada celda de cada grupo
+		for (GrupoProducto grupo : GrupoProducto.values()) {
+			for (double api = CalculationsLiqTabla.API_MIN; api < CalculationsLiqTabla.API_MAX; api += CalculationsLiqTabla.API_PASO) {
+				for (double temp = CalculationsLiqTabla.TEMP_MIN; temp < CalculationsLiqTabla.TEMP_MAX; temp += CalculationsLiqTabla.TEMP_PASO) {
+					for (int a = 0; a < puntos; a++) {
+						for (int t = 0; t < puntos; t++) {
+							double api60 = api + (a + 0.5) / puntos * CalculationsLiqTabla.API_PASO;
+							double tempL = temp + (t + 0.5) / puntos * CalculationsLiqTabla.TEMP_PASO;
+							double[] interpolado = tabla.interpolarConCota(grupo.getCodigo(), api60, tempL);
+							CalculationsLiqEngine.ctlApiObsSinRedondeo(grupo.getCodigo(), CalculationsLiqEngine.d60(api60),
+									CalculationsLiqEngine.dtr(tempL), exacto);
+
+							String caso = grupo + " api60=" + api60 + " tempL=" + tempL;
+							double errorCtl = Math.abs(interpolado[0] - exacto.getCtl());
+							double errorApiObs = Math.abs(interpolado[2] - exacto.getApiObs());
+							assertTrue(errorCtl <= interpolado[1], caso + " error CTL " + errorCtl + " cota " + interpolado[1]);
+							assertTrue(errorApiObs <= interpolado[3], caso + " error API " + errorApiObs + " cota " + interpolado[3]);
+							if (Double.isFinite(interpolado[1])) {
+								peorCtl = Math.max(peorCtl, errorCtl / interpolado[1]);
+								peorApiObs = Math.max(peorApiObs, errorApiObs / interpolado[3]);
+							}
+						}
+					}
+				}
+			}
+		}
+
+		// La cota no es tan holgada que nunca se use la tabla
+		assertTrue(peorCtl > 0.1, "CTL " + peorCtl);
+		assertTrue(peorApiObs > 0.1, "API observado " + peorApiObs);
+	}
+
+}
@@ -0,0 +1,84 @@
+package com.api_calculation.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Solo se compila y ejecuta con el perfil vector: mvn -Pvector test
+ */
+class CalculationsLiqKernelVectorialTests {
+
+	private static final String[] GRUPOS = {"A", "B", "D"};
+
+	@Test
+	void elPerfilVectorUsaElKernelVectorial() {
+		assertTrue(CalculationsLiqKernel.disponible() instanceof CalculationsLiqKernelVectorial);
+	}
+
+	@Test
+	void igualQueKernelEscalar() {
+		int n = 200003;
+		Random random = new Random(11);
+		byte[] grupo = new byte[n];
+		double[] api60 = new double[n], tempL = new double[n];
+		for (int i = 0; i < n; i++) {
+			grupo[i] = CalculationsLiqEngine.codigo(GRUPOS[random.nextInt(GRUPOS.length)]);
+			api60[i] = 7 + random.nextDouble() * 83;
+			tempL[i] = random.nextDouble() * 140;
+		}
+
+		comparar(grupo, api60, tempL, 5);
+	}
+
+	@Test
+	void redondeaIgualQueElMotorEnLaMitadDelUltimoDecimal() {
+		// Temperaturas en las que el CTL sin redondear queda en x.5 del quinto decimal
+		int n = 64;
+		byte[] grupo = new byte[n];
+		double[] api60 = new double[n], tempL = new double[n];
+		for (int i = 0; i < n; i++) {
+			grupo[i] = CalculationsLiqEngine.codigo(GRUPOS[i % GRUPOS.length]);
+			api60[i] = 12 + i;
+			tempL[i] = mitadDelCtl(grupo[i], api60[i], 70 + i);
+		}
+
+		comparar(grupo, api60, tempL, 0);
+	}
+
+	private static void comparar(byte[] grupo, double[] api60, double[] tempL, int desde) {
+		int n = grupo.length;
+		double[] ctl = new double[n], apiObs = new double[n], ctlEscalar = new double[n], apiObsEscalar = new double[n];
+		new CalculationsLiqKernelVectorial().ctlApiObs(grupo, api60, tempL, ctl, apiObs, desde, n);
+		new CalculationsLiqKernelEscalar().ctlApiObs(grupo, api60, tempL, ctlEscalar, apiObsEscalar, desde, n);
+
+		assertArrayEquals(ctlEscalar, ctl);
+		assertArrayEquals(apiObsEscalar, apiObs);
+	}
+
+	/**
+	 * Bisects the temperature between t and t + 1, where CTL decreases, until CTL * 1e5 is at a midpoint.
+	 */
+	private static double mitadDelCtl(byte grupo, double api60, double t) {
+		double mitad = Math.floor(ctl5(grupo, api60, t)) - 0.5;
+		double desde = t, hasta = t + 1;
+		for (int i = 0; i < 200; i++) {
+			double medio = (desde + hasta) / 2;
+			if (ctl5(grupo, api60, medio) > mitad) {
+				desde = medio;
+			} else {
+				hasta = medio;
+			}
+		}
+		return desde;
+	}
+
+	private static double ctl5(byte grupo, double api60, double tempL) {
+		CalculationsLiqResult out = new CalculationsLiqResult();
+		CalculationsLiqEngine.ctlApiObsSinRedondeo(grupo, CalculationsLiqEngine.d60(api60), CalculationsLiqEngine.dtr(tempL), out);
+		return out.getCtl() * 100000d;
+	}
+}
@@ -0,0 +1,136 @@
+package com.api_calculation.util;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * @author Abelardo Orozco
+ * Implementacion SIMD de {@link CalculationsLiqKernel} con la Vector API (jdk.incubator.vector).
+ *
+ * <p>La densidad a 60 F, el polinomio de temperatura ITS-90 y las exponenciales del CTL y del API observado se
+ * calculan por carriles. La exponencial vectorial puede diferir de {@link Math#exp(double)} en el ultimo bit, por
+ * eso antes de redondear se revisa cada lectura: si el valor queda a menos de {@link #GUARDA} de la mitad del
+ * ultimo decimal publicado se recalcula con {@link CalculationsLiqEngine}, y el resultado es el mismo del
+ * kernel escalar.</p>
+ */
+public class CalculationsLiqKernelVectorial implements CalculationsLiqKernel {
+
+    private static final VectorSpecies<Double> ESPECIE = DoubleVector.SPECIES_PREFERRED;
+
+    /**
+     * Number of readings whose intermediate columns are kept before rounding.
+     */
+    private static final int BLOQUE = 1024;
+
+    /**
+     * Distance, in units of the last published decimal, to the rounding midpoint below which a reading is
+     * recalculated with {@link Math#exp(double)}. A difference of a few ulps moves CTL about 1e-11 of that unit.
+     */
+    private static final double GUARDA = 1e-6;
+
+    @Override
+    public void ctlApiObs(byte[] grupo, double[] api60, double[] tempL, double[] ctl, double[] apiObs, int desde, int hasta) {
+        CalculationsLiqResult out = new CalculationsLiqResult();
+        double[] d60 = new double[BLOQUE];
+        double[] dtr = new double[BLOQUE];
+        double[] k0 = new double[BLOQUE];
+        double[] k1 = new double[BLOQUE];
+        double[] k2 = new double[BLOQUE];
+        double[] dosK0 = new double[BLOQUE];
+        double[] j0K0 = new double[BLOQUE];
+        double[] ctlB = new double[BLOQUE];
+        double[] obsB = new double[BLOQUE];
+
+        for (int inicio = desde; inicio < hasta; inicio += BLOQUE) {
+            int n = Math.min(BLOQUE, hasta - inicio);
+            int limite = ESPECIE.loopBound(n);
+
+            // Density at 60 F and temperature difference, lane by lane
+            int k = 0;
+            for (; k < limite; k += ESPECIE.length()) {
+                DoubleVector api = DoubleVector.fromArray(ESPECIE, api60, inicio + k);
+                DoubleVector.broadcast(ESPECIE, 141.5).div(api.add(131.5)).mul(999.016).intoArray(d60, k);
+
+                DoubleVector tC90 = DoubleVector.fromArray(ESPECIE, tempL, inicio + k).sub(32).div(1.8);
+                DoubleVector T = tC90.div(630);
+                DoubleVector DTT = T.mul(-3.536296).add(7.438081)
+                        .mul(T).add(-1.871251)
+                        .mul(T).add(-4.089591)
+                        .mul(T).add(1.269056)
+                        .mul(T).add(1.08076)
+                        .mul(T).add(-0.267408)
+                        .mul(T).add(-0.148759)
+                        .mul(T);
+                tC90.sub(DTT).mul(1.8).add(32).sub(60.0068749).intoArray(dtr, k);
+            }
+            for (; k < n; k++) {
+                d60[k] = CalculationsLiqEngine.d60(api60[inicio + k]);
+                dtr[k] = CalculationsLiqEngine.dtr(tempL[inicio + k]);
+            }
+
+            // Coefficients of the density band of each reading
+            for (k = 0; k < n; k++) {
+                GrupoProducto.BandaDensidad banda = GrupoProducto.de(grupo[inicio + k]).banda(d60[k]);
+                k0[k] = banda.getK0();
+                k1[k] = banda.getK1();
+                k2[k] = banda.getK2();
+                dosK0[k] = banda.getDosK0();
+                j0K0[k] = banda.getJ0K0();
+            }
+
+            // CTL and the correction used by API observed, with the same operations of the engine in the same order
+            for (k = 0; k < limite; k += ESPECIE.length()) {
+                DoubleVector d = DoubleVector.fromArray(ESPECIE, d60, k);
+                DoubleVector DTr = DoubleVector.fromArray(ESPECIE, dtr, k);
+                DoubleVector K0 = DoubleVector.fromArray(ESPECIE, k0, k);
+                DoubleVector K1 = DoubleVector.fromArray(ESPECIE, k1, k);
+                DoubleVector K2 = DoubleVector.fromArray(ESPECIE, k2, k);
+
+                DoubleVector A = K0.div(d).add(K1).div(d).add(K2).mul(0.01374979547 / 2);
+                DoubleVector divisor = K2.mul(d).add(K1).mul(d).add(K0);
+                DoubleVector expA = A.mul(0.8).add(1).mul(A).lanewise(VectorOperators.EXP).sub(1);
+                DoubleVector A16 = A.mul(1.6).add(1).mul(A);
+
+                DoubleVector B = DoubleVector.fromArray(ESPECIE, dosK0, k).add(K1.mul(d)).div(divisor);
+                correccion(d, DTr, K0, K1, K2, expA, A16, B).intoArray(ctlB, k);
+                B = DoubleVector.fromArray(ESPECIE, j0K0, k).add(K1.mul(d)).div(divisor);
+                correccion(d, DTr, K0, K1, K2, expA, A16, B).intoArray(obsB, k);
+            }
+
+            // Rounding, and the readings too close to a rounding midpoint or past the last full vector in the engine
+            for (k = 0; k < n; k++) {
+                int i = inicio + k;
+                double ctl5 = ctlB[k] * 100000d;
+                double apiObs1 = ((141.5 / (d60[k] * obsB[k] / 999.016)) - 131.5) * 10d;
+                if (k >= limite || cercaDeLaMitad(ctl5) || cercaDeLaMitad(apiObs1)) {
+                    CalculationsLiqEngine.ctlApiObs(grupo[i], d60[k], dtr[k], out);
+                    ctl[i] = out.getCtl();
+                    apiObs[i] = out.getApiObs();
+                } else {
+                    ctl[i] = (double) Math.round(ctl5) / 100000;
+                    apiObs[i] = (double) Math.round(apiObs1) / 10;
+                }
+            }
+        }
+    }
+
+    /**
+     * Thermal expansion coefficient and temperature correction of the engine for the given B term.
+     */
+    private static DoubleVector correccion(DoubleVector d60, DoubleVector DTr, DoubleVector k0, DoubleVector k1,
+                                           DoubleVector k2, DoubleVector expA, DoubleVector A16, DoubleVector B) {
+        DoubleVector dr = expA.div(A16.mul(B).add(1)).add(1).mul(d60);
+        DoubleVector a60 = k0.div(dr).add(k1).div(dr).add(k2);
+        DoubleVector factor = a60.mul(0.8).mul(DTr.add(0.01374979547)).add(1);
+        return a60.neg().mul(DTr).mul(factor).lanewise(VectorOperators.EXP);
+    }
+
+    /**
+     * Whether the scaled value is close enough to x.5 for an ulp of the exponential to change its rounding.
+     * NaN and infinite values are also sent to the engine.
+     */
+    private static boolean cercaDeLaMitad(double escalado) {
+        return !(Math.abs(escalado - Math.floor(escalado) - 0.5) > GUARDA);
+    }
+}
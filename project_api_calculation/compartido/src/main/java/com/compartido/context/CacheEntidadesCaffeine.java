@@ -0,0 +1,157 @@
+package com.compartido.context;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.hibernate.boot.spi.SessionFactoryOptions;
+import org.hibernate.cache.cfg.spi.DomainDataRegionBuildingContext;
+import org.hibernate.cache.cfg.spi.DomainDataRegionConfig;
+import org.hibernate.cache.spi.support.DomainDataStorageAccess;
+import org.hibernate.cache.spi.support.RegionFactoryTemplate;
+import org.hibernate.cache.spi.support.StorageAccess;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.springframework.core.env.Environment;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * @author Abelardo Orozco
+ * Cache de segundo nivel de Hibernate guardado en memoria con Caffeine, una cache por region.
+ *
+ * <p>Cada region guarda como maximo {@code <prefijo>.<region>.max-size} entradas durante
+ * {@code <prefijo>.<region>.expire} segundos; las regiones sin configuracion propia usan
+ * {@code <prefijo>.max-size} y {@code <prefijo>.expire}. El prefijo lo da cada servicio: ms-liquidacion usa
+ * {@code liquidacion.cache-entidades} y ms-infotank {@code cache-entidades}. La region de marcas de
+ * tiempo de las consultas nunca se desaloja, como pide Hibernate. Los aciertos, fallos y desalojos de cada region se
+ * publican en Actuator como metricas {@code cache.*} con la etiqueta {@code cache=hibernate.<region>}, y la proporcion
+ * de aciertos como {@code cache.aciertos}.</p>
+ */
+public class CacheEntidadesCaffeine extends RegionFactoryTemplate {
+
+    private final Environment env;
+    private final String prefijo;
+    private final MeterRegistry meterRegistry;
+    private final List<Cache<Object, Object>> caches = new CopyOnWriteArrayList<>();
+
+    /**
+     * Constructor to create the regions with the settings of the environment.
+     *
+     * @param env environment with the size and expiration of each region
+     * @param prefijo prefix of the properties of the regions in the environment
+     * @param meterRegistry registry where the metrics of each region are published
+     */
+    public CacheEntidadesCaffeine(Environment env, String prefijo, MeterRegistry meterRegistry) {
+        this.env = env;
+        this.prefijo = prefijo;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected DomainDataStorageAccess createDomainDataStorageAccess(DomainDataRegionConfig regionConfig,
+                                                                   DomainDataRegionBuildingContext buildingContext) {
+        return new Region(crear(regionConfig.getRegionName()));
+    }
+
+    @Override
+    protected StorageAccess createQueryResultsRegionStorageAccess(String regionName,
+                                                                  SessionFactoryImplementor sessionFactory) {
+        return new Region(crear(regionName));
+    }
+
+    @Override
+    protected StorageAccess createTimestampsRegionStorageAccess(String regionName,
+                                                                SessionFactoryImplementor sessionFactory) {
+        // An evicted timestamp would let a query take stale results, and there is one entry per table
+        Cache<Object, Object> cache = Caffeine.newBuilder().build();
+        caches.add(cache);
+        return new Region(cache);
+    }
+
+    @Override
+    protected void prepareForUse(SessionFactoryOptions settings, Map configValues) {
+        // The caches are created with each region
+    }
+
+    @Override
+    protected void releaseFromUse() {
+        caches.forEach(Cache::invalidateAll);
+        caches.clear();
+    }
+
+    private Cache<Object, Object> crear(String region) {
+        long tamanoMaximo = env.getProperty(prefijo + "." + region + ".max-size", Long.class,
+                env.getProperty(prefijo + ".max-size", Long.class, 1000L));
+        long expiracion = env.getProperty(prefijo + "." + region + ".expire", Long.class,
+                env.getProperty(prefijo + ".expire", Long.class, 600L));
+
+        Cache<Object, Object> cache = Caffeine.newBuilder()
+                .maximumSize(tamanoMaximo)
+                .expireAfterWrite(Duration.ofSeconds(expiracion))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "hibernate." + region);
+        Gauge.builder("cache.aciertos", cache, CacheEntidadesCaffeine::aciertos)
+                .description("Proporcion de lecturas de la region servidas desde la cache")
+                .tag("cache", "hibernate." + region)
+                .register(meterRegistry);
+        caches.add(cache);
+        return cache;
+    }
+
+    private static double aciertos(Cache<Object, Object> cache) {
+        // Caffeine counts a cache never read as all hits
+        return cache.stats().requestCount() == 0 ? Double.NaN : cache.stats().hitRate();
+    }
+
+    /**
+     * Storage of a region in its cache.
+     */
+    private static final class Region implements DomainDataStorageAccess {
+
+        private final Cache<Object, Object> cache;
+
+        private Region(Cache<Object, Object> cache) {
+            this.cache = cache;
+        }
+
+        @Override
+        public Object getFromCache(Object key, SharedSessionContractImplementor session) {
+            return cache.getIfPresent(key);
+        }
+
+        @Override
+        public void putIntoCache(Object key, Object value, SharedSessionContractImplementor session) {
+            if (value == null) {
+                cache.invalidate(key);
+            } else {
+                cache.put(key, value);
+            }
+        }
+
+        @Override
+        public boolean contains(Object key) {
+            return cache.asMap().containsKey(key);
+        }
+
+        @Override
+        public void evictData() {
+            cache.invalidateAll();
+        }
+
+        @Override
+        public void evictData(Object key) {
+            cache.invalidate(key);
+        }
+
+        @Override
+        public void release() {
+            cache.invalidateAll();
+        }
+    }
+}
@@ -0,0 +1,290 @@
+package com.compartido.util;
+
+import java.nio.DoubleBuffer;
+
+/**
+ * @author Abelardo Orozco
+ * Tabla de aforo de un tanque lista para consultar: nivel (gauge) en milimetros a volumen (TOV) en barriles, y
+ * su inversa.
+ *
+ * <p>La tabla principal y la fraccional se leen de buffers de {@code double} con filas de ancho fijo (nivel,
+ * volumen) ordenadas por nivel, que pueden estar en el heap o ser una vista de un archivo mapeado en memoria
+ * (TablaAforoArchivo de ms-infotank), sin copiarlas. Cada consulta busca el nivel con busqueda binaria; si no es
+ * un nivel de la tabla principal, al volumen del nivel anterior se le suma el incremento por milimetro de la tabla
+ * fraccional vigente en ese nivel o, si no hay tabla fraccional que lo cubra, se interpola linealmente entre los
+ * dos niveles vecinos. La inversa busca el tramo por volumen y despeja el nivel dentro de el. Las instancias son
+ * inmutables y se pueden compartir entre hilos.</p>
+ *
+ * <p>Es la misma clase en ms-infotank, que sirve los volumenes, y en ms-liquidacion, que planea cargues con las
+ * tablas que trae de ms-infotank.</p>
+ */
+public final class TablaAforoIndice {
+
+    /**
+     * Number of doubles in each row of a table: level and volume.
+     */
+    public static final int ANCHO_FILA = 2;
+
+    private static final DoubleBuffer VACIO = DoubleBuffer.allocate(0);
+
+    // Rows (level, volume), read only with absolute gets so the buffers are never modified
+    private final DoubleBuffer principal;
+    private final DoubleBuffer fraccional;
+    private final int filas;
+    private final int filasFraccion;
+    private final double inicioZonaCritica;
+    private final double finalZonaCritica;
+
+    /**
+     * Constructor that validates the tables, given by columns, and copies them to the heap.
+     *
+     * @param niveles Levels of the main table in millimetres, strictly increasing
+     * @param volumenes Volume at each level of the main table in barrels, non decreasing
+     * @param nivelesFraccion Levels from which each row of the fractional table applies, strictly increasing,
+     *                        or null if the tank has no fractional table
+     * @param volumenesFraccion Barrels per millimetre of each row of the fractional table, not negative
+     * @param inicioZonaCritica Level where the critical zone of the tank starts
+     * @param finalZonaCritica Level where the critical zone of the tank ends
+     * @throws IllegalArgumentException if a table is not valid
+     */
+    public TablaAforoIndice(double[] niveles, double[] volumenes, double[] nivelesFraccion, double[] volumenesFraccion,
+                            double inicioZonaCritica, double finalZonaCritica) {
+        this(filas(niveles, volumenes), nivelesFraccion == null ? VACIO : filas(nivelesFraccion, volumenesFraccion),
+                inicioZonaCritica, finalZonaCritica);
+    }
+
+    /**
+     * Constructor that validates the tables and reads them from the given buffers, which are not copied.
+     *
+     * @param principal Rows (level, volume) of the main table
+     * @param fraccional Rows (level, barrels per millimetre) of the fractional table, empty if the tank has none
+     * @param inicioZonaCritica Level where the critical zone of the tank starts
+     * @param finalZonaCritica Level where the critical zone of the tank ends
+     * @throws IllegalArgumentException if a table is not valid
+     */
+    public TablaAforoIndice(DoubleBuffer principal, DoubleBuffer fraccional, double inicioZonaCritica, double finalZonaCritica) {
+        if (principal.remaining() % ANCHO_FILA != 0 || fraccional.remaining() % ANCHO_FILA != 0) {
+            throw new IllegalArgumentException("Las tablas deben tener un volumen por cada nivel");
+        }
+        this.principal = principal.slice();
+        this.fraccional = fraccional.slice();
+        this.filas = principal.remaining() / ANCHO_FILA;
+        this.filasFraccion = fraccional.remaining() / ANCHO_FILA;
+        this.inicioZonaCritica = inicioZonaCritica;
+        this.finalZonaCritica = finalZonaCritica;
+        validar(this.principal, 2, true, "principal");
+        validar(this.fraccional, 0, false, "fraccional");
+    }
+
+    /**
+     * Method to get the volume at a level.
+     *
+     * @param nivel Gauge in millimetres
+     * @return the Total Observed Volume in barrels
+     * @throws IllegalArgumentException if the level is outside the main table
+     */
+    public double volumen(double nivel) {
+        double minimo = principal.get(0);
+        double maximo = principal.get((filas - 1) * ANCHO_FILA);
+        if (!(nivel >= minimo && nivel <= maximo)) {
+            throw new IllegalArgumentException("El nivel " + nivel + " esta fuera de la tabla de aforo ("
+                    + minimo + " - " + maximo + ")");
+        }
+        int i = buscar(principal, filas, nivel);
+        if (i >= 0) {
+            return principal.get(i * ANCHO_FILA + 1);
+        }
+
+        // Level of the main table just below
+        i = -i - 2;
+        double nivelAnterior = principal.get(i * ANCHO_FILA);
+        double volumenAnterior = principal.get(i * ANCHO_FILA + 1);
+        int f = fraccion(nivelAnterior);
+        if (f >= 0) {
+            return volumenAnterior + fraccional.get(f * ANCHO_FILA + 1) * (nivel - nivelAnterior);
+        }
+        double nivelSiguiente = principal.get((i + 1) * ANCHO_FILA);
+        double volumenSiguiente = principal.get((i + 1) * ANCHO_FILA + 1);
+        return volumenAnterior + (volumenSiguiente - volumenAnterior) * (nivel - nivelAnterior) / (nivelSiguiente - nivelAnterior);
+    }
+
+    /**
+     * Method to get the lowest level with a volume, the inverse of {@link #volumen(double)}. When the fractional
+     * table does not reach the volume of the next level of the main table, the volumes in between are given
+     * that next level.
+     *
+     * @param volumen Total Observed Volume in barrels
+     * @return the gauge in millimetres
+     * @throws IllegalArgumentException if the volume is outside the main table
+     */
+    public double nivel(double volumen) {
+        double minimo = principal.get(1);
+        double maximo = principal.get((filas - 1) * ANCHO_FILA + 1);
+        if (!(volumen >= minimo && volumen <= maximo)) {
+            throw new IllegalArgumentException("El volumen " + volumen + " esta fuera de la tabla de aforo ("
+                    + minimo + " - " + maximo + ")");
+        }
+        // First level whose volume is not below the given one, the volumes can repeat
+        int bajo = 0;
+        int alto = filas - 1;
+        while (bajo < alto) {
+            int medio = (bajo + alto) >>> 1;
+            if (principal.get(medio * ANCHO_FILA + 1) < volumen) {
+                bajo = medio + 1;
+            } else {
+                alto = medio;
+            }
+        }
+        if (principal.get(bajo * ANCHO_FILA + 1) == volumen) {
+            return principal.get(bajo * ANCHO_FILA);
+        }
+
+        int i = bajo - 1;
+        double nivelAnterior = principal.get(i * ANCHO_FILA);
+        double volumenAnterior = principal.get(i * ANCHO_FILA + 1);
+        double nivelSiguiente = principal.get((i + 1) * ANCHO_FILA);
+        int f = fraccion(nivelAnterior);
+        if (f < 0) {
+            double volumenSiguiente = principal.get((i + 1) * ANCHO_FILA + 1);
+            return nivelAnterior + (volumen - volumenAnterior) * (nivelSiguiente - nivelAnterior) / (volumenSiguiente - volumenAnterior);
+        }
+        double porMm = fraccional.get(f * ANCHO_FILA + 1);
+        double nivel = porMm > 0 ? nivelAnterior + (volumen - volumenAnterior) / porMm : nivelSiguiente;
+        return Math.min(nivel, nivelSiguiente);
+    }
+
+    /**
+     * Method to get the barrels per millimetre at a level, the derivative of {@link #volumen(double)} from above.
+     *
+     * @param nivel Gauge in millimetres, inside the main table
+     */
+    public double volumenPorMm(double nivel) {
+        int i = buscar(principal, filas, nivel);
+        i = i >= 0 ? Math.min(i, filas - 2) : -i - 2;
+        double nivelAnterior = principal.get(i * ANCHO_FILA);
+        int f = fraccion(nivelAnterior);
+        if (f >= 0) {
+            return fraccional.get(f * ANCHO_FILA + 1);
+        }
+        return (principal.get((i + 1) * ANCHO_FILA + 1) - principal.get(i * ANCHO_FILA + 1))
+                / (principal.get((i + 1) * ANCHO_FILA) - nivelAnterior);
+    }
+
+    /**
+     * Method to get the volume at many levels, see {@link #volumen(double)}.
+     *
+     * @param niveles Gauges in millimetres
+     * @param volumenes Array where the volume of each level is set, with the same length
+     * @param desde First position to calculate
+     * @param hasta Position after the last one to calculate
+     */
+    public void volumenes(double[] niveles, double[] volumenes, int desde, int hasta) {
+        for (int i = desde; i < hasta; i++) {
+            volumenes[i] = volumen(niveles[i]);
+        }
+    }
+
+    /**
+     * Whether a level is inside the critical zone of the tank, where the floating roof rests on its legs
+     * and the volume of the table is not reliable.
+     */
+    public boolean enZonaCritica(double nivel) {
+        return nivel >= inicioZonaCritica && nivel <= finalZonaCritica;
+    }
+
+    public double getNivelMinimo() {
+        return principal.get(0);
+    }
+
+    public double getNivelMaximo() {
+        return principal.get((filas - 1) * ANCHO_FILA);
+    }
+
+    /**
+     * Method to validate a main table: at least 2 levels, strictly increasing, and volumes that do not decrease.
+     *
+     * @throws IllegalArgumentException if the table is not valid
+     */
+    public static void validarPrincipal(double[] niveles, double[] volumenes) {
+        validar(filas(niveles, volumenes), 2, true, "principal");
+    }
+
+    /**
+     * Method to validate a fractional table: at least 1 level, strictly increasing, and volumes not negative.
+     *
+     * @throws IllegalArgumentException if the table is not valid
+     */
+    public static void validarFraccional(double[] niveles, double[] volumenes) {
+        validar(filas(niveles, volumenes), 1, false, "fraccional");
+    }
+
+    /**
+     * Method to find a level in the rows of a table.
+     *
+     * @return the row of the level, or (-(insertion row) - 1) like {@link java.util.Arrays#binarySearch(double[], double)}
+     */
+    private static int buscar(DoubleBuffer tabla, int filas, double nivel) {
+        int bajo = 0;
+        int alto = filas - 1;
+        while (bajo <= alto) {
+            int medio = (bajo + alto) >>> 1;
+            double valor = tabla.get(medio * ANCHO_FILA);
+            if (valor < nivel) {
+                bajo = medio + 1;
+            } else if (valor > nivel) {
+                alto = medio - 1;
+            } else {
+                return medio;
+            }
+        }
+        return -(bajo + 1);
+    }
+
+    /**
+     * Method to find the row of the fractional table in force at a level of the main table.
+     *
+     * @return the row, or -1 if the fractional table does not cover the level
+     */
+    private int fraccion(double nivel) {
+        int f = buscar(fraccional, filasFraccion, nivel);
+        return f >= 0 ? f : -f - 2;
+    }
+
+    /**
+     * Method to interleave the columns of a table in rows (level, volume).
+     */
+    private static DoubleBuffer filas(double[] niveles, double[] volumenes) {
+        if (niveles == null || volumenes == null || niveles.length != volumenes.length) {
+            throw new IllegalArgumentException("Las tablas deben tener un volumen por cada nivel");
+        }
+        double[] filas = new double[niveles.length * ANCHO_FILA];
+        for (int i = 0; i < niveles.length; i++) {
+            filas[i * ANCHO_FILA] = niveles[i];
+            filas[i * ANCHO_FILA + 1] = volumenes[i];
+        }
+        return DoubleBuffer.wrap(filas);
+    }
+
+    private static void validar(DoubleBuffer tabla, int minimo, boolean principal, String nombre) {
+        int filas = tabla.remaining() / ANCHO_FILA;
+        if (filas < minimo) {
+            throw new IllegalArgumentException("La tabla " + nombre + " debe tener al menos " + minimo + " niveles");
+        }
+        for (int i = 0; i < filas; i++) {
+            double nivel = tabla.get(i * ANCHO_FILA);
+            double volumen = tabla.get(i * ANCHO_FILA + 1);
+            if (!Double.isFinite(nivel) || !Double.isFinite(volumen)) {
+                throw new IllegalArgumentException("La tabla " + nombre + " tiene valores no numericos en la fila " + i);
+            }
+            if (i > 0 && nivel <= tabla.get((i - 1) * ANCHO_FILA)) {
+                throw new IllegalArgumentException("Los niveles de la tabla " + nombre + " deben ser crecientes, nivel " + nivel);
+            }
+            if (principal && i > 0 && volumen < tabla.get((i - 1) * ANCHO_FILA + 1)) {
+                throw new IllegalArgumentException("Los volumenes de la tabla principal no pueden disminuir, nivel " + nivel);
+            }
+            if (!principal && volumen < 0) {
+                throw new IllegalArgumentException("Los volumenes de la tabla fraccional no pueden ser negativos");
+            }
+        }
+    }
+}
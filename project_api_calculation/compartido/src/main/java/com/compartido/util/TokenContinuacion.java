@@ -0,0 +1,65 @@
+package com.compartido.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Encodes the position of the last element of a page as an opaque token, so the next page starts after it.
+ * The clients must not build or read the tokens, only send back the one they received.
+ */
+public final class TokenContinuacion {
+
+    private static final String SEPARADOR = "|";
+
+    private TokenContinuacion() {
+    }
+
+    /**
+     * Creates a token with the values of the sort keys of the last element of a page.
+     *
+     * @param valores the values of the keys, {@code null} when a key has no value.
+     * @return the token.
+     */
+    public static String crear(Object... valores) {
+        StringBuilder texto = new StringBuilder();
+        for (int i = 0; i < valores.length; i++) {
+            if (i > 0) {
+                texto.append(SEPARADOR);
+            }
+            texto.append(valores[i] == null ? "" : valores[i]);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(texto.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Reads the values of a token created by {@link #crear(Object...)}.
+     *
+     * @param token the token.
+     * @param cantidad the number of values expected.
+     * @return the values, empty when a key has no value.
+     * @throws IllegalArgumentException if the token was not created by this service.
+     */
+    public static String[] leer(String token, int cantidad) {
+        try {
+            String[] valores = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8)
+                    .split("\\" + SEPARADOR, -1);
+            if (valores.length == cantidad) {
+                return valores;
+            }
+        } catch (IllegalArgumentException e) {
+            // Not Base64, reported below
+        }
+        throw new IllegalArgumentException("Token de continuacion invalido: " + token);
+    }
+
+    /**
+     * Checks the size of a page.
+     *
+     * @throws IllegalArgumentException if it is not between 1 and the maximum.
+     */
+    public static void validarTamano(int tamano, int maximo) {
+        if (tamano < 1 || tamano > maximo) {
+            throw new IllegalArgumentException("El tamano de la pagina debe estar entre 1 y " + maximo);
+        }
+    }
+}
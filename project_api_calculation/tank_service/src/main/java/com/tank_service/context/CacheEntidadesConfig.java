@@ -0,0 +1,35 @@
+package com.tank_service.context;
+
+import com.compartido.context.CacheEntidadesCaffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+/**
+ * Configuration class for the second-level cache of Hibernate.
+ * The entities annotated with {@code @Cache} are kept in memory by {@link CacheEntidadesCaffeine}.
+ */
+@Configuration
+public class CacheEntidadesConfig {
+
+    /**
+     * Prefix of the properties of the regions, see {@link CacheEntidadesCaffeine}.
+     */
+    private static final String PREFIJO = "cache-entidades";
+
+    /**
+     * Sets {@link CacheEntidadesCaffeine} as the region factory of Hibernate.
+     *
+     * @param env environment with the size and expiration of each region
+     * @param meterRegistry registry where the metrics of each region are published
+     * @return a {@link HibernatePropertiesCustomizer} with the region factory.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer cacheEntidades(Environment env, MeterRegistry meterRegistry) {
+        return propiedades -> propiedades.put(AvailableSettings.CACHE_REGION_FACTORY,
+                new CacheEntidadesCaffeine(env, PREFIJO, meterRegistry));
+    }
+}
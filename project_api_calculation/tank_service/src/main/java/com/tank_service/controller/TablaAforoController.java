@@ -0,0 +1,66 @@
+package com.tank_service.controller;
+
+import com.tank_service.persistence.entity.TipoTablaAforo;
+import com.tank_service.service.TablaAforoService;
+import com.tank_service.service.dto.InDTOConsultaAforo;
+import com.tank_service.service.dto.OutDTOConsultaAforo;
+import com.tank_service.service.dto.TablaAforoDTO;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import javax.validation.Valid;
+
+/**
+ * Controller for the strapping tables of the tanks and the gauge to volume lookups.
+ */
+@RestController
+@RequestMapping("/tank")
+public class TablaAforoController {
+
+    private final TablaAforoService tablaAforoService;
+
+    public TablaAforoController(TablaAforoService tablaAforoService) {
+        this.tablaAforoService = tablaAforoService;
+    }
+
+    /**
+     * Endpoint to create or replace a table of a tank.
+     *
+     * @param id the ID of the tank
+     * @param tipo PRINCIPAL for the volume at each level, FRACCIONAL for the barrels per millimetre between levels
+     * @param tablaAforoDTO the rows of the table, by columns
+     * @return a ResponseEntity containing the saved table, or a 404 Not Found status if the tank does not exist
+     */
+    @PutMapping("/{id}/aforo/{tipo}")
+    public ResponseEntity<TablaAforoDTO> guardarTabla(@PathVariable("id") Long id, @PathVariable("tipo") TipoTablaAforo tipo,
+                                                      @RequestBody @Valid TablaAforoDTO tablaAforoDTO) {
+        return ResponseEntity.of(this.tablaAforoService.guardarTabla(id, tipo, tablaAforoDTO));
+    }
+
+    /**
+     * Endpoint to get a table of a tank.
+     *
+     * @return a ResponseEntity containing the table, or a 404 Not Found status if the tank has no table of that type
+     */
+    @GetMapping("/{id}/aforo/{tipo}")
+    public ResponseEntity<TablaAforoDTO> findTabla(@PathVariable("id") Long id, @PathVariable("tipo") TipoTablaAforo tipo) {
+        return ResponseEntity.of(this.tablaAforoService.findTabla(id, tipo));
+    }
+
+    @DeleteMapping("/{id}/aforo/{tipo}")
+    public ResponseEntity eliminarTabla(@PathVariable("id") Long id, @PathVariable("tipo") TipoTablaAforo tipo) {
+        this.tablaAforoService.eliminarTabla(id, tipo);
+        return ResponseEntity.ok().build();
+    }
+
+    /**
+     * Endpoint to get the Total Observed Volume of many gauges, of one or several tanks, in one call.
+     *
+     * @param consulta the tank and gauge of each reading, by columns
+     * @return a ResponseEntity containing the volume of each reading and whether it is in the critical zone
+     */
+    @PostMapping("/aforo/volumenes")
+    public ResponseEntity<OutDTOConsultaAforo> consultar(@RequestBody @Valid InDTOConsultaAforo consulta) {
+        return ResponseEntity.ok(this.tablaAforoService.consultar(consulta));
+    }
+}
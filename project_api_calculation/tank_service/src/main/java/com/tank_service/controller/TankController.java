@@ -5,6 +5,7 @@ import com.tank_service.persistence.entity.Tank;
 import com.tank_service.service.TankService;
 import com.tank_service.service.dto.InDTOTank;
 import com.tank_service.service.dto.OutDTOTank;
+import com.tank_service.service.dto.PaginaDTO;
 //import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
@@ -21,6 +22,7 @@ import org.springframework.web.util.UriComponentsBuilder;
 import javax.validation.Valid;
 import java.net.URI;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
@@ -56,6 +58,22 @@ public class TankController {
 
     }
 
+    /**
+     * Endpoint to get the tanks page by page, ordered by ID, without counting them. Each page starts after the last
+     * tank of the previous one, so it is read in the same time wherever it is.
+     *
+     * @param tamano the number of tanks in the page, at most {@link TankService#MAXIMO_PAGINA}
+     * @param token the token returned with the previous page, absent for the first one
+     * @return a ResponseEntity containing the page and the token of the next one
+     */
+    @GetMapping("/siguientes")
+    public ResponseEntity<PaginaDTO<OutDTOTank>> findSiguientes(@RequestParam(name = "size", defaultValue = "20") int tamano,
+                                                                @RequestParam(required = false) String token){
+
+        return ResponseEntity.ok(this.tankService.findSiguientes(token, tamano).map(outDTOToTank::map));
+
+    }
+
 
     @GetMapping("/byId/{id}")
     public ResponseEntity<Optional<Tank>> findById(@PathVariable("id") Long id){
@@ -69,6 +87,19 @@ public class TankController {
 
     }
 
+    /**
+     * Endpoint to get many tanks in one call, for the services that would otherwise ask for them one by one.
+     *
+     * @param ids the IDs of the tanks
+     * @return a ResponseEntity containing the tanks that exist, the missing IDs are left out
+     */
+    @PostMapping("/byIds")
+    public ResponseEntity<List<Tank>> findAllById(@RequestBody List<Long> ids){
+
+        return ResponseEntity.ok(this.tankService.findAllById(ids));
+
+    }
+
     @PutMapping("/update/{id}")
     public ResponseEntity<Tank> update(@PathVariable("id") Long id, @RequestBody @Valid InDTOTank inDTOTank){
         Tank updatedTank = tankService.findById(id).get();
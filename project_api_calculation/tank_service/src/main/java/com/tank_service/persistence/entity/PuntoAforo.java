@@ -0,0 +1,26 @@
+package com.tank_service.persistence.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Column;
+import javax.persistence.Embeddable;
+import java.io.Serializable;
+
+/**
+ * Fila de una tabla de aforo: nivel en milimetros y volumen en barriles (o barriles por milimetro en la
+ * tabla fraccional).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Embeddable
+public class PuntoAforo implements Serializable {
+
+    private static final long serialVersionUID = 1234567891234567896L;
+    @Column(name = "nivel", nullable = false)
+    private double nivel;
+    @Column(name = "volumen", nullable = false)
+    private double volumen;
+}
@@ -0,0 +1,31 @@
+package com.tank_service.persistence.entity;
+
+import lombok.Data;
+
+import javax.persistence.*;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Entity
+@Table(name = "tablas_aforo", uniqueConstraints = @UniqueConstraint(columnNames = {"idtank", "tipo"}))
+public class TablaAforo implements Serializable {
+
+    private static final long serialVersionUID = 1234567891234567895L;
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    @ManyToOne(optional = false)
+    @JoinColumn(name = "idtank", nullable = false)
+    private Tank tank;
+    @Enumerated(EnumType.STRING)
+    @Column(name = "tipo", nullable = false)
+    private TipoTablaAforo tipo;
+    @ElementCollection(fetch = FetchType.EAGER)
+    @CollectionTable(name = "puntos_aforo", joinColumns = @JoinColumn(name = "idtabla"))
+    @OrderBy("nivel")
+    private List<PuntoAforo> puntos = new ArrayList<>();
+
+
+}
@@ -2,12 +2,16 @@ package com.tank_service.persistence.entity;
 
 //import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import javax.persistence.*;
 import java.io.Serializable;
 
 @Data
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "tanks")
 @Table(name = "tanks")
 public class Tank implements Serializable {
 
@@ -0,0 +1,17 @@
+package com.tank_service.persistence.entity;
+
+/**
+ * Tipos de tabla de aforo de un tanque.
+ */
+public enum TipoTablaAforo {
+
+    /**
+     * Volume of the tank at each level, in barrels.
+     */
+    PRINCIPAL,
+
+    /**
+     * Incremental volume in barrels per millimetre from each level on, used between the levels of the main table.
+     */
+    FRACCIONAL
+}
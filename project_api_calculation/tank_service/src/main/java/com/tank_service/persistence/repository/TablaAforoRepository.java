@@ -0,0 +1,19 @@
+package com.tank_service.persistence.repository;
+
+import com.tank_service.persistence.entity.TablaAforo;
+import com.tank_service.persistence.entity.TipoTablaAforo;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface TablaAforoRepository extends JpaRepository<TablaAforo, Long> {
+
+    List<TablaAforo> findByTankId(Long idTank);
+
+    Optional<TablaAforo> findByTankIdAndTipo(Long idTank, TipoTablaAforo tipo);
+
+    @Transactional
+    void deleteByTankId(Long idTank);
+}
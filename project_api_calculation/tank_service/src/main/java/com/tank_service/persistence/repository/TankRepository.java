@@ -1,7 +1,25 @@
 package com.tank_service.persistence.repository;
 
 import com.tank_service.persistence.entity.Tank;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import javax.persistence.QueryHint;
+import java.util.List;
 
 public interface TankRepository extends JpaRepository<Tank, Long> {
+
+    /**
+     * Finds the tanks with the given IDs, keeping the IDs of the result in the query cache until a tank changes.
+     */
+    @Override
+    @QueryHints(@QueryHint(name = org.hibernate.annotations.QueryHints.CACHEABLE, value = "true"))
+    List<Tank> findAllById(Iterable<Long> ids);
+
+    /**
+     * Finds the tanks after an ID, without counting them.
+     */
+    Slice<Tank> findByIdGreaterThan(Long id, Pageable paginacion);
 }
@@ -0,0 +1,65 @@
+package com.tank_service.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Sends the {@link TankModificadoEvent} to every instance of {@code tank-cache.servicio} registered in Eureka,
+ * so they discard the tank from their local cache. The notices are sent in the background, one instance at a
+ * time, and a notice that fails is only logged: the instance fetches the tank again when its cache entry
+ * gets old.
+ */
+@Component
+public class NotificadorTankCache {
+
+    private static final Logger log = LoggerFactory.getLogger(NotificadorTankCache.class);
+
+    private final DiscoveryClient discoveryClient;
+    private final RestTemplate restTemplate;
+    private final String servicio;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    public NotificadorTankCache(DiscoveryClient discoveryClient, RestTemplateBuilder restTemplateBuilder,
+                                @Value("${tank-cache.servicio:ms-liquidacion}") String servicio,
+                                @Value("${tank-cache.timeout:2000}") long timeout) {
+        this.discoveryClient = discoveryClient;
+        this.restTemplate = restTemplateBuilder
+                .setConnectTimeout(Duration.ofMillis(timeout))
+                .setReadTimeout(Duration.ofMillis(timeout))
+                .build();
+        this.servicio = servicio;
+    }
+
+    @EventListener
+    public void tankModificado(TankModificadoEvent evento) {
+        executor.execute(() -> notificar(evento.getIdTank()));
+    }
+
+    private void notificar(Long idTank) {
+        for (ServiceInstance instancia : discoveryClient.getInstances(servicio)) {
+            try {
+                restTemplate.delete(instancia.getUri() + "/tank-cache/{id}", idTank);
+            } catch (RestClientException e) {
+                log.warn("No se pudo avisar a {} del cambio del tanque {}: {}", instancia.getUri(), idTank, e.getMessage());
+            }
+        }
+    }
+
+    @PreDestroy
+    public void cerrar() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,195 @@
+package com.tank_service.service;
+
+import com.compartido.util.TablaAforoIndice;
+import com.tank_service.persistence.entity.PuntoAforo;
+import com.tank_service.persistence.entity.TablaAforo;
+import com.tank_service.persistence.entity.Tank;
+import com.tank_service.persistence.entity.TipoTablaAforo;
+import com.tank_service.persistence.repository.TablaAforoRepository;
+import com.tank_service.persistence.repository.TankRepository;
+import com.tank_service.service.dto.InDTOConsultaAforo;
+import com.tank_service.service.dto.OutDTOConsultaAforo;
+import com.tank_service.service.dto.TablaAforoDTO;
+import com.tank_service.util.TablaAforoArchivo;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Service for the strapping tables of the tanks. The tables are read from the database once per tank and
+ * kept in memory as a {@link TablaAforoIndice}, which is discarded whenever the tables or the tank change.
+ * The large tables can be given instead in the binary file {@code aforo.archivo}, which is memory mapped at
+ * startup; a main table saved in the database takes precedence over the one of the file.
+ */
+@Service
+public class TablaAforoService {
+
+    private final TablaAforoRepository tablaAforoRepository;
+    private final TankRepository tankRepository;
+    private final TablaAforoArchivo tablaAforoArchivo;
+    private final Map<Long, TablaAforoIndice> indices = new ConcurrentHashMap<>();
+
+    public TablaAforoService(TablaAforoRepository tablaAforoRepository, TankRepository tankRepository,
+                             @Value("${aforo.archivo:}") String archivo) {
+        this.tablaAforoRepository = tablaAforoRepository;
+        this.tankRepository = tankRepository;
+        try {
+            this.tablaAforoArchivo = archivo.isBlank() ? null : TablaAforoArchivo.abrir(Paths.get(archivo));
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo leer el archivo de tablas de aforo " + archivo, e);
+        }
+    }
+
+    /**
+     * Method to create or replace a table of a tank.
+     *
+     * @param idTank the ID of the tank
+     * @param tipo the type of table
+     * @param tablaAforoDTO the rows of the table
+     * @return the saved table, or empty if the tank does not exist
+     * @throws IllegalArgumentException if the table is not valid
+     */
+    public Optional<TablaAforoDTO> guardarTabla(Long idTank, TipoTablaAforo tipo, TablaAforoDTO tablaAforoDTO) {
+        if (tipo == TipoTablaAforo.PRINCIPAL) {
+            TablaAforoIndice.validarPrincipal(tablaAforoDTO.getNivel(), tablaAforoDTO.getVolumen());
+        } else {
+            TablaAforoIndice.validarFraccional(tablaAforoDTO.getNivel(), tablaAforoDTO.getVolumen());
+        }
+
+        Optional<Tank> tank = this.tankRepository.findById(idTank);
+        if (tank.isEmpty()) {
+            return Optional.empty();
+        }
+        TablaAforo tabla = this.tablaAforoRepository.findByTankIdAndTipo(idTank, tipo).orElseGet(TablaAforo::new);
+        tabla.setTank(tank.get());
+        tabla.setTipo(tipo);
+        tabla.getPuntos().clear();
+        for (int i = 0; i < tablaAforoDTO.getNivel().length; i++) {
+            tabla.getPuntos().add(new PuntoAforo(tablaAforoDTO.getNivel()[i], tablaAforoDTO.getVolumen()[i]));
+        }
+        this.tablaAforoRepository.save(tabla);
+
+        invalidar(idTank);
+        return Optional.of(tablaAforoDTO);
+    }
+
+    /**
+     * Method to get a table of a tank.
+     *
+     * @param idTank the ID of the tank
+     * @param tipo the type of table
+     * @return the rows of the table, or empty if the tank has no table of that type
+     */
+    public Optional<TablaAforoDTO> findTabla(Long idTank, TipoTablaAforo tipo) {
+        return this.tablaAforoRepository.findByTankIdAndTipo(idTank, tipo).map(tabla -> {
+            List<PuntoAforo> puntos = tabla.getPuntos();
+            TablaAforoDTO tablaAforoDTO = new TablaAforoDTO();
+            tablaAforoDTO.setNivel(puntos.stream().mapToDouble(PuntoAforo::getNivel).toArray());
+            tablaAforoDTO.setVolumen(puntos.stream().mapToDouble(PuntoAforo::getVolumen).toArray());
+            return tablaAforoDTO;
+        });
+    }
+
+    /**
+     * Method to delete a table of a tank.
+     */
+    public void eliminarTabla(Long idTank, TipoTablaAforo tipo) {
+        this.tablaAforoRepository.findByTankIdAndTipo(idTank, tipo).ifPresent(this.tablaAforoRepository::delete);
+        invalidar(idTank);
+    }
+
+    /**
+     * Method to delete every table of a tank, before deleting the tank.
+     */
+    public void eliminarTablas(Long idTank) {
+        this.tablaAforoRepository.deleteByTankId(idTank);
+        invalidar(idTank);
+    }
+
+    /**
+     * Method to discard the tables kept in memory of a tank, so the next lookup reads them again.
+     */
+    public void invalidar(Long idTank) {
+        this.indices.remove(idTank);
+    }
+
+    /**
+     * Method to get the strapping table of a tank ready for lookups.
+     *
+     * @param idTank the ID of the tank
+     * @return the table, or empty if the tank has no main table in the database or in the binary file
+     */
+    public Optional<TablaAforoIndice> indice(Long idTank) {
+        return Optional.ofNullable(this.indices.computeIfAbsent(idTank, this::construirIndice));
+    }
+
+    /**
+     * Method to get the Total Observed Volume of a batch of gauges, of one or several tanks.
+     *
+     * @param consulta the tank and gauge of each reading
+     * @return the volume of each reading and whether it is in the critical zone of its tank
+     * @throws IllegalArgumentException if a tank has no main table or a gauge is outside its table
+     */
+    public OutDTOConsultaAforo consultar(InDTOConsultaAforo consulta) {
+        long[] idTank = consulta.getIdTank();
+        double[] gauge = consulta.getGauge();
+        if (gauge.length != idTank.length) {
+            throw new IllegalArgumentException("Todas las columnas del lote deben tener " + idTank.length + " lecturas");
+        }
+
+        double[] tov = new double[idTank.length];
+        boolean[] zonaCritica = new boolean[idTank.length];
+        TablaAforoIndice indice = null;
+        for (int i = 0; i < idTank.length; i++) {
+            // Consecutive readings of the same tank reuse the table
+            if (i == 0 || idTank[i] != idTank[i - 1]) {
+                long id = idTank[i];
+                indice = indice(id).orElseThrow(
+                        () -> new IllegalArgumentException("El tanque " + id + " no tiene tabla de aforo"));
+            }
+            tov[i] = indice.volumen(gauge[i]);
+            zonaCritica[i] = indice.enZonaCritica(gauge[i]);
+        }
+
+        OutDTOConsultaAforo resultado = new OutDTOConsultaAforo();
+        resultado.setTov(tov);
+        resultado.setZonaCritica(zonaCritica);
+        return resultado;
+    }
+
+    private TablaAforoIndice construirIndice(Long idTank) {
+        TablaAforo principal = null;
+        TablaAforo fraccional = null;
+        for (TablaAforo tabla : this.tablaAforoRepository.findByTankId(idTank)) {
+            if (tabla.getTipo() == TipoTablaAforo.PRINCIPAL) {
+                principal = tabla;
+            } else {
+                fraccional = tabla;
+            }
+        }
+        if (principal == null) {
+            if (this.tablaAforoArchivo == null) {
+                return null;
+            }
+            return this.tankRepository.findById(idTank)
+                    .flatMap(tank -> this.tablaAforoArchivo.indice(idTank, tank.getInicioZonaCritica(), tank.getFinalZonaCritica()))
+                    .orElse(null);
+        }
+
+        Tank tank = principal.getTank();
+        return new TablaAforoIndice(
+                principal.getPuntos().stream().mapToDouble(PuntoAforo::getNivel).toArray(),
+                principal.getPuntos().stream().mapToDouble(PuntoAforo::getVolumen).toArray(),
+                fraccional == null ? null : fraccional.getPuntos().stream().mapToDouble(PuntoAforo::getNivel).toArray(),
+                fraccional == null ? null : fraccional.getPuntos().stream().mapToDouble(PuntoAforo::getVolumen).toArray(),
+                tank.getInicioZonaCritica(),
+                tank.getFinalZonaCritica());
+    }
+}
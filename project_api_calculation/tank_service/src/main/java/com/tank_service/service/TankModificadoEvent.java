@@ -0,0 +1,18 @@
+package com.tank_service.service;
+
+/**
+ * Event published by {@link TankService} after a tank is updated or deleted, so the copies of the tank kept
+ * by other services can be discarded.
+ */
+public class TankModificadoEvent {
+
+    private final Long idTank;
+
+    public TankModificadoEvent(Long idTank) {
+        this.idTank = idTank;
+    }
+
+    public Long getIdTank() {
+        return idTank;
+    }
+}
@@ -1,26 +1,51 @@
 package com.tank_service.service;
 
+import com.compartido.util.TokenContinuacion;
 import com.tank_service.Mapper.InDTOToTank;
 import com.tank_service.persistence.entity.Tank;
 import com.tank_service.persistence.repository.TankRepository;
 import com.tank_service.service.dto.InDTOTank;
+import com.tank_service.service.dto.PaginaDTO;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 public class TankService {
 
+    /**
+     * Maximum number of tanks that can be retrieved by id in one call.
+     */
+    public static final int MAXIMO_POR_CONSULTA = 1000;
+
+    /**
+     * Maximum number of tanks in a page of {@link #findSiguientes(String, int)}.
+     */
+    public static final int MAXIMO_PAGINA = 100;
+
     private final TankRepository tankReposotory;
     private InDTOToTank inDTOToTank;
+    private final TablaAforoService tablaAforoService;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public TankService(TankRepository repository, InDTOToTank inDTOToTank){
+    public TankService(TankRepository repository, InDTOToTank inDTOToTank, TablaAforoService tablaAforoService,
+                       ApplicationEventPublisher eventPublisher){
 
         this.tankReposotory = repository;
         this.inDTOToTank= inDTOToTank;
+        this.tablaAforoService = tablaAforoService;
+        this.eventPublisher = eventPublisher;
     }
 
     public Tank createTank(InDTOTank inDTOTank){
@@ -37,16 +62,59 @@ public class TankService {
         return this.tankReposotory.findAll(paginacion);
     }
 
+    /**
+     * Method to get the tanks after the ones of the previous page, ordered by ID, without counting them.
+     *
+     * @param token the token returned with the previous page, or {@code null} for the first one
+     * @param tamano the number of tanks in the page, at most {@link #MAXIMO_PAGINA}
+     * @return the page, with the token of the next one if there are more
+     * @throws IllegalArgumentException if the token or the size are not valid
+     */
+    public PaginaDTO<Tank> findSiguientes(String token, int tamano) {
+        TokenContinuacion.validarTamano(tamano, MAXIMO_PAGINA);
+        long desde = token == null ? 0 : Long.parseLong(TokenContinuacion.leer(token, 1)[0]);
+
+        Slice<Tank> pagina = this.tankReposotory.findByIdGreaterThan(desde, PageRequest.of(0, tamano, Sort.by("id")));
+
+        List<Tank> contenido = pagina.getContent();
+        String siguiente = pagina.hasNext() ? TokenContinuacion.crear(contenido.get(contenido.size() - 1).getId()) : null;
+        return new PaginaDTO<>(contenido, siguiente);
+    }
+
 
     public Optional<Tank> findById(Long id){
         return this.tankReposotory.findById(id);
     }
 
-    public Tank updateTank(Tank tank){ return this.tankReposotory.save(tank);
+    /**
+     * Method to get many tanks with a single query.
+     *
+     * @param ids the IDs of the tanks, repeated ones are returned once
+     * @return the tanks that exist, in no particular order
+     * @throws IllegalArgumentException if more than {@link #MAXIMO_POR_CONSULTA} tanks are asked
+     */
+    public List<Tank> findAllById(Collection<Long> ids){
+        Set<Long> distintos = new HashSet<>(ids);
+        if (distintos.size() > MAXIMO_POR_CONSULTA) {
+            throw new IllegalArgumentException("Se pueden consultar maximo " + MAXIMO_POR_CONSULTA + " tanques por llamada");
+        }
+        distintos.remove(null);
+        return distintos.isEmpty() ? Collections.emptyList() : this.tankReposotory.findAllById(distintos);
+    }
+
+    public Tank updateTank(Tank tank){
+        Tank updatedTank = this.tankReposotory.save(tank);
+        // The critical zone is kept with the strapping tables in memory
+        this.tablaAforoService.invalidar(updatedTank.getId());
+        // The services that keep a copy of the tank are notified by NotificadorTankCache
+        this.eventPublisher.publishEvent(new TankModificadoEvent(updatedTank.getId()));
+        return updatedTank;
     }
 
     public void deleteTank(Long id){
+        this.tablaAforoService.eliminarTablas(id);
         this.tankReposotory.deleteById(id);
+        this.eventPublisher.publishEvent(new TankModificadoEvent(id));
 
     }
 
@@ -0,0 +1,20 @@
+package com.tank_service.service.dto;
+
+import lombok.Data;
+
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+
+/**
+ * Lote de lecturas de nivel por columnas: la posicion i de cada arreglo corresponde a la misma lectura.
+ */
+@Data
+public class InDTOConsultaAforo {
+
+    @NotNull(message = "Campo vacio, debe enviarlo")
+    @Size(max = 100000, message = "El lote debe tener maximo 100000 lecturas")
+    private long[] idTank;
+    @NotNull(message = "Campo vacio, debe enviarlo")
+    @Size(max = 100000, message = "El lote debe tener maximo 100000 lecturas")
+    private double[] gauge;
+}
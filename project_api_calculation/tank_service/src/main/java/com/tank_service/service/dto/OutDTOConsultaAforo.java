@@ -0,0 +1,13 @@
+package com.tank_service.service.dto;
+
+import lombok.Data;
+
+/**
+ * Volumenes de un lote de lecturas de nivel, en el mismo orden de {@link InDTOConsultaAforo}.
+ */
+@Data
+public class OutDTOConsultaAforo {
+
+    private double[] tov;
+    private boolean[] zonaCritica;
+}
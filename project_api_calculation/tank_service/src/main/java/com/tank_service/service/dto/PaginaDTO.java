@@ -0,0 +1,27 @@
+package com.tank_service.service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Pagina de un listado por cursor: el contenido y el token para pedir la siguiente, o {@code null} si es la ultima.
+ */
+@Data
+@AllArgsConstructor
+public class PaginaDTO<T> {
+
+    private List<T> contenido;
+    private String siguiente;
+
+    /**
+     * Converts the content of the page, keeping the token of the next one.
+     */
+    public <R> PaginaDTO<R> map(Function<? super T, ? extends R> conversor) {
+        return new PaginaDTO<>(contenido.stream().map(conversor).collect(Collectors.toList()), siguiente);
+    }
+
+}
@@ -0,0 +1,18 @@
+package com.tank_service.service.dto;
+
+import lombok.Data;
+
+import javax.validation.constraints.NotNull;
+
+/**
+ * Tabla de aforo por columnas: la posicion i de cada arreglo corresponde a la misma fila. En la tabla principal
+ * el volumen esta en barriles y en la fraccional en barriles por milimetro.
+ */
+@Data
+public class TablaAforoDTO {
+
+    @NotNull(message = "Campo vacio, debe enviarlo")
+    private double[] nivel;
+    @NotNull(message = "Campo vacio, debe enviarlo")
+    private double[] volumen;
+}
@@ -0,0 +1,337 @@
+package com.tank_service.util;
+
+import com.compartido.util.TablaAforoIndice;
+import com.tank_service.persistence.entity.TipoTablaAforo;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+/**
+ * @author Abelardo Orozco
+ * Archivo binario de tablas de aforo de muchos tanques, leido con un mapeo en memoria de solo lectura.
+ *
+ * <p>Las tablas con resolucion de milimetros tienen decenas de miles de filas por tanque, asi que en vez de
+ * cargarlas como entidades se guardan en un archivo con este formato (big endian):</p>
+ * <pre>
+ * encabezado  int magic "AFOR", int version, int numero de tanques, int reservado
+ * indice      por tanque, ordenado por id: long idTank, long posicion de sus filas, int filas principal, int filas fraccional
+ * filas       por tanque: filas de la tabla principal y luego de la fraccional, cada una double nivel, double volumen
+ * </pre>
+ * <p>El tanque se busca con busqueda binaria en el indice y sus tablas se consultan como vistas del mapeo, sin
+ * copiarlas al heap; el sistema operativo carga las paginas a medida que se leen. El archivo se genera y se
+ * exporta desde CSV con {@link #importarCsv(Path, Path)} y {@link #exportarCsv(Path, Path)}, tambien desde la
+ * linea de comandos con {@link #main(String[])}.</p>
+ */
+public final class TablaAforoArchivo {
+
+    static final int MAGIC = 0x41464F52;
+    static final int VERSION = 1;
+    static final int TAMANO_ENCABEZADO = 16;
+    static final int TAMANO_ENTRADA = 24;
+    static final int TAMANO_FILA = TablaAforoIndice.ANCHO_FILA * Double.BYTES;
+
+    private static final String ENCABEZADO_CSV = "idTank,tipo,nivel,volumen";
+
+    private final MappedByteBuffer mapa;
+    private final int tanques;
+
+    private TablaAforoArchivo(MappedByteBuffer mapa, int tanques) {
+        this.mapa = mapa;
+        this.tanques = tanques;
+    }
+
+    /**
+     * Method to map a file in memory and check its header and index. The rows are checked when the table of
+     * each tank is first used.
+     *
+     * @param archivo Path of the file
+     * @return the mapped file
+     * @throws IOException if the file can not be read
+     * @throws IllegalArgumentException if the file does not have the format
+     */
+    public static TablaAforoArchivo abrir(Path archivo) throws IOException {
+        MappedByteBuffer mapa;
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ)) {
+            if (canal.size() > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("El archivo de tablas de aforo no puede superar 2 GB: " + archivo);
+            }
+            // The mapping stays valid after closing the channel
+            mapa = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+        }
+
+        if (mapa.capacity() < TAMANO_ENCABEZADO || mapa.getInt(0) != MAGIC || mapa.getInt(4) != VERSION) {
+            throw new IllegalArgumentException("El archivo no es una tabla de aforo version " + VERSION + ": " + archivo);
+        }
+        int tanques = mapa.getInt(8);
+        if (tanques < 0 || TAMANO_ENCABEZADO + (long) tanques * TAMANO_ENTRADA > mapa.capacity()) {
+            throw new IllegalArgumentException("El indice del archivo de tablas de aforo esta incompleto: " + archivo);
+        }
+        for (int t = 0; t < tanques; t++) {
+            int entrada = TAMANO_ENCABEZADO + t * TAMANO_ENTRADA;
+            long posicion = mapa.getLong(entrada + 8);
+            long filas = (long) mapa.getInt(entrada + 16) + mapa.getInt(entrada + 20);
+            if (t > 0 && mapa.getLong(entrada) <= mapa.getLong(entrada - TAMANO_ENTRADA)) {
+                throw new IllegalArgumentException("El indice del archivo de tablas de aforo no esta ordenado: " + archivo);
+            }
+            if (posicion < 0 || posicion % Double.BYTES != 0 || filas < 0 || posicion + filas * TAMANO_FILA > mapa.capacity()) {
+                throw new IllegalArgumentException("Las filas del tanque " + mapa.getLong(entrada)
+                        + " estan fuera del archivo de tablas de aforo: " + archivo);
+            }
+        }
+        return new TablaAforoArchivo(mapa, tanques);
+    }
+
+    /**
+     * Method to get the tables of a tank, read directly from the mapping.
+     *
+     * @param idTank the ID of the tank
+     * @param inicioZonaCritica Level where the critical zone of the tank starts
+     * @param finalZonaCritica Level where the critical zone of the tank ends
+     * @return the tables of the tank, or empty if the file does not have them
+     * @throws IllegalArgumentException if the tables of the tank are not valid
+     */
+    public Optional<TablaAforoIndice> indice(long idTank, double inicioZonaCritica, double finalZonaCritica) {
+        int entrada = buscar(idTank);
+        if (entrada < 0) {
+            return Optional.empty();
+        }
+        int posicion = (int) mapa.getLong(entrada + 8);
+        int filasPrincipal = mapa.getInt(entrada + 16);
+        int filasFraccion = mapa.getInt(entrada + 20);
+        return Optional.of(new TablaAforoIndice(
+                vista(posicion, filasPrincipal),
+                vista(posicion + filasPrincipal * TAMANO_FILA, filasFraccion),
+                inicioZonaCritica, finalZonaCritica));
+    }
+
+    /**
+     * Method to get the IDs of the tanks in the file, in increasing order.
+     */
+    public long[] getTanques() {
+        long[] ids = new long[tanques];
+        for (int t = 0; t < tanques; t++) {
+            ids[t] = mapa.getLong(TAMANO_ENCABEZADO + t * TAMANO_ENTRADA);
+        }
+        return ids;
+    }
+
+    /**
+     * Method to convert a CSV with the columns idTank, tipo (PRINCIPAL or FRACCIONAL), nivel and volumen to a
+     * binary file. The rows of each table must be in increasing order of level, and the tables of the tanks
+     * can be in any order.
+     *
+     * @param csv Path of the CSV, with or without header
+     * @param archivo Path of the binary file to write
+     * @return the number of tanks written
+     * @throws IOException if a file can not be read or written
+     * @throws IllegalArgumentException if a row can not be read or a table is not valid
+     */
+    public static int importarCsv(Path csv, Path archivo) throws IOException {
+        Map<Long, Columnas[]> tablas = new TreeMap<>();
+        try (BufferedReader lector = Files.newBufferedReader(csv, StandardCharsets.UTF_8)) {
+            String linea;
+            int numero = 0;
+            while ((linea = lector.readLine()) != null) {
+                numero++;
+                if (linea.isBlank() || (numero == 1 && linea.trim().equalsIgnoreCase(ENCABEZADO_CSV))) {
+                    continue;
+                }
+                String[] campos = linea.split(",");
+                try {
+                    if (campos.length != 4) {
+                        throw new IllegalArgumentException("se esperaban 4 columnas");
+                    }
+                    long idTank = Long.parseLong(campos[0].trim());
+                    TipoTablaAforo tipo = TipoTablaAforo.valueOf(campos[1].trim().toUpperCase());
+                    Columnas[] tabla = tablas.computeIfAbsent(idTank, id -> new Columnas[TipoTablaAforo.values().length]);
+                    if (tabla[tipo.ordinal()] == null) {
+                        tabla[tipo.ordinal()] = new Columnas();
+                    }
+                    tabla[tipo.ordinal()].agregar(Double.parseDouble(campos[2].trim()), Double.parseDouble(campos[3].trim()));
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException("Linea " + numero + " del CSV invalida: " + e.getMessage(), e);
+                }
+            }
+        }
+
+        try (DataOutputStream salida = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(archivo), 1 << 16))) {
+            escribir(tablas, salida);
+        }
+        return tablas.size();
+    }
+
+    /**
+     * Method to convert a binary file to a CSV with the columns idTank, tipo, nivel and volumen.
+     *
+     * @param archivo Path of the binary file
+     * @param csv Path of the CSV to write
+     * @throws IOException if a file can not be read or written
+     */
+    public static void exportarCsv(Path archivo, Path csv) throws IOException {
+        TablaAforoArchivo tablas = abrir(archivo);
+        try (BufferedWriter escritor = Files.newBufferedWriter(csv, StandardCharsets.UTF_8)) {
+            escritor.write(ENCABEZADO_CSV);
+            escritor.newLine();
+            for (int t = 0; t < tablas.tanques; t++) {
+                int entrada = TAMANO_ENCABEZADO + t * TAMANO_ENTRADA;
+                long idTank = tablas.mapa.getLong(entrada);
+                int posicion = (int) tablas.mapa.getLong(entrada + 8);
+                int filasPrincipal = tablas.mapa.getInt(entrada + 16);
+                escribirCsv(escritor, idTank, TipoTablaAforo.PRINCIPAL, tablas.vista(posicion, filasPrincipal));
+                escribirCsv(escritor, idTank, TipoTablaAforo.FRACCIONAL,
+                        tablas.vista(posicion + filasPrincipal * TAMANO_FILA, tablas.mapa.getInt(entrada + 20)));
+            }
+        }
+    }
+
+    /**
+     * Command line tool to convert between CSV and the binary format. Inside the packaged application it runs with
+     * {@code java -cp app.jar -Dloader.main=com.tank_service.util.TablaAforoArchivo org.springframework.boot.loader.PropertiesLauncher}
+     * followed by {@code importar <csv> <archivo>} or {@code exportar <archivo> <csv>}.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length == 3 && args[0].equals("importar")) {
+            int tanques = importarCsv(Paths.get(args[1]), Paths.get(args[2]));
+            System.out.println("Tablas de aforo de " + tanques + " tanques escritas en " + args[2]);
+        } else if (args.length == 3 && args[0].equals("exportar")) {
+            exportarCsv(Paths.get(args[1]), Paths.get(args[2]));
+            System.out.println("Tablas de aforo escritas en " + args[2]);
+        } else {
+            System.err.println("Uso: importar <csv> <archivo> | exportar <archivo> <csv>");
+            System.exit(2);
+        }
+    }
+
+    /**
+     * Method to find the index entry of a tank with binary search.
+     *
+     * @return the position of the entry, or -1 if the tank is not in the file
+     */
+    private int buscar(long idTank) {
+        int bajo = 0;
+        int alto = tanques - 1;
+        while (bajo <= alto) {
+            int medio = (bajo + alto) >>> 1;
+            int entrada = TAMANO_ENCABEZADO + medio * TAMANO_ENTRADA;
+            long id = mapa.getLong(entrada);
+            if (id < idTank) {
+                bajo = medio + 1;
+            } else if (id > idTank) {
+                alto = medio - 1;
+            } else {
+                return entrada;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Method to get the rows of a table as a view of the mapping.
+     */
+    private DoubleBuffer vista(int posicion, int filas) {
+        ByteBuffer vista = mapa.duplicate();
+        vista.position(posicion).limit(posicion + filas * TAMANO_FILA);
+        return vista.slice().asDoubleBuffer();
+    }
+
+    private static void escribir(Map<Long, Columnas[]> tablas, DataOutputStream salida) throws IOException {
+        salida.writeInt(MAGIC);
+        salida.writeInt(VERSION);
+        salida.writeInt(tablas.size());
+        salida.writeInt(0);
+
+        long posicion = TAMANO_ENCABEZADO + (long) tablas.size() * TAMANO_ENTRADA;
+        for (Map.Entry<Long, Columnas[]> tabla : tablas.entrySet()) {
+            Columnas principal = tabla.getValue()[TipoTablaAforo.PRINCIPAL.ordinal()];
+            Columnas fraccional = tabla.getValue()[TipoTablaAforo.FRACCIONAL.ordinal()];
+            if (principal == null) {
+                throw new IllegalArgumentException("El tanque " + tabla.getKey() + " no tiene tabla principal");
+            }
+            try {
+                TablaAforoIndice.validarPrincipal(principal.niveles(), principal.volumenes());
+                if (fraccional != null) {
+                    TablaAforoIndice.validarFraccional(fraccional.niveles(), fraccional.volumenes());
+                }
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Tanque " + tabla.getKey() + ": " + e.getMessage(), e);
+            }
+            int filasFraccion = fraccional == null ? 0 : fraccional.filas;
+            salida.writeLong(tabla.getKey());
+            salida.writeLong(posicion);
+            salida.writeInt(principal.filas);
+            salida.writeInt(filasFraccion);
+            posicion += (long) (principal.filas + filasFraccion) * TAMANO_FILA;
+        }
+        if (posicion > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("El archivo de tablas de aforo no puede superar 2 GB");
+        }
+
+        for (Columnas[] tabla : tablas.values()) {
+            for (Columnas columnas : tabla) {
+                if (columnas != null) {
+                    for (int i = 0; i < columnas.filas; i++) {
+                        salida.writeDouble(columnas.datos[i * TablaAforoIndice.ANCHO_FILA]);
+                        salida.writeDouble(columnas.datos[i * TablaAforoIndice.ANCHO_FILA + 1]);
+                    }
+                }
+            }
+        }
+    }
+
+    private static void escribirCsv(BufferedWriter escritor, long idTank, TipoTablaAforo tipo, DoubleBuffer tabla) throws IOException {
+        for (int i = 0; i < tabla.remaining(); i += TablaAforoIndice.ANCHO_FILA) {
+            escritor.write(idTank + "," + tipo + "," + tabla.get(i) + "," + tabla.get(i + 1));
+            escritor.newLine();
+        }
+    }
+
+    /**
+     * Rows of a table while reading the CSV, growing as needed.
+     */
+    private static final class Columnas {
+
+        private double[] datos = new double[64];
+        private int filas;
+
+        void agregar(double nivel, double volumen) {
+            if ((filas + 1) * TablaAforoIndice.ANCHO_FILA > datos.length) {
+                datos = Arrays.copyOf(datos, datos.length * 2);
+            }
+            datos[filas * TablaAforoIndice.ANCHO_FILA] = nivel;
+            datos[filas * TablaAforoIndice.ANCHO_FILA + 1] = volumen;
+            filas++;
+        }
+
+        double[] niveles() {
+            double[] niveles = new double[filas];
+            for (int i = 0; i < filas; i++) {
+                niveles[i] = datos[i * TablaAforoIndice.ANCHO_FILA];
+            }
+            return niveles;
+        }
+
+        double[] volumenes() {
+            double[] volumenes = new double[filas];
+            for (int i = 0; i < filas; i++) {
+                volumenes[i] = datos[i * TablaAforoIndice.ANCHO_FILA + 1];
+            }
+            return volumenes;
+        }
+    }
+}
@@ -2,4 +2,8 @@ INSERT INTO tanks (nombretk, capacidadnominal, iniciozonacritica, finalzonacriti
 INSERT INTO tanks (nombretk, capacidadnominal, iniciozonacritica, finalzonacritica, templamina, fra1, fra2) VALUES('502', 350000, 1420, 2441, 60, 22, 12.21);
 INSERT INTO tanks (nombretk, capacidadnominal, iniciozonacritica, finalzonacritica, templamina, fra1, fra2) VALUES('503', 550000, 1620, 2641, 60, 28, 12.21);
 INSERT INTO tanks (nombretk, capacidadnominal, iniciozonacritica, finalzonacritica, templamina, fra1, fra2) VALUES('504', 650000, 1720, 2741, 60, 32, 12.21);
-INSERT INTO tanks (nombretk, capacidadnominal, iniciozonacritica, finalzonacritica, templamina, fra1, fra2) VALUES('505', 250000, 1220, 2241, 60, 17, 12.21);
\ No newline at end of file
+INSERT INTO tanks (nombretk, capacidadnominal, iniciozonacritica, finalzonacritica, templamina, fra1, fra2) VALUES('505', 250000, 1220, 2241, 60, 17, 12.21);
+INSERT INTO tablas_aforo (idtank, tipo) VALUES(1, 'PRINCIPAL');
+INSERT INTO tablas_aforo (idtank, tipo) VALUES(1, 'FRACCIONAL');
+INSERT INTO puntos_aforo (idtabla, nivel, volumen) VALUES(1, 0, 0.00), (1, 1000, 28050.00), (1, 2000, 56100.00), (1, 3000, 84170.00), (1, 4000, 112240.00), (1, 5000, 140330.00), (1, 6000, 168420.00), (1, 7000, 196530.00), (1, 8000, 224640.00), (1, 9000, 252770.00), (1, 10000, 280900.00), (1, 11000, 309050.00), (1, 12000, 337200.00), (1, 13000, 365370.00), (1, 14000, 393540.00), (1, 15000, 421730.00), (1, 16000, 449920.00);
+INSERT INTO puntos_aforo (idtabla, nivel, volumen) VALUES(2, 0, 28.05), (2, 2000, 28.07), (2, 4000, 28.09), (2, 6000, 28.11), (2, 8000, 28.13), (2, 10000, 28.15), (2, 12000, 28.17), (2, 14000, 28.19);
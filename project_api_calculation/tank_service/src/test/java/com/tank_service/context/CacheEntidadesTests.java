@@ -0,0 +1,62 @@
+package com.tank_service.context;
+
+import com.tank_service.persistence.entity.Tank;
+import com.tank_service.service.TankService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {
+		"eureka.client.enabled=false",
+		"spring.datasource.url=jdbc:h2:mem:tanks-cache;DB_CLOSE_ON_EXIT=FALSE"})
+class CacheEntidadesTests {
+
+	@Autowired
+	private TankService tankService;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Test
+	void leeLosTanquesDeLaCache() {
+		double antes = aciertos("hibernate.tanks");
+		for (int i = 0; i < 3; i++) {
+			assertTrue(tankService.findById(2L).isPresent());
+		}
+
+		assertTrue(aciertos("hibernate.tanks") - antes >= 2);
+		assertTrue(meterRegistry.get("cache.aciertos").tag("cache", "hibernate.tanks").gauge().value() > 0);
+	}
+
+	@Test
+	void guardaLasConsultasPorIds() {
+		double antes = aciertos("hibernate.default-query-results-region");
+		tankService.findAllById(List.of(3L, 4L));
+		tankService.findAllById(List.of(3L, 4L));
+
+		assertTrue(aciertos("hibernate.default-query-results-region") - antes >= 1);
+	}
+
+	@Test
+	void actualizaLaCacheAlEditarElTanque() {
+		tankService.findById(5L);
+		tankService.findAllById(List.of(5L));
+
+		Tank tank = tankService.findById(5L).get();
+		tank.setCapacidadNominal(123456);
+		tankService.updateTank(tank);
+
+		assertEquals(123456, tankService.findById(5L).get().getCapacidadNominal());
+		assertEquals(123456, tankService.findAllById(List.of(5L)).get(0).getCapacidadNominal());
+	}
+
+	private double aciertos(String cache) {
+		return meterRegistry.get("cache.gets").tag("cache", cache).tag("result", "hit").functionCounter().count();
+	}
+}
@@ -0,0 +1,73 @@
+package com.tank_service.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * El listado por cursor recorre los tanques de import.sql.
+ */
+@SpringBootTest(properties = {
+		"eureka.client.enabled=false",
+		"spring.datasource.url=jdbc:h2:mem:tanks-cursor;DB_CLOSE_ON_EXIT=FALSE"})
+@AutoConfigureMockMvc
+class TankControllerTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Test
+	void recorreLosTanquesPorPaginas() throws Exception {
+		List<String> nombres = new ArrayList<>();
+		String token = null;
+		int paginas = 0;
+		do {
+			MockHttpServletRequestBuilder peticion = get("/tank/siguientes").param("size", "2");
+			if (token != null) {
+				peticion.param("token", token);
+			}
+			String cuerpo = mockMvc.perform(peticion)
+					.andExpect(status().isOk())
+					.andReturn().getResponse().getContentAsString();
+			JsonNode pagina = objectMapper.readTree(cuerpo);
+			pagina.get("contenido").forEach(tank -> nombres.add(tank.get("nombreTk").asText()));
+			token = pagina.get("siguiente").textValue();
+			paginas++;
+		} while (token != null);
+
+		assertEquals(List.of("501", "502", "503", "504", "505"), nombres);
+		assertEquals(3, paginas);
+	}
+
+	@Test
+	void laUltimaPaginaNoTieneToken() throws Exception {
+		mockMvc.perform(get("/tank/siguientes"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.contenido[4].nombreTk").value("505"))
+				.andExpect(jsonPath("$.siguiente").doesNotExist());
+	}
+
+	@Test
+	void rechazaTokensYTamanosInvalidos() throws Exception {
+		mockMvc.perform(get("/tank/siguientes").param("token", "no-es-un-token"))
+				.andExpect(status().isBadRequest());
+		mockMvc.perform(get("/tank/siguientes").param("size", "0"))
+				.andExpect(status().isBadRequest());
+	}
+}
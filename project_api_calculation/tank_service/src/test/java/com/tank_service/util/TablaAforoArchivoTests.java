@@ -0,0 +1,117 @@
+package com.tank_service.util;
+
+import com.compartido.util.TablaAforoIndice;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TablaAforoArchivoTests {
+
+	private static final int FILAS = 20001;
+
+	@TempDir
+	Path directorio;
+
+	@Test
+	void consultasIgualQueTablaEnMemoria() throws IOException {
+		Random random = new Random(3);
+		List<String> csv = new ArrayList<>();
+		csv.add("idTank,tipo,nivel,volumen");
+		double[][] niveles = new double[3][FILAS];
+		double[][] volumenes = new double[3][FILAS];
+		// Tanks out of order in the CSV, only tank 7 has a fractional table
+		long[] ids = {12, 7, 501};
+		for (int t = 0; t < ids.length; t++) {
+			double volumen = random.nextDouble() * 50;
+			for (int i = 0; i < FILAS; i++) {
+				volumen += 20 + random.nextDouble() * 10;
+				niveles[t][i] = i;
+				volumenes[t][i] = volumen;
+				csv.add(ids[t] + ",PRINCIPAL," + niveles[t][i] + "," + volumenes[t][i]);
+			}
+		}
+		csv.add("7,FRACCIONAL,0,27.5");
+		csv.add("7,fraccional,10000.0,28.25");
+		Path entrada = Files.write(directorio.resolve("tablas.csv"), csv, StandardCharsets.UTF_8);
+		Path archivo = directorio.resolve("tablas.bin");
+
+		assertEquals(3, TablaAforoArchivo.importarCsv(entrada, archivo));
+		TablaAforoArchivo tablas = TablaAforoArchivo.abrir(archivo);
+		assertArrayEquals(new long[]{7, 12, 501}, tablas.getTanques());
+		assertFalse(tablas.indice(8, 0, 0).isPresent());
+
+		for (int t = 0; t < ids.length; t++) {
+			TablaAforoIndice mapeada = tablas.indice(ids[t], 1520, 2541).get();
+			TablaAforoIndice enMemoria = ids[t] == 7
+					? new TablaAforoIndice(niveles[t], volumenes[t], new double[]{0, 10000}, new double[]{27.5, 28.25}, 1520, 2541)
+					: new TablaAforoIndice(niveles[t], volumenes[t], null, null, 1520, 2541);
+			assertEquals(0, mapeada.getNivelMinimo());
+			assertEquals(FILAS - 1, mapeada.getNivelMaximo());
+			for (int i = 0; i < 5000; i++) {
+				double nivel = random.nextDouble() * (FILAS - 1);
+				assertEquals(enMemoria.volumen(nivel), mapeada.volumen(nivel));
+			}
+			assertEquals(volumenes[t][FILAS - 1], mapeada.volumen(FILAS - 1));
+			assertTrue(mapeada.enZonaCritica(2000));
+		}
+	}
+
+	@Test
+	void exportarEImportarConservaLasTablas() throws IOException {
+		Path entrada = Files.write(directorio.resolve("tablas.csv"), List.of(
+				"501,PRINCIPAL,0,0", "501,PRINCIPAL,1000,28050.125", "501,FRACCIONAL,0,28.05",
+				"3,PRINCIPAL,0.5,0.1", "3,PRINCIPAL,2.5,0.30000000000000004"), StandardCharsets.UTF_8);
+		Path archivo = directorio.resolve("tablas.bin");
+		TablaAforoArchivo.importarCsv(entrada, archivo);
+
+		Path salida = directorio.resolve("exportada.csv");
+		TablaAforoArchivo.exportarCsv(archivo, salida);
+		assertEquals(List.of("idTank,tipo,nivel,volumen",
+				"3,PRINCIPAL,0.5,0.1", "3,PRINCIPAL,2.5,0.30000000000000004",
+				"501,PRINCIPAL,0.0,0.0", "501,PRINCIPAL,1000.0,28050.125", "501,FRACCIONAL,0.0,28.05"),
+				Files.readAllLines(salida, StandardCharsets.UTF_8));
+
+		Path copia = directorio.resolve("copia.bin");
+		TablaAforoArchivo.importarCsv(salida, copia);
+		assertArrayEquals(Files.readAllBytes(archivo), Files.readAllBytes(copia));
+	}
+
+	@Test
+	void archivosYTablasInvalidosRechazados() throws IOException {
+		Path archivo = directorio.resolve("tablas.bin");
+		Path decreciente = Files.write(directorio.resolve("decreciente.csv"),
+				List.of("1,PRINCIPAL,0,10", "1,PRINCIPAL,1000,5"), StandardCharsets.UTF_8);
+		assertThrows(IllegalArgumentException.class, () -> TablaAforoArchivo.importarCsv(decreciente, archivo));
+		Path sinPrincipal = Files.write(directorio.resolve("sinPrincipal.csv"),
+				List.of("1,FRACCIONAL,0,10"), StandardCharsets.UTF_8);
+		assertThrows(IllegalArgumentException.class, () -> TablaAforoArchivo.importarCsv(sinPrincipal, archivo));
+		Path columnas = Files.write(directorio.resolve("columnas.csv"),
+				List.of("1,PRINCIPAL,0"), StandardCharsets.UTF_8);
+		assertThrows(IllegalArgumentException.class, () -> TablaAforoArchivo.importarCsv(columnas, archivo));
+
+		Files.write(archivo, "idTank,tipo,nivel,volumen".getBytes(StandardCharsets.UTF_8));
+		assertThrows(IllegalArgumentException.class, () -> TablaAforoArchivo.abrir(archivo));
+
+		// Index pointing past the end of the file
+		ByteBuffer truncado = ByteBuffer.allocate(TablaAforoArchivo.TAMANO_ENCABEZADO + TablaAforoArchivo.TAMANO_ENTRADA)
+				.putInt(TablaAforoArchivo.MAGIC).putInt(TablaAforoArchivo.VERSION).putInt(1).putInt(0)
+				.putLong(1).putLong(40).putInt(2).putInt(0);
+		Files.write(archivo, truncado.array());
+		assertThrows(IllegalArgumentException.class, () -> TablaAforoArchivo.abrir(archivo));
+	}
+
+}
@@ -0,0 +1,84 @@
+package com.tank_service.util;
+
+import com.compartido.util.TablaAforoIndice;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TablaAforoIndiceTests {
+
+	private static final double[] NIVELES = {0, 1000, 2000, 3000, 4000};
+	private static final double[] VOLUMENES = {0, 28050, 56100, 84170, 112240};
+
+	@Test
+	void nivelesDeLaTablaSinInterpolar() {
+		TablaAforoIndice indice = new TablaAforoIndice(NIVELES, VOLUMENES, null, null, 1520, 2541);
+		for (int i = 0; i < NIVELES.length; i++) {
+			assertEquals(VOLUMENES[i], indice.volumen(NIVELES[i]));
+		}
+	}
+
+	@Test
+	void interpolacionLinealSinTablaFraccional() {
+		TablaAforoIndice indice = new TablaAforoIndice(NIVELES, VOLUMENES, null, null, 1520, 2541);
+		assertEquals(14025, indice.volumen(500), 1e-9);
+		assertEquals(56100 + 28070 * 0.25, indice.volumen(2250), 1e-9);
+		assertEquals(112240 - 28.07, indice.volumen(3999), 1e-9);
+	}
+
+	@Test
+	void tablaFraccionalEntreNiveles() {
+		// The fractional table only covers from 2000 mm, below it the main table is interpolated
+		TablaAforoIndice indice = new TablaAforoIndice(NIVELES, VOLUMENES, new double[]{2000, 3000}, new double[]{28.06, 28.08}, 1520, 2541);
+		assertEquals(14025, indice.volumen(500), 1e-9);
+		assertEquals(56100 + 28.06 * 7.5, indice.volumen(2007.5), 1e-9);
+		assertEquals(84170 + 28.08 * 999, indice.volumen(3999), 1e-9);
+		assertEquals(84170, indice.volumen(3000));
+	}
+
+	@Test
+	void loteIgualQueConsultaIndividual() {
+		TablaAforoIndice indice = new TablaAforoIndice(NIVELES, VOLUMENES, new double[]{0}, new double[]{28.05}, 1520, 2541);
+		double[] niveles = new double[4001];
+		for (int i = 0; i < niveles.length; i++) {
+			niveles[i] = i;
+		}
+		double[] volumenes = new double[niveles.length];
+		indice.volumenes(niveles, volumenes, 0, niveles.length);
+		for (int i = 0; i < niveles.length; i++) {
+			assertEquals(indice.volumen(niveles[i]), volumenes[i]);
+		}
+	}
+
+	@Test
+	void zonaCritica() {
+		TablaAforoIndice indice = new TablaAforoIndice(NIVELES, VOLUMENES, null, null, 1520, 2541);
+		assertFalse(indice.enZonaCritica(1519.9));
+		assertTrue(indice.enZonaCritica(1520));
+		assertTrue(indice.enZonaCritica(2541));
+		assertFalse(indice.enZonaCritica(2541.1));
+	}
+
+	@Test
+	void tablasYNivelesInvalidosRechazados() {
+		TablaAforoIndice indice = new TablaAforoIndice(NIVELES, VOLUMENES, null, null, 1520, 2541);
+		assertThrows(IllegalArgumentException.class, () -> indice.volumen(-0.1));
+		assertThrows(IllegalArgumentException.class, () -> indice.volumen(4000.1));
+		assertThrows(IllegalArgumentException.class, () -> indice.volumen(Double.NaN));
+
+		assertThrows(IllegalArgumentException.class,
+				() -> new TablaAforoIndice(new double[]{0, 1000, 1000}, new double[]{0, 1, 2}, null, null, 0, 0));
+		assertThrows(IllegalArgumentException.class,
+				() -> new TablaAforoIndice(new double[]{0, 1000}, new double[]{5, 1}, null, null, 0, 0));
+		assertThrows(IllegalArgumentException.class,
+				() -> new TablaAforoIndice(new double[]{0}, new double[]{0}, null, null, 0, 0));
+		assertThrows(IllegalArgumentException.class,
+				() -> new TablaAforoIndice(NIVELES, VOLUMENES, new double[]{0}, new double[]{-1}, 0, 0));
+		assertThrows(IllegalArgumentException.class,
+				() -> new TablaAforoIndice(NIVELES, VOLUMENES, new double[]{0, 1}, new double[]{1}, 0, 0));
+	}
+
+}